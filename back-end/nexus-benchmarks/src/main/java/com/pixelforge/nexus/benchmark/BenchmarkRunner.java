@@ -0,0 +1,137 @@
+package com.pixelforge.nexus.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the benchmarks with the GC and CPU time profilers and compares them with the committed baseline
+ * Both the score and the bytes allocated per operation are compared, and the run exits with
+ * status 1 when either got worse by more than the threshold, so it can gate a build.
+ * Arguments are benchmark name patterns (all benchmarks when there are none). System properties:
+ * baseline.file (baseline/jmh-baseline.json), baseline.threshold (0.10), baseline.update (false,
+ * true replaces the baseline with this run) and result.file (target/jmh-result.json).
+ */
+public final class BenchmarkRunner {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    // Allocation differences below this many bytes per operation are noise
+    private static final double ALLOCATION_SLACK_BYTES = 8;
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path resultFile = Paths.get(System.getProperty("result.file", "target/jmh-result.json"));
+        Path baselineFile = Paths.get(System.getProperty("baseline.file", "baseline/jmh-baseline.json"));
+        double threshold = Double.parseDouble(System.getProperty("baseline.threshold", "0.10"));
+        boolean update = Boolean.getBoolean("baseline.update");
+
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .addProfiler(GCProfiler.class)
+                .addProfiler(CpuTimeProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile.toString());
+        for (String pattern : args) {
+            options.include(pattern);
+        }
+        new Runner(options.build()).run();
+
+        if (update) {
+            if (baselineFile.getParent() != null) {
+                Files.createDirectories(baselineFile.getParent());
+            }
+            Files.copy(resultFile, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline at " + baselineFile + "; run with -Dbaseline.update=true to record one");
+            return;
+        }
+
+        List<String> regressions = compare(read(baselineFile), read(resultFile), threshold);
+        if (!regressions.isEmpty()) {
+            System.out.println();
+            System.out.println(regressions.size() + " regression(s) beyond " + Math.round(threshold * 100)
+                    + "% of the baseline:");
+            regressions.forEach(regression -> System.out.println("  " + regression));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Print every benchmark next to its baseline and collect the ones that got worse
+     */
+    private static List<String> compare(Map<String, JsonNode> baseline, Map<String, JsonNode> current,
+                                        double threshold) {
+        List<String> regressions = new ArrayList<>();
+        System.out.println();
+        System.out.printf("%-70s %14s %14s %8s %12s %12s%n",
+                "Benchmark", "Baseline", "Current", "Change", "B/op base", "B/op now");
+        current.forEach((key, result) -> {
+            JsonNode base = baseline.get(key);
+            double score = result.at("/primaryMetric/score").asDouble();
+            double allocation = allocation(result);
+            if (base == null) {
+                System.out.printf("%-70s %14s %14.3f %8s %12s %12.1f%n", key, "-", score, "new", "-", allocation);
+                return;
+            }
+            double baseScore = base.at("/primaryMetric/score").asDouble();
+            double baseAllocation = allocation(base);
+            // Throughput is better when higher, every other mode when lower
+            double change = (score - baseScore) / baseScore;
+            double slowdown = "thrpt".equals(result.path("mode").asText()) ? -change : change;
+            System.out.printf("%-70s %14.3f %14.3f %+7.1f%% %12.1f %12.1f%n",
+                    key, baseScore, score, change * 100, baseAllocation, allocation);
+
+            if (slowdown > threshold) {
+                regressions.add(String.format("%s: %.3f -> %.3f %s", key, baseScore, score,
+                        result.at("/primaryMetric/scoreUnit").asText()));
+            }
+            if (allocation - baseAllocation > Math.max(baseAllocation * threshold, ALLOCATION_SLACK_BYTES)) {
+                regressions.add(String.format("%s: %.1f -> %.1f B/op allocated", key, baseAllocation, allocation));
+            }
+        });
+        return regressions;
+    }
+
+    private static double allocation(JsonNode result) {
+        return result.at("/secondaryMetrics/" + ALLOCATION + "/score").asDouble(0);
+    }
+
+    /**
+     * Read a JMH JSON result, keyed by benchmark name and parameters
+     */
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            fields.forEachRemaining(field -> params.put(field.getKey(), field.getValue().asText()));
+            String name = result.path("benchmark").asText().replace("com.pixelforge.nexus.", "");
+            results.put(params.isEmpty() ? name : name + params, result);
+        }
+        return results;
+    }
+}
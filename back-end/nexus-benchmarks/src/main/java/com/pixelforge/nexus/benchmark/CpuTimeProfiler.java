@@ -0,0 +1,60 @@
+package com.pixelforge.nexus.benchmark;
+
+import com.sun.management.OperatingSystemMXBean;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reports the CPU time of the benchmark process per operation, in user and kernel mode
+ * cpu.time.norm is CPU nanoseconds per operation. Benchmarks with a bytes parameter, the bytes moved
+ * by one operation, also get cpu.time.per.gb: CPU milliseconds per GiB moved. Process time includes
+ * the JIT and GC threads, so it is meant for comparing benchmarks that move data, not tiny operations.
+ */
+public class CpuTimeProfiler implements InternalProfiler {
+
+    private static final double BYTES_PER_GB = 1024.0 * 1024 * 1024;
+
+    private final OperatingSystemMXBean os =
+            (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private long startCpuNanos;
+
+    @Override
+    public String getDescription() {
+        return "Process CPU time per operation";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        startCpuNanos = os.getProcessCpuTime();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long cpuNanos = os.getProcessCpuTime() - startCpuNanos;
+        long ops = result.getMetadata().getAllOps();
+        List<Result> results = new ArrayList<>();
+        if (ops == 0 || cpuNanos < 0) {
+            return results;
+        }
+
+        double perOp = (double) cpuNanos / ops;
+        results.add(new ScalarResult("cpu.time.norm", perOp, "ns/op", AggregationPolicy.AVG));
+        String bytes = benchmarkParams.getParam("bytes");
+        if (bytes != null) {
+            double perGb = perOp / 1_000_000.0 * BYTES_PER_GB / Long.parseLong(bytes);
+            results.add(new ScalarResult("cpu.time.per.gb", perGb, "ms/GB", AggregationPolicy.AVG));
+        }
+        return results;
+    }
+}
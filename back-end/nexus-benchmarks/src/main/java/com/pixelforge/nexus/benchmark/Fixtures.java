@@ -0,0 +1,140 @@
+package com.pixelforge.nexus.benchmark;
+
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.DocumentVersionRepository;
+import com.pixelforge.nexus.service.StorageQuotaService;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Entities and collaborators for the benchmarks, built without a Spring context or a database
+ * Repositories are stubbed with proxies that answer every query with an empty result, so the
+ * measured code is the service logic itself rather than a mocking framework.
+ */
+public final class Fixtures {
+
+    private static final long LEAD_ID = 1L;
+    private static final long FIRST_DEVELOPER_ID = 1000L;
+
+    private static final Map<Class<?>, Object> EMPTY_RESULTS = Map.of(
+            long.class, 0L,
+            int.class, 0,
+            boolean.class, false,
+            List.class, List.of(),
+            Set.class, Set.of(),
+            Optional.class, Optional.empty()
+    );
+
+    private Fixtures() {
+    }
+
+    /**
+     * Create a user
+     * @param id User ID
+     * @param role Role
+     * @return User
+     */
+    public static User user(long id, Role role) {
+        User user = new User("user" + id, "user" + id + "@pixelforge.dev", "{noop}password",
+                "First" + id, "Last" + id, role);
+        user.setId(id);
+        return user;
+    }
+
+    /**
+     * Create an active project led by a project lead
+     * @param id Project ID
+     * @param teamSize Number of assigned developers, with IDs counting up from 1000
+     * @return Project
+     */
+    public static Project project(long id, int teamSize) {
+        Project project = new Project("Project " + id, "Benchmark fixture project number " + id,
+                LocalDate.now().plusDays(30), user(LEAD_ID, Role.PROJECT_LEAD));
+        project.setId(id);
+        project.setCreatedAt(LocalDateTime.now().minusDays(7));
+        Set<User> developers = new HashSet<>();
+        for (int i = 0; i < teamSize; i++) {
+            developers.add(user(FIRST_DEVELOPER_ID + i, Role.DEVELOPER));
+        }
+        project.setAssignedDevelopers(developers);
+        return project;
+    }
+
+    /**
+     * ID of the last developer added to a project of the given team size
+     * @param teamSize Team size
+     * @return Developer ID
+     */
+    public static long lastDeveloperId(int teamSize) {
+        return FIRST_DEVELOPER_ID + teamSize - 1;
+    }
+
+    /**
+     * Create a document in a project
+     * @param id Document ID
+     * @param project Project
+     * @param fileSize File size in bytes
+     * @return Document
+     */
+    public static Document document(long id, Project project, long fileSize) {
+        Document document = new Document("stored-" + id + ".pdf", "design-notes-" + id + ".pdf",
+                "ab/cd/stored-" + id + ".pdf", fileSize, "application/pdf", project, project.getLead());
+        document.setId(id);
+        document.setDescription("Benchmark fixture document number " + id);
+        document.setDetectedContentType("application/pdf");
+        return document;
+    }
+
+    /**
+     * Create a quota service whose usage counters start at zero
+     * @return Storage quota service
+     */
+    public static StorageQuotaService storageQuotaService() {
+        StorageQuotaService service = new StorageQuotaService();
+        inject(service, "documentRepository", stub(DocumentRepository.class));
+        inject(service, "documentVersionRepository", stub(DocumentVersionRepository.class));
+        inject(service, "defaultProjectQuota", DataSize.ofGigabytes(10));
+        inject(service, "defaultUserQuota", DataSize.ofGigabytes(5));
+        return service;
+    }
+
+    /**
+     * Create a repository that answers every query with zero, an empty collection or null
+     * @param type Repository interface
+     * @return Stub repository
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> EMPTY_RESULTS.get(method.getReturnType()));
+    }
+
+    /**
+     * Set a field the way Spring would inject it
+     * @param target Object to inject into
+     * @param name Field name
+     * @param value Value
+     */
+    public static void inject(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + name + " on " + target.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,44 @@
+package com.pixelforge.nexus.entity;
+
+import com.pixelforge.nexus.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File size formatting, done for every document in a listing
+ * One size per unit, since bytes skip String.format and the others do not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentBenchmark {
+
+    @Param({"512", "1536000", "52428800"})
+    private long fileSize;
+
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        document = Fixtures.document(1L, Fixtures.project(1L, 0), fileSize);
+    }
+
+    @Benchmark
+    public String formattedFileSize() {
+        return document.getFormattedFileSize();
+    }
+}
@@ -0,0 +1,78 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.benchmark.Fixtures;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project access checks, run once per project or document a developer touches
+ * A developer's check scans the assigned developers, so it is measured across team sizes for
+ * a member found last and for an outsider, who always costs a full scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessCheckBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int teamSize;
+
+    private ProjectService projectService;
+    private DocumentService documentService;
+    private Project project;
+    private User member;
+    private User outsider;
+    private User lead;
+
+    @Setup
+    public void setUp() {
+        projectService = new ProjectService();
+        documentService = new DocumentService();
+        project = Fixtures.project(1L, teamSize);
+        member = Fixtures.user(Fixtures.lastDeveloperId(teamSize), Role.DEVELOPER);
+        outsider = Fixtures.user(-1L, Role.DEVELOPER);
+        lead = project.getLead();
+    }
+
+    @Benchmark
+    public boolean projectMember() {
+        return projectService.hasAccessToProject(project, member);
+    }
+
+    @Benchmark
+    public boolean projectOutsider() {
+        return projectService.hasAccessToProject(project, outsider);
+    }
+
+    @Benchmark
+    public boolean projectLead() {
+        return projectService.hasAccessToProject(project, lead);
+    }
+
+    @Benchmark
+    public boolean documentMember() {
+        return documentService.hasAccessToProject(project, member);
+    }
+
+    @Benchmark
+    public boolean documentOutsider() {
+        return documentService.hasAccessToProject(project, outsider);
+    }
+}
@@ -0,0 +1,63 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.benchmark.Fixtures;
+import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.dto.ProjectResponseDTO;
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO conversion done for every project and document in a response
+ * The project count and storage usage come from stubs and warm counters, as in steady state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+
+    @Param({"0", "10", "100"})
+    private int teamSize;
+
+    private ProjectService projectService;
+    private DocumentService documentService;
+    private Project project;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        projectService = new ProjectService();
+        Fixtures.inject(projectService, "documentRepository", Fixtures.stub(DocumentRepository.class));
+        Fixtures.inject(projectService, "storageQuotaService", Fixtures.storageQuotaService());
+        documentService = new DocumentService();
+
+        project = Fixtures.project(1L, teamSize);
+        document = Fixtures.document(1L, project, 1_536_000L);
+    }
+
+    @Benchmark
+    public ProjectResponseDTO convertProject() {
+        return projectService.convertToResponseDTO(project);
+    }
+
+    @Benchmark
+    public DocumentResponseDTO convertDocument() {
+        return documentService.convertToResponseDTO(document);
+    }
+}
@@ -0,0 +1,79 @@
+package com.pixelforge.nexus.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pixelforge.nexus.benchmark.Fixtures;
+import com.pixelforge.nexus.dto.DocumentPageDTO;
+import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.dto.ProjectResponseDTO;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON writing of the largest responses: the project list and a page of documents
+ * The DTOs come from the services' own conversion, and the mapper is configured like the one
+ * Spring Boot builds for the controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "50"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<ProjectResponseDTO> projects;
+    private DocumentPageDTO documentPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        ProjectService projectService = new ProjectService();
+        Fixtures.inject(projectService, "documentRepository", Fixtures.stub(DocumentRepository.class));
+        Fixtures.inject(projectService, "storageQuotaService", Fixtures.storageQuotaService());
+        DocumentService documentService = new DocumentService();
+
+        projects = new ArrayList<>(size);
+        List<DocumentResponseDTO> documents = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Project project = Fixtures.project(i, 10);
+            projects.add(projectService.convertToResponseDTO(project));
+            documents.add(documentService.convertToResponseDTO(Fixtures.document(i, project, 1_536_000L)));
+        }
+        documentPage = new DocumentPageDTO(documents, "MjAyNi0xMC0xOVQxMjowMDowMHw1MA");
+    }
+
+    @Benchmark
+    public byte[] projectList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(projects);
+    }
+
+    @Benchmark
+    public byte[] documentPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(documentPage);
+    }
+}
@@ -0,0 +1,279 @@
+package com.pixelforge.nexus.web;
+
+import com.pixelforge.nexus.benchmark.Fixtures;
+import com.pixelforge.nexus.service.DocumentDownload;
+import com.pixelforge.nexus.storage.ContentCache;
+import com.pixelforge.nexus.storage.LocalShardedStorageBackend;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Document downloads from local disk to a loopback socket, against the stream copy they replaced
+ * streamCopy is the old path: an InputStream copied through an 8KB buffer, as Spring's resource
+ * converters do (StreamUtils.copyRange for ranges). writer runs DocumentDownloadWriter without
+ * sendfile, so it copies the file into the response stream itself; sendfile runs it with sendfile
+ * support and then moves the bytes with FileChannel.transferTo into the socket, as Tomcat's NIO
+ * connector does. Full downloads send the whole file; ranged ones send a window of the same size from
+ * the middle of a file twice as large. Run with the CpuTimeProfiler for the CPU time per GB moved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DownloadBenchmark {
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // Bytes sent per download
+    @Param({"1048576", "67108864"})
+    private long bytes;
+
+    private Path directory;
+    private LocalShardedStorageBackend backend;
+    private DocumentDownloadWriter writer;
+    private DocumentDownload full;
+    private DocumentDownload ranged;
+    private String range;
+    private long rangeStart;
+
+    private ServerSocketChannel server;
+    private SocketChannel socket;
+    private Thread drain;
+    private ServletOutputStream responseBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("nexus-download-benchmark");
+        backend = new LocalShardedStorageBackend(directory.resolve("store"));
+        full = store("0123456789abcdef-full", bytes);
+        ranged = store("0123456789abcdef-ranged", 2 * bytes);
+        // Not page aligned, like most requested ranges
+        rangeStart = bytes / 2 + 123;
+        range = "bytes=" + rangeStart + "-" + (rangeStart + bytes - 1);
+
+        writer = new DocumentDownloadWriter();
+        Fixtures.inject(writer, "contentCache", new ContentCache(false, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64)));
+        Fixtures.inject(writer, "sendfileThreshold", DataSize.ofKilobytes(48));
+        Fixtures.inject(writer, "cacheMaxAge", Duration.ofDays(365));
+
+        // The client end reads and discards everything
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        socket = SocketChannel.open(server.getLocalAddress());
+        SocketChannel client = server.accept();
+        drain = new Thread(() -> {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+            try (client) {
+                while (client.read(buffer.clear()) >= 0) {
+                    // Discard
+                }
+            } catch (IOException ex) {
+                // Closed at tear down
+            }
+        }, "download-benchmark-drain");
+        drain.setDaemon(true);
+        drain.start();
+        responseBody = new SocketOutputStream(socket);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        socket.close();
+        drain.join(TimeUnit.SECONDS.toMillis(5));
+        server.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void fullStreamCopy() throws IOException {
+        try (InputStream in = Files.newInputStream(localPath(full))) {
+            StreamUtils.copy(in, responseBody);
+        }
+        responseBody.flush();
+    }
+
+    @Benchmark
+    public void fullWriter() throws IOException {
+        writer.write(full, request(null, false), response());
+    }
+
+    @Benchmark
+    public void fullSendfile() throws IOException {
+        sendfile(full, null);
+    }
+
+    @Benchmark
+    public void rangeStreamCopy() throws IOException {
+        try (InputStream in = Files.newInputStream(localPath(ranged))) {
+            StreamUtils.copyRange(in, responseBody, rangeStart, rangeStart + bytes - 1);
+        }
+        responseBody.flush();
+    }
+
+    @Benchmark
+    public void rangeWriter() throws IOException {
+        writer.write(ranged, request(range, false), response());
+    }
+
+    @Benchmark
+    public void rangeSendfile() throws IOException {
+        sendfile(ranged, range);
+    }
+
+    /**
+     * Let the writer hand the body to sendfile, then send the file window it chose
+     */
+    private void sendfile(DocumentDownload download, String rangeHeader) throws IOException {
+        HttpServletRequest request = request(rangeHeader, true);
+        writer.write(download, request, response());
+        long position = (Long) request.getAttribute(SENDFILE_START_ATTR);
+        long end = (Long) request.getAttribute(SENDFILE_END_ATTR);
+        try (FileChannel channel = FileChannel.open(Paths.get((String) request.getAttribute(SENDFILE_FILENAME_ATTR)),
+                StandardOpenOption.READ)) {
+            while (position < end) {
+                position += channel.transferTo(position, end - position, socket);
+            }
+        }
+    }
+
+    private DocumentDownload store(String key, long size) throws IOException {
+        Path file = directory.resolve(key);
+        byte[] block = new byte[64 * 1024];
+        new Random(size).nextBytes(block);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += block.length) {
+                out.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+        backend.put(key, file);
+        return new DocumentDownload(backend, key, size, null, size, "application/octet-stream",
+                key + ".bin", System.currentTimeMillis(), "\"" + key + "\"", true);
+    }
+
+    private Path localPath(DocumentDownload download) {
+        return download.getLocalPath().orElseThrow();
+    }
+
+    private HttpServletRequest request(String rangeHeader, boolean sendfileSupport) {
+        Map<String, Object> attributes = new HashMap<>();
+        if (sendfileSupport) {
+            attributes.put(SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+        }
+        return proxy(HttpServletRequest.class, (method, args) -> switch (method) {
+            case "getMethod" -> "GET";
+            case "getHeader" -> "Range".equalsIgnoreCase((String) args[0]) ? rangeHeader : null;
+            case "getAttribute" -> attributes.get((String) args[0]);
+            case "setAttribute" -> attributes.put((String) args[0], args[1]);
+            default -> null;
+        });
+    }
+
+    private HttpServletResponse response() {
+        return proxy(HttpServletResponse.class, (method, args) -> switch (method) {
+            case "getOutputStream" -> responseBody;
+            case "flushBuffer" -> {
+                responseBody.flush();
+                yield null;
+            }
+            default -> null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws IOException;
+    }
+
+    /**
+     * Servlet API object answering the calls the writer makes; the rest are ignored
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result = handler.invoke(method.getName(), args);
+                    return method.getReturnType() == void.class ? null : result;
+                });
+    }
+
+    /**
+     * Response body buffered like the container's, over a blocking socket
+     */
+    private static final class SocketOutputStream extends ServletOutputStream {
+
+        private final OutputStream out;
+
+        private SocketOutputStream(SocketChannel socket) {
+            this.out = new BufferedOutputStream(Channels.newOutputStream(socket), 8 * 1024);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
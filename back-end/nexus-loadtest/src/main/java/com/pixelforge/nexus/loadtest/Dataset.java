@@ -0,0 +1,86 @@
+package com.pixelforge.nexus.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Users, projects and documents created by the seeder, saved so later runs can reuse them
+ */
+public class Dataset {
+
+    private String password;
+    private List<SeededUser> users = new ArrayList<>();
+    private List<SeededProject> projects = new ArrayList<>();
+
+    public Dataset() {}
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public List<SeededUser> getUsers() { return users; }
+    public void setUsers(List<SeededUser> users) { this.users = users; }
+
+    public List<SeededProject> getProjects() { return projects; }
+    public void setProjects(List<SeededProject> projects) { this.projects = projects; }
+
+    public int countDocuments() {
+        return projects.stream().mapToInt(project -> project.getDocumentIds().size()).sum();
+    }
+
+    /**
+     * A seeded user and the projects they can see
+     */
+    public static class SeededUser {
+
+        private Long id;
+        private String username;
+        private String role;
+        private List<Long> projectIds = new ArrayList<>();
+
+        public SeededUser() {}
+
+        public SeededUser(Long id, String username, String role) {
+            this.id = id;
+            this.username = username;
+            this.role = role;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
+
+        public List<Long> getProjectIds() { return projectIds; }
+        public void setProjectIds(List<Long> projectIds) { this.projectIds = projectIds; }
+    }
+
+    /**
+     * A seeded project, its lead and its documents
+     */
+    public static class SeededProject {
+
+        private Long id;
+        private String leadUsername;
+        private List<Long> documentIds = new ArrayList<>();
+
+        public SeededProject() {}
+
+        public SeededProject(Long id, String leadUsername) {
+            this.id = id;
+            this.leadUsername = leadUsername;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getLeadUsername() { return leadUsername; }
+        public void setLeadUsername(String leadUsername) { this.leadUsername = leadUsername; }
+
+        public List<Long> getDocumentIds() { return documentIds; }
+        public void setDocumentIds(List<Long> documentIds) { this.documentIds = documentIds; }
+    }
+}
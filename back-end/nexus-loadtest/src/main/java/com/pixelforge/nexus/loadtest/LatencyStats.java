@@ -0,0 +1,99 @@
+package com.pixelforge.nexus.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one operation, kept exactly so percentiles need no bucketing
+ * Not thread-safe: every worker records into its own instance, merged when the run ends.
+ */
+public class LatencyStats {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+    private boolean sorted;
+
+    /**
+     * Record a successful request
+     * @param nanos Latency in nanoseconds
+     */
+    public void record(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+        sorted = false;
+    }
+
+    /**
+     * Record a failed request; its latency is left out of the percentiles
+     */
+    public void recordError() {
+        errors++;
+    }
+
+    /**
+     * Add the requests recorded by another instance
+     * @param other Stats to add
+     */
+    public void merge(LatencyStats other) {
+        if (count + other.count > latencies.length) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+        }
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        errors += other.errors;
+        sorted = false;
+    }
+
+    public int getCount() { return count; }
+    public long getErrors() { return errors; }
+
+    /**
+     * Get a percentile by the nearest-rank method
+     * @param percentile Percentile between 0 and 100
+     * @return Latency in nanoseconds, or 0 without requests
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        sort();
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return latencies[Math.min(count, Math.max(1, rank)) - 1];
+    }
+
+    /**
+     * Get the slowest request
+     * @return Latency in nanoseconds, or 0 without requests
+     */
+    public long max() {
+        if (count == 0) {
+            return 0;
+        }
+        sort();
+        return latencies[count - 1];
+    }
+
+    /**
+     * Get the mean latency
+     * @return Latency in nanoseconds, or 0 without requests
+     */
+    public double mean() {
+        if (count == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += latencies[i];
+        }
+        return sum / count;
+    }
+
+    private void sort() {
+        if (!sorted) {
+            Arrays.sort(latencies, 0, count);
+            sorted = true;
+        }
+    }
+}
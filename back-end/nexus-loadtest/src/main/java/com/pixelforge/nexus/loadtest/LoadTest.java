@@ -0,0 +1,62 @@
+package com.pixelforge.nexus.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Load test of a running Nexus, started with a command and --name=value options
+ * seed creates the synthetic dataset and saves it, run loads a saved dataset and measures,
+ * and all (the default) does both. See the Load testing section of the README for the options.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        boolean hasCommand = args.length > 0 && !args[0].startsWith("--");
+        String command = hasCommand ? args[0] : "all";
+        Options options = Options.parse(hasCommand ? Arrays.copyOfRange(args, 1, args.length) : args);
+        NexusClient client = new NexusClient(options.getBaseUrl(), options.getRequestTimeout());
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Path datasetFile = options.getDatasetFile();
+
+        Dataset dataset;
+        switch (command) {
+            case "seed":
+            case "all":
+                dataset = new Seeder(client, options).seed();
+                if (datasetFile.getParent() != null) {
+                    Files.createDirectories(datasetFile.getParent());
+                }
+                objectMapper.writeValue(datasetFile.toFile(), dataset);
+                System.out.println("Dataset written to " + datasetFile);
+                if (command.equals("seed")) {
+                    return;
+                }
+                break;
+            case "run":
+                dataset = objectMapper.readValue(datasetFile.toFile(), Dataset.class);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + command + "; expected seed, run or all");
+        }
+
+        System.out.printf("Running %d workers for %s after a %s warm-up%n", options.getConcurrency(),
+                options.getDuration(), options.getWarmup());
+        Instant startedAt = Instant.now();
+        Map<Operation, LatencyStats> results = new Workload(client, dataset, options).run();
+
+        Report report = new Report(options, dataset, startedAt, results);
+        report.print(System.out);
+        report.write(options.getReportFile());
+        System.out.println("Report written to " + options.getReportFile());
+    }
+}
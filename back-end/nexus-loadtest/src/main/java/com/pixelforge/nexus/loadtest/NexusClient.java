@@ -0,0 +1,174 @@
+package com.pixelforge.nexus.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Minimal HTTP client for the Nexus API, shared by the seeder and the workload
+ * Every call returns the status code rather than throwing on errors, so the workload can count
+ * failures; the seeder turns them into exceptions with {@link #expect(Response, int)}.
+ */
+public class NexusClient {
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public NexusClient(String baseUrl, Duration timeout) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Log in
+     * @param username Username
+     * @param password Password
+     * @return Response whose body holds the token
+     * @throws IOException if the request cannot be sent
+     */
+    public Response login(String username, String password) throws IOException {
+        return sendJson("POST", "/auth/login", null, Map.of("username", username, "password", password));
+    }
+
+    /**
+     * Send a JSON body
+     * @param method HTTP method
+     * @param path Path below the base URL
+     * @param token Bearer token, or null
+     * @param body Object written as JSON
+     * @return Response with the parsed body
+     * @throws IOException if the request cannot be sent
+     */
+    public Response sendJson(String method, String path, String token, Object body) throws IOException {
+        HttpRequest request = request(path, token)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        return send(request, true);
+    }
+
+    /**
+     * Send a GET, reading the whole body but parsing none of it
+     * @param path Path below the base URL
+     * @param token Bearer token
+     * @return Response without a body
+     * @throws IOException if the request cannot be sent
+     */
+    public Response get(String path, String token) throws IOException {
+        return send(request(path, token).GET().build(), false);
+    }
+
+    /**
+     * Upload a document as multipart form data
+     * @param projectId Project ID
+     * @param token Bearer token
+     * @param fileName File name
+     * @param contentType Content type of the file
+     * @param content File content
+     * @return Response with the parsed body
+     * @throws IOException if the request cannot be sent
+     */
+    public Response upload(Long projectId, String token, String fileName, String contentType, byte[] content)
+            throws IOException {
+        String boundary = "----nexus-loadtest-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 512);
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"description\"\r\n\r\n"
+                + "Synthetic load test document\r\n"
+                + "--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = request("/documents/projects/" + projectId + "/upload", token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        return send(request, true);
+    }
+
+    /**
+     * Fail unless a response has the expected status
+     * @param response Response
+     * @param status Expected status
+     * @return The parsed body
+     * @throws IOException if the status differs
+     */
+    public static JsonNode expect(Response response, int status) throws IOException {
+        if (response.getStatus() != status) {
+            throw new IOException("Expected HTTP " + status + " but got " + response.getStatus() + ": "
+                    + response.getBody());
+        }
+        return response.getBody();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private Response send(HttpRequest request, boolean parseBody) throws IOException {
+        try {
+            if (!parseBody) {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                return new Response(response.statusCode(), null);
+            }
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            byte[] body = response.body();
+            JsonNode json = null;
+            if (body.length > 0) {
+                try {
+                    json = objectMapper.readTree(body);
+                } catch (IOException ex) {
+                    // Error pages are not always JSON
+                    json = objectMapper.getNodeFactory().textNode(new String(body, StandardCharsets.UTF_8));
+                }
+            }
+            return new Response(response.statusCode(), json);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + request.uri(), ex);
+        }
+    }
+
+    /**
+     * Status and parsed body of one response
+     */
+    public static class Response {
+
+        private final int status;
+        private final JsonNode body;
+
+        Response(int status, JsonNode body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() { return status; }
+        public JsonNode getBody() { return body; }
+
+        public boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.pixelforge.nexus.loadtest;
+
+/**
+ * Requests the load test sends, each reported as its own endpoint
+ */
+public enum Operation {
+
+    LOGIN("POST /auth/login"),
+    PROJECTS("GET /projects"),
+    PROJECT("GET /projects/{id}"),
+    DOCUMENTS("GET /documents/projects/{id}"),
+    DOWNLOAD("GET /documents/{id}/download"),
+    UPLOAD("POST /documents/projects/{id}/upload");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,100 @@
+package com.pixelforge.nexus.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line options of the load test, given as --name=value
+ */
+public class Options {
+
+    private static final String DEFAULT_MIX = "login=5,projects=30,project=20,documents=20,download=20,upload=5";
+
+    private final Map<String, String> values = new HashMap<>();
+
+    /**
+     * Parse the options that follow the command
+     * @param args Arguments such as --users=50
+     * @return Options
+     * @throws IllegalArgumentException if an argument is not of the form --name=value
+     */
+    public static Options parse(String[] args) {
+        Options options = new Options();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    // Target
+    public String getBaseUrl() { return string("base-url", "http://localhost:8080/api"); }
+    public String getAdminUsername() { return string("admin-user", "admin"); }
+    public String getAdminPassword() { return required("admin-password"); }
+    public Duration getRequestTimeout() { return duration("timeout", "PT30S"); }
+
+    // Seeding
+    public int getUsers() { return integer("users", 50); }
+    public double getLeadRatio() { return Double.parseDouble(string("lead-ratio", "0.1")); }
+    public int getProjects() { return integer("projects", 20); }
+    public int getDocuments() { return integer("documents", 200); }
+    public int getDocumentSize() { return integer("document-size", 64 * 1024); }
+    public int getSeedConcurrency() { return integer("seed-concurrency", 8); }
+    public Path getDatasetFile() { return Paths.get(string("dataset", "target/loadtest-dataset.json")); }
+
+    // Load
+    public int getConcurrency() { return integer("concurrency", 32); }
+    public double getRate() { return Double.parseDouble(string("rate", "0")); }
+    public Duration getWarmup() { return duration("warmup", "PT10S"); }
+    public Duration getDuration() { return duration("duration", "PT60S"); }
+    public Path getReportFile() { return Paths.get(string("report", "target/loadtest-report.json")); }
+
+    /**
+     * Get the relative weight of each operation
+     * @return Weights, with operations left out of --mix weighted zero
+     * @throws IllegalArgumentException if the mix names an unknown operation or weighs nothing
+     */
+    public Map<Operation, Integer> getMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : string("mix", DEFAULT_MIX).split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in --mix but got " + entry);
+            }
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("--mix must give at least one operation a positive weight");
+        }
+        return mix;
+    }
+
+    private String string(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    private String required(String name) {
+        String value = values.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("--" + name + " is required");
+        }
+        return value;
+    }
+
+    private int integer(String name, int defaultValue) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private Duration duration(String name, String defaultValue) {
+        return Duration.parse(string(name, defaultValue));
+    }
+}
@@ -0,0 +1,118 @@
+package com.pixelforge.nexus.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Throughput and latency percentiles of a run, per endpoint and in total
+ * Written as JSON for comparing runs and printed as a table for reading.
+ */
+public class Report {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Options options;
+    private final Dataset dataset;
+    private final Instant startedAt;
+    private final Map<Operation, LatencyStats> results;
+
+    public Report(Options options, Dataset dataset, Instant startedAt, Map<Operation, LatencyStats> results) {
+        this.options = options;
+        this.dataset = dataset;
+        this.startedAt = startedAt;
+        this.results = results;
+    }
+
+    /**
+     * Write the report as JSON
+     * @param file Report file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("startedAt", startedAt.toString());
+        report.put("baseUrl", options.getBaseUrl());
+        report.put("concurrency", options.getConcurrency());
+        if (options.getRate() > 0) {
+            report.put("targetRate", options.getRate());
+        } else {
+            report.putNull("targetRate");
+        }
+        report.put("warmupSeconds", options.getWarmup().toMillis() / 1000.0);
+        report.put("durationSeconds", seconds());
+
+        ObjectNode data = report.putObject("dataset");
+        data.put("users", dataset.getUsers().size());
+        data.put("projects", dataset.getProjects().size());
+        data.put("documents", dataset.countDocuments());
+
+        ArrayNode endpoints = report.putArray("endpoints");
+        results.forEach((operation, stats) -> {
+            ObjectNode endpoint = endpoints.addObject();
+            endpoint.put("operation", operation.name().toLowerCase());
+            endpoint.put("endpoint", operation.getEndpoint());
+            summarize(stats, endpoint);
+        });
+        summarize(total(), report.putObject("total"));
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        objectMapper.writeValue(file.toFile(), report);
+    }
+
+    /**
+     * Print the report as a table
+     * @param out Stream to print to
+     */
+    public void print(PrintStream out) {
+        out.printf("%-38s %9s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms", "Max ms");
+        results.forEach((operation, stats) -> printRow(out, operation.getEndpoint(), stats));
+        printRow(out, "Total", total());
+    }
+
+    private void printRow(PrintStream out, String name, LatencyStats stats) {
+        out.printf("%-38s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, stats.getCount(), stats.getErrors(),
+                stats.getCount() / seconds(), millis(stats.percentile(50)), millis(stats.percentile(95)),
+                millis(stats.percentile(99)), millis(stats.max()));
+    }
+
+    private void summarize(LatencyStats stats, ObjectNode node) {
+        long requests = stats.getCount() + stats.getErrors();
+        node.put("requests", requests);
+        node.put("errors", stats.getErrors());
+        node.put("errorRate", requests > 0 ? (double) stats.getErrors() / requests : 0);
+        node.put("throughput", stats.getCount() / seconds());
+        ObjectNode latency = node.putObject("latencyMs");
+        latency.put("p50", millis(stats.percentile(50)));
+        latency.put("p95", millis(stats.percentile(95)));
+        latency.put("p99", millis(stats.percentile(99)));
+        latency.put("max", millis(stats.max()));
+        latency.put("mean", stats.mean() / NANOS_PER_MILLI);
+    }
+
+    private LatencyStats total() {
+        LatencyStats total = new LatencyStats();
+        results.values().forEach(total::merge);
+        return total;
+    }
+
+    private double seconds() {
+        return options.getDuration().toMillis() / 1000.0;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
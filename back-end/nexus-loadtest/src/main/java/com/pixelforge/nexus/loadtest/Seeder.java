@@ -0,0 +1,193 @@
+package com.pixelforge.nexus.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pixelforge.nexus.loadtest.Dataset.SeededProject;
+import com.pixelforge.nexus.loadtest.Dataset.SeededUser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a synthetic dataset through the public API, as the administrator
+ * Users are project leads and developers; every project gets a lead in turn and the developers
+ * are spread over the projects, and documents are uploaded by the lead of their project with
+ * unique content, so none is deduplicated. Names carry a run prefix, so seeding can be repeated
+ * against the same database.
+ */
+public class Seeder {
+
+    private static final String PASSWORD = "LoadTest#2026";
+    private static final String WORDS = "sprite level shader quest boss texture physics render asset build "
+            + "patch engine camera input audio network save menu dialog inventory";
+
+    private final NexusClient client;
+    private final Options options;
+    private final String prefix = "lt" + Long.toString(System.currentTimeMillis(), 36);
+
+    public Seeder(NexusClient client, Options options) {
+        this.client = client;
+        this.options = options;
+    }
+
+    /**
+     * Create the users, projects and documents
+     * @return The created dataset
+     * @throws IOException if any request fails
+     */
+    public Dataset seed() throws IOException {
+        String adminToken = NexusClient.expect(
+                client.login(options.getAdminUsername(), options.getAdminPassword()), 200).path("token").asText();
+        int userCount = Math.max(2, options.getUsers());
+        int leadCount = Math.max(1, (int) Math.round(userCount * options.getLeadRatio()));
+        int projectCount = Math.max(1, options.getProjects());
+
+        ExecutorService executor = Executors.newFixedThreadPool(options.getSeedConcurrency());
+        try {
+            List<SeededUser> users = runAll(executor, userCount, i -> {
+                String role = i < leadCount ? "PROJECT_LEAD" : "DEVELOPER";
+                String username = prefix + "-user" + i;
+                Map<String, Object> body = Map.of("username", username, "email", username + "@loadtest.invalid",
+                        "password", PASSWORD, "firstName", "Load" + i, "lastName", "Tester", "role", role);
+                JsonNode created = NexusClient.expect(client.sendJson("POST", "/users/create", adminToken, body), 201);
+                return new SeededUser(created.path("id").asLong(), username, role);
+            });
+            log("Created %d users (%d project leads)", users.size(), leadCount);
+
+            List<SeededUser> leads = users.subList(0, leadCount);
+            List<SeededUser> developers = users.subList(leadCount, users.size());
+            List<SeededProject> projects = runAll(executor, projectCount, i -> {
+                SeededUser lead = leads.get(i % leads.size());
+                Map<String, Object> body = Map.of("name", prefix + " project " + i,
+                        "description", "Synthetic project " + i + " created by the load test seeder",
+                        "deadline", LocalDate.now().plusDays(7 + i % 90).toString(),
+                        "leadId", lead.getId());
+                JsonNode created = NexusClient.expect(client.sendJson("POST", "/projects/create", adminToken, body), 201);
+                return new SeededProject(created.path("id").asLong(), lead.getUsername());
+            });
+            log("Created %d projects", projects.size());
+
+            assignDevelopers(executor, adminToken, users, leads, developers, projects);
+            uploadDocuments(executor, leads, projects);
+
+            Dataset dataset = new Dataset();
+            dataset.setPassword(PASSWORD);
+            dataset.setUsers(new ArrayList<>(users));
+            dataset.setProjects(projects);
+            return dataset;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Spread the developers over the projects, each in one project
+     */
+    private void assignDevelopers(ExecutorService executor, String adminToken, List<SeededUser> users,
+                                  List<SeededUser> leads, List<SeededUser> developers,
+                                  List<SeededProject> projects) throws IOException {
+        Map<Integer, List<SeededUser>> teams = new HashMap<>();
+        for (int i = 0; i < developers.size(); i++) {
+            teams.computeIfAbsent(i % projects.size(), p -> new ArrayList<>()).add(developers.get(i));
+        }
+        runAll(executor, projects.size(), i -> {
+            List<SeededUser> team = teams.getOrDefault(i, List.of());
+            if (!team.isEmpty()) {
+                Set<Long> ids = team.stream().map(SeededUser::getId).collect(Collectors.toSet());
+                NexusClient.expect(client.sendJson("PUT", "/projects/" + projects.get(i).getId() + "/assign",
+                        adminToken, Map.of("developerIds", ids)), 200);
+            }
+            return null;
+        });
+
+        Map<String, SeededUser> byUsername = users.stream()
+                .collect(Collectors.toMap(SeededUser::getUsername, user -> user));
+        for (int i = 0; i < projects.size(); i++) {
+            SeededProject project = projects.get(i);
+            byUsername.get(project.getLeadUsername()).getProjectIds().add(project.getId());
+            teams.getOrDefault(i, List.of()).forEach(developer -> developer.getProjectIds().add(project.getId()));
+        }
+        log("Assigned %d developers", developers.size());
+    }
+
+    private void uploadDocuments(ExecutorService executor, List<SeededUser> leads,
+                                 List<SeededProject> projects) throws IOException {
+        Map<String, String> leadTokens = new LinkedHashMap<>();
+        for (SeededUser lead : leads) {
+            leadTokens.put(lead.getUsername(), NexusClient.expect(
+                    client.login(lead.getUsername(), PASSWORD), 200).path("token").asText());
+        }
+
+        List<long[]> uploaded = runAll(executor, Math.max(0, options.getDocuments()), i -> {
+            int projectIndex = i % projects.size();
+            SeededProject project = projects.get(projectIndex);
+            String fileName = prefix + "-doc" + i + ".txt";
+            JsonNode created = NexusClient.expect(client.upload(project.getId(), leadTokens.get(project.getLeadUsername()),
+                    fileName, "text/plain", content(fileName, i, options.getDocumentSize())), 201);
+            return new long[]{projectIndex, created.path("id").asLong()};
+        });
+        uploaded.forEach(document -> projects.get((int) document[0]).getDocumentIds().add(document[1]));
+        log("Uploaded %d documents of %d bytes", uploaded.size(), options.getDocumentSize());
+    }
+
+    /**
+     * Text of the given size, headed by the file name so no two documents share content
+     */
+    static byte[] content(String fileName, long seed, int size) {
+        String[] words = WORDS.split(" ");
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder(size + 16).append(fileName).append('\n');
+        while (text.length() < size) {
+            text.append(words[random.nextInt(words.length)]).append(random.nextInt(10) == 0 ? '\n' : ' ');
+        }
+        text.setLength(size);
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Run one task per index on the executor and collect the results in index order
+     */
+    private <T> List<T> runAll(ExecutorService executor, int count, IndexedTask<T> task) throws IOException {
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(executor.submit((Callable<T>) () -> task.run(index)));
+        }
+        List<T> results = new ArrayList<>(count);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while seeding", ex);
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IOException("Seeding failed: " + ex.getCause().getMessage(), ex.getCause());
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.println(String.format(format, args));
+    }
+
+    @FunctionalInterface
+    private interface IndexedTask<T> {
+        T run(int index) throws IOException;
+    }
+}
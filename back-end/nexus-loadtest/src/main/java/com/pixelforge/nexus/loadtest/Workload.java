@@ -0,0 +1,228 @@
+package com.pixelforge.nexus.loadtest;
+
+import com.pixelforge.nexus.loadtest.Dataset.SeededProject;
+import com.pixelforge.nexus.loadtest.Dataset.SeededUser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drives the weighted operation mix against a running Nexus from a fixed number of workers
+ * Each worker logs in as one seeded user and only requests what that user can see. Without a
+ * rate every worker sends its next request as soon as the last one answers (closed model);
+ * with a rate each worker follows a fixed schedule and latency is measured from the scheduled
+ * start, so a stalled server shows up as queueing time instead of as fewer, faster requests.
+ * Requests scheduled during the warm-up are sent but not recorded.
+ */
+public class Workload {
+
+    private final NexusClient client;
+    private final Dataset dataset;
+    private final Options options;
+    private final Map<Long, SeededProject> projects;
+    private final Map<String, String> leadTokens = new ConcurrentHashMap<>();
+    private final AtomicLong uploads = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    public Workload(NexusClient client, Dataset dataset, Options options) {
+        this.client = client;
+        this.dataset = dataset;
+        this.options = options;
+        this.projects = dataset.getProjects().stream()
+                .collect(Collectors.toMap(SeededProject::getId, Function.identity()));
+    }
+
+    /**
+     * Run the warm-up and the measured period
+     * @return Latencies of every operation in the measured period
+     * @throws IOException if a user cannot log in
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public Map<Operation, LatencyStats> run() throws IOException, InterruptedException {
+        List<SeededUser> users = dataset.getUsers().stream()
+                .filter(user -> !user.getProjectIds().isEmpty())
+                .collect(Collectors.toList());
+        if (users.isEmpty()) {
+            throw new IOException("The dataset has no user assigned to a project");
+        }
+        for (SeededProject project : dataset.getProjects()) {
+            if (!leadTokens.containsKey(project.getLeadUsername())) {
+                leadTokens.put(project.getLeadUsername(), login(project.getLeadUsername()));
+            }
+        }
+
+        int concurrency = options.getConcurrency();
+        long start = System.nanoTime();
+        long measureFrom = start + options.getWarmup().toNanos();
+        long end = measureFrom + options.getDuration().toNanos();
+        // Nanoseconds between two requests of one worker, or 0 for the closed model
+        long interval = options.getRate() > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / options.getRate()) : 0;
+
+        List<Worker> workers = new ArrayList<>(concurrency);
+        List<Thread> threads = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(users.get(i % users.size()), i, start + interval * i / concurrency,
+                    interval, measureFrom, end);
+            workers.add(worker);
+            Thread thread = new Thread(worker, "loadtest-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<Operation, LatencyStats> results = new EnumMap<>(Operation.class);
+        for (Worker worker : workers) {
+            if (worker.failure != null) {
+                throw worker.failure;
+            }
+            worker.stats.forEach((operation, stats) ->
+                    results.computeIfAbsent(operation, o -> new LatencyStats()).merge(stats));
+        }
+        return results;
+    }
+
+    private String login(String username) throws IOException {
+        return NexusClient.expect(client.login(username, dataset.getPassword()), 200).path("token").asText();
+    }
+
+    /**
+     * One simulated user, sending requests until the run ends
+     */
+    private class Worker implements Runnable {
+
+        private final SeededUser user;
+        private final SplittableRandom random;
+        private final long interval;
+        private final long measureFrom;
+        private final long end;
+        private final Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+        private final List<Long> documentIds = new ArrayList<>();
+        private final Operation[] operations;
+        private final int[] cumulativeWeights;
+        private long next;
+        private String token;
+        private IOException failure;
+
+        Worker(SeededUser user, int index, long first, long interval, long measureFrom, long end) {
+            this.user = user;
+            this.random = new SplittableRandom(index);
+            this.next = first;
+            this.interval = interval;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            user.getProjectIds().forEach(id -> documentIds.addAll(projects.get(id).getDocumentIds()));
+
+            // Downloads need a document to fetch
+            Map<Operation, Integer> mix = new EnumMap<>(options.getMix());
+            if (documentIds.isEmpty()) {
+                mix.remove(Operation.DOWNLOAD);
+            }
+            mix.values().removeIf(weight -> weight <= 0);
+            operations = mix.keySet().toArray(new Operation[0]);
+            cumulativeWeights = new int[operations.length];
+            int total = 0;
+            for (int i = 0; i < operations.length; i++) {
+                total += mix.get(operations[i]);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                token = login(user.getUsername());
+            } catch (IOException ex) {
+                failure = ex;
+                return;
+            }
+            while (operations.length > 0) {
+                long scheduled;
+                if (interval > 0) {
+                    scheduled = next;
+                    next += interval;
+                    long wait = scheduled - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else {
+                    scheduled = System.nanoTime();
+                }
+                if (scheduled >= end) {
+                    return;
+                }
+
+                Operation operation = pick();
+                boolean success;
+                try {
+                    success = execute(operation);
+                } catch (IOException ex) {
+                    success = false;
+                }
+                long latency = System.nanoTime() - scheduled;
+                if (scheduled >= measureFrom) {
+                    LatencyStats operationStats = stats.computeIfAbsent(operation, o -> new LatencyStats());
+                    if (success) {
+                        operationStats.record(latency);
+                    } else {
+                        operationStats.recordError();
+                    }
+                }
+            }
+        }
+
+        private Operation pick() {
+            int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (value < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+
+        private boolean execute(Operation operation) throws IOException {
+            Long projectId = user.getProjectIds().get(random.nextInt(user.getProjectIds().size()));
+            switch (operation) {
+                case LOGIN: {
+                    NexusClient.Response response = client.login(user.getUsername(), dataset.getPassword());
+                    if (response.isSuccess()) {
+                        token = response.getBody().path("token").asText();
+                    }
+                    return response.isSuccess();
+                }
+                case PROJECTS:
+                    return client.get("/projects", token).isSuccess();
+                case PROJECT:
+                    return client.get("/projects/" + projectId, token).isSuccess();
+                case DOCUMENTS:
+                    return client.get("/documents/projects/" + projectId, token).isSuccess();
+                case DOWNLOAD: {
+                    Long documentId = documentIds.get(random.nextInt(documentIds.size()));
+                    return client.get("/documents/" + documentId + "/download", token).isSuccess();
+                }
+                case UPLOAD: {
+                    // Only the lead of a project may upload to it
+                    long number = uploads.incrementAndGet();
+                    String fileName = "loadtest-" + runId + "-upload" + number + ".txt";
+                    String leadToken = leadTokens.get(projects.get(projectId).getLeadUsername());
+                    return client.upload(projectId, leadToken, fileName, "text/plain",
+                            Seeder.content(fileName, number, options.getDocumentSize())).isSuccess();
+                }
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation);
+            }
+        }
+    }
+}
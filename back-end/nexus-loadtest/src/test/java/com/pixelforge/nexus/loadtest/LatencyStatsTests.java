@@ -0,0 +1,53 @@
+package com.pixelforge.nexus.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyStatsTests {
+
+    @Test
+    void percentilesUseTheNearestRank() {
+        LatencyStats stats = new LatencyStats();
+        // Recorded out of order: 1..100
+        for (int i = 100; i >= 1; i--) {
+            stats.record(i);
+        }
+
+        assertThat(stats.percentile(50)).isEqualTo(50);
+        assertThat(stats.percentile(95)).isEqualTo(95);
+        assertThat(stats.percentile(99)).isEqualTo(99);
+        assertThat(stats.percentile(0)).isEqualTo(1);
+        assertThat(stats.max()).isEqualTo(100);
+        assertThat(stats.mean()).isEqualTo(50.5);
+    }
+
+    @Test
+    void mergeAddsRequestsAndErrorsOfEveryWorker() {
+        LatencyStats first = new LatencyStats();
+        LatencyStats second = new LatencyStats();
+        for (int i = 1; i <= 2000; i++) {
+            (i % 2 == 0 ? first : second).record(i);
+        }
+        second.recordError();
+
+        LatencyStats total = new LatencyStats();
+        total.merge(first);
+        total.merge(second);
+
+        assertThat(total.getCount()).isEqualTo(2000);
+        assertThat(total.getErrors()).isEqualTo(1);
+        assertThat(total.percentile(99)).isEqualTo(1980);
+        assertThat(total.max()).isEqualTo(2000);
+    }
+
+    @Test
+    void emptyStatsReportZero() {
+        LatencyStats stats = new LatencyStats();
+        stats.recordError();
+
+        assertThat(stats.percentile(99)).isZero();
+        assertThat(stats.max()).isZero();
+        assertThat(stats.mean()).isZero();
+    }
+}
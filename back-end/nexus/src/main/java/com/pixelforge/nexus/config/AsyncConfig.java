@@ -0,0 +1,93 @@
+package com.pixelforge.nexus.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded executors for background work triggered by requests
+ * Each pool has a fixed queue so a burst of uploads cannot pile up unbounded work.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Executor for thumbnail and preview rendering (CPU and memory heavy)
+     */
+    @Bean
+    public ThreadPoolTaskExecutor thumbnailExecutor(@Value("${app.thumbnail.pool-size:2}") int poolSize,
+                                                    @Value("${app.thumbnail.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Executor for text extraction and full-text indexing (CPU heavy)
+     * When the queue is full uploads are left to the next index reconciliation.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor indexExecutor(@Value("${app.search.pool-size:2}") int poolSize,
+                                                @Value("${app.search.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("index-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Executor for read-ahead of project archive downloads (I/O bound)
+     * No queue: when all readers are busy, archives are streamed without read-ahead.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor archiveExecutor(@Value("${app.archive.pool-size:4}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("archive-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Executor for hashing, compressing and storing the files of batch uploads
+     * When saturated the request thread does the work itself, which throttles the batch.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor uploadExecutor(@Value("${app.upload.batch.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(parallelism * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("upload-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Executor for capturing the EXPLAIN plans of slow SQL statements
+     * When the queue is full the plan is requested again the next time the statement is slow.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor explainExecutor(@Value("${app.jpa.slow-statement.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("explain-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -0,0 +1,61 @@
+package com.pixelforge.nexus.config;
+
+import com.pixelforge.nexus.metrics.JpaRequestCounter;
+import com.pixelforge.nexus.metrics.StatementListener;
+import com.pixelforge.nexus.metrics.StatementTimingDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.stream.Collectors;
+
+/**
+ * Hooks the per-request statement counter and the slow statement log into the data source and Hibernate
+ * Endpoint, connection pool, JVM and cache metrics are bound by Spring Boot's actuator.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public JpaRequestCounter jpaRequestCounter() {
+        return new JpaRequestCounter();
+    }
+
+    /**
+     * Time the statements of every connection handed out by the data source
+     * Static, so post-processing does not wait for this configuration class.
+     */
+    @Bean
+    public static BeanPostProcessor statementTimingDataSourcePostProcessor(
+            ObjectProvider<StatementListener> listeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof StatementTimingDataSource)) {
+                    return new StatementTimingDataSource((DataSource) bean,
+                            () -> listeners.orderedStream().collect(Collectors.toList()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Listen for entity loads once the session factory is built
+     */
+    @Bean
+    public SmartInitializingSingleton jpaRequestCounterLoadListener(EntityManagerFactory entityManagerFactory,
+                                                                    JpaRequestCounter counter) {
+        return () -> entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, counter);
+    }
+}
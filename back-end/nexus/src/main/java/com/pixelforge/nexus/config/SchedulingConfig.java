@@ -0,0 +1,12 @@
+package com.pixelforge.nexus.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background maintenance tasks
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
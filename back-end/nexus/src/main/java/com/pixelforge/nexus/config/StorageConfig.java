@@ -0,0 +1,68 @@
+package com.pixelforge.nexus.config;
+
+import com.pixelforge.nexus.storage.InstrumentedStorageBackend;
+import com.pixelforge.nexus.storage.LocalShardedStorageBackend;
+import com.pixelforge.nexus.storage.S3StorageBackend;
+import com.pixelforge.nexus.storage.StorageBackend;
+import com.pixelforge.nexus.storage.StorageMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * Selects the document storage backend
+ * app.storage.backend=local keeps files on disk under app.upload.dir,
+ * app.storage.backend=s3 stores them in an S3-compatible bucket.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.backend", havingValue = "local", matchIfMissing = true)
+    public StorageBackend localStorageBackend(@Value("${app.upload.dir:uploads}") String uploadDir,
+                                              StorageMetrics storageMetrics) {
+        return new InstrumentedStorageBackend(new LocalShardedStorageBackend(Paths.get(uploadDir)), storageMetrics);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3")
+    public S3Client s3Client(@Value("${app.storage.s3.endpoint:}") String endpoint,
+                             @Value("${app.storage.s3.region:us-east-1}") String region,
+                             @Value("${app.storage.s3.access-key:}") String accessKey,
+                             @Value("${app.storage.s3.secret-key:}") String secretKey,
+                             @Value("${app.storage.s3.path-style:false}") boolean pathStyle) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .forcePathStyle(pathStyle);
+
+        if (StringUtils.hasText(endpoint)) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        if (StringUtils.hasText(accessKey)) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        } else {
+            builder.credentialsProvider(DefaultCredentialsProvider.builder().build());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3")
+    public StorageBackend s3StorageBackend(S3Client s3Client,
+                                           @Value("${app.storage.s3.bucket}") String bucket,
+                                           @Value("${app.storage.s3.prefix:}") String prefix,
+                                           StorageMetrics storageMetrics) {
+        return new InstrumentedStorageBackend(new S3StorageBackend(s3Client, bucket, prefix), storageMetrics);
+    }
+}
@@ -0,0 +1,149 @@
+package com.pixelforge.nexus.controller;
+
+import com.pixelforge.nexus.dto.CompressionSavingsDTO;
+import com.pixelforge.nexus.dto.ContentCacheStatsDTO;
+import com.pixelforge.nexus.dto.PinnedThreadDTO;
+import com.pixelforge.nexus.dto.SearchIndexStatsDTO;
+import com.pixelforge.nexus.dto.SlowStatementDTO;
+import com.pixelforge.nexus.dto.StorageGcReportDTO;
+import com.pixelforge.nexus.dto.StorageOperationStatsDTO;
+import com.pixelforge.nexus.metrics.SlowStatementLog;
+import com.pixelforge.nexus.metrics.VirtualThreadPinningMonitor;
+import com.pixelforge.nexus.service.ContentStoreService;
+import com.pixelforge.nexus.service.DocumentIndexingService;
+import com.pixelforge.nexus.service.StorageGarbageCollector;
+import com.pixelforge.nexus.storage.ContentCache;
+import com.pixelforge.nexus.storage.StorageMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Administrative diagnostics controller
+ * Exposes operational statistics (Admin only)
+ */
+@RestController
+@RequestMapping("/admin")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class AdminController {
+
+    @Autowired
+    private StorageMetrics storageMetrics;
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @Autowired
+    private StorageGarbageCollector storageGarbageCollector;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    @Autowired
+    private DocumentIndexingService documentIndexingService;
+
+    @Autowired
+    private SlowStatementLog slowStatementLog;
+
+    @Autowired
+    private VirtualThreadPinningMonitor virtualThreadPinningMonitor;
+
+    /**
+     * Get storage backend latency statistics per operation
+     */
+    @GetMapping("/storage/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<StorageOperationStatsDTO>> getStorageMetrics() {
+        return ResponseEntity.ok(storageMetrics.snapshot());
+    }
+
+    /**
+     * Get compression-at-rest savings per content type
+     */
+    @GetMapping("/storage/compression")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CompressionSavingsDTO>> getCompressionSavings() {
+        return ResponseEntity.ok(contentStoreService.getCompressionSavings());
+    }
+
+    /**
+     * Get hit ratio and bytes served of the in-memory download cache
+     */
+    @GetMapping("/storage/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ContentCacheStatsDTO> getContentCacheStats() {
+        return ResponseEntity.ok(contentCache.snapshot());
+    }
+
+    /**
+     * Get the size of the full-text index and how far it lags behind uploads
+     */
+    @GetMapping("/search/index")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SearchIndexStatsDTO> getSearchIndexStats() {
+        return ResponseEntity.ok(documentIndexingService.getStats());
+    }
+
+    /**
+     * Get the report of the last storage collection run
+     * Answers 204 when no run has finished since startup
+     */
+    @GetMapping("/storage/gc")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StorageGcReportDTO> getStorageGcReport() {
+        return storageGarbageCollector.getLastReport()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Run storage collection now and wait for its report
+     */
+    @PostMapping("/storage/gc")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StorageGcReportDTO> runStorageGc() {
+        return ResponseEntity.ok(storageGarbageCollector.collect());
+    }
+
+    /**
+     * Get the SQL statements that ran over the slow statement threshold, with their plans
+     * @param limit Maximum number of statements, highest total time first
+     */
+    @GetMapping("/sql/slow-statements")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SlowStatementDTO>> getSlowStatements(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(slowStatementLog.getTopStatements(Math.max(0, limit)));
+    }
+
+    /**
+     * Forget the recorded slow statements
+     */
+    @DeleteMapping("/sql/slow-statements")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> clearSlowStatements() {
+        slowStatementLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Get the places where virtual threads blocked while pinned to their carrier thread
+     */
+    @GetMapping("/threads/pinned")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<PinnedThreadDTO>> getPinnedThreads() {
+        return ResponseEntity.ok(virtualThreadPinningMonitor.getPinnedLocations());
+    }
+
+    /**
+     * Forget the recorded pinning locations
+     */
+    @DeleteMapping("/threads/pinned")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> clearPinnedThreads() {
+        virtualThreadPinningMonitor.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.pixelforge.nexus.controller;
+
+import com.pixelforge.nexus.service.ChangeFeed;
+import com.pixelforge.nexus.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Change feed controller
+ * Streams project and document changes as server-sent events, so clients need not poll
+ */
+@RestController
+@RequestMapping("/changes")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class ChangeFeedController {
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Subscribe to the changes of the projects visible to the current user
+     * Events are named after the change (PROJECT_UPDATED, DOCUMENT_UPLOADED, ...) and carry the
+     * project and document IDs; a ready event comes first, after which clients fetch what they show.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(Authentication authentication) {
+        SseEmitter emitter = changeFeed.subscribe(userService.getUserEntityByUsername(authentication.getName()));
+        return ResponseEntity.ok()
+                // Keep reverse proxies such as nginx from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+}
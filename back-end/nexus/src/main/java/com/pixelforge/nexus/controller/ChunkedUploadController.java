@@ -0,0 +1,88 @@
+package com.pixelforge.nexus.controller;
+
+import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.dto.UploadSessionCreateDTO;
+import com.pixelforge.nexus.dto.UploadSessionResponseDTO;
+import com.pixelforge.nexus.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Resumable upload controller
+ * Handles chunked uploads of large documents: create a session, PUT chunks
+ * at offsets (in any order), query the committed offset, then finalize
+ */
+@RestController
+@RequestMapping("/documents")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class ChunkedUploadController {
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    /**
+     * Create resumable upload session for a project
+     */
+    @PostMapping("/projects/{projectId}/uploads")
+    public ResponseEntity<UploadSessionResponseDTO> createUploadSession(@PathVariable Long projectId,
+                                                                        @Valid @RequestBody UploadSessionCreateDTO request,
+                                                                        Authentication authentication) {
+        String username = authentication.getName();
+        UploadSessionResponseDTO session = chunkedUploadService.createSession(projectId, request, username);
+        return new ResponseEntity<>(session, HttpStatus.CREATED);
+    }
+
+    /**
+     * Upload one chunk at the given byte offset
+     */
+    @PutMapping(value = "/uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionResponseDTO> uploadChunk(@PathVariable String uploadId,
+                                                                @RequestParam("offset") long offset,
+                                                                HttpServletRequest request,
+                                                                Authentication authentication) throws IOException {
+        String username = authentication.getName();
+        UploadSessionResponseDTO session = chunkedUploadService.writeChunk(uploadId, offset,
+                request.getInputStream(), request.getContentLengthLong(), username);
+        return ResponseEntity.ok(session);
+    }
+
+    /**
+     * Get upload session state and committed offset
+     */
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<UploadSessionResponseDTO> getUploadSession(@PathVariable String uploadId,
+                                                                     Authentication authentication) {
+        String username = authentication.getName();
+        return ResponseEntity.ok(chunkedUploadService.getSession(uploadId, username));
+    }
+
+    /**
+     * Finalize upload into a document
+     */
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<DocumentResponseDTO> completeUpload(@PathVariable String uploadId,
+                                                              Authentication authentication) {
+        String username = authentication.getName();
+        DocumentResponseDTO document = chunkedUploadService.completeSession(uploadId, username);
+        return new ResponseEntity<>(document, HttpStatus.CREATED);
+    }
+
+    /**
+     * Abort upload and discard received chunks
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId,
+                                            Authentication authentication) {
+        String username = authentication.getName();
+        chunkedUploadService.abortSession(uploadId, username);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -1,9 +1,28 @@
 package com.pixelforge.nexus.controller;
 
+import com.pixelforge.nexus.dto.BatchUploadResponseDTO;
+import com.pixelforge.nexus.dto.DocumentPageDTO;
 import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.dto.DocumentSearchHitDTO;
+import com.pixelforge.nexus.dto.DocumentVersionDTO;
+import com.pixelforge.nexus.dto.UploadByHashDTO;
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.metrics.DocumentMetrics;
+import com.pixelforge.nexus.service.BatchUploadService;
+import com.pixelforge.nexus.service.DocumentDownload;
 import com.pixelforge.nexus.service.DocumentService;
+import com.pixelforge.nexus.service.DocumentVersionService;
+import com.pixelforge.nexus.service.ProjectArchive;
+import com.pixelforge.nexus.service.ThumbnailService;
+import com.pixelforge.nexus.web.DocumentDownloadWriter;
+import com.pixelforge.nexus.web.ProjectArchiveWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -12,7 +31,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Document management controller
@@ -26,6 +49,24 @@ public class DocumentController {
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private DocumentVersionService documentVersionService;
+
+    @Autowired
+    private BatchUploadService batchUploadService;
+
+    @Autowired
+    private DocumentDownloadWriter documentDownloadWriter;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private ProjectArchiveWriter projectArchiveWriter;
+
+    @Autowired
+    private DocumentMetrics documentMetrics;
+
     /**
      * Upload document to project
      */
@@ -40,16 +81,62 @@ public class DocumentController {
     }
 
     /**
-     * Get documents for a project
+     * Upload many documents at once; ZIP archives are expanded into their files
+     * Answers 201 when at least one file was stored, with a result for every file
+     */
+    @PostMapping("/projects/{projectId}/upload-batch")
+    public ResponseEntity<BatchUploadResponseDTO> uploadDocuments(@PathVariable Long projectId,
+                                                                  @RequestParam("files") List<MultipartFile> files,
+                                                                  @RequestParam(value = "description", required = false) String description,
+                                                                  Authentication authentication) {
+        String username = authentication.getName();
+        BatchUploadResponseDTO result = batchUploadService.uploadBatch(projectId, files, description, username);
+        return new ResponseEntity<>(result, result.getUploaded() > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Attach already stored content to a project by its SHA-256, skipping the upload
+     * Answers 404 when the content is unknown and must be uploaded normally
+     */
+    @PostMapping("/projects/{projectId}/upload-by-hash")
+    public ResponseEntity<DocumentResponseDTO> uploadDocumentByHash(@PathVariable Long projectId,
+                                                                    @Valid @RequestBody UploadByHashDTO request,
+                                                                    Authentication authentication) {
+        String username = authentication.getName();
+        DocumentResponseDTO document = documentService.uploadDocumentByHash(projectId, request, username);
+        return new ResponseEntity<>(document, HttpStatus.CREATED);
+    }
+
+    /**
+     * Get documents for a project, one page at a time
+     * Pass the nextCursor of a page as cursor to read the following one
      */
     @GetMapping("/projects/{projectId}")
-    public ResponseEntity<List<DocumentResponseDTO>> getProjectDocuments(@PathVariable Long projectId,
-                                                                         Authentication authentication) {
+    public ResponseEntity<DocumentPageDTO> getProjectDocuments(@PathVariable Long projectId,
+                                                               @RequestParam(value = "contentType", required = false) String contentType,
+                                                               @RequestParam(value = "uploaderId", required = false) Long uploaderId,
+                                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                                               @RequestParam(value = "limit", required = false) Integer limit,
+                                                               Authentication authentication) {
         String username = authentication.getName();
-        List<DocumentResponseDTO> documents = documentService.getProjectDocuments(projectId, username);
+        DocumentPageDTO documents = documentService.getProjectDocuments(projectId, contentType, uploaderId, cursor,
+                limit, username);
         return ResponseEntity.ok(documents);
     }
 
+    /**
+     * Download all documents of a project as one ZIP archive
+     * The archive is streamed as it is built, so no Content-Length is sent
+     */
+    @GetMapping("/projects/{projectId}/archive")
+    public void downloadProjectArchive(@PathVariable Long projectId,
+                                       Authentication authentication,
+                                       HttpServletResponse response) throws IOException {
+        String username = authentication.getName();
+        ProjectArchive archive = documentService.getProjectArchive(projectId, username);
+        projectArchiveWriter.write(archive, response);
+    }
+
     /**
      * Get document by ID
      */
@@ -63,23 +150,86 @@ public class DocumentController {
 
     /**
      * Download document file
+     * Supports Range, If-Range and multi-range requests; cached indefinitely when the URL
+     * carries the file name as version (?v=...), revalidated otherwise
      */
     @GetMapping("/{id}/download")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable Long id,
-                                                     Authentication authentication) {
+    public void downloadDocument(@PathVariable Long id,
+                                 @RequestParam(value = "v", required = false) String version,
+                                 Authentication authentication,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
         String username = authentication.getName();
+        DocumentDownload download = documentService.downloadDocument(id, version, username);
+        writeDownload("document", download, request, response);
+    }
 
-        // Get document info first
-        DocumentResponseDTO documentInfo = documentService.getDocumentById(id, username);
+    /**
+     * Upload a new version of a document
+     */
+    @PostMapping("/{id}/versions")
+    public ResponseEntity<DocumentResponseDTO> uploadVersion(@PathVariable Long id,
+                                                             @RequestParam("file") MultipartFile file,
+                                                             @RequestParam(value = "description", required = false) String description,
+                                                             Authentication authentication) {
+        String username = authentication.getName();
+        DocumentResponseDTO document = documentVersionService.uploadVersion(id, file, description, username);
+        return new ResponseEntity<>(document, HttpStatus.CREATED);
+    }
 
-        // Get file resource
-        Resource resource = documentService.downloadDocument(id, username);
+    /**
+     * Get the version history of a document, newest first
+     */
+    @GetMapping("/{id}/versions")
+    public ResponseEntity<List<DocumentVersionDTO>> getVersions(@PathVariable Long id,
+                                                                Authentication authentication) {
+        String username = authentication.getName();
+        return ResponseEntity.ok(documentVersionService.getVersions(id, username));
+    }
+
+    /**
+     * Download one version of a document
+     * Older versions stored as deltas are rebuilt while they stream and do not support Range
+     */
+    @GetMapping("/{id}/versions/{versionNumber}/download")
+    public void downloadVersion(@PathVariable Long id,
+                                @PathVariable int versionNumber,
+                                Authentication authentication,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        String username = authentication.getName();
+        DocumentDownload download = documentVersionService.downloadVersion(id, versionNumber, username);
+        writeDownload("version", download, request, response);
+    }
 
+    /**
+     * Get document thumbnail (images and PDFs)
+     * Cached indefinitely when the URL carries the current file name as version (?v=...), since the
+     * thumbnail of a stored file never changes; revalidated otherwise, as new versions replace it
+     */
+    @GetMapping("/{id}/thumbnail")
+    public ResponseEntity<Resource> getThumbnail(@PathVariable Long id,
+                                                 @RequestParam(value = "v", required = false) String version,
+                                                 Authentication authentication) {
+        String username = authentication.getName();
+        Document document = documentService.getAccessibleDocumentEntity(id, username);
+
+        Optional<Path> thumbnail = thumbnailService.getThumbnail(document);
+        if (thumbnail.isEmpty()) {
+            // Still rendering
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .build();
+        }
+
+        CacheControl cacheControl = document.getFileName().equals(version)
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).immutable()
+                : CacheControl.noCache();
         return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(documentInfo.getContentType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + documentInfo.getOriginalFileName() + "\"")
-                .body(resource);
+                .contentType(MediaType.parseMediaType(ThumbnailService.THUMBNAIL_CONTENT_TYPE))
+                .cacheControl(cacheControl.cachePrivate())
+                .eTag(document.getFileName() + "-thumbnail")
+                .body(new FileSystemResource(thumbnail.get()));
     }
 
     /**
@@ -97,9 +247,38 @@ public class DocumentController {
      * Get documents uploaded by current user
      */
     @GetMapping("/my-uploads")
-    public ResponseEntity<List<DocumentResponseDTO>> getUserDocuments(Authentication authentication) {
+    public ResponseEntity<DocumentPageDTO> getUserDocuments(@RequestParam(value = "contentType", required = false) String contentType,
+                                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                                            @RequestParam(value = "limit", required = false) Integer limit,
+                                                            Authentication authentication) {
         String username = authentication.getName();
-        List<DocumentResponseDTO> documents = documentService.getUserDocuments(username);
+        DocumentPageDTO documents = documentService.getUserDocuments(contentType, cursor, limit, username);
         return ResponseEntity.ok(documents);
     }
-}
\ No newline at end of file
+
+    /**
+     * Full-text search of the documents the current user can access, best match first
+     * Newly uploaded documents become searchable shortly after their upload.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<DocumentSearchHitDTO>> searchDocuments(@RequestParam("q") String query,
+                                                                      @RequestParam(value = "projectId", required = false) Long projectId,
+                                                                      @RequestParam(value = "limit", required = false) Integer limit,
+                                                                      Authentication authentication) {
+        String username = authentication.getName();
+        return ResponseEntity.ok(documentService.searchDocuments(query, projectId, limit, username));
+    }
+
+    /**
+     * Write a download and record its duration and size when a body was sent
+     */
+    private void writeDownload(String kind, DocumentDownload download, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        long start = System.nanoTime();
+        documentDownloadWriter.write(download, request, response);
+        String contentLength = response.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (!"HEAD".equals(request.getMethod()) && response.getStatus() < 300 && contentLength != null) {
+            documentMetrics.recordDownload(kind, System.nanoTime() - start, Long.parseLong(contentLength));
+        }
+    }
+}
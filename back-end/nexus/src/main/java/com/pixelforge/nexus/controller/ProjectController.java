@@ -1,8 +1,10 @@
 package com.pixelforge.nexus.controller;
 
 import com.pixelforge.nexus.dto.ProjectCreateDTO;
+import com.pixelforge.nexus.dto.ProjectDetailsDTO;
 import com.pixelforge.nexus.dto.ProjectResponseDTO;
 import com.pixelforge.nexus.dto.ProjectAssignmentDTO;
+import com.pixelforge.nexus.service.ProjectDetailsService;
 import com.pixelforge.nexus.service.ProjectService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +28,9 @@ public class ProjectController {
     @Autowired
     private ProjectService projectService;
 
+    @Autowired
+    private ProjectDetailsService projectDetailsService;
+
     /**
      * Create new project (Admin only)
      */
@@ -79,6 +84,18 @@ public class ProjectController {
         return ResponseEntity.ok(project);
     }
 
+    /**
+     * Get a project with the first page of its documents and its team, for the details page
+     */
+    @GetMapping("/{id}/details")
+    public ResponseEntity<ProjectDetailsDTO> getProjectDetails(@PathVariable Long id,
+                                                               @RequestParam(value = "documentLimit", required = false) Integer documentLimit,
+                                                               Authentication authentication) {
+        String username = authentication.getName();
+        ProjectDetailsDTO details = projectDetailsService.getProjectDetails(id, documentLimit, username);
+        return ResponseEntity.ok(details);
+    }
+
     /**
      * Update project (Admin only)
      */
@@ -1,5 +1,6 @@
 package com.pixelforge.nexus.controller;
 
+import com.pixelforge.nexus.dto.DeveloperSuggestionDTO;
 import com.pixelforge.nexus.dto.UserCreateDTO;
 import com.pixelforge.nexus.dto.UserResponseDTO;
 import com.pixelforge.nexus.dto.PasswordChangeDTO;
@@ -67,6 +68,16 @@ public class UserController {
         return ResponseEntity.ok(developers);
     }
 
+    /**
+     * Suggest developers for assignment by the start of their username or name
+     */
+    @GetMapping("/developers/suggest")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PROJECT_LEAD')")
+    public ResponseEntity<List<DeveloperSuggestionDTO>> suggestDevelopers(@RequestParam(value = "prefix", required = false) String prefix,
+                                                                          @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(userService.suggestDevelopers(prefix, limit));
+    }
+
     /**
      * Get project leads
      */
@@ -0,0 +1,36 @@
+package com.pixelforge.nexus.dto;
+
+/**
+ * DTO for the outcome of one file in a batch upload
+ */
+public class BatchUploadItemDTO {
+
+    public enum Status { UPLOADED, FAILED }
+
+    private String fileName;
+    private Status status;
+    private DocumentResponseDTO document;
+    private String error;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private BatchUploadItemDTO dto = new BatchUploadItemDTO();
+
+        public Builder fileName(String fileName) { dto.fileName = fileName; return this; }
+        public Builder status(Status status) { dto.status = status; return this; }
+        public Builder document(DocumentResponseDTO document) { dto.document = document; return this; }
+        public Builder error(String error) { dto.error = error; return this; }
+
+        public BatchUploadItemDTO build() { return dto; }
+    }
+
+    // Getters
+    public String getFileName() { return fileName; }
+    public Status getStatus() { return status; }
+    public DocumentResponseDTO getDocument() { return document; }
+    public String getError() { return error; }
+}
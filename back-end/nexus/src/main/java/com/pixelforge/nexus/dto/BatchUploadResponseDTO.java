@@ -0,0 +1,27 @@
+package com.pixelforge.nexus.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the result of a batch upload, one item per file in request order
+ * Files inside uploaded ZIP archives are listed individually
+ */
+public class BatchUploadResponseDTO {
+
+    private int uploaded;
+    private int failed;
+    private List<BatchUploadItemDTO> items;
+
+    public BatchUploadResponseDTO(List<BatchUploadItemDTO> items) {
+        this.items = items;
+        this.uploaded = (int) items.stream()
+                .filter(item -> item.getStatus() == BatchUploadItemDTO.Status.UPLOADED)
+                .count();
+        this.failed = items.size() - uploaded;
+    }
+
+    // Getters
+    public int getUploaded() { return uploaded; }
+    public int getFailed() { return failed; }
+    public List<BatchUploadItemDTO> getItems() { return items; }
+}
@@ -0,0 +1,44 @@
+package com.pixelforge.nexus.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one event of the change feed
+ * Names what changed, not the new state: clients fetch the project or its documents again.
+ */
+public class ChangeEventDTO {
+
+    private long id;
+    private String type;
+    private Long projectId;
+    private Long documentId;
+    private LocalDateTime occurredAt;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private ChangeEventDTO dto = new ChangeEventDTO();
+
+        public Builder id(long id) { dto.id = id; return this; }
+        public Builder type(String type) { dto.type = type; return this; }
+        public Builder projectId(Long projectId) { dto.projectId = projectId; return this; }
+        public Builder documentId(Long documentId) { dto.documentId = documentId; return this; }
+        public Builder occurredAt(LocalDateTime occurredAt) { dto.occurredAt = occurredAt; return this; }
+
+        public ChangeEventDTO build() { return dto; }
+    }
+
+    // Getters
+    public long getId() { return id; }
+    public String getType() { return type; }
+    public Long getProjectId() { return projectId; }
+
+    /**
+     * Changed document, null for changes of the project itself or of several documents at once
+     */
+    public Long getDocumentId() { return documentId; }
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+}
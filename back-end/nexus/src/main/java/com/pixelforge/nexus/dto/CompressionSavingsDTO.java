@@ -0,0 +1,33 @@
+package com.pixelforge.nexus.dto;
+
+/**
+ * DTO for compression-at-rest savings of one content type
+ */
+public class CompressionSavingsDTO {
+
+    private String contentType;
+    private long documentCount;
+    private long originalBytes;
+    private long storedBytes;
+
+    public CompressionSavingsDTO(String contentType, Long documentCount, Long originalBytes, Long storedBytes) {
+        this.contentType = contentType;
+        this.documentCount = documentCount == null ? 0 : documentCount;
+        this.originalBytes = originalBytes == null ? 0 : originalBytes;
+        this.storedBytes = storedBytes == null ? 0 : storedBytes;
+    }
+
+    // Getters
+    public String getContentType() { return contentType; }
+    public long getDocumentCount() { return documentCount; }
+    public long getOriginalBytes() { return originalBytes; }
+    public long getStoredBytes() { return storedBytes; }
+    public long getSavedBytes() { return originalBytes - storedBytes; }
+
+    /**
+     * Fraction of the original size saved, between 0 and 1
+     */
+    public double getSavingsRatio() {
+        return originalBytes == 0 ? 0 : (double) getSavedBytes() / originalBytes;
+    }
+}
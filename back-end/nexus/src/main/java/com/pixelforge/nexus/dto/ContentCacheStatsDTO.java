@@ -0,0 +1,52 @@
+package com.pixelforge.nexus.dto;
+
+/**
+ * DTO for the statistics of the in-memory document content cache
+ */
+public class ContentCacheStatsDTO {
+
+    private boolean enabled;
+    private long entries;
+    private long bytesCached;
+    private long budgetBytes;
+    private long maxEntryBytes;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long evictions;
+    private long bytesServed;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private ContentCacheStatsDTO dto = new ContentCacheStatsDTO();
+
+        public Builder enabled(boolean enabled) { dto.enabled = enabled; return this; }
+        public Builder entries(long entries) { dto.entries = entries; return this; }
+        public Builder bytesCached(long bytesCached) { dto.bytesCached = bytesCached; return this; }
+        public Builder budgetBytes(long budgetBytes) { dto.budgetBytes = budgetBytes; return this; }
+        public Builder maxEntryBytes(long maxEntryBytes) { dto.maxEntryBytes = maxEntryBytes; return this; }
+        public Builder hits(long hits) { dto.hits = hits; return this; }
+        public Builder misses(long misses) { dto.misses = misses; return this; }
+        public Builder hitRatio(double hitRatio) { dto.hitRatio = hitRatio; return this; }
+        public Builder evictions(long evictions) { dto.evictions = evictions; return this; }
+        public Builder bytesServed(long bytesServed) { dto.bytesServed = bytesServed; return this; }
+
+        public ContentCacheStatsDTO build() { return dto; }
+    }
+
+    // Getters
+    public boolean isEnabled() { return enabled; }
+    public long getEntries() { return entries; }
+    public long getBytesCached() { return bytesCached; }
+    public long getBudgetBytes() { return budgetBytes; }
+    public long getMaxEntryBytes() { return maxEntryBytes; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public double getHitRatio() { return hitRatio; }
+    public long getEvictions() { return evictions; }
+    public long getBytesServed() { return bytesServed; }
+}
@@ -0,0 +1,41 @@
+package com.pixelforge.nexus.dto;
+
+/**
+ * DTO for one developer suggested by the assignment typeahead
+ */
+public class DeveloperSuggestionDTO {
+
+    private Long id;
+    private String username;
+    private String firstName;
+    private String lastName;
+    private DeveloperWorkloadDTO workload;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private DeveloperSuggestionDTO dto = new DeveloperSuggestionDTO();
+
+        public Builder id(Long id) { dto.id = id; return this; }
+        public Builder username(String username) { dto.username = username; return this; }
+        public Builder firstName(String firstName) { dto.firstName = firstName; return this; }
+        public Builder lastName(String lastName) { dto.lastName = lastName; return this; }
+        public Builder workload(DeveloperWorkloadDTO workload) { dto.workload = workload; return this; }
+
+        public DeveloperSuggestionDTO build() { return dto; }
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getFirstName() { return firstName; }
+    public String getLastName() { return lastName; }
+
+    /**
+     * Project load of a developer, only set where developers are listed for assignment
+     */
+    public DeveloperWorkloadDTO getWorkload() { return workload; }
+}
@@ -0,0 +1,37 @@
+package com.pixelforge.nexus.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for the current project load of a developer
+ */
+public class DeveloperWorkloadDTO {
+
+    private int activeProjects;
+    private int overdueProjects;
+    private LocalDate nearestDeadline;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private DeveloperWorkloadDTO dto = new DeveloperWorkloadDTO();
+
+        public Builder activeProjects(int activeProjects) { dto.activeProjects = activeProjects; return this; }
+        public Builder overdueProjects(int overdueProjects) { dto.overdueProjects = overdueProjects; return this; }
+        public Builder nearestDeadline(LocalDate nearestDeadline) { dto.nearestDeadline = nearestDeadline; return this; }
+
+        public DeveloperWorkloadDTO build() { return dto; }
+    }
+
+    // Getters
+    public int getActiveProjects() { return activeProjects; }
+    public int getOverdueProjects() { return overdueProjects; }
+
+    /**
+     * Earliest deadline of an active project that is not overdue yet, null if none
+     */
+    public LocalDate getNearestDeadline() { return nearestDeadline; }
+}
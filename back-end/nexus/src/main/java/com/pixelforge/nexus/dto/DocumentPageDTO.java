@@ -0,0 +1,22 @@
+package com.pixelforge.nexus.dto;
+
+import java.util.List;
+
+/**
+ * DTO for one page of a document listing, newest first
+ * nextCursor is null on the last page.
+ */
+public class DocumentPageDTO {
+
+    private List<DocumentResponseDTO> documents;
+    private String nextCursor;
+
+    public DocumentPageDTO(List<DocumentResponseDTO> documents, String nextCursor) {
+        this.documents = documents;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<DocumentResponseDTO> getDocuments() { return documents; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -13,8 +13,10 @@ public class DocumentResponseDTO {
     private Long fileSize;
     private String formattedFileSize;
     private String contentType;
+    private String detectedContentType;
     private String description;
     private LocalDateTime uploadedAt;
+    private int versionNumber;
     private Long projectId;
     private String projectName;
     private UserResponseDTO uploadedBy;
@@ -41,8 +43,12 @@ public class DocumentResponseDTO {
             dto.formattedFileSize = formattedFileSize; return this;
         }
         public Builder contentType(String contentType) { dto.contentType = contentType; return this; }
+        public Builder detectedContentType(String detectedContentType) {
+            dto.detectedContentType = detectedContentType; return this;
+        }
         public Builder description(String description) { dto.description = description; return this; }
         public Builder uploadedAt(LocalDateTime uploadedAt) { dto.uploadedAt = uploadedAt; return this; }
+        public Builder versionNumber(int versionNumber) { dto.versionNumber = versionNumber; return this; }
         public Builder projectId(Long projectId) { dto.projectId = projectId; return this; }
         public Builder projectName(String projectName) { dto.projectName = projectName; return this; }
         public Builder uploadedBy(UserResponseDTO uploadedBy) { dto.uploadedBy = uploadedBy; return this; }
@@ -61,8 +67,10 @@ public class DocumentResponseDTO {
     public Long getFileSize() { return fileSize; }
     public String getFormattedFileSize() { return formattedFileSize; }
     public String getContentType() { return contentType; }
+    public String getDetectedContentType() { return detectedContentType; }
     public String getDescription() { return description; }
     public LocalDateTime getUploadedAt() { return uploadedAt; }
+    public int getVersionNumber() { return versionNumber; }
     public Long getProjectId() { return projectId; }
     public String getProjectName() { return projectName; }
     public UserResponseDTO getUploadedBy() { return uploadedBy; }
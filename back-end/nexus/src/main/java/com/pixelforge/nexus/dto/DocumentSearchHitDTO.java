@@ -0,0 +1,28 @@
+package com.pixelforge.nexus.dto;
+
+/**
+ * DTO for one ranked document of a full-text search
+ */
+public class DocumentSearchHitDTO {
+
+    private DocumentResponseDTO document;
+    private float score;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private DocumentSearchHitDTO dto = new DocumentSearchHitDTO();
+
+        public Builder document(DocumentResponseDTO document) { dto.document = document; return this; }
+        public Builder score(float score) { dto.score = score; return this; }
+
+        public DocumentSearchHitDTO build() { return dto; }
+    }
+
+    // Getters
+    public DocumentResponseDTO getDocument() { return document; }
+    public float getScore() { return score; }
+}
@@ -0,0 +1,64 @@
+package com.pixelforge.nexus.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one entry of a document's version history
+ */
+public class DocumentVersionDTO {
+
+    private int versionNumber;
+    private String originalFileName;
+    private Long fileSize;
+    private String contentType;
+    private String description;
+    private LocalDateTime uploadedAt;
+    private UserResponseDTO uploadedBy;
+    private boolean current;
+    private String storage;
+    private Long storedSize;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private DocumentVersionDTO dto = new DocumentVersionDTO();
+
+        public Builder versionNumber(int versionNumber) { dto.versionNumber = versionNumber; return this; }
+        public Builder originalFileName(String originalFileName) {
+            dto.originalFileName = originalFileName; return this;
+        }
+        public Builder fileSize(Long fileSize) { dto.fileSize = fileSize; return this; }
+        public Builder contentType(String contentType) { dto.contentType = contentType; return this; }
+        public Builder description(String description) { dto.description = description; return this; }
+        public Builder uploadedAt(LocalDateTime uploadedAt) { dto.uploadedAt = uploadedAt; return this; }
+        public Builder uploadedBy(UserResponseDTO uploadedBy) { dto.uploadedBy = uploadedBy; return this; }
+        public Builder current(boolean current) { dto.current = current; return this; }
+        public Builder storage(String storage) { dto.storage = storage; return this; }
+        public Builder storedSize(Long storedSize) { dto.storedSize = storedSize; return this; }
+
+        public DocumentVersionDTO build() { return dto; }
+    }
+
+    // Getters
+    public int getVersionNumber() { return versionNumber; }
+    public String getOriginalFileName() { return originalFileName; }
+    public Long getFileSize() { return fileSize; }
+    public String getContentType() { return contentType; }
+    public String getDescription() { return description; }
+    public LocalDateTime getUploadedAt() { return uploadedAt; }
+    public UserResponseDTO getUploadedBy() { return uploadedBy; }
+    public boolean isCurrent() { return current; }
+
+    /**
+     * FULL or DELTA
+     */
+    public String getStorage() { return storage; }
+
+    /**
+     * Bytes this version occupies in storage
+     */
+    public Long getStoredSize() { return storedSize; }
+}
@@ -0,0 +1,51 @@
+package com.pixelforge.nexus.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for the virtual threads pinned to their carrier at one place in the code
+ */
+public class PinnedThreadDTO {
+
+    private String location;
+    private long count;
+    private double totalMillis;
+    private double maxMillis;
+    private LocalDateTime lastSeen;
+    private List<String> stackTrace;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private PinnedThreadDTO dto = new PinnedThreadDTO();
+
+        public Builder location(String location) { dto.location = location; return this; }
+        public Builder count(long count) { dto.count = count; return this; }
+        public Builder totalMillis(double totalMillis) { dto.totalMillis = totalMillis; return this; }
+        public Builder maxMillis(double maxMillis) { dto.maxMillis = maxMillis; return this; }
+        public Builder lastSeen(LocalDateTime lastSeen) { dto.lastSeen = lastSeen; return this; }
+        public Builder stackTrace(List<String> stackTrace) { dto.stackTrace = stackTrace; return this; }
+
+        public PinnedThreadDTO build() { return dto; }
+    }
+
+    // Getters
+
+    /**
+     * First frame outside the JDK where a virtual thread blocked while pinned
+     */
+    public String getLocation() { return location; }
+    public long getCount() { return count; }
+    public double getTotalMillis() { return totalMillis; }
+    public double getMaxMillis() { return maxMillis; }
+    public LocalDateTime getLastSeen() { return lastSeen; }
+
+    /**
+     * Stack of the most recent occurrence, innermost frame first
+     */
+    public List<String> getStackTrace() { return stackTrace; }
+}
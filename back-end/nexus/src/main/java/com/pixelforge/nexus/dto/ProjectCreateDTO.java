@@ -2,6 +2,7 @@ package com.pixelforge.nexus.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
 
@@ -23,6 +24,10 @@ public class ProjectCreateDTO {
 
     private Long leadId;
 
+    // Storage quota in bytes; the configured default applies when not set
+    @Positive(message = "Storage quota must be positive")
+    private Long storageQuota;
+
     public ProjectCreateDTO() {}
 
     public String getName() { return name; }
@@ -36,4 +41,7 @@ public class ProjectCreateDTO {
 
     public Long getLeadId() { return leadId; }
     public void setLeadId(Long leadId) { this.leadId = leadId; }
+
+    public Long getStorageQuota() { return storageQuota; }
+    public void setStorageQuota(Long storageQuota) { this.storageQuota = storageQuota; }
 }
\ No newline at end of file
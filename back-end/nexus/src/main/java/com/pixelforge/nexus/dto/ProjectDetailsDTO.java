@@ -0,0 +1,33 @@
+package com.pixelforge.nexus.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the project details page: the project, the first page of its documents and its team
+ */
+public class ProjectDetailsDTO {
+
+    private ProjectResponseDTO project;
+    private DocumentPageDTO documents;
+    private List<UserResponseDTO> team;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private ProjectDetailsDTO dto = new ProjectDetailsDTO();
+
+        public Builder project(ProjectResponseDTO project) { dto.project = project; return this; }
+        public Builder documents(DocumentPageDTO documents) { dto.documents = documents; return this; }
+        public Builder team(List<UserResponseDTO> team) { dto.team = team; return this; }
+
+        public ProjectDetailsDTO build() { return dto; }
+    }
+
+    // Getters
+    public ProjectResponseDTO getProject() { return project; }
+    public DocumentPageDTO getDocuments() { return documents; }
+    public List<UserResponseDTO> getTeam() { return team; }
+}
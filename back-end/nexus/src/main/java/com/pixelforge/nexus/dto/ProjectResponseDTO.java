@@ -19,6 +19,8 @@ public class ProjectResponseDTO {
     private UserResponseDTO lead;
     private Set<UserResponseDTO> assignedDevelopers;
     private int documentCount;
+    private long storageUsed;
+    private Long storageQuota;
     private boolean overdue;
 
     // Builder pattern
@@ -41,6 +43,8 @@ public class ProjectResponseDTO {
             dto.assignedDevelopers = assignedDevelopers; return this;
         }
         public Builder documentCount(int documentCount) { dto.documentCount = documentCount; return this; }
+        public Builder storageUsed(long storageUsed) { dto.storageUsed = storageUsed; return this; }
+        public Builder storageQuota(Long storageQuota) { dto.storageQuota = storageQuota; return this; }
         public Builder overdue(boolean overdue) { dto.overdue = overdue; return this; }
 
         public ProjectResponseDTO build() { return dto; }
@@ -57,5 +61,7 @@ public class ProjectResponseDTO {
     public UserResponseDTO getLead() { return lead; }
     public Set<UserResponseDTO> getAssignedDevelopers() { return assignedDevelopers; }
     public int getDocumentCount() { return documentCount; }
+    public long getStorageUsed() { return storageUsed; }
+    public Long getStorageQuota() { return storageQuota; }
     public boolean isOverdue() { return overdue; }
 }
@@ -0,0 +1,62 @@
+package com.pixelforge.nexus.dto;
+
+/**
+ * DTO for the size and freshness of the full-text search index
+ */
+public class SearchIndexStatsDTO {
+
+    private int partitions;
+    private long documents;
+    private long sizeBytes;
+    private int pendingDocuments;
+    private long lagMillis;
+    private long lastLatencyMillis;
+    private long maxLatencyMillis;
+    private long indexedSinceStartup;
+    private long extractionFailures;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private SearchIndexStatsDTO dto = new SearchIndexStatsDTO();
+
+        public Builder partitions(int partitions) { dto.partitions = partitions; return this; }
+        public Builder documents(long documents) { dto.documents = documents; return this; }
+        public Builder sizeBytes(long sizeBytes) { dto.sizeBytes = sizeBytes; return this; }
+        public Builder pendingDocuments(int pendingDocuments) { dto.pendingDocuments = pendingDocuments; return this; }
+        public Builder lagMillis(long lagMillis) { dto.lagMillis = lagMillis; return this; }
+        public Builder lastLatencyMillis(long lastLatencyMillis) { dto.lastLatencyMillis = lastLatencyMillis; return this; }
+        public Builder maxLatencyMillis(long maxLatencyMillis) { dto.maxLatencyMillis = maxLatencyMillis; return this; }
+        public Builder indexedSinceStartup(long indexedSinceStartup) { dto.indexedSinceStartup = indexedSinceStartup; return this; }
+        public Builder extractionFailures(long extractionFailures) { dto.extractionFailures = extractionFailures; return this; }
+
+        public SearchIndexStatsDTO build() { return dto; }
+    }
+
+    // Getters
+    public int getPartitions() { return partitions; }
+    public long getDocuments() { return documents; }
+    public long getSizeBytes() { return sizeBytes; }
+
+    /**
+     * Documents waiting to be (re)indexed
+     */
+    public int getPendingDocuments() { return pendingDocuments; }
+
+    /**
+     * How long the oldest pending document has waited, 0 when none is pending
+     */
+    public long getLagMillis() { return lagMillis; }
+
+    /**
+     * Time from upload commit to searchable, for the last indexed document
+     */
+    public long getLastLatencyMillis() { return lastLatencyMillis; }
+
+    public long getMaxLatencyMillis() { return maxLatencyMillis; }
+    public long getIndexedSinceStartup() { return indexedSinceStartup; }
+    public long getExtractionFailures() { return extractionFailures; }
+}
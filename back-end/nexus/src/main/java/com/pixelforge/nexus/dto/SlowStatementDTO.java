@@ -0,0 +1,57 @@
+package com.pixelforge.nexus.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one normalized SQL statement that ran over the slow statement threshold
+ */
+public class SlowStatementDTO {
+
+    private String sql;
+    private long count;
+    private double totalMillis;
+    private double meanMillis;
+    private double maxMillis;
+    private int minBinds;
+    private int maxBinds;
+    private LocalDateTime firstSeen;
+    private LocalDateTime lastSeen;
+    private String plan;
+    private String planError;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private SlowStatementDTO dto = new SlowStatementDTO();
+
+        public Builder sql(String sql) { dto.sql = sql; return this; }
+        public Builder count(long count) { dto.count = count; return this; }
+        public Builder totalMillis(double totalMillis) { dto.totalMillis = totalMillis; return this; }
+        public Builder meanMillis(double meanMillis) { dto.meanMillis = meanMillis; return this; }
+        public Builder maxMillis(double maxMillis) { dto.maxMillis = maxMillis; return this; }
+        public Builder minBinds(int minBinds) { dto.minBinds = minBinds; return this; }
+        public Builder maxBinds(int maxBinds) { dto.maxBinds = maxBinds; return this; }
+        public Builder firstSeen(LocalDateTime firstSeen) { dto.firstSeen = firstSeen; return this; }
+        public Builder lastSeen(LocalDateTime lastSeen) { dto.lastSeen = lastSeen; return this; }
+        public Builder plan(String plan) { dto.plan = plan; return this; }
+        public Builder planError(String planError) { dto.planError = planError; return this; }
+
+        public SlowStatementDTO build() { return dto; }
+    }
+
+    // Getters
+    public String getSql() { return sql; }
+    public long getCount() { return count; }
+    public double getTotalMillis() { return totalMillis; }
+    public double getMeanMillis() { return meanMillis; }
+    public double getMaxMillis() { return maxMillis; }
+    public int getMinBinds() { return minBinds; }
+    public int getMaxBinds() { return maxBinds; }
+    public LocalDateTime getFirstSeen() { return firstSeen; }
+    public LocalDateTime getLastSeen() { return lastSeen; }
+    public String getPlan() { return plan; }
+    public String getPlanError() { return planError; }
+}
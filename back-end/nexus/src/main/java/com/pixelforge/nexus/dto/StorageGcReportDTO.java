@@ -0,0 +1,45 @@
+package com.pixelforge.nexus.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the result of one storage collector run
+ */
+public class StorageGcReportDTO {
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long tombstonesCleared;
+    private long blobsReclaimed;
+    private long orphansRemoved;
+    private long failures;
+    private long bytesReclaimed;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private StorageGcReportDTO dto = new StorageGcReportDTO();
+
+        public Builder startedAt(LocalDateTime startedAt) { dto.startedAt = startedAt; return this; }
+        public Builder finishedAt(LocalDateTime finishedAt) { dto.finishedAt = finishedAt; return this; }
+        public Builder tombstonesCleared(long tombstonesCleared) { dto.tombstonesCleared = tombstonesCleared; return this; }
+        public Builder blobsReclaimed(long blobsReclaimed) { dto.blobsReclaimed = blobsReclaimed; return this; }
+        public Builder orphansRemoved(long orphansRemoved) { dto.orphansRemoved = orphansRemoved; return this; }
+        public Builder failures(long failures) { dto.failures = failures; return this; }
+        public Builder bytesReclaimed(long bytesReclaimed) { dto.bytesReclaimed = bytesReclaimed; return this; }
+
+        public StorageGcReportDTO build() { return dto; }
+    }
+
+    // Getters
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public long getTombstonesCleared() { return tombstonesCleared; }
+    public long getBlobsReclaimed() { return blobsReclaimed; }
+    public long getOrphansRemoved() { return orphansRemoved; }
+    public long getFailures() { return failures; }
+    public long getBytesReclaimed() { return bytesReclaimed; }
+}
@@ -0,0 +1,40 @@
+package com.pixelforge.nexus.dto;
+
+/**
+ * DTO for storage backend latency statistics
+ */
+public class StorageOperationStatsDTO {
+
+    private String backend;
+    private String operation;
+    private long count;
+    private long errors;
+    private double meanMillis;
+    private double maxMillis;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private StorageOperationStatsDTO dto = new StorageOperationStatsDTO();
+
+        public Builder backend(String backend) { dto.backend = backend; return this; }
+        public Builder operation(String operation) { dto.operation = operation; return this; }
+        public Builder count(long count) { dto.count = count; return this; }
+        public Builder errors(long errors) { dto.errors = errors; return this; }
+        public Builder meanMillis(double meanMillis) { dto.meanMillis = meanMillis; return this; }
+        public Builder maxMillis(double maxMillis) { dto.maxMillis = maxMillis; return this; }
+
+        public StorageOperationStatsDTO build() { return dto; }
+    }
+
+    // Getters
+    public String getBackend() { return backend; }
+    public String getOperation() { return operation; }
+    public long getCount() { return count; }
+    public long getErrors() { return errors; }
+    public double getMeanMillis() { return meanMillis; }
+    public double getMaxMillis() { return maxMillis; }
+}
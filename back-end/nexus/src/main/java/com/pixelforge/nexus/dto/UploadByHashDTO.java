@@ -0,0 +1,48 @@
+package com.pixelforge.nexus.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO for attaching already stored content to a project by digest
+ */
+public class UploadByHashDTO {
+
+    @NotBlank(message = "SHA-256 digest is required")
+    @Pattern(regexp = "[0-9a-fA-F]{64}", message = "SHA-256 digest must be 64 hex characters")
+    private String sha256;
+
+    @NotBlank(message = "File name is required")
+    @Size(max = 255, message = "File name cannot exceed 255 characters")
+    private String fileName;
+
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    private Long fileSize;
+
+    @Size(max = 500, message = "Description cannot exceed 500 characters")
+    private String description;
+
+    public UploadByHashDTO() {}
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+}
@@ -0,0 +1,54 @@
+package com.pixelforge.nexus.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for resumable upload session state
+ */
+public class UploadSessionResponseDTO {
+
+    private String uploadId;
+    private Long projectId;
+    private String fileName;
+    private long fileSize;
+    private long chunkSize;
+    private int totalChunks;
+    private int receivedChunks;
+    private long committedOffset;
+    private boolean complete;
+    private LocalDateTime expiresAt;
+
+    // Builder pattern
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private UploadSessionResponseDTO dto = new UploadSessionResponseDTO();
+
+        public Builder uploadId(String uploadId) { dto.uploadId = uploadId; return this; }
+        public Builder projectId(Long projectId) { dto.projectId = projectId; return this; }
+        public Builder fileName(String fileName) { dto.fileName = fileName; return this; }
+        public Builder fileSize(long fileSize) { dto.fileSize = fileSize; return this; }
+        public Builder chunkSize(long chunkSize) { dto.chunkSize = chunkSize; return this; }
+        public Builder totalChunks(int totalChunks) { dto.totalChunks = totalChunks; return this; }
+        public Builder receivedChunks(int receivedChunks) { dto.receivedChunks = receivedChunks; return this; }
+        public Builder committedOffset(long committedOffset) { dto.committedOffset = committedOffset; return this; }
+        public Builder complete(boolean complete) { dto.complete = complete; return this; }
+        public Builder expiresAt(LocalDateTime expiresAt) { dto.expiresAt = expiresAt; return this; }
+
+        public UploadSessionResponseDTO build() { return dto; }
+    }
+
+    // Getters
+    public String getUploadId() { return uploadId; }
+    public Long getProjectId() { return projectId; }
+    public String getFileName() { return fileName; }
+    public long getFileSize() { return fileSize; }
+    public long getChunkSize() { return chunkSize; }
+    public int getTotalChunks() { return totalChunks; }
+    public int getReceivedChunks() { return receivedChunks; }
+    public long getCommittedOffset() { return committedOffset; }
+    public boolean isComplete() { return complete; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
@@ -16,6 +16,7 @@ public class UserResponseDTO {
     private Role role;
     private boolean enabled;
     private LocalDateTime createdAt;
+    private DeveloperWorkloadDTO workload;
 
     // Builder pattern
     public static Builder builder() {
@@ -33,6 +34,7 @@ public class UserResponseDTO {
         public Builder role(Role role) { dto.role = role; return this; }
         public Builder enabled(boolean enabled) { dto.enabled = enabled; return this; }
         public Builder createdAt(LocalDateTime createdAt) { dto.createdAt = createdAt; return this; }
+        public Builder workload(DeveloperWorkloadDTO workload) { dto.workload = workload; return this; }
 
         public UserResponseDTO build() { return dto; }
     }
@@ -46,4 +48,9 @@ public class UserResponseDTO {
     public Role getRole() { return role; }
     public boolean isEnabled() { return enabled; }
     public LocalDateTime getCreatedAt() { return createdAt; }
-}
\ No newline at end of file
+
+    /**
+     * Project load of a developer, only set where developers are listed for assignment
+     */
+    public DeveloperWorkloadDTO getWorkload() { return workload; }
+}
@@ -12,7 +12,12 @@ import java.time.LocalDateTime;
  * Stores file metadata and relationships to projects and users
  */
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_content_hash", columnList = "contentHash"),
+        @Index(name = "idx_documents_file_path", columnList = "filePath"),
+        @Index(name = "idx_documents_project_listing", columnList = "project_id, uploadedAt, id"),
+        @Index(name = "idx_documents_uploader_listing", columnList = "uploaded_by, uploadedAt, id")
+})
 public class Document {
 
     @Id
@@ -36,10 +41,19 @@ public class Document {
     @Column(nullable = false)
     private Long fileSize;
 
+    @Column(length = 64)
+    private String contentHash;
+
     @NotBlank(message = "Content type is required")
     @Column(nullable = false)
     private String contentType;
 
+    /**
+     * Content type confirmed from the file's magic bytes at upload, null for older documents
+     */
+    @Column(length = 100)
+    private String detectedContentType;
+
     @Size(max = 500, message = "Description cannot exceed 500 characters")
     @Column(length = 500)
     private String description;
@@ -47,6 +61,12 @@ public class Document {
     @Column(nullable = false)
     private LocalDateTime uploadedAt = LocalDateTime.now();
 
+    /**
+     * Number of the latest version, whose content the document row describes; null reads as 1
+     */
+    @Column
+    private Integer versionNumber = 1;
+
     // Relationships
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id", nullable = false)
@@ -121,15 +141,26 @@ public class Document {
     public Long getFileSize() { return fileSize; }
     public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
 
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
     public String getContentType() { return contentType; }
     public void setContentType(String contentType) { this.contentType = contentType; }
 
+    public String getDetectedContentType() { return detectedContentType; }
+    public void setDetectedContentType(String detectedContentType) {
+        this.detectedContentType = detectedContentType;
+    }
+
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
     public LocalDateTime getUploadedAt() { return uploadedAt; }
     public void setUploadedAt(LocalDateTime uploadedAt) { this.uploadedAt = uploadedAt; }
 
+    public int getVersionNumber() { return versionNumber == null ? 1 : versionNumber; }
+    public void setVersionNumber(Integer versionNumber) { this.versionNumber = versionNumber; }
+
     public Project getProject() { return project; }
     public void setProject(Project project) { this.project = project; }
 
@@ -0,0 +1,123 @@
+package com.pixelforge.nexus.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One version in the history of a document
+ * The document row always describes its latest version, which is stored in full. Older versions
+ * are kept in full or as a reverse delta against the version after them, with periodic full
+ * snapshots bounding how many deltas a reconstruction applies.
+ * A FULL version other than the latest holds its own reference to its content blob; the latest
+ * version shares the document's reference. A DELTA version owns its delta object.
+ */
+@Entity
+@Table(name = "document_versions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_document_versions_number", columnNames = {"document_id", "versionNumber"})
+})
+public class DocumentVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "document_id", nullable = false)
+    private Document document;
+
+    @Column(nullable = false)
+    private Integer versionNumber;
+
+    @Column(nullable = false)
+    private String originalFileName;
+
+    @Column(nullable = false)
+    private Long fileSize;
+
+    /**
+     * SHA-256 of the version's content, null for content stored before content addressing
+     */
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Column(length = 100)
+    private String detectedContentType;
+
+    @Column(length = 500)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private VersionStorage storage = VersionStorage.FULL;
+
+    /**
+     * Storage key of the full content or of the delta
+     */
+    @Column(nullable = false)
+    private String storageKey;
+
+    /**
+     * Bytes held by the storage backend for this version
+     */
+    @Column
+    private Long storedSize;
+
+    @Column(nullable = false)
+    private LocalDateTime uploadedAt = LocalDateTime.now();
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "uploaded_by", nullable = false)
+    private User uploadedBy;
+
+    // Constructors
+    public DocumentVersion() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Document getDocument() { return document; }
+    public void setDocument(Document document) { this.document = document; }
+
+    public Integer getVersionNumber() { return versionNumber; }
+    public void setVersionNumber(Integer versionNumber) { this.versionNumber = versionNumber; }
+
+    public String getOriginalFileName() { return originalFileName; }
+    public void setOriginalFileName(String originalFileName) { this.originalFileName = originalFileName; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public String getDetectedContentType() { return detectedContentType; }
+    public void setDetectedContentType(String detectedContentType) {
+        this.detectedContentType = detectedContentType;
+    }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public VersionStorage getStorage() { return storage; }
+    public void setStorage(VersionStorage storage) { this.storage = storage; }
+
+    public String getStorageKey() { return storageKey; }
+    public void setStorageKey(String storageKey) { this.storageKey = storageKey; }
+
+    public Long getStoredSize() { return storedSize; }
+    public void setStoredSize(Long storedSize) { this.storedSize = storedSize; }
+
+    public LocalDateTime getUploadedAt() { return uploadedAt; }
+    public void setUploadedAt(LocalDateTime uploadedAt) { this.uploadedAt = uploadedAt; }
+
+    public User getUploadedBy() { return uploadedBy; }
+    public void setUploadedBy(User uploadedBy) { this.uploadedBy = uploadedBy; }
+}
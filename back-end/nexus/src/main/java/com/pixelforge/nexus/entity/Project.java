@@ -48,6 +48,14 @@ public class Project {
     @Column
     private LocalDateTime completedAt;
 
+    // Storage quota in bytes; null means the configured default
+    @Column
+    private Long storageQuota;
+
+    // Last usage written by the quota service; the live value is kept in memory
+    @Column(insertable = false, updatable = false)
+    private Long storageUsed;
+
     // Relationships
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "lead_id")
@@ -91,6 +99,10 @@ public class Project {
         return status == ProjectStatus.COMPLETED;
     }
 
+    public boolean isActive() {
+        return status == ProjectStatus.ACTIVE;
+    }
+
     public boolean isOverdue() {
         return status == ProjectStatus.ACTIVE && deadline.isBefore(LocalDate.now());
     }
@@ -122,6 +134,11 @@ public class Project {
         this.completedAt = completedAt;
     }
 
+    public Long getStorageQuota() { return storageQuota; }
+    public void setStorageQuota(Long storageQuota) { this.storageQuota = storageQuota; }
+
+    public Long getStorageUsed() { return storageUsed; }
+
     public User getLead() { return lead; }
     public void setLead(User lead) { this.lead = lead; }
 
@@ -0,0 +1,49 @@
+package com.pixelforge.nexus.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored file whose document was deleted, waiting for the storage collector
+ * Written in the deleting transaction, so a rolled-back delete never loses the file.
+ * Shared content-addressed blobs need no tombstone: a reference count of zero plays that role.
+ */
+@Entity
+@Table(name = "storage_tombstones")
+public class StorageTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String storageKey;
+
+    @Column
+    private Long size;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Constructors
+    public StorageTombstone() {}
+
+    public StorageTombstone(String storageKey, Long size) {
+        this.storageKey = storageKey;
+        this.size = size;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getStorageKey() { return storageKey; }
+    public void setStorageKey(String storageKey) { this.storageKey = storageKey; }
+
+    public Long getSize() { return size; }
+    public void setSize(Long size) { this.size = size; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -70,6 +70,14 @@ public class User implements UserDetails {
     @Column
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Storage quota in bytes for documents this user created; null means the configured default
+    @Column
+    private Long storageQuota;
+
+    // Last usage written by the quota service; the live value is kept in memory
+    @Column(insertable = false, updatable = false)
+    private Long storageUsed;
+
     // Relationships
     @OneToMany(mappedBy = "lead", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Project> ledProjects;
@@ -166,6 +174,11 @@ public class User implements UserDetails {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getStorageQuota() { return storageQuota; }
+    public void setStorageQuota(Long storageQuota) { this.storageQuota = storageQuota; }
+
+    public Long getStorageUsed() { return storageUsed; }
+
     public Set<Project> getLedProjects() { return ledProjects; }
     public void setLedProjects(Set<Project> ledProjects) { this.ledProjects = ledProjects; }
 
@@ -0,0 +1,16 @@
+package com.pixelforge.nexus.entity;
+
+/**
+ * How the content of a document version is kept
+ */
+public enum VersionStorage {
+    /**
+     * Complete content: a blob reference, or an unshared file for versions from before content addressing
+     */
+    FULL,
+
+    /**
+     * Binary delta rebuilding the content from the next version
+     */
+    DELTA
+}
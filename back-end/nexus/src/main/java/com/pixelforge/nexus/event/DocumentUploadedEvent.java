@@ -0,0 +1,34 @@
+package com.pixelforge.nexus.event;
+
+/**
+ * Published when a document has been stored and saved
+ * Listeners that do expensive work should run after the upload transaction commits.
+ */
+public class DocumentUploadedEvent {
+
+    private final Long documentId;
+    private final Long projectId;
+    private final String storageKey;
+    private final String contentHash;
+    private final String contentType;
+
+    public DocumentUploadedEvent(Long documentId, Long projectId, String storageKey, String contentHash,
+                                 String contentType) {
+        this.documentId = documentId;
+        this.projectId = projectId;
+        this.storageKey = storageKey;
+        this.contentHash = contentHash;
+        this.contentType = contentType;
+    }
+
+    public Long getDocumentId() { return documentId; }
+    public Long getProjectId() { return projectId; }
+    public String getStorageKey() { return storageKey; }
+
+    /**
+     * SHA-256 of the content, null for documents stored before content addressing
+     */
+    public String getContentHash() { return contentHash; }
+
+    public String getContentType() { return contentType; }
+}
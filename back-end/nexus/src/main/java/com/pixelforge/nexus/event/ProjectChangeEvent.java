@@ -0,0 +1,75 @@
+package com.pixelforge.nexus.event;
+
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.User;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Published when a project, its team or its documents change, for the change feed
+ * Carries the users besides administrators who can see the project: its lead and developers,
+ * read while the project is still attached to its session.
+ */
+public class ProjectChangeEvent {
+
+    public enum Type {
+        PROJECT_CREATED,
+        PROJECT_UPDATED,
+        PROJECT_COMPLETED,
+        PROJECT_REACTIVATED,
+        PROJECT_DELETED,
+        ASSIGNMENT_CHANGED,
+        DOCUMENT_UPLOADED,
+        DOCUMENT_DELETED
+    }
+
+    private final Type type;
+    private final Long projectId;
+    private final Long documentId;
+    private final Set<Long> audience;
+
+    public ProjectChangeEvent(Type type, Project project) {
+        this(type, project, null);
+    }
+
+    public ProjectChangeEvent(Type type, Project project, Long documentId) {
+        this(type, project.getId(), documentId, membersOf(project));
+    }
+
+    public ProjectChangeEvent(Type type, Long projectId, Long documentId, Set<Long> audience) {
+        this.type = type;
+        this.projectId = projectId;
+        this.documentId = documentId;
+        this.audience = audience;
+    }
+
+    /**
+     * IDs of the lead and the assigned developers of a project
+     * @param project Attached project
+     * @return User IDs
+     */
+    public static Set<Long> membersOf(Project project) {
+        Set<Long> members = new HashSet<>();
+        if (project.getLead() != null) {
+            members.add(project.getLead().getId());
+        }
+        if (project.getAssignedDevelopers() != null) {
+            project.getAssignedDevelopers().stream().map(User::getId).forEach(members::add);
+        }
+        return members;
+    }
+
+    public Type getType() { return type; }
+    public Long getProjectId() { return projectId; }
+
+    /**
+     * Changed document, null for changes of the project itself or of several documents at once
+     */
+    public Long getDocumentId() { return documentId; }
+
+    /**
+     * Users besides administrators to tell about the change
+     */
+    public Set<Long> getAudience() { return audience; }
+}
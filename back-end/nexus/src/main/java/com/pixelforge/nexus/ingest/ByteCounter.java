@@ -0,0 +1,30 @@
+package com.pixelforge.nexus.ingest;
+
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Counts upload bytes and rejects the upload as soon as it grows past the limit
+ */
+public class ByteCounter implements IngestStage {
+
+    private final long maxBytes;
+    private long count;
+
+    public ByteCounter(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void update(byte[] buffer, int offset, int length) {
+        count += length;
+        if (count > maxBytes) {
+            throw new InvalidOperationException("File size exceeds maximum limit of "
+                    + DataSize.ofBytes(maxBytes).toMegabytes() + "MB");
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
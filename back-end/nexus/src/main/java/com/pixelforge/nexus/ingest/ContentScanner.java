@@ -0,0 +1,16 @@
+package com.pixelforge.nexus.ingest;
+
+/**
+ * Extension point for content scanning (malware, policy checks) during ingest
+ * Every ContentScanner bean is added to each upload's pipeline. A scanner never
+ * gets a second look at the file, so it must work on the streamed bytes.
+ */
+public interface ContentScanner {
+
+    /**
+     * Start scanning one upload
+     * @param declaredContentType Client-supplied content type
+     * @return Stage that receives the upload bytes and rejects bad content
+     */
+    IngestStage newScan(String declaredContentType);
+}
@@ -0,0 +1,183 @@
+package com.pixelforge.nexus.ingest;
+
+import com.pixelforge.nexus.exception.InvalidOperationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Detects the file type from its leading bytes and checks it against the declared type
+ * Binary formats are decided from their magic bytes, usually within the first 12 bytes;
+ * plain text is accepted once the first 8KB contain no NUL bytes. The upload is rejected
+ * as soon as the bytes contradict the declared type.
+ */
+public class ContentTypeSniffer implements IngestStage {
+
+    static final int SNIFF_LIMIT = 8 * 1024;
+
+    // PDF readers accept the header anywhere in the first 1024 bytes
+    private static final int PDF_HEADER_WINDOW = 1024;
+
+    private static final byte[] PDF_HEADER = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    private enum Signature {
+        PDF("application/pdf", PDF_HEADER_WINDOW),
+        PNG("image/png", 8),
+        JPEG("image/jpeg", 3),
+        GIF("image/gif", 6),
+        BMP("image/bmp", 2),
+        WEBP("image/webp", 12),
+        ZIP("application/zip", 4),
+        OLE2("application/x-ole-storage", 8),
+        TEXT("text/plain", SNIFF_LIMIT);
+
+        private final String mimeType;
+        private final int window;
+
+        Signature(String mimeType, int window) {
+            this.mimeType = mimeType;
+            this.window = window;
+        }
+
+        boolean matches(byte[] h, int len) {
+            switch (this) {
+                case PDF:
+                    return indexOf(h, Math.min(len, PDF_HEADER_WINDOW), PDF_HEADER) >= 0;
+                case PNG:
+                    return startsWith(h, len, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A);
+                case JPEG:
+                    return startsWith(h, len, 0xFF, 0xD8, 0xFF);
+                case GIF:
+                    return startsWith(h, len, 'G', 'I', 'F', '8', '7', 'a')
+                            || startsWith(h, len, 'G', 'I', 'F', '8', '9', 'a');
+                case BMP:
+                    return startsWith(h, len, 'B', 'M');
+                case WEBP:
+                    return startsWith(h, len, 'R', 'I', 'F', 'F') && len >= 12
+                            && h[8] == 'W' && h[9] == 'E' && h[10] == 'B' && h[11] == 'P';
+                case ZIP:
+                    return startsWith(h, len, 'P', 'K', 3, 4) || startsWith(h, len, 'P', 'K', 5, 6);
+                case OLE2:
+                    return startsWith(h, len, 0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1);
+                case TEXT:
+                    return startsWith(h, len, 0xFF, 0xFE) || startsWith(h, len, 0xFE, 0xFF)
+                            || indexOf(h, len, new byte[]{0}) < 0;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    // Signature every allowed declared type must carry
+    private static final Map<String, Signature> EXPECTED_SIGNATURES = Map.ofEntries(
+            Map.entry("application/pdf", Signature.PDF),
+            Map.entry("application/msword", Signature.OLE2),
+            Map.entry("application/vnd.ms-excel", Signature.OLE2),
+            Map.entry("application/vnd.ms-powerpoint", Signature.OLE2),
+            Map.entry("application/vnd.openxmlformats-officedocument.wordprocessingml.document", Signature.ZIP),
+            Map.entry("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", Signature.ZIP),
+            Map.entry("application/vnd.openxmlformats-officedocument.presentationml.presentation", Signature.ZIP),
+            Map.entry("text/plain", Signature.TEXT),
+            Map.entry("image/jpeg", Signature.JPEG),
+            Map.entry("image/png", Signature.PNG),
+            Map.entry("image/gif", Signature.GIF),
+            Map.entry("image/bmp", Signature.BMP),
+            Map.entry("image/webp", Signature.WEBP)
+    );
+
+    private final String declaredContentType;
+    private final Signature expected;
+    private final byte[] header = new byte[SNIFF_LIMIT];
+    private int headerLength;
+    private String detectedContentType;
+
+    public ContentTypeSniffer(String declaredContentType) {
+        this.declaredContentType = declaredContentType == null ? null : declaredContentType.toLowerCase();
+        this.expected = this.declaredContentType == null ? null : EXPECTED_SIGNATURES.get(this.declaredContentType);
+        if (expected == null) {
+            throw new InvalidOperationException("File type not allowed: " + declaredContentType);
+        }
+    }
+
+    @Override
+    public void update(byte[] buffer, int offset, int length) {
+        if (detectedContentType != null || headerLength == header.length) {
+            return;
+        }
+        int copied = Math.min(length, header.length - headerLength);
+        System.arraycopy(buffer, offset, header, headerLength, copied);
+        headerLength += copied;
+        decide(false);
+    }
+
+    @Override
+    public void complete() {
+        if (detectedContentType == null) {
+            decide(true);
+        }
+    }
+
+    /**
+     * Content type confirmed by the bytes; Office formats keep their declared subtype
+     * @return Detected content type, or null while undecided
+     */
+    public String getDetectedContentType() {
+        return detectedContentType;
+    }
+
+    private void decide(boolean endOfContent) {
+        boolean windowFilled = endOfContent || headerLength >= expected.window;
+
+        if (expected.matches(header, headerLength)) {
+            // Text can only be confirmed after the full window, but one NUL byte refutes it
+            if (expected != Signature.TEXT || windowFilled) {
+                accept();
+            }
+        } else if (expected == Signature.TEXT || windowFilled) {
+            reject();
+        }
+    }
+
+    private void accept() {
+        detectedContentType = expected == Signature.ZIP || expected == Signature.OLE2
+                ? declaredContentType
+                : expected.mimeType;
+    }
+
+    private void reject() {
+        String detected = null;
+        for (Signature signature : Signature.values()) {
+            if (signature != Signature.BMP && signature.matches(header, headerLength)) {
+                detected = signature.mimeType;
+                break;
+            }
+        }
+        throw new InvalidOperationException("File content does not match its declared type " + declaredContentType
+                + (detected != null ? " (looks like " + detected + ")" : ""));
+    }
+
+    private static boolean startsWith(byte[] h, int len, int... magic) {
+        if (len < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((h[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] h, int len, byte[] pattern) {
+        outer:
+        for (int i = 0; i + pattern.length <= len; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (h[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
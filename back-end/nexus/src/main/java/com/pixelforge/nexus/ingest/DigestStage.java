@@ -0,0 +1,39 @@
+package com.pixelforge.nexus.ingest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the SHA-256 of the upload
+ */
+public class DigestStage implements IngestStage {
+
+    private final MessageDigest digest;
+    private String hexDigest;
+
+    public DigestStage() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    @Override
+    public void update(byte[] buffer, int offset, int length) {
+        digest.update(buffer, offset, length);
+    }
+
+    @Override
+    public void complete() {
+        hexDigest = HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * SHA-256 of the content, lowercase hex; available after complete()
+     */
+    public String getHexDigest() {
+        return hexDigest;
+    }
+}
@@ -0,0 +1,76 @@
+package com.pixelforge.nexus.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass ingest of one upload
+ * Reads the upload once and tees every buffer through size accounting, type
+ * sniffing, SHA-256 and any content scanners before it is written to the sink.
+ * Stages run in that order, so an oversized or mistyped upload is rejected before
+ * later stages do any work on it.
+ */
+public class IngestPipeline {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ByteCounter byteCounter;
+    private final ContentTypeSniffer sniffer;
+    private final DigestStage digest = new DigestStage();
+    private final List<IngestStage> stages = new ArrayList<>();
+
+    IngestPipeline(String declaredContentType, long maxBytes, List<IngestStage> scanners) {
+        this.byteCounter = new ByteCounter(maxBytes);
+        this.sniffer = new ContentTypeSniffer(declaredContentType);
+        stages.add(byteCounter);
+        stages.add(sniffer);
+        stages.add(digest);
+        stages.addAll(scanners);
+    }
+
+    /**
+     * Run the upload through all stages, copying it to the sink if one is given
+     * @param content Upload stream (not closed)
+     * @param sink Destination for the bytes, or null to only inspect them
+     * @throws com.pixelforge.nexus.exception.InvalidOperationException if a stage rejects the upload
+     */
+    public void run(InputStream content, OutputStream sink) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            for (IngestStage stage : stages) {
+                stage.update(buffer, 0, read);
+            }
+            if (sink != null) {
+                sink.write(buffer, 0, read);
+            }
+        }
+        for (IngestStage stage : stages) {
+            stage.complete();
+        }
+    }
+
+    /**
+     * SHA-256 of the content, lowercase hex
+     */
+    public String getContentHash() {
+        return digest.getHexDigest();
+    }
+
+    /**
+     * Number of bytes read
+     */
+    public long getSize() {
+        return byteCounter.getCount();
+    }
+
+    /**
+     * Content type confirmed by the file's bytes
+     */
+    public String getDetectedContentType() {
+        return sniffer.getDetectedContentType();
+    }
+}
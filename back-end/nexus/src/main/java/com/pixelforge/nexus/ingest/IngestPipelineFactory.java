@@ -0,0 +1,30 @@
+package com.pixelforge.nexus.ingest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Creates ingest pipelines, adding every registered ContentScanner
+ */
+@Component
+public class IngestPipelineFactory {
+
+    @Autowired(required = false)
+    private List<ContentScanner> contentScanners = List.of();
+
+    /**
+     * Create a pipeline for one upload
+     * @param declaredContentType Client-supplied content type
+     * @param maxBytes Size limit in bytes
+     * @return New pipeline
+     * @throws com.pixelforge.nexus.exception.InvalidOperationException if the declared type is not allowed
+     */
+    public IngestPipeline create(String declaredContentType, long maxBytes) {
+        return new IngestPipeline(declaredContentType, maxBytes, contentScanners.stream()
+                .map(scanner -> scanner.newScan(declaredContentType))
+                .collect(Collectors.toList()));
+    }
+}
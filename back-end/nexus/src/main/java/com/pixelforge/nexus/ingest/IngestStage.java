@@ -0,0 +1,24 @@
+package com.pixelforge.nexus.ingest;
+
+/**
+ * One stage of the upload ingest pipeline
+ * Stages see every byte of an upload exactly once, in order, while it is being
+ * staged. A stage rejects the upload by throwing InvalidOperationException, which
+ * stops the read immediately.
+ */
+public interface IngestStage {
+
+    /**
+     * Consume the next bytes of the upload
+     * @param buffer Buffer holding the bytes
+     * @param offset Offset of the first byte
+     * @param length Number of bytes
+     */
+    void update(byte[] buffer, int offset, int length);
+
+    /**
+     * Called once after the last byte has been consumed
+     */
+    default void complete() {
+    }
+}
@@ -0,0 +1,78 @@
+package com.pixelforge.nexus.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durations and sizes of document uploads and downloads
+ * Uploads are tagged by kind (multipart, resumable, by-hash, version, batch) and downloads by
+ * what was downloaded (document, version). Resumable uploads are timed from the finalize call,
+ * after their chunks arrived. Only completed transfers are recorded; failures show up in
+ * http.server.requests by status.
+ */
+@Component
+public class DocumentMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public DocumentMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Start timing an upload
+     * @return Sample to pass to recordUpload
+     */
+    public Timer.Sample startUpload() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Record a completed upload
+     * @param sample Sample from startUpload
+     * @param kind Upload kind
+     * @param bytes Size of the uploaded file
+     */
+    public void recordUpload(Timer.Sample sample, String kind, long bytes) {
+        sample.stop(Timer.builder("nexus.document.upload")
+                .tag("kind", kind)
+                .register(meterRegistry));
+        recordUploadSize(kind, bytes);
+    }
+
+    /**
+     * Record the size of an upload timed elsewhere
+     * @param kind Upload kind
+     * @param bytes Size of the uploaded file
+     */
+    public void recordUploadSize(String kind, long bytes) {
+        DistributionSummary.builder("nexus.document.upload.size")
+                .baseUnit("bytes")
+                .tag("kind", kind)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    /**
+     * Record a completed download
+     * For files handed to the container's sendfile support the duration ends at the hand-off.
+     * @param kind Download kind
+     * @param nanos Elapsed time in nanoseconds
+     * @param bytes Bytes of the response body
+     */
+    public void recordDownload(String kind, long nanos, long bytes) {
+        Timer.builder("nexus.document.download")
+                .tag("kind", kind)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("nexus.document.download.size")
+                .baseUnit("bytes")
+                .tag("kind", kind)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+}
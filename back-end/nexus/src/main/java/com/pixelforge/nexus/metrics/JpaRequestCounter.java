@@ -0,0 +1,96 @@
+package com.pixelforge.nexus.metrics;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Counts the SQL statements executed and the entities loaded on the current thread
+ * Statements are counted when they reach the JDBC driver, whether issued by Hibernate or by
+ * JdbcTemplate; entities through Hibernate's post-load event. The request filter takes the
+ * difference over each request, and tests can do the same around any call:
+ * <pre>
+ * StatementCount count = counter.count(() -> mockMvc.perform(get("/projects")));
+ * assertThat(count.getStatements()).isLessThanOrEqualTo(5);
+ * </pre>
+ */
+public class JpaRequestCounter implements StatementListener, PostLoadEventListener {
+
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+    /**
+     * Count one executed statement on the current thread
+     * A JDBC batch counts as one statement.
+     */
+    @Override
+    public void statementExecuted(String sql, long nanos) {
+        Counts counts = COUNTS.get();
+        counts.statements++;
+        counts.statementNanos += nanos;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        COUNTS.get().entityLoads++;
+    }
+
+    /**
+     * Running totals of the current thread, to subtract from a later snapshot
+     * @return Current totals
+     */
+    public StatementCount snapshot() {
+        Counts counts = COUNTS.get();
+        return new StatementCount(counts.statements, counts.statementNanos, counts.entityLoads);
+    }
+
+    /**
+     * Count the statements and entity loads of an action run on the current thread
+     * Work the action hands to other threads is not counted.
+     * @param action Action to run
+     * @return Work done by the action
+     * @throws Exception if the action throws
+     */
+    public StatementCount count(Action action) throws Exception {
+        StatementCount before = snapshot();
+        action.run();
+        return snapshot().since(before);
+    }
+
+    /**
+     * Count the work of a task handed to another thread towards the current thread
+     * The task must finish before the current thread takes its next snapshot, as the lookups of a
+     * fan-out do before the request ends.
+     * @param task Task to run on another thread
+     * @return Task adding its statements and entity loads to the current thread's totals
+     */
+    public <T> Callable<T> onBehalfOfCurrentThread(Callable<T> task) {
+        Counts owner = COUNTS.get();
+        return () -> {
+            StatementCount before = snapshot();
+            try {
+                return task.call();
+            } finally {
+                owner.add(snapshot().since(before));
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private static final class Counts {
+        private long statements;
+        private long statementNanos;
+        private long entityLoads;
+
+        // Tasks of one fan-out may finish at the same time
+        private synchronized void add(StatementCount count) {
+            statements += count.getStatements();
+            statementNanos += count.getStatementNanos();
+            entityLoads += count.getEntityLoads();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.pixelforge.nexus.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records the SQL statements, their total time and the entity loads of each request, per route
+ * Requests issuing more statements than the budget are logged, which is how N+1 query patterns
+ * show up. Runs ahead of the security filters, so the user lookup of token authentication is
+ * counted too. Work handed to other threads (thumbnails, indexing, archive prefetch) is not.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class JpaRequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(JpaRequestMetricsFilter.class);
+
+    private final JpaRequestCounter counter;
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+
+    public JpaRequestMetricsFilter(JpaRequestCounter counter, MeterRegistry meterRegistry,
+                                   @Value("${app.jpa.statement-budget:50}") int statementBudget) {
+        this.counter = counter;
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        StatementCount before = counter.snapshot();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            record(request, counter.snapshot().since(before));
+        }
+    }
+
+    private void record(HttpServletRequest request, StatementCount count) {
+        // Same uri tag as http.server.requests, so the two can be read side by side
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("nexus.jpa.request.statements").tags(tags).register(meterRegistry)
+                .record(count.getStatements());
+        DistributionSummary.builder("nexus.jpa.request.entity.loads").tags(tags).register(meterRegistry)
+                .record(count.getEntityLoads());
+        Timer.builder("nexus.jpa.request.statement.time").tags(tags).register(meterRegistry)
+                .record(count.getStatementTime());
+
+        if (statementBudget > 0 && count.getStatements() > statementBudget) {
+            Counter.builder("nexus.jpa.request.over.budget").tags(tags).register(meterRegistry).increment();
+            log.warn("{} {} executed {} SQL statements, over the budget of {} ({} ms, {} entity loads)",
+                    request.getMethod(), uri, count.getStatements(), statementBudget,
+                    count.getStatementTime().toMillis(), count.getEntityLoads());
+        }
+    }
+}
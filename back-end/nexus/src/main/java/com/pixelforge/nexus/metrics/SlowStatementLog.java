@@ -0,0 +1,300 @@
+package com.pixelforge.nexus.metrics;
+
+import com.pixelforge.nexus.dto.SlowStatementDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Statements that ran over the slow statement threshold, per normalized SQL
+ * Literals are replaced by ? and IN lists and multi-row VALUES are collapsed, so statements that
+ * differ only in their values or list sizes are counted together; the number of bind parameters
+ * tells the list sizes apart. The first time a statement is slow it is logged and its plan is
+ * captured in the background with EXPLAIN, without running it. Statements with bind parameters
+ * are prepared and explained with a generic plan, which does not depend on the values. Only the
+ * first max-statements distinct statements are kept until the log is cleared.
+ */
+@Component
+public class SlowStatementLog implements StatementListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowStatementLog.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$])\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\b(in\\s*)\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern VALUES_LIST = Pattern.compile(
+            "(?i)\\b(values\\s*)\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)(?:\\s*,\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\))+");
+    private static final Pattern EXPLAINABLE = Pattern.compile("^\\s*(select|insert|update|delete|with)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private final ConcurrentMap<String, SlowStatement> statements = new ConcurrentHashMap<>();
+    private final long thresholdNanos;
+    private final int maxStatements;
+    private final ObjectProvider<DataSource> dataSource;
+    private final TaskExecutor explainExecutor;
+
+    public SlowStatementLog(@Value("${app.jpa.slow-statement.threshold:200ms}") Duration threshold,
+                            @Value("${app.jpa.slow-statement.max-statements:200}") int maxStatements,
+                            ObjectProvider<DataSource> dataSource,
+                            @Qualifier("explainExecutor") TaskExecutor explainExecutor) {
+        this.thresholdNanos = threshold.toNanos();
+        this.maxStatements = maxStatements;
+        this.dataSource = dataSource;
+        this.explainExecutor = explainExecutor;
+    }
+
+    @Override
+    public void statementExecuted(String sql, long nanos) {
+        if (sql == null || nanos < thresholdNanos) {
+            return;
+        }
+        String normalized = normalize(sql);
+        SlowStatement statement = statements.get(normalized);
+        if (statement == null) {
+            if (statements.size() >= maxStatements) {
+                return;
+            }
+            statement = statements.computeIfAbsent(normalized, SlowStatement::new);
+        }
+        int binds = countPlaceholders(sql);
+        if (statement.record(nanos, binds)) {
+            log.warn("Slow SQL statement ({} ms, {} binds): {}", nanos / 1_000_000, binds, normalized);
+        }
+        requestPlan(statement, sql);
+    }
+
+    /**
+     * Slowest statements by total time over the threshold
+     * @param limit Maximum number of statements
+     * @return Statements, highest total time first
+     */
+    public List<SlowStatementDTO> getTopStatements(int limit) {
+        return statements.values().stream()
+                .map(SlowStatement::toDTO)
+                .sorted(Comparator.comparingDouble(SlowStatementDTO::getTotalMillis).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Forget every recorded statement, making room for new ones
+     */
+    public void clear() {
+        statements.clear();
+    }
+
+    /**
+     * Normalize SQL so statements differing only in values or list sizes compare equal
+     * @param sql SQL with ? placeholders
+     * @return Normalized SQL
+     */
+    static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("$1(?...)");
+        return VALUES_LIST.matcher(normalized).replaceAll("$1(?...), ...");
+    }
+
+    /**
+     * Count the ? placeholders outside string literals and quoted identifiers
+     * @param sql SQL with ? placeholders
+     * @return Number of bind parameters
+     */
+    static int countPlaceholders(String sql) {
+        return (int) placeholders(sql, null);
+    }
+
+    /**
+     * Replace the ? placeholders by PostgreSQL's numbered $1, $2, ... parameters
+     */
+    static String numberPlaceholders(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        placeholders(sql, numbered);
+        return numbered.toString();
+    }
+
+    /**
+     * Scan for placeholders, copying the SQL with numbered parameters if a builder is given
+     */
+    private static long placeholders(String sql, StringBuilder numbered) {
+        long count = 0;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '?') {
+                count++;
+                if (numbered != null) {
+                    numbered.append('$').append(count);
+                    continue;
+                }
+            }
+            if (numbered != null) {
+                numbered.append(c);
+            }
+        }
+        return count;
+    }
+
+    private void requestPlan(SlowStatement statement, String sql) {
+        if (!statement.planRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            explainExecutor.execute(() -> explain(statement, sql));
+        } catch (TaskRejectedException ex) {
+            // Retried the next time the statement is slow
+            statement.planRequested.set(false);
+        }
+    }
+
+    private void explain(SlowStatement statement, String sql) {
+        if (!EXPLAINABLE.matcher(sql).lookingAt()) {
+            statement.planError = "Only SELECT, INSERT, UPDATE, DELETE and WITH statements are explained";
+            return;
+        }
+        DataSource target = dataSource.getObject();
+        if (target instanceof DelegatingDataSource) {
+            // Keep the EXPLAIN out of the statement counts and this log
+            target = ((DelegatingDataSource) target).getTargetDataSource();
+        }
+        try (Connection connection = target.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            if (!"PostgreSQL".equals(metaData.getDatabaseProductName())) {
+                statement.planError = "Plans are only captured on PostgreSQL";
+                return;
+            }
+            int binds = countPlaceholders(sql);
+            if (binds > 0 && metaData.getDatabaseMajorVersion() < 12) {
+                statement.planError = "Plans of statements with bind parameters need PostgreSQL 12 or later";
+                return;
+            }
+            statement.plan = binds > 0 ? explainPrepared(connection, sql, binds) : explain(connection, sql);
+        } catch (SQLException | RuntimeException ex) {
+            log.debug("Could not explain slow statement {}", statement.sql, ex);
+            statement.planError = ex.getMessage();
+        }
+    }
+
+    private static String explain(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return readPlan(statement, "EXPLAIN (ANALYZE off) " + sql);
+        }
+    }
+
+    /**
+     * Explain the generic plan of a statement with bind parameters
+     * The driver sends every statement with the extended protocol, which rejects $n parameters that
+     * are not bound (and so EXPLAIN GENERIC_PLAN), so the statement is prepared on the server and
+     * explained with null arguments while only generic plans are allowed.
+     */
+    private static String explainPrepared(Connection connection, String sql, int binds) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        boolean prepared = false;
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            try {
+                statement.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE nexus_slow_statement AS " + numberPlaceholders(sql));
+                prepared = true;
+                String nulls = String.join(", ", Collections.nCopies(binds, "NULL"));
+                return readPlan(statement, "EXPLAIN (ANALYZE off) EXECUTE nexus_slow_statement(" + nulls + ")");
+            } finally {
+                // Prepared statements outlive the transaction, and the pooled connection is reused
+                connection.rollback();
+                if (prepared) {
+                    statement.execute("DEALLOCATE nexus_slow_statement");
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static String readPlan(Statement statement, String explain) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rows = statement.executeQuery(explain)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static final class SlowStatement {
+        private final String sql;
+        private final AtomicBoolean planRequested = new AtomicBoolean();
+        private final LocalDateTime firstSeen = LocalDateTime.now();
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private int minBinds = Integer.MAX_VALUE;
+        private int maxBinds;
+        private LocalDateTime lastSeen;
+        private volatile String plan;
+        private volatile String planError;
+
+        private SlowStatement(String sql) {
+            this.sql = sql;
+        }
+
+        /**
+         * @return true for the first execution recorded
+         */
+        private synchronized boolean record(long nanos, int binds) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            minBinds = Math.min(minBinds, binds);
+            maxBinds = Math.max(maxBinds, binds);
+            lastSeen = LocalDateTime.now();
+            return count == 1;
+        }
+
+        private synchronized SlowStatementDTO toDTO() {
+            return SlowStatementDTO.builder()
+                    .sql(sql)
+                    .count(count)
+                    .totalMillis(totalNanos / 1_000_000.0)
+                    .meanMillis(count == 0 ? 0 : totalNanos / (double) count / 1_000_000)
+                    .maxMillis(maxNanos / 1_000_000.0)
+                    .minBinds(count == 0 ? 0 : minBinds)
+                    .maxBinds(maxBinds)
+                    .firstSeen(firstSeen)
+                    .lastSeen(lastSeen)
+                    .plan(plan)
+                    .planError(planError)
+                    .build();
+        }
+    }
+}
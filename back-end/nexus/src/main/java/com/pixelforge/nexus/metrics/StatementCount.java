@@ -0,0 +1,42 @@
+package com.pixelforge.nexus.metrics;
+
+import java.time.Duration;
+
+/**
+ * SQL statements executed, their total execution time and the entities loaded, at one point or between two
+ */
+public final class StatementCount {
+
+    private final long statements;
+    private final long statementNanos;
+    private final long entityLoads;
+
+    public StatementCount(long statements, long statementNanos, long entityLoads) {
+        this.statements = statements;
+        this.statementNanos = statementNanos;
+        this.entityLoads = entityLoads;
+    }
+
+    /**
+     * Work done since an earlier count
+     * @param earlier Count taken before this one on the same thread
+     * @return Difference of the two counts
+     */
+    public StatementCount since(StatementCount earlier) {
+        return new StatementCount(statements - earlier.statements, statementNanos - earlier.statementNanos,
+                entityLoads - earlier.entityLoads);
+    }
+
+    public long getStatements() { return statements; }
+    public long getStatementNanos() { return statementNanos; }
+    public long getEntityLoads() { return entityLoads; }
+
+    public Duration getStatementTime() {
+        return Duration.ofNanos(statementNanos);
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statements in " + statementNanos / 1_000_000 + " ms, " + entityLoads + " entity loads";
+    }
+}
@@ -0,0 +1,15 @@
+package com.pixelforge.nexus.metrics;
+
+/**
+ * Notified of every statement executed through the statement timing data source
+ * Called on the thread that executed the statement, so implementations must be quick.
+ */
+public interface StatementListener {
+
+    /**
+     * One statement was executed
+     * @param sql SQL with ? placeholders as sent to the driver, or null for a batch of plain statements
+     * @param nanos Execution time in nanoseconds
+     */
+    void statementExecuted(String sql, long nanos);
+}
@@ -0,0 +1,100 @@
+package com.pixelforge.nexus.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Data source that times every statement its connections execute
+ * Connections and statements are wrapped in proxies that report each execute call to the
+ * listeners; everything else goes straight to the pooled connection.
+ */
+public class StatementTimingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+
+    private final Supplier<List<StatementListener>> listenerSource;
+    private volatile List<StatementListener> listeners;
+
+    /**
+     * Wrap a data source
+     * @param targetDataSource Data source to wrap
+     * @param listenerSource Listeners, looked up on first use as they may depend on the data source
+     */
+    public StatementTimingDataSource(DataSource targetDataSource, Supplier<List<StatementListener>> listenerSource) {
+        super(targetDataSource);
+        this.listenerSource = listenerSource;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (!(result instanceof Statement)) {
+                        return result;
+                    }
+                    // Statement, PreparedStatement or CallableStatement, as declared by the factory method
+                    String sql = PREPARE_METHODS.contains(method.getName()) ? (String) args[0] : null;
+                    return wrap((Statement) result, method.getReturnType(), sql);
+                });
+    }
+
+    private Statement wrap(Statement statement, Class<?> type, String preparedSql) {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!EXECUTE_METHODS.contains(method.getName())) {
+                        return invoke(statement, method, args);
+                    }
+                    String sql = args != null && args.length > 0 && args[0] instanceof String
+                            ? (String) args[0]
+                            : preparedSql;
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        long nanos = System.nanoTime() - start;
+                        for (StatementListener listener : listeners()) {
+                            listener.statementExecuted(sql, nanos);
+                        }
+                    }
+                });
+    }
+
+    private List<StatementListener> listeners() {
+        List<StatementListener> current = listeners;
+        if (current == null) {
+            current = List.copyOf(listenerSource.get());
+            listeners = current;
+        }
+        return current;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.pixelforge.nexus.metrics;
+
+import com.pixelforge.nexus.dto.PinnedThreadDTO;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Report of the places where virtual threads blocked while pinned to their carrier thread
+ * A virtual thread that blocks inside a synchronized block or a native call keeps its carrier
+ * busy, so a few such places can stall every request. The JDK records each pinned block longer
+ * than the threshold as a jdk.VirtualThreadPinned flight recorder event; they are streamed here
+ * and grouped by the first frame outside the JDK. Micrometer's jvm.threads.virtual.pinned timer
+ * counts the same events.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_LOCATIONS = 100;
+    private static final int MAX_FRAMES = 30;
+
+    private final ConcurrentMap<String, PinnedLocation> locations = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${app.threads.pinning.enabled:true}") boolean enabled,
+                                       @Value("${app.threads.pinning.threshold:20ms}") Duration threshold) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Start streaming pinning events
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::record);
+            stream.startAsync();
+        } catch (RuntimeException ex) {
+            // Flight recorder disabled or unavailable in this JVM
+            log.warn("Virtual thread pinning is not monitored: {}", ex.getMessage());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    /**
+     * Places where virtual threads were pinned since startup
+     * @return Locations, highest total pinned time first
+     */
+    public List<PinnedThreadDTO> getPinnedLocations() {
+        return locations.values().stream()
+                .map(PinnedLocation::toDTO)
+                .sorted(Comparator.comparingDouble(PinnedThreadDTO::getTotalMillis).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Forget the recorded locations
+     */
+    public void clear() {
+        locations.clear();
+    }
+
+    void record(RecordedEvent event) {
+        List<String> stackTrace = frames(event.getStackTrace());
+        String location = stackTrace.stream()
+                .filter(frame -> !isJdkFrame(frame))
+                .findFirst()
+                .orElse(stackTrace.isEmpty() ? "unknown" : stackTrace.get(0));
+        PinnedLocation pinned = locations.get(location);
+        if (pinned == null) {
+            if (locations.size() >= MAX_LOCATIONS) {
+                return;
+            }
+            pinned = locations.computeIfAbsent(location, PinnedLocation::new);
+        }
+        if (pinned.record(event.getDuration().toNanos(), stackTrace)) {
+            log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), location);
+        }
+    }
+
+    private static List<String> frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of();
+        }
+        return stackTrace.getFrames().stream()
+                .limit(MAX_FRAMES)
+                .map(VirtualThreadPinningMonitor::format)
+                .collect(Collectors.toList());
+    }
+
+    private static String format(RecordedFrame frame) {
+        String method = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+        return frame.getLineNumber() > 0 ? method + ":" + frame.getLineNumber() : method;
+    }
+
+    private static boolean isJdkFrame(String frame) {
+        return frame.startsWith("java.") || frame.startsWith("jdk.") || frame.startsWith("sun.");
+    }
+
+    private static final class PinnedLocation {
+        private final String location;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private LocalDateTime lastSeen;
+        private List<String> stackTrace;
+
+        private PinnedLocation(String location) {
+            this.location = location;
+        }
+
+        /**
+         * @return true for the first occurrence recorded
+         */
+        private synchronized boolean record(long nanos, List<String> stackTrace) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            lastSeen = LocalDateTime.now();
+            this.stackTrace = stackTrace;
+            return count == 1;
+        }
+
+        private synchronized PinnedThreadDTO toDTO() {
+            return PinnedThreadDTO.builder()
+                    .location(location)
+                    .count(count)
+                    .totalMillis(totalNanos / 1_000_000.0)
+                    .maxMillis(maxNanos / 1_000_000.0)
+                    .lastSeen(lastSeen)
+                    .stackTrace(stackTrace)
+                    .build();
+        }
+    }
+}
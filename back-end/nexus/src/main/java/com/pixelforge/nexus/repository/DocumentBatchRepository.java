@@ -0,0 +1,66 @@
+package com.pixelforge.nexus.repository;
+
+import com.pixelforge.nexus.entity.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched inserts of Document rows
+ * Hibernate cannot batch inserts of IDENTITY-keyed entities, so a batch upload would
+ * cost one round trip per document. This inserts all rows in one JDBC batch and reads
+ * the generated ids back. Joins the caller's transaction.
+ */
+@Repository
+public class DocumentBatchRepository {
+
+    private static final String INSERT_DOCUMENT = "INSERT INTO documents (file_name, original_file_name, file_path, " +
+            "file_size, content_hash, content_type, detected_content_type, description, uploaded_at, version_number, " +
+            "project_id, uploaded_by) VALUES (:fileName, :originalFileName, :filePath, :fileSize, :contentHash, " +
+            ":contentType, :detectedContentType, :description, :uploadedAt, :versionNumber, :projectId, :uploadedBy)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert new documents and assign their generated ids
+     * The documents are not attached to the persistence context.
+     * @param documents Unsaved documents with project and uploader set
+     */
+    public void insertAll(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        SqlParameterSource[] rows = documents.stream()
+                .map(document -> new MapSqlParameterSource()
+                        .addValue("fileName", document.getFileName())
+                        .addValue("originalFileName", document.getOriginalFileName())
+                        .addValue("filePath", document.getFilePath())
+                        .addValue("fileSize", document.getFileSize())
+                        .addValue("contentHash", document.getContentHash())
+                        .addValue("contentType", document.getContentType())
+                        .addValue("detectedContentType", document.getDetectedContentType())
+                        .addValue("description", document.getDescription())
+                        .addValue("uploadedAt", document.getUploadedAt())
+                        .addValue("versionNumber", document.getVersionNumber())
+                        .addValue("projectId", document.getProject().getId())
+                        .addValue("uploadedBy", document.getUploadedBy().getId()))
+                .toArray(SqlParameterSource[]::new);
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_DOCUMENT, rows, keys, new String[]{"id"});
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < documents.size(); i++) {
+            documents.get(i).setId(((Number) generated.get(i).get("id")).longValue());
+        }
+    }
+}
@@ -4,11 +4,22 @@ package com.pixelforge.nexus.repository;
 import com.pixelforge.nexus.entity.Document;
 import com.pixelforge.nexus.entity.Project;
 import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.service.ArchiveEntry;
+import com.pixelforge.nexus.service.DocumentCount;
+import com.pixelforge.nexus.service.DocumentListing;
+import com.pixelforge.nexus.service.IndexEntry;
+import com.pixelforge.nexus.service.StorageUsage;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +30,16 @@ import java.util.Optional;
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
 
+    /**
+     * Find a document and lock its row until the transaction ends
+     * Serializes concurrent uploads of new versions of the same document.
+     * @param id Document ID
+     * @return Optional Document
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Document d WHERE d.id = :id")
+    Optional<Document> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * Find documents by project
      * @param project Project to filter by
@@ -26,20 +47,61 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
      */
     List<Document> findByProject(Project project);
 
+    // Listing queries share their columns, filters and order; only the keyset bound differs
+    String LISTING_SELECT = "SELECT new com.pixelforge.nexus.service.DocumentListing(d.id, d.fileName, " +
+            "d.originalFileName, d.fileSize, d.contentType, d.detectedContentType, d.description, d.uploadedAt, " +
+            "d.versionNumber, p.id, p.name, u.id, u.username, u.firstName, u.lastName, u.role) " +
+            "FROM Document d JOIN d.project p JOIN d.uploadedBy u " +
+            "WHERE (:projectId IS NULL OR p.id = :projectId) " +
+            "AND (:uploaderId IS NULL OR u.id = :uploaderId) " +
+            "AND (:contentType IS NULL OR COALESCE(d.detectedContentType, d.contentType) LIKE :contentType) ";
+
+    String LISTING_ORDER = "ORDER BY d.uploadedAt DESC, d.id DESC";
+
     /**
-     * Find documents by project ordered by upload date
-     * @param project Project to filter by
-     * @return List of documents ordered by upload date (newest first)
+     * Find the first page of a document listing, newest first, with uploader and project read in the same query
+     * Every filter is optional; callers scope the listing by project or uploader.
+     * @param projectId Project to list, or null
+     * @param uploaderId Uploader to list, or null
+     * @param contentType LIKE pattern matched against the detected or declared content type, or null
+     * @param pageable Page size (page number must be 0)
+     * @return Listing rows
      */
-    @Query("SELECT d FROM Document d WHERE d.project = :project ORDER BY d.uploadedAt DESC")
-    List<Document> findByProjectOrderByUploadedAtDesc(@Param("project") Project project);
+    @Query(LISTING_SELECT + LISTING_ORDER)
+    List<DocumentListing> findListings(@Param("projectId") Long projectId,
+                                       @Param("uploaderId") Long uploaderId,
+                                       @Param("contentType") String contentType,
+                                       Pageable pageable);
 
     /**
-     * Find documents uploaded by user
-     * @param user User who uploaded
-     * @return List of documents uploaded by user
+     * Find the page of a document listing after a keyset position on (uploadedAt, id), newest first
+     * The position is compared as one row value, which PostgreSQL uses as the start of a range on the
+     * project and uploader listing indexes, so every page reads only its own rows.
+     * @param projectId Project to list, or null
+     * @param uploaderId Uploader to list, or null
+     * @param contentType LIKE pattern matched against the detected or declared content type, or null
+     * @param beforeUploadedAt Upload time of the last row of the previous page
+     * @param beforeId ID of the last row of the previous page
+     * @param pageable Page size (page number must be 0)
+     * @return Listing rows
      */
-    List<Document> findByUploadedBy(User user);
+    @Query(LISTING_SELECT + "AND (d.uploadedAt, d.id) < (:beforeUploadedAt, :beforeId) " + LISTING_ORDER)
+    List<DocumentListing> findListingsBefore(@Param("projectId") Long projectId,
+                                             @Param("uploaderId") Long uploaderId,
+                                             @Param("contentType") String contentType,
+                                             @Param("beforeUploadedAt") LocalDateTime beforeUploadedAt,
+                                             @Param("beforeId") Long beforeId,
+                                             Pageable pageable);
+
+    /**
+     * Find the stored files of a project for archiving, oldest first
+     * @param projectId Project ID
+     * @return Archive entries
+     */
+    @Query("SELECT new com.pixelforge.nexus.service.ArchiveEntry(d.originalFileName, d.filePath, d.contentHash, " +
+            "COALESCE(d.detectedContentType, d.contentType), d.fileSize) " +
+            "FROM Document d WHERE d.project.id = :projectId ORDER BY d.uploadedAt, d.id")
+    List<ArchiveEntry> findArchiveEntriesByProjectId(@Param("projectId") Long projectId);
 
     /**
      * Find document by filename and project
@@ -56,10 +118,112 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
      */
     long countByProject(Project project);
 
+    /**
+     * Count documents of several projects with one query
+     * @param projects Projects to count for
+     * @return Count per project, for projects with documents
+     */
+    @Query("SELECT new com.pixelforge.nexus.service.DocumentCount(d.project.id, COUNT(d)) FROM Document d " +
+            "WHERE d.project IN :projects GROUP BY d.project.id")
+    List<DocumentCount> countByProjects(@Param("projects") Collection<Project> projects);
+
     /**
      * Find documents by content type
      * @param contentType Content type to filter by
      * @return List of documents with specified content type
      */
     List<Document> findByContentType(String contentType);
-}
\ No newline at end of file
+
+    /**
+     * Check if content is attached to any project led by user
+     * @param contentHash SHA-256 hex digest
+     * @param lead Project lead
+     * @return true if a document in one of the lead's projects has this content
+     */
+    boolean existsByContentHashAndProject_Lead(String contentHash, User lead);
+
+    /**
+     * Find any document with this content whose type was confirmed by sniffing
+     * @param contentHash SHA-256 hex digest
+     * @return Optional Document
+     */
+    Optional<Document> findFirstByContentHashAndDetectedContentTypeIsNotNull(String contentHash);
+
+    /**
+     * Find content hashes referenced by a project's documents (one entry per document)
+     * @param project Project
+     * @return List of content hashes
+     */
+    @Query("SELECT d.contentHash FROM Document d WHERE d.project = :project AND d.contentHash IS NOT NULL")
+    List<String> findContentHashesByProject(@Param("project") Project project);
+
+    /**
+     * Find a project's documents stored before content addressing (their files are not shared)
+     * @param project Project
+     * @return List of documents
+     */
+    @Query("SELECT d FROM Document d WHERE d.project = :project AND d.contentHash IS NULL")
+    List<Document> findLegacyDocumentsByProject(@Param("project") Project project);
+
+    /**
+     * Sum the file sizes of documents per project
+     * @param projectId Project to sum, or null for every project
+     * @return Usage per project
+     */
+    @Query("SELECT new com.pixelforge.nexus.service.StorageUsage(d.project.id, SUM(d.fileSize)) FROM Document d " +
+            "WHERE (:projectId IS NULL OR d.project.id = :projectId) GROUP BY d.project.id")
+    List<StorageUsage> sumFileSizesByProject(@Param("projectId") Long projectId);
+
+    /**
+     * Sum the file sizes of documents per uploader
+     * @param uploaderId Uploader to sum, or null for every user
+     * @param projectId Project to restrict to, or null for every project
+     * @return Usage per uploader
+     */
+    @Query("SELECT new com.pixelforge.nexus.service.StorageUsage(d.uploadedBy.id, SUM(d.fileSize)) FROM Document d " +
+            "WHERE (:uploaderId IS NULL OR d.uploadedBy.id = :uploaderId) " +
+            "AND (:projectId IS NULL OR d.project.id = :projectId) GROUP BY d.uploadedBy.id")
+    List<StorageUsage> sumFileSizesByUploader(@Param("uploaderId") Long uploaderId,
+                                              @Param("projectId") Long projectId);
+
+    /**
+     * Get the current version of every document, to compare with the search index
+     * @return One entry per document
+     */
+    @Query("SELECT new com.pixelforge.nexus.service.IndexEntry(d.id, d.project.id, d.versionNumber) FROM Document d")
+    List<IndexEntry> findIndexEntries();
+
+    /**
+     * Find documents by ID with their project and uploader, for search results
+     * @param ids Document IDs
+     * @return Documents found, in no particular order
+     */
+    @Query("SELECT d FROM Document d JOIN FETCH d.project JOIN FETCH d.uploadedBy WHERE d.id IN :ids")
+    List<Document> findWithProjectAndUploaderByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find which of the given storage keys are used by a document
+     * @param filePaths Storage keys
+     * @return Keys in use
+     */
+    @Query("SELECT d.filePath FROM Document d WHERE d.filePath IN :filePaths")
+    List<String> findFilePathsIn(@Param("filePaths") Collection<String> filePaths);
+
+    /**
+     * Find documents still recorded under a file path instead of their storage key
+     * The storage key of a document is its stored file name.
+     * @return List of documents to migrate
+     */
+    @Query("SELECT d FROM Document d WHERE d.filePath <> d.fileName")
+    List<Document> findDocumentsWithLegacyPaths();
+
+    /**
+     * Point a document at its storage key
+     * @param documentId Document ID
+     * @param filePath Storage key
+     * @return Number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.filePath = :filePath WHERE d.id = :documentId")
+    int updateFilePath(@Param("documentId") Long documentId, @Param("filePath") String filePath);
+}
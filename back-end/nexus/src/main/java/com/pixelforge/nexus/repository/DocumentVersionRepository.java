@@ -0,0 +1,118 @@
+package com.pixelforge.nexus.repository;
+
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.entity.DocumentVersion;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.service.StorageUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for DocumentVersion entity
+ */
+@Repository
+public interface DocumentVersionRepository extends JpaRepository<DocumentVersion, Long> {
+
+    /**
+     * Find the version history of a document with its uploaders, newest first
+     * @param document Document
+     * @return List of versions
+     */
+    @Query("SELECT v FROM DocumentVersion v JOIN FETCH v.uploadedBy WHERE v.document = :document " +
+            "ORDER BY v.versionNumber DESC")
+    List<DocumentVersion> findHistory(@Param("document") Document document);
+
+    /**
+     * Find one version of a document
+     * @param document Document
+     * @param versionNumber Version number
+     * @return Optional DocumentVersion
+     */
+    Optional<DocumentVersion> findByDocumentAndVersionNumber(Document document, Integer versionNumber);
+
+    /**
+     * Find a version and every later one, oldest first
+     * A delta version is rebuilt from the versions after it, up to the first full one.
+     * @param document Document
+     * @param versionNumber First version number
+     * @return List of versions
+     */
+    List<DocumentVersion> findByDocumentAndVersionNumberGreaterThanEqualOrderByVersionNumberAsc(
+            Document document, Integer versionNumber);
+
+    /**
+     * Find the versions of a document other than its latest one
+     * These hold their own content references or delta objects.
+     * @param document Document
+     * @return List of versions
+     */
+    @Query("SELECT v FROM DocumentVersion v WHERE v.document = :document " +
+            "AND v.versionNumber < COALESCE(v.document.versionNumber, 1)")
+    List<DocumentVersion> findRetainedByDocument(@Param("document") Document document);
+
+    /**
+     * Find the versions other than the latest one of every document in a project
+     * @param project Project
+     * @return List of versions
+     */
+    @Query("SELECT v FROM DocumentVersion v JOIN v.document d WHERE d.project = :project " +
+            "AND v.versionNumber < COALESCE(d.versionNumber, 1)")
+    List<DocumentVersion> findRetainedByProject(@Param("project") Project project);
+
+    /**
+     * Sum the file sizes of retained versions per project
+     * @param projectId Project to sum, or null for every project
+     * @return Usage per project
+     */
+    @Query("SELECT new com.pixelforge.nexus.service.StorageUsage(d.project.id, SUM(v.fileSize)) " +
+            "FROM DocumentVersion v JOIN v.document d WHERE v.versionNumber < COALESCE(d.versionNumber, 1) " +
+            "AND (:projectId IS NULL OR d.project.id = :projectId) GROUP BY d.project.id")
+    List<StorageUsage> sumRetainedFileSizesByProject(@Param("projectId") Long projectId);
+
+    /**
+     * Sum the file sizes of retained versions per document uploader
+     * Versions count against the user who created the document, whoever uploaded them.
+     * @param uploaderId Document uploader to sum, or null for every user
+     * @param projectId Project to restrict to, or null for every project
+     * @return Usage per document uploader
+     */
+    @Query("SELECT new com.pixelforge.nexus.service.StorageUsage(d.uploadedBy.id, SUM(v.fileSize)) " +
+            "FROM DocumentVersion v JOIN v.document d WHERE v.versionNumber < COALESCE(d.versionNumber, 1) " +
+            "AND (:uploaderId IS NULL OR d.uploadedBy.id = :uploaderId) " +
+            "AND (:projectId IS NULL OR d.project.id = :projectId) GROUP BY d.uploadedBy.id")
+    List<StorageUsage> sumRetainedFileSizesByUploader(@Param("uploaderId") Long uploaderId,
+                                                      @Param("projectId") Long projectId);
+
+    /**
+     * Delete the version history of a document
+     * @param document Document
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM DocumentVersion v WHERE v.document = :document")
+    int deleteByDocument(@Param("document") Document document);
+
+    /**
+     * Delete the version histories of every document in a project
+     * @param project Project
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM DocumentVersion v WHERE v.document IN (SELECT d FROM Document d WHERE d.project = :project)")
+    int deleteByProject(@Param("project") Project project);
+
+    /**
+     * Find which of the given storage keys hold a version's content or delta
+     * @param storageKeys Storage keys
+     * @return Keys in use
+     */
+    @Query("SELECT v.storageKey FROM DocumentVersion v WHERE v.storageKey IN :storageKeys")
+    List<String> findStorageKeysIn(@Param("storageKeys") Collection<String> storageKeys);
+}
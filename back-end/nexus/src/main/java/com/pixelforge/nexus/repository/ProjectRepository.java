@@ -3,13 +3,16 @@ package com.pixelforge.nexus.repository;
 
 import com.pixelforge.nexus.entity.Project;
 import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.service.WorkloadAssignment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Project entity
@@ -25,6 +28,30 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
      */
     List<Project> findByLead(User lead);
 
+    /**
+     * Find every project with its lead and assigned developers, in one query
+     * @return List of all projects
+     */
+    @Query("SELECT DISTINCT p FROM Project p LEFT JOIN FETCH p.lead LEFT JOIN FETCH p.assignedDevelopers")
+    List<Project> findAllWithTeam();
+
+    /**
+     * Find a project with its lead and assigned developers, in one query
+     * @param id Project ID
+     * @return Project, if found
+     */
+    @Query("SELECT p FROM Project p LEFT JOIN FETCH p.lead LEFT JOIN FETCH p.assignedDevelopers WHERE p.id = :id")
+    Optional<Project> findWithTeamById(@Param("id") Long id);
+
+    /**
+     * Find projects by lead user, with their lead and assigned developers
+     * @param lead Project lead
+     * @return List of projects led by user
+     */
+    @Query("SELECT DISTINCT p FROM Project p LEFT JOIN FETCH p.lead LEFT JOIN FETCH p.assignedDevelopers " +
+            "WHERE p.lead = :lead")
+    List<Project> findWithTeamByLead(@Param("lead") User lead);
+
     /**
      * Find active projects by lead
      * @param lead Project lead
@@ -41,6 +68,15 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     @Query("SELECT p FROM Project p JOIN p.assignedDevelopers d WHERE d = :developer")
     List<Project> findProjectsAssignedToDeveloper(@Param("developer") User developer);
 
+    /**
+     * Find projects assigned to a developer, with their lead and assigned developers
+     * @param developer Developer user
+     * @return List of projects assigned to developer
+     */
+    @Query("SELECT DISTINCT p FROM Project p LEFT JOIN FETCH p.lead LEFT JOIN FETCH p.assignedDevelopers " +
+            "WHERE :developer MEMBER OF p.assignedDevelopers")
+    List<Project> findWithTeamAssignedToDeveloper(@Param("developer") User developer);
+
     /**
      * Find active projects assigned to a developer
      * @param developer Developer user
@@ -50,10 +86,11 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findActiveProjectsAssignedToDeveloper(@Param("developer") User developer);
 
     /**
-     * Find all active projects
+     * Find all active projects, with their lead and assigned developers
      * @return List of active projects
      */
-    @Query("SELECT p FROM Project p WHERE p.status = 'ACTIVE'")
+    @Query("SELECT DISTINCT p FROM Project p LEFT JOIN FETCH p.lead LEFT JOIN FETCH p.assignedDevelopers " +
+            "WHERE p.status = 'ACTIVE'")
     List<Project> findActiveProjects();
 
     /**
@@ -65,10 +102,29 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findByStatus(@Param("status") String status);
 
     /**
-     * Find overdue projects
+     * Find overdue projects, with their lead and assigned developers
      * @param currentDate Current date
      * @return List of overdue projects
      */
-    @Query("SELECT p FROM Project p WHERE p.deadline < :currentDate AND p.status = 'ACTIVE'")
+    @Query("SELECT DISTINCT p FROM Project p LEFT JOIN FETCH p.lead LEFT JOIN FETCH p.assignedDevelopers " +
+            "WHERE p.deadline < :currentDate AND p.status = 'ACTIVE'")
     List<Project> findOverdueProjects(@Param("currentDate") LocalDate currentDate);
-}
\ No newline at end of file
+
+    /**
+     * Record the storage usage counted by the quota service
+     * @param id Project ID
+     * @param storageUsed Usage in bytes
+     * @return Number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE Project p SET p.storageUsed = :storageUsed WHERE p.id = :id")
+    int updateStorageUsed(@Param("id") Long id, @Param("storageUsed") long storageUsed);
+
+    /**
+     * Get every developer assignment of the active projects, to seed the workload index
+     * @return One row per project and assigned developer
+     */
+    @Query("SELECT new com.pixelforge.nexus.service.WorkloadAssignment(p.id, p.deadline, d.id) " +
+            "FROM Project p JOIN p.assignedDevelopers d WHERE p.status = 'ACTIVE'")
+    List<WorkloadAssignment> findActiveAssignments();
+}
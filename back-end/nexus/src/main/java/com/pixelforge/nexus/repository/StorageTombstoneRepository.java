@@ -0,0 +1,39 @@
+package com.pixelforge.nexus.repository;
+
+import com.pixelforge.nexus.entity.StorageTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for StorageTombstone entity
+ */
+@Repository
+public interface StorageTombstoneRepository extends JpaRepository<StorageTombstone, Long> {
+
+    /**
+     * Find tombstones old enough to collect, in id order after a given id
+     * @param afterId Last id already processed
+     * @param cutoff Only tombstones created before this time
+     * @param pageable Batch size
+     * @return Tombstones to collect
+     */
+    @Query("SELECT t FROM StorageTombstone t WHERE t.id > :afterId AND t.createdAt < :cutoff ORDER BY t.id")
+    List<StorageTombstone> findCollectable(@Param("afterId") long afterId,
+                                           @Param("cutoff") LocalDateTime cutoff,
+                                           Pageable pageable);
+
+    /**
+     * Find which of the given keys are tombstoned
+     * @param storageKeys Storage keys
+     * @return Tombstoned keys
+     */
+    @Query("SELECT t.storageKey FROM StorageTombstone t WHERE t.storageKey IN :storageKeys")
+    List<String> findStorageKeysIn(@Param("storageKeys") Collection<String> storageKeys);
+}
@@ -0,0 +1,136 @@
+package com.pixelforge.nexus.repository;
+
+import com.pixelforge.nexus.dto.CompressionSavingsDTO;
+import com.pixelforge.nexus.entity.StoredBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for StoredBlob entity
+ * Reference counts are changed with single atomic statements so concurrent
+ * uploads and deletes of the same content never lose an update
+ */
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    /**
+     * Insert blob with one reference, or add a reference if it already exists
+     * The row always ends up describing the file as given, which differs from the recorded one
+     * when the content was stored again after its file was collected.
+     * @param contentHash SHA-256 hex digest
+     * @param filePath Stored file path
+     * @param fileSize File size in bytes
+     * @param storedSize Stored size in bytes
+     * @param contentEncoding Content coding of the stored bytes, or null
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stored_blobs (content_hash, file_path, file_size, stored_size, content_encoding, " +
+            "ref_count, created_at) " +
+            "VALUES (:contentHash, :filePath, :fileSize, :storedSize, :contentEncoding, 1, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (content_hash) DO UPDATE SET ref_count = stored_blobs.ref_count + 1, " +
+            "file_path = EXCLUDED.file_path, file_size = EXCLUDED.file_size, " +
+            "stored_size = EXCLUDED.stored_size, content_encoding = EXCLUDED.content_encoding",
+            nativeQuery = true)
+    void upsertReference(@Param("contentHash") String contentHash,
+                         @Param("filePath") String filePath,
+                         @Param("fileSize") long fileSize,
+                         @Param("storedSize") long storedSize,
+                         @Param("contentEncoding") String contentEncoding);
+
+    /**
+     * Add a reference to an existing blob
+     * @param contentHash SHA-256 hex digest
+     * @return Number of rows updated (0 if blob does not exist)
+     */
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1 WHERE b.contentHash = :contentHash")
+    int incrementRefCount(@Param("contentHash") String contentHash);
+
+    /**
+     * Drop a reference from a blob
+     * @param contentHash SHA-256 hex digest
+     * @return Number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1, b.releasedAt = CURRENT_TIMESTAMP " +
+            "WHERE b.contentHash = :contentHash AND b.refCount > 0")
+    int decrementRefCount(@Param("contentHash") String contentHash);
+
+    /**
+     * Find blobs still recorded under a file path instead of their storage key
+     * @return List of blobs to migrate
+     */
+    @Query("SELECT b FROM StoredBlob b WHERE b.filePath <> b.contentHash")
+    List<StoredBlob> findBlobsWithLegacyPaths();
+
+    /**
+     * Point a blob at its storage key
+     * @param contentHash SHA-256 hex digest
+     * @param filePath Storage key
+     * @return Number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.filePath = :filePath WHERE b.contentHash = :contentHash")
+    int updateFilePath(@Param("contentHash") String contentHash, @Param("filePath") String filePath);
+
+    /**
+     * Summarize compression at rest per document content type
+     * Sizes are per document, so shared content counts once for every document using it
+     * @return Savings per content type
+     */
+    @Query("SELECT new com.pixelforge.nexus.dto.CompressionSavingsDTO(d.contentType, COUNT(d), " +
+            "SUM(d.fileSize), SUM(COALESCE(b.storedSize, b.fileSize))) " +
+            "FROM Document d, StoredBlob b WHERE d.contentHash = b.contentHash " +
+            "GROUP BY d.contentType ORDER BY d.contentType")
+    List<CompressionSavingsDTO> summarizeCompressionByContentType();
+
+    /**
+     * Serialize writers and the storage collector on one storage key until the transaction ends
+     * Taken before checking whether content exists, so the collector can never delete a file
+     * that an upload has just decided to reuse.
+     * @param storageKey Storage key
+     * @return Always 1
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtextextended(:storageKey, 0))) l",
+            nativeQuery = true)
+    Integer lockStorageKey(@Param("storageKey") String storageKey);
+
+    /**
+     * Find unreferenced blobs released before a cutoff, in hash order after a given hash
+     * Blobs released before release times were recorded fall back to their creation time.
+     * @param afterHash Last hash already processed
+     * @param cutoff Only blobs released before this time
+     * @param pageable Batch size
+     * @return Blobs to collect
+     */
+    @Query("SELECT b FROM StoredBlob b WHERE b.refCount = 0 AND b.contentHash > :afterHash " +
+            "AND COALESCE(b.releasedAt, b.createdAt) < :cutoff ORDER BY b.contentHash")
+    List<StoredBlob> findCollectable(@Param("afterHash") String afterHash,
+                                     @Param("cutoff") LocalDateTime cutoff,
+                                     Pageable pageable);
+
+    /**
+     * Find a blob only if it is still unreferenced
+     * @param contentHash SHA-256 hex digest
+     * @return Blob, if it has no references
+     */
+    @Query("SELECT b FROM StoredBlob b WHERE b.contentHash = :contentHash AND b.refCount = 0")
+    Optional<StoredBlob> findUnreferenced(@Param("contentHash") String contentHash);
+
+    /**
+     * Find which of the given storage keys belong to a blob
+     * @param filePaths Storage keys
+     * @return Keys in use
+     */
+    @Query("SELECT b.filePath FROM StoredBlob b WHERE b.filePath IN :filePaths")
+    List<String> findFilePathsIn(@Param("filePaths") Collection<String> filePaths);
+}
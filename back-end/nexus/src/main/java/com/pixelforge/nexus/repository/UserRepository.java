@@ -3,6 +3,7 @@ package com.pixelforge.nexus.repository;
 import com.pixelforge.nexus.entity.User;
 import com.pixelforge.nexus.entity.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -63,4 +64,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u WHERE u.role = :role AND u.enabled = true")
     List<User> findActiveUsersByRole(@Param("role") Role role);
+
+    /**
+     * Record the storage usage counted by the quota service
+     * @param id User ID
+     * @param storageUsed Usage in bytes
+     * @return Number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.storageUsed = :storageUsed WHERE u.id = :id")
+    int updateStorageUsed(@Param("id") Long id, @Param("storageUsed") long storageUsed);
 }
@@ -0,0 +1,18 @@
+package com.pixelforge.nexus.search;
+
+/**
+ * One ranked match of a full-text search
+ */
+public class DocumentHit {
+
+    private final Long documentId;
+    private final float score;
+
+    public DocumentHit(Long documentId, float score) {
+        this.documentId = documentId;
+        this.score = score;
+    }
+
+    public Long getDocumentId() { return documentId; }
+    public float getScore() { return score; }
+}
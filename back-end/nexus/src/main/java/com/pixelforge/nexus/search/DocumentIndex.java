@@ -0,0 +1,604 @@
+package com.pixelforge.nexus.search;
+
+import com.pixelforge.nexus.exception.FileStorageException;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * On-disk full-text index of documents, partitioned into one Lucene index per project
+ * A search only reads the partitions of the projects the user can see, and a deleted project's
+ * partition is dropped as a whole directory. Writers of recently changed partitions stay open: each
+ * change is visible to searches right after it is applied, and is committed to disk in the
+ * background. Beyond app.search.max-open-partitions the least recently used idle partition is
+ * committed and closed; searches read partitions that are not open straight from disk, and close
+ * them again afterwards.
+ */
+@Component
+public class DocumentIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentIndex.class);
+
+    static final String ID = "id";
+    static final String VERSION = "version";
+    static final String NAME = "name";
+    static final String DESCRIPTION = "description";
+    static final String CONTENT = "content";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("project-(\\d+)");
+
+    // A document name or description match ranks above the same term in its body
+    private static final float NAME_BOOST = 3.0f;
+    private static final float DESCRIPTION_BOOST = 2.0f;
+
+    private static final int MAX_QUERY_TERMS = 32;
+
+    private static final Pattern FILE_NAME_SEPARATORS = Pattern.compile("[._\\-]+");
+
+    private final Path indexLocation;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final ConcurrentMap<Long, Partition> partitions = new ConcurrentHashMap<>();
+
+    private final int maxOpenPartitions;
+
+    // Orders partitions by last use, for closing the least recently used one
+    private final AtomicLong uses = new AtomicLong();
+
+    private final Lock evicting = new ReentrantLock();
+
+    public DocumentIndex(@Value("${app.upload.dir:uploads}") String uploadDir,
+                         @Value("${app.search.max-open-partitions:64}") int maxOpenPartitions) {
+        this.indexLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(".index");
+        this.maxOpenPartitions = maxOpenPartitions;
+        try {
+            Files.createDirectories(this.indexLocation);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the directory for the search index.", ex);
+        }
+    }
+
+    /**
+     * Add a document to its project's partition, replacing any earlier version of it
+     * @param projectId Project of the document
+     * @param documentId Document ID
+     * @param version Version number of the indexed content
+     * @param name File name
+     * @param description Description, may be null
+     * @param content Extracted text, may be null
+     */
+    public void index(Long projectId, Long documentId, int version, String name, String description,
+                      String content) {
+        Document document = new Document();
+        document.add(new StringField(ID, documentId.toString(), Field.Store.YES));
+        document.add(new StoredField(VERSION, version));
+        // "boss-fight_v2.pdf" would otherwise stay one token, since the analyzer keeps dotted words together
+        document.add(new TextField(NAME, FILE_NAME_SEPARATORS.matcher(name).replaceAll(" "), Field.Store.NO));
+        if (description != null) {
+            document.add(new TextField(DESCRIPTION, description, Field.Store.NO));
+        }
+        if (content != null) {
+            document.add(new TextField(CONTENT, content, Field.Store.NO));
+        }
+
+        Partition partition = acquire(projectId, true);
+        try {
+            partition.writer.updateDocument(new Term(ID, documentId.toString()), document);
+            partition.changed();
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not index document " + documentId, ex);
+        } finally {
+            partition.release();
+        }
+    }
+
+    /**
+     * Remove a document from its project's partition
+     * @param projectId Project of the document
+     * @param documentId Document ID
+     */
+    public void remove(Long projectId, Long documentId) {
+        Partition partition = acquire(projectId, false);
+        if (partition == null) {
+            return;
+        }
+        try {
+            partition.writer.deleteDocuments(new Term(ID, documentId.toString()));
+            partition.changed();
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not remove document " + documentId + " from the index", ex);
+        } finally {
+            partition.release();
+        }
+    }
+
+    /**
+     * Delete the partition of a project
+     * @param projectId Project ID
+     */
+    public void dropProject(Long projectId) {
+        Partition partition = partitions.remove(projectId);
+        if (partition != null) {
+            partition.close(false);
+        }
+        try {
+            FileSystemUtils.deleteRecursively(partitionPath(projectId));
+        } catch (IOException ex) {
+            log.warn("Could not delete the search index of project {}", projectId, ex);
+        }
+    }
+
+    /**
+     * Get the projects that have a partition on disk
+     * @return Project IDs
+     */
+    public Set<Long> getProjectIds() {
+        Set<Long> projectIds = new LinkedHashSet<>(partitions.keySet());
+        try (Stream<Path> children = Files.list(indexLocation)) {
+            children.forEach(child -> {
+                Matcher matcher = PARTITION_NAME.matcher(child.getFileName().toString());
+                if (matcher.matches()) {
+                    projectIds.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not list the search index.", ex);
+        }
+        return projectIds;
+    }
+
+    /**
+     * Get the indexed version of every document of a project
+     * @param projectId Project ID
+     * @return Version number per document ID
+     */
+    public Map<Long, Integer> getIndexedVersions(Long projectId) {
+        Map<Long, Integer> versions = new HashMap<>();
+        try {
+            PartitionReader partition = openReader(projectId);
+            if (partition == null) {
+                return versions;
+            }
+            try {
+                for (LeafReaderContext leaf : partition.reader().leaves()) {
+                    Bits liveDocs = leaf.reader().getLiveDocs();
+                    StoredFields storedFields = leaf.reader().storedFields();
+                    for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+                        if (liveDocs == null || liveDocs.get(doc)) {
+                            Document stored = storedFields.document(doc, Set.of(ID, VERSION));
+                            versions.put(Long.parseLong(stored.get(ID)),
+                                    stored.getField(VERSION).numericValue().intValue());
+                        }
+                    }
+                }
+            } finally {
+                partition.close();
+            }
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not read the search index of project " + projectId, ex);
+        }
+        return versions;
+    }
+
+    /**
+     * Search the partitions of some projects
+     * Every term of the query must match the name, description or text of a document;
+     * hits are ranked by BM25 across all the given partitions together.
+     * @param queryText Free text query
+     * @param projectIds Projects to search
+     * @param limit Maximum number of hits
+     * @return Hits, best first
+     */
+    public List<DocumentHit> search(String queryText, Collection<Long> projectIds, int limit) {
+        Query query = buildQuery(queryText);
+        List<DocumentHit> hits = new ArrayList<>();
+        if (query == null) {
+            return hits;
+        }
+
+        List<PartitionReader> searched = new ArrayList<>();
+        try {
+            for (Long projectId : projectIds) {
+                PartitionReader partition = openReader(projectId);
+                if (partition != null) {
+                    searched.add(partition);
+                }
+            }
+            if (searched.isEmpty()) {
+                return hits;
+            }
+
+            IndexReader[] readers = searched.stream().map(PartitionReader::reader).toArray(IndexReader[]::new);
+            // One reader over all partitions, so term statistics and scores are comparable
+            try (MultiReader reader = new MultiReader(readers, false)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                StoredFields storedFields = searcher.storedFields();
+                for (ScoreDoc scoreDoc : searcher.search(query, limit).scoreDocs) {
+                    String id = storedFields.document(scoreDoc.doc, Set.of(ID)).get(ID);
+                    hits.add(new DocumentHit(Long.parseLong(id), scoreDoc.score));
+                }
+            }
+            return hits;
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not search the document index.", ex);
+        } finally {
+            searched.forEach(PartitionReader::close);
+        }
+    }
+
+    /**
+     * Count the documents in all partitions, reading those that are not open from disk
+     * @return Number of indexed documents
+     */
+    public long getDocumentCount() {
+        long count = 0;
+        for (Long projectId : getProjectIds()) {
+            try {
+                PartitionReader partition = openReader(projectId);
+                if (partition != null) {
+                    try {
+                        count += partition.reader().numDocs();
+                    } finally {
+                        partition.close();
+                    }
+                }
+            } catch (IOException ex) {
+                throw new FileStorageException("Could not read the search index of project " + projectId, ex);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Measure the index on disk
+     * @return Size of all partitions in bytes
+     */
+    public long getSizeInBytes() {
+        try (Stream<Path> files = Files.walk(indexLocation)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException ex) {
+                    // Merged segments disappear while walking
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not measure the search index.", ex);
+        }
+    }
+
+    /**
+     * Commit changed partitions, so they survive a restart
+     */
+    @Scheduled(initialDelayString = "${app.search.commit-interval:PT1M}",
+            fixedDelayString = "${app.search.commit-interval:PT1M}")
+    public void commit() {
+        partitions.forEach((projectId, partition) -> {
+            // A partition closed meanwhile was committed as it closed
+            if (!partition.tryAcquire()) {
+                return;
+            }
+            try {
+                if (partition.dirty.getAndSet(false)) {
+                    partition.writer.commit();
+                }
+            } catch (IOException | RuntimeException ex) {
+                partition.dirty.set(true);
+                log.warn("Could not commit the search index of project {}", projectId, ex);
+            } finally {
+                partition.release();
+            }
+        });
+    }
+
+    @PreDestroy
+    void close() {
+        partitions.values().forEach(partition -> partition.close(true));
+        partitions.clear();
+    }
+
+    /**
+     * Take the open partition of a project for writing, opening it if it exists on disk (or creating it)
+     * The caller must release it.
+     */
+    private Partition acquire(Long projectId, boolean create) {
+        while (true) {
+            Partition partition = partitions.get(projectId);
+            if (partition == null) {
+                if (!create && !Files.isDirectory(partitionPath(projectId))) {
+                    return null;
+                }
+                partition = partitions.computeIfAbsent(projectId, id -> open(partitionPath(id)));
+            }
+            if (partition.tryAcquire()) {
+                partition.lastUsed = uses.incrementAndGet();
+                closeIdlePartitions();
+                return partition;
+            }
+            // Closed after it was looked up; it is committed, so it can be opened again
+            partitions.remove(projectId, partition);
+        }
+    }
+
+    /**
+     * Get a reader of a project's partition: the current searcher if it is open, otherwise its
+     * last commit read from disk
+     * @return Reader the caller must close, or null if the project has no partition
+     */
+    private PartitionReader openReader(Long projectId) throws IOException {
+        Partition partition = partitions.get(projectId);
+        if (partition != null && partition.tryAcquire()) {
+            try {
+                return new PartitionReader(partition, partition.searchers.acquire());
+            } catch (IOException | RuntimeException ex) {
+                partition.release();
+                throw ex;
+            }
+        }
+
+        Path path = partitionPath(projectId);
+        if (!Files.isDirectory(path)) {
+            return null;
+        }
+        Directory directory = FSDirectory.open(path);
+        try {
+            if (!DirectoryReader.indexExists(directory)) {
+                directory.close();
+                return null;
+            }
+            return new PartitionReader(directory, DirectoryReader.open(directory));
+        } catch (IOException | RuntimeException ex) {
+            directory.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Commit and close the least recently used idle partitions beyond the limit
+     */
+    private void closeIdlePartitions() {
+        if (partitions.size() <= maxOpenPartitions || !evicting.tryLock()) {
+            return;
+        }
+        try {
+            List<Map.Entry<Long, Partition>> leastRecentlyUsed = new ArrayList<>(partitions.entrySet());
+            leastRecentlyUsed.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+            int excess = leastRecentlyUsed.size() - maxOpenPartitions;
+            for (Map.Entry<Long, Partition> entry : leastRecentlyUsed) {
+                if (excess <= 0) {
+                    break;
+                }
+                // Removed only once closed, so a search that no longer finds it reads its last commit
+                if (entry.getValue().closeIfIdle()) {
+                    partitions.remove(entry.getKey(), entry.getValue());
+                    excess--;
+                }
+            }
+        } finally {
+            evicting.unlock();
+        }
+    }
+
+    private Partition open(Path path) {
+        try {
+            Directory directory = FSDirectory.open(path);
+            IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            return new Partition(directory, writer, new SearcherManager(writer, null));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not open the search index at " + path, ex);
+        }
+    }
+
+    private Path partitionPath(Long projectId) {
+        return indexLocation.resolve("project-" + projectId);
+    }
+
+    /**
+     * Every query term is required, in any of the indexed fields
+     */
+    private Query buildQuery(String queryText) {
+        Set<String> terms = new LinkedHashSet<>();
+        try (TokenStream tokens = analyzer.tokenStream(CONTENT, queryText)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not analyze query", ex);
+        }
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            query.add(new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(NAME, term)), NAME_BOOST), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new TermQuery(new Term(DESCRIPTION, term)), DESCRIPTION_BOOST),
+                            BooleanClause.Occur.SHOULD)
+                    .add(new TermQuery(new Term(CONTENT, term)), BooleanClause.Occur.SHOULD)
+                    .build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private void releaseQuietly(SearcherManager searchers, IndexSearcher searcher) {
+        try {
+            searchers.release(searcher);
+        } catch (IOException ex) {
+            log.warn("Could not release index searcher", ex);
+        }
+    }
+
+    /**
+     * Open writer and searchers of one project's index
+     * Users take it with tryAcquire, which fails once it is closed, and an idle one may be closed.
+     */
+    private static class Partition {
+
+        private final Directory directory;
+        private final IndexWriter writer;
+        private final SearcherManager searchers;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile long lastUsed;
+        private int users;
+        private boolean closed;
+
+        Partition(Directory directory, IndexWriter writer, SearcherManager searchers) {
+            this.directory = directory;
+            this.writer = writer;
+            this.searchers = searchers;
+        }
+
+        /**
+         * Mark the partition for the next commit and let searches see the change
+         */
+        void changed() throws IOException {
+            dirty.set(true);
+            searchers.maybeRefreshBlocking();
+        }
+
+        synchronized boolean tryAcquire() {
+            if (closed) {
+                return false;
+            }
+            users++;
+            return true;
+        }
+
+        synchronized void release() {
+            users--;
+        }
+
+        /**
+         * Commit and close the partition unless it is in use
+         */
+        synchronized boolean closeIfIdle() {
+            if (closed || users > 0) {
+                return false;
+            }
+            close(true);
+            return true;
+        }
+
+        synchronized void close(boolean commit) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                searchers.close();
+                if (commit) {
+                    writer.close();
+                } else {
+                    writer.rollback();
+                }
+                directory.close();
+            } catch (IOException ex) {
+                log.warn("Could not close search index partition", ex);
+            }
+        }
+    }
+
+    /**
+     * A reader of one partition for a single read, from its open searchers or opened from disk
+     */
+    private final class PartitionReader {
+
+        private final Partition partition;
+        private final IndexSearcher searcher;
+        private final Directory directory;
+        private final DirectoryReader diskReader;
+
+        PartitionReader(Partition partition, IndexSearcher searcher) {
+            this.partition = partition;
+            this.searcher = searcher;
+            this.directory = null;
+            this.diskReader = null;
+        }
+
+        PartitionReader(Directory directory, DirectoryReader diskReader) {
+            this.partition = null;
+            this.searcher = null;
+            this.directory = directory;
+            this.diskReader = diskReader;
+        }
+
+        IndexReader reader() {
+            return partition != null ? searcher.getIndexReader() : diskReader;
+        }
+
+        void close() {
+            if (partition != null) {
+                releaseQuietly(partition.searchers, searcher);
+                partition.release();
+                return;
+            }
+            try {
+                diskReader.close();
+                directory.close();
+            } catch (IOException ex) {
+                log.warn("Could not close index reader", ex);
+            }
+        }
+    }
+}
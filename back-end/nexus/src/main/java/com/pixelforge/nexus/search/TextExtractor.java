@@ -0,0 +1,231 @@
+package com.pixelforge.nexus.search;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts the plain text of documents for the full-text index
+ * Handles plain text, PDF and the Office Open XML formats (docx, xlsx, pptx). The legacy binary
+ * Office formats have no text extractor and are indexed by name and description only. Text is
+ * capped so one huge document cannot fill the heap or the index.
+ */
+@Component
+public class TextExtractor {
+
+    private static final String PDF = "application/pdf";
+    private static final String TEXT = "text/plain";
+
+    // Zip parts holding the text of each Office Open XML format, read in part order
+    private static final Map<String, Pattern> OOXML_TEXT_PARTS = Map.of(
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            Pattern.compile("word/(?:document|header\\d*|footer\\d*|footnotes|endnotes)\\.xml"),
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            Pattern.compile("xl/sharedStrings\\.xml|xl/worksheets/sheet(\\d+)\\.xml"),
+            "application/vnd.openxmlformats-officedocument.presentationml.presentation",
+            Pattern.compile("ppt/slides/slide(\\d+)\\.xml|ppt/notesSlides/notesSlide(\\d+)\\.xml")
+    );
+
+    // Elements ending a paragraph, shared string, inline string, tab or line break
+    private static final Set<String> TEXT_BOUNDARIES = Set.of("p", "si", "is", "tab", "br");
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = newXmlInputFactory();
+
+    @Value("${app.search.max-text-length:1000000}")
+    private int maxTextLength;
+
+    @Value("${app.search.max-pdf-pages:500}")
+    private int maxPdfPages;
+
+    /**
+     * Check if text can be extracted from a content type
+     * @param contentType Content type
+     * @return true for plain text, PDF and Office Open XML documents
+     */
+    public boolean isSupported(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        return TEXT.equals(type) || PDF.equals(type) || OOXML_TEXT_PARTS.containsKey(type);
+    }
+
+    /**
+     * Extract the text of a file
+     * @param file File to read (PDF and Office documents need random access)
+     * @param contentType Content type of the file
+     * @return Extracted text, at most the configured length
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public String extract(Path file, String contentType) throws IOException {
+        String type = contentType.toLowerCase();
+        if (TEXT.equals(type)) {
+            return extractPlainText(file);
+        }
+        if (PDF.equals(type)) {
+            return extractPdf(file);
+        }
+        Pattern parts = OOXML_TEXT_PARTS.get(type);
+        if (parts == null) {
+            throw new IOException("No text extractor for " + contentType);
+        }
+        return extractOfficeOpenXml(file, parts);
+    }
+
+    private String extractPlainText(Path file) throws IOException {
+        // Not every text file is UTF-8; undecodable bytes are replaced rather than failing the document
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE))) {
+            TextBuffer text = new TextBuffer(maxTextLength);
+            char[] buffer = new char[8192];
+            int read;
+            while (!text.isFull() && (read = reader.read(buffer)) != -1) {
+                text.append(buffer, 0, read);
+            }
+            return text.toString();
+        }
+    }
+
+    private String extractPdf(Path file) throws IOException {
+        try (PDDocument document = Loader.loadPDF(file.toFile())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setEndPage(maxPdfPages);
+            String text = stripper.getText(document);
+            return text.length() > maxTextLength ? text.substring(0, maxTextLength) : text;
+        }
+    }
+
+    private String extractOfficeOpenXml(Path file, Pattern parts) throws IOException {
+        TextBuffer text = new TextBuffer(maxTextLength);
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            for (ZipEntry entry : textParts(zip, parts)) {
+                if (text.isFull()) {
+                    break;
+                }
+                try (InputStream in = zip.getInputStream(entry)) {
+                    readTextRuns(in, text);
+                } catch (XMLStreamException ex) {
+                    throw new IOException("Malformed part " + entry.getName(), ex);
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Text parts of an Office document, numbered parts (slides, sheets) in their natural order
+     */
+    private List<ZipEntry> textParts(ZipFile zip, Pattern parts) {
+        List<ZipEntry> entries = new ArrayList<>();
+        for (ZipEntry entry : Collections.list(zip.entries())) {
+            if (parts.matcher(entry.getName()).matches()) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.comparingInt((ZipEntry entry) -> partNumber(entry.getName(), parts))
+                .thenComparing(ZipEntry::getName));
+        return entries;
+    }
+
+    private int partNumber(String name, Pattern parts) {
+        Matcher matcher = parts.matcher(name);
+        if (matcher.matches()) {
+            for (int group = 1; group <= matcher.groupCount(); group++) {
+                if (matcher.group(group) != null) {
+                    return Integer.parseInt(matcher.group(group));
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Collect the text runs of an Office XML part: every element named "t" (w:t, a:t, shared strings)
+     * Runs of one paragraph or string are joined as is, since Word splits words across runs.
+     */
+    private void readTextRuns(InputStream in, TextBuffer text) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            boolean inRun = false;
+            while (reader.hasNext() && !text.isFull()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    inRun = "t".equals(reader.getLocalName());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    inRun = false;
+                    if (TEXT_BOUNDARIES.contains(reader.getLocalName())) {
+                        text.append(" ");
+                    }
+                } else if (inRun && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        // Office parts never need a DTD; refusing them rules out entity expansion attacks
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * String builder that stops growing at a fixed length
+     */
+    private static class TextBuffer {
+
+        private final StringBuilder text = new StringBuilder();
+        private final int maxLength;
+
+        TextBuffer(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        void append(char[] chars, int start, int length) {
+            text.append(chars, start, Math.min(length, maxLength - text.length()));
+        }
+
+        void append(String value) {
+            append(value.toCharArray(), 0, value.length());
+        }
+
+        boolean isFull() {
+            return text.length() >= maxLength;
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
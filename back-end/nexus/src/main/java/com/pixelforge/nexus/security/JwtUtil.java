@@ -53,16 +53,13 @@ public class JwtUtil {
      * @return JWT token string
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        String token=Jwts.builder()
+        return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
                 .signWith(getSignInKey(), SignatureAlgorithm.HS256)
                 .compact();
-
-        System.out.println("Generated token: " + token);  // Debug log
-        return token;
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.pixelforge.nexus.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -13,11 +14,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class PasswordConfig {
 
     /**
-     * Password encoder using BCrypt
+     * Password encoder using BCrypt, timed
+     * @param meterRegistry Registry for the hash timings
      * @return BCryptPasswordEncoder with strength 12
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12); // Strength 12 for enhanced security
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(12), meterRegistry); // Strength 12 for enhanced security
     }
-}
\ No newline at end of file
+}
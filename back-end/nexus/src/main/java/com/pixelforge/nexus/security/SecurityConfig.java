@@ -1,7 +1,11 @@
 package com.pixelforge.nexus.security;
 
 import com.pixelforge.nexus.entity.Role;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -54,6 +58,13 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authz -> authz
                         // Public endpoints
                         .requestMatchers("/auth/**", "/h2-console/**").permitAll()
+                        // Completing a streamed response (change feed, archives) dispatches again without the
+                        // JWT; the request was authorized when it started
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
+                        // Actuator endpoints live on the management port; health and the scrape endpoint are open
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole(Role.ADMIN.name())
 
                         // Admin-only endpoints
                         .requestMatchers("/admin/**").hasRole(Role.ADMIN.name())
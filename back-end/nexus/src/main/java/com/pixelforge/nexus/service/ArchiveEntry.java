@@ -0,0 +1,33 @@
+package com.pixelforge.nexus.service;
+
+/**
+ * One stored file to include in a project archive
+ */
+public class ArchiveEntry {
+
+    private final String originalFileName;
+    private final String storageKey;
+    private final String contentHash;
+    private final String contentType;
+    private final long fileSize;
+
+    public ArchiveEntry(String originalFileName, String storageKey, String contentHash, String contentType,
+                        Long fileSize) {
+        this.originalFileName = originalFileName;
+        this.storageKey = storageKey;
+        this.contentHash = contentHash;
+        this.contentType = contentType;
+        this.fileSize = fileSize == null ? 0 : fileSize;
+    }
+
+    public String getOriginalFileName() { return originalFileName; }
+    public String getStorageKey() { return storageKey; }
+    public String getContentHash() { return contentHash; }
+
+    /**
+     * Detected content type when known, otherwise the declared one
+     */
+    public String getContentType() { return contentType; }
+
+    public long getFileSize() { return fileSize; }
+}
@@ -0,0 +1,343 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.BatchUploadItemDTO;
+import com.pixelforge.nexus.dto.BatchUploadResponseDTO;
+import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import com.pixelforge.nexus.ingest.IngestPipelineFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Service class for batch uploads of many files, or of ZIP archives expanded on the server
+ * Authorization is checked once for the whole batch. Files are hashed, sniffed and written to
+ * storage concurrently on the upload pool, and all document rows are inserted with one batched
+ * statement in one transaction. Files that fail validation are reported per file and do not
+ * stop the rest of the batch. Each file's storage quota is reserved before it is stored, and
+ * given back if it is not recorded.
+ */
+@Service
+public class BatchUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchUploadService.class);
+
+    private static final Set<String> ARCHIVE_CONTENT_TYPES = Set.of("application/zip", "application/x-zip-compressed");
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Autowired
+    private IngestPipelineFactory ingestPipelineFactory;
+
+    @Autowired
+    @Qualifier("uploadExecutor")
+    private TaskExecutor uploadExecutor;
+
+    @Value("${app.upload.max-file-size:10MB}")
+    private DataSize maxFileSize;
+
+    @Value("${app.upload.batch.max-files:500}")
+    private int maxFiles;
+
+    @Value("${app.upload.batch.max-expanded-size:1GB}")
+    private DataSize maxExpandedSize;
+
+    /**
+     * Upload many files to a project; ZIP archives are expanded into their files
+     * @param projectId Project ID
+     * @param files Uploaded parts
+     * @param description Optional description applied to every file
+     * @param uploaderUsername Username of uploader
+     * @return Per-file results in request order
+     */
+    public BatchUploadResponseDTO uploadBatch(Long projectId, List<MultipartFile> files, String description,
+                                              String uploaderUsername) {
+        if (files == null || files.isEmpty()) {
+            throw new InvalidOperationException("No files to upload");
+        }
+
+        Project project = projectService.getProjectEntityById(projectId);
+        User uploader = userService.getUserEntityByUsername(uploaderUsername);
+
+        if (!documentService.canUploadToProject(project, uploader)) {
+            throw new InvalidOperationException("You don't have permission to upload files to this project");
+        }
+
+        List<BatchItem> items = new ArrayList<>();
+        try {
+            for (MultipartFile file : files) {
+                if (items.size() >= maxFiles) {
+                    items.add(BatchItem.failed(file.getOriginalFilename(), "Batch exceeds " + maxFiles + " files"));
+                } else if (isArchive(file)) {
+                    expandArchive(project, uploader, file, description, items);
+                } else {
+                    items.add(submitFile(project, uploader, file, description));
+                }
+            }
+        } catch (RuntimeException ex) {
+            items.forEach(BatchItem::await);
+            discard(project, uploader, items);
+            throw ex;
+        }
+
+        return saveBatch(project, uploader, items);
+    }
+
+    /**
+     * Reserve an uploaded part's quota, then stage and commit it on the upload pool
+     */
+    private BatchItem submitFile(Project project, User uploader, MultipartFile file, String description) {
+        String fileName = file.getOriginalFilename();
+        String contentType = file.getContentType();
+        try {
+            fileName = StringUtils.cleanPath(fileName == null ? "" : fileName);
+            if (file.isEmpty()) {
+                throw new InvalidOperationException("Cannot upload empty file");
+            }
+            documentService.validateFileName(fileName);
+            documentService.validateFile(contentType, file.getSize(), maxFileSize.toBytes());
+            storageQuotaService.reserve(project, uploader, file.getSize());
+        } catch (InvalidOperationException | FileStorageException ex) {
+            return BatchItem.failed(fileName, ex.getMessage());
+        }
+
+        String name = fileName;
+        return new BatchItem(name, file.getSize(), supplyAsync(() -> {
+            StagedContent staged;
+            try (InputStream in = file.getInputStream()) {
+                staged = contentStoreService.stage(in, ingestPipelineFactory.create(contentType, maxFileSize.toBytes()));
+            } catch (IOException ex) {
+                throw new FileStorageException("Could not store file " + name, ex);
+            }
+            return commit(name, staged, contentType, description);
+        }));
+    }
+
+    /**
+     * Expand a ZIP archive into batch items
+     * Entries must be read in order, so they are staged here and only committed on the upload pool,
+     * once their staged size is reserved. Entry count, entry size and total expanded size are capped
+     * against decompression bombs.
+     */
+    private void expandArchive(Project project, User uploader, MultipartFile archive, String description,
+                               List<BatchItem> items) {
+        String archiveName = archive.getOriginalFilename();
+        long expanded = 0;
+
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String fileName = StringUtils.getFilename(StringUtils.cleanPath(entry.getName()));
+                if (entry.isDirectory() || !StringUtils.hasText(fileName) || isHidden(entry.getName())) {
+                    continue;
+                }
+                if (items.size() >= maxFiles || expanded >= maxExpandedSize.toBytes()) {
+                    items.add(BatchItem.failed(archiveName, "Remaining entries skipped, batch is limited to "
+                            + maxFiles + " files and " + maxExpandedSize.toMegabytes() + "MB"));
+                    return;
+                }
+
+                String contentType = MediaTypeFactory.getMediaType(fileName).map(MediaType::toString).orElse(null);
+                StagedContent staged;
+                try {
+                    documentService.validateFileName(fileName);
+                    documentService.validateFile(contentType, 0, maxFileSize.toBytes());
+                    staged = contentStoreService.stage(zip,
+                            ingestPipelineFactory.create(contentType, maxFileSize.toBytes()));
+                } catch (InvalidOperationException | FileStorageException ex) {
+                    items.add(BatchItem.failed(fileName, ex.getMessage()));
+                    continue;
+                }
+
+                expanded += staged.getSize();
+                try {
+                    storageQuotaService.reserve(project, uploader, staged.getSize());
+                } catch (InvalidOperationException ex) {
+                    contentStoreService.discard(staged);
+                    items.add(BatchItem.failed(fileName, ex.getMessage()));
+                    continue;
+                }
+                items.add(new BatchItem(fileName, staged.getSize(),
+                        supplyAsync(() -> commit(fileName, staged, contentType, description))));
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            // IllegalArgumentException: entry names that are not valid UTF-8
+            items.add(BatchItem.failed(archiveName, "Could not read ZIP archive: " + ex.getMessage()));
+        }
+    }
+
+    /**
+     * Record every committed file with one batched insert, after all storage writes finished
+     */
+    private BatchUploadResponseDTO saveBatch(Project project, User uploader, List<BatchItem> items) {
+        List<PendingDocument> committed = new ArrayList<>();
+        long unused = 0;
+        for (BatchItem item : items) {
+            item.await();
+            if (item.pending != null) {
+                committed.add(item.pending);
+            } else {
+                unused += item.reserved;
+            }
+        }
+        if (unused > 0) {
+            storageQuotaService.release(project, uploader, unused);
+        }
+
+        List<DocumentResponseDTO> saved;
+        try {
+            saved = documentService.saveDocumentBatch(project, uploader, committed);
+        } catch (RuntimeException ex) {
+            // The rows were rolled back, so the content references and quota taken for them go too
+            discard(project, uploader, items.stream().filter(item -> item.pending != null)
+                    .collect(Collectors.toList()));
+            throw ex;
+        }
+
+        Iterator<DocumentResponseDTO> documents = saved.iterator();
+        List<BatchUploadItemDTO> results = new ArrayList<>();
+        for (BatchItem item : items) {
+            results.add(item.pending != null
+                    ? BatchUploadItemDTO.builder()
+                            .fileName(item.fileName)
+                            .status(BatchUploadItemDTO.Status.UPLOADED)
+                            .document(documents.next())
+                            .build()
+                    : BatchUploadItemDTO.builder()
+                            .fileName(item.fileName)
+                            .status(BatchUploadItemDTO.Status.FAILED)
+                            .error(item.error)
+                            .build());
+        }
+        return new BatchUploadResponseDTO(results);
+    }
+
+    /**
+     * Give back what awaited items took: the content references of committed files and every reservation
+     */
+    private void discard(Project project, User uploader, List<BatchItem> items) {
+        long reserved = 0;
+        for (BatchItem item : items) {
+            if (item.pending != null) {
+                contentStoreService.release(item.pending.getContent().getContentHash());
+            }
+            reserved += item.reserved;
+        }
+        if (reserved > 0) {
+            storageQuotaService.release(project, uploader, reserved);
+        }
+    }
+
+    private PendingDocument commit(String fileName, StagedContent staged, String contentType, String description) {
+        try {
+            String storageKey = contentStoreService.commit(staged, contentType);
+            return new PendingDocument(fileName, staged, storageKey, contentType, description);
+        } catch (RuntimeException ex) {
+            contentStoreService.discard(staged);
+            throw ex;
+        }
+    }
+
+    private CompletableFuture<PendingDocument> supplyAsync(Supplier<PendingDocument> task) {
+        return CompletableFuture.supplyAsync(task, uploadExecutor);
+    }
+
+    private boolean isArchive(MultipartFile file) {
+        String contentType = file.getContentType();
+        String fileName = file.getOriginalFilename();
+        return (contentType != null && ARCHIVE_CONTENT_TYPES.contains(contentType.toLowerCase()))
+                || (fileName != null && fileName.toLowerCase().endsWith(".zip"));
+    }
+
+    /**
+     * Skip metadata that archivers add, such as __MACOSX/ folders and dot files
+     */
+    private boolean isHidden(String entryName) {
+        for (String segment : entryName.split("/")) {
+            if (segment.startsWith(".") || segment.equals("__MACOSX")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One file of the batch: either a pending commit or an immediate failure
+     */
+    private static final class BatchItem {
+
+        private final String fileName;
+        // Quota reserved for the file, given back unless it is recorded
+        private final long reserved;
+        private final CompletableFuture<PendingDocument> future;
+        private PendingDocument pending;
+        private String error;
+
+        private BatchItem(String fileName, long reserved, CompletableFuture<PendingDocument> future) {
+            this.fileName = fileName;
+            this.reserved = reserved;
+            this.future = future;
+        }
+
+        static BatchItem failed(String fileName, String error) {
+            BatchItem item = new BatchItem(fileName, 0, null);
+            item.error = error;
+            return item;
+        }
+
+        void await() {
+            if (future == null) {
+                return;
+            }
+            try {
+                pending = future.join();
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                if (cause instanceof InvalidOperationException || cause instanceof FileStorageException) {
+                    error = cause.getMessage();
+                } else {
+                    log.warn("Could not store batch upload file {}", fileName, cause);
+                    error = "Could not store file";
+                }
+            }
+        }
+    }
+}
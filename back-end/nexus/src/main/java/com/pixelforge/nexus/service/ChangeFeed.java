@@ -0,0 +1,207 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.ChangeEventDTO;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.event.ProjectChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed project and document changes to subscribed clients as server-sent events
+ * Services publish {@link ProjectChangeEvent}s; each subscriber only receives the changes of projects
+ * it can see (administrators all of them). Every subscriber has a bounded buffer drained by its own
+ * virtual thread, so a slow client never holds up the request that made the change: when its buffer
+ * is full it is dropped, and reconnects like after any other disconnect. A comment is sent when
+ * nothing happened for a heartbeat interval, which keeps proxies from closing the stream and
+ * notices clients that went away.
+ */
+@Component
+public class ChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("change-feed-", 0).factory());
+    private final int bufferSize;
+    private final Duration heartbeat;
+    private final Duration timeout;
+    private final Counter evictions;
+
+    public ChangeFeed(@Value("${app.changes.buffer-size:256}") int bufferSize,
+                      @Value("${app.changes.heartbeat:15s}") Duration heartbeat,
+                      @Value("${app.changes.timeout:30m}") Duration timeout,
+                      MeterRegistry registry) {
+        this.bufferSize = bufferSize;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        Gauge.builder("nexus.changes.subscribers", subscribers, Set::size)
+                .description("Open change feed connections")
+                .register(registry);
+        this.evictions = Counter.builder("nexus.changes.evictions")
+                .description("Change feed subscribers dropped for falling behind")
+                .register(registry);
+    }
+
+    /**
+     * Open a change feed for a user
+     * The first event, named ready, is sent once changes are being collected for the subscriber;
+     * clients fetch what they show at that point, so nothing changed while they were disconnected
+     * is missed.
+     * @param user Subscribing user
+     * @return Emitter streaming the user's changes until the feed times out or the client leaves
+     */
+    public SseEmitter subscribe(User user) {
+        SseEmitter emitter = newEmitter(timeout);
+        Subscriber subscriber = new Subscriber(user.getId(), user.getRole() == Role.ADMIN, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.sender = senders.submit(() -> send(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Queue a committed change for every subscriber that can see its project
+     * @param event Change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChange(ProjectChangeEvent event) {
+        ChangeEventDTO change = ChangeEventDTO.builder()
+                .id(sequence.incrementAndGet())
+                .type(event.getType().name())
+                .projectId(event.getProjectId())
+                .documentId(event.getDocumentId())
+                .occurredAt(LocalDateTime.now())
+                .build();
+        for (Subscriber subscriber : subscribers) {
+            if ((subscriber.admin || event.getAudience().contains(subscriber.userId))
+                    && !subscriber.queue.offer(change)) {
+                evict(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Number of open feeds
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted senders complete their emitters
+        senders.shutdownNow();
+        subscribers.clear();
+    }
+
+    SseEmitter newEmitter(Duration timeout) {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    private void send(Subscriber subscriber) {
+        if (!subscriber.started.compareAndSet(false, true)) {
+            // Stopped before it got here, and completed on stopping
+            return;
+        }
+        SseEmitter emitter = subscriber.emitter;
+        try {
+            emitter.send(SseEmitter.event().name("ready").data(sequence.get()));
+            while (subscribers.contains(subscriber)) {
+                ChangeEventDTO change = subscriber.queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                if (change == null) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getId()))
+                            .name(change.getType())
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (InterruptedException ex) {
+            // Evicted or shutting down
+        } catch (IOException | IllegalStateException ex) {
+            // The client went away or the feed timed out
+            log.debug("Change feed of user {} closed: {}", subscriber.userId, ex.getMessage());
+        } finally {
+            subscribers.remove(subscriber);
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Drop a subscriber that fell a full buffer behind
+     * A running sender completes the emitter: completing it here could block on a send in progress.
+     */
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            evictions.increment();
+            log.info("Dropped the change feed of user {}: {} changes behind", subscriber.userId, bufferSize);
+            subscriber.stop();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.stop();
+    }
+
+    private static final class Subscriber {
+        private final Long userId;
+        private final boolean admin;
+        private final SseEmitter emitter;
+        private final BlockingQueue<ChangeEventDTO> queue;
+        // Claimed by the sender when it starts, or by stop if it never did
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile Future<?> sender;
+
+        private Subscriber(Long userId, boolean admin, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.admin = admin;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        /**
+         * Interrupt the sender, which completes the emitter on its way out
+         * A sender cancelled before it ran never does, so the emitter is completed here instead;
+         * otherwise the response would stay open until the feed times out.
+         */
+        private void stop() {
+            Future<?> running = sender;
+            if (running != null) {
+                running.cancel(true);
+            }
+            if (started.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.dto.UploadSessionCreateDTO;
+import com.pixelforge.nexus.dto.UploadSessionResponseDTO;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import com.pixelforge.nexus.exception.ResourceNotFoundException;
+import com.pixelforge.nexus.ingest.ContentTypeSniffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service class for resumable (chunked) document uploads
+ * Chunks are written with positional writes into a preallocated staging file,
+ * so they can arrive in any order and in parallel. Sessions live in memory and
+ * expire automatically when abandoned. Chunks are written under a session's read lock and
+ * completing takes its write lock, so the file never changes while it is being stored.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Value("${app.upload.resumable.chunk-size:8MB}")
+    private DataSize chunkSize;
+
+    @Value("${app.upload.resumable.max-file-size:2GB}")
+    private DataSize maxFileSize;
+
+    @Value("${app.upload.resumable.session-ttl:24h}")
+    private Duration sessionTtl;
+
+    @Value("${app.upload.resumable.max-sessions-per-user:10}")
+    private int maxSessionsPerUser;
+
+    private final Path stagingLocation;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public ChunkedUploadService(@Value("${app.upload.dir:uploads}") String uploadDir) {
+        this.stagingLocation = Paths.get(uploadDir, ".partial").toAbsolutePath().normalize();
+        try {
+            // Sessions are held in memory, so staging files from a previous run can never be completed
+            FileSystemUtils.deleteRecursively(this.stagingLocation);
+            Files.createDirectories(this.stagingLocation);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the directory for partial uploads.", ex);
+        }
+    }
+
+    /**
+     * Create a resumable upload session and preallocate its staging file
+     * @param projectId Project ID
+     * @param request Session creation data
+     * @param uploaderUsername Username of uploader
+     * @return Upload session state
+     */
+    public UploadSessionResponseDTO createSession(Long projectId, UploadSessionCreateDTO request,
+                                                  String uploaderUsername) {
+        Project project = projectService.getProjectEntityById(projectId);
+        User uploader = userService.getUserEntityByUsername(uploaderUsername);
+
+        if (!documentService.canUploadToProject(project, uploader)) {
+            throw new InvalidOperationException("You don't have permission to upload files to this project");
+        }
+
+        String originalFileName = StringUtils.cleanPath(request.getFileName());
+        documentService.validateFileName(originalFileName);
+        documentService.validateFile(request.getContentType(), request.getFileSize(), maxFileSize.toBytes());
+        // Reserved when the upload completes; checked now so a large upload is not sent in vain
+        storageQuotaService.checkAvailable(project, uploader, request.getFileSize());
+        // Every session preallocates its full size on disk
+        checkSessionLimit(uploaderUsername);
+
+        String uploadId = UUID.randomUUID().toString();
+        Path stagingFile = stagingLocation.resolve(uploadId + ".part");
+
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(stagingFile.toFile(), "rw");
+            file.setLength(request.getFileSize());
+
+            UploadSession session = new UploadSession(uploadId, projectId, uploaderUsername, originalFileName,
+                    request.getContentType(), request.getDescription(), request.getFileSize(),
+                    chunkSize.toBytes(), stagingFile, file.getChannel());
+            synchronized (sessions) {
+                try {
+                    checkSessionLimit(uploaderUsername);
+                } catch (InvalidOperationException ex) {
+                    discard(session);
+                    throw ex;
+                }
+                sessions.put(uploadId, session);
+            }
+            return convertToResponseDTO(session);
+
+        } catch (IOException ex) {
+            if (file != null) {
+                closeQuietly(file);
+            }
+            deleteQuietly(stagingFile);
+            throw new FileStorageException("Could not allocate space for " + originalFileName, ex);
+        }
+    }
+
+    /**
+     * Write one chunk at the given offset. Chunks may be sent in any order and in parallel;
+     * re-sending a chunk simply overwrites it.
+     * @param uploadId Upload session ID
+     * @param offset Byte offset of the chunk, a multiple of the session chunk size
+     * @param body Chunk bytes
+     * @param contentLength Declared chunk length, or -1 if unknown
+     * @param uploaderUsername Username of uploader
+     * @return Upload session state
+     */
+    public UploadSessionResponseDTO writeChunk(String uploadId, long offset, InputStream body, long contentLength,
+                                               String uploaderUsername) {
+        UploadSession session = getOwnedSession(uploadId, uploaderUsername);
+        if (!session.writes.readLock().tryLock()) {
+            throw new InvalidOperationException("Upload " + uploadId + " is being completed");
+        }
+        try {
+            if (session.finalizing.get()) {
+                throw new InvalidOperationException("Upload " + uploadId + " is being completed");
+            }
+            return copyChunk(session, offset, body, contentLength);
+        } finally {
+            session.writes.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy one chunk into the staging file, with the session's read lock held
+     */
+    private UploadSessionResponseDTO copyChunk(UploadSession session, long offset, InputStream body,
+                                               long contentLength) {
+        if (offset < 0 || offset >= session.fileSize || offset % session.chunkSize != 0) {
+            throw new InvalidOperationException("Chunk offset must be a multiple of " + session.chunkSize
+                    + " within the file size");
+        }
+
+        long expectedLength = Math.min(session.chunkSize, session.fileSize - offset);
+        if (contentLength >= 0 && contentLength != expectedLength) {
+            throw new InvalidOperationException("Chunk at offset " + offset + " must be " + expectedLength + " bytes");
+        }
+
+        // The first chunk carries the magic bytes, so a mistyped file is refused before the rest is sent
+        ContentTypeSniffer sniffer = offset == 0 ? new ContentTypeSniffer(session.contentType) : null;
+
+        try {
+            long written = 0;
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (written + read > expectedLength) {
+                    throw new InvalidOperationException("Chunk at offset " + offset + " exceeds " + expectedLength + " bytes");
+                }
+                if (sniffer != null) {
+                    try {
+                        sniffer.update(buffer, 0, read);
+                    } catch (InvalidOperationException ex) {
+                        if (sessions.remove(session.uploadId, session)) {
+                            discard(session);
+                        }
+                        throw ex;
+                    }
+                }
+                ByteBuffer source = ByteBuffer.wrap(buffer, 0, read);
+                while (source.hasRemaining()) {
+                    written += session.channel.write(source, offset + written);
+                }
+            }
+
+            if (written != expectedLength) {
+                throw new InvalidOperationException("Incomplete chunk at offset " + offset + ": received "
+                        + written + " of " + expectedLength + " bytes");
+            }
+
+            session.markReceived((int) (offset / session.chunkSize));
+            return convertToResponseDTO(session);
+
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not write chunk at offset " + offset + " for " + session.originalFileName, ex);
+        }
+    }
+
+    /**
+     * Get upload session state, including the committed offset to resume from
+     * @param uploadId Upload session ID
+     * @param uploaderUsername Username of uploader
+     * @return Upload session state
+     */
+    public UploadSessionResponseDTO getSession(String uploadId, String uploaderUsername) {
+        return convertToResponseDTO(getOwnedSession(uploadId, uploaderUsername));
+    }
+
+    /**
+     * Finalize a fully received upload into a Document
+     * The session is kept until the document exists, so a finalize that fails can be retried.
+     * @param uploadId Upload session ID
+     * @param uploaderUsername Username of uploader
+     * @return Created document
+     */
+    public DocumentResponseDTO completeSession(String uploadId, String uploaderUsername) {
+        UploadSession session = getOwnedSession(uploadId, uploaderUsername);
+
+        if (!session.isComplete()) {
+            throw new InvalidOperationException("Upload is incomplete: " + session.receivedChunks() + " of "
+                    + session.totalChunks + " chunks received");
+        }
+
+        // Only one finalize may run at a time; chunks are refused meanwhile
+        if (!session.finalizing.compareAndSet(false, true)) {
+            throw new InvalidOperationException("Upload " + uploadId + " is already being completed");
+        }
+        // A chunk sent again before that would still be changing the bytes about to be hashed and stored
+        if (!session.writes.writeLock().tryLock()) {
+            session.finalizing.set(false);
+            throw new InvalidOperationException("Upload " + uploadId + " has a chunk still being written");
+        }
+
+        Path handOff = null;
+        boolean created = false;
+        try {
+            session.channel.force(false);
+            handOff = handOff(session);
+            DocumentResponseDTO document = documentService.createDocumentFromStagedFile(session.projectId, handOff,
+                    session.originalFileName, session.contentType, session.description, uploaderUsername);
+            created = true;
+            return document;
+
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not finalize upload of " + session.originalFileName, ex);
+        } finally {
+            if (handOff != null && !handOff.equals(session.stagingFile)) {
+                deleteQuietly(handOff);
+            }
+            // A failed finalize (quota, database) can be retried as long as the received chunks are still there
+            if (created || !Files.exists(session.stagingFile)) {
+                if (sessions.remove(uploadId, session)) {
+                    discard(session);
+                }
+            } else {
+                session.touch();
+                session.finalizing.set(false);
+            }
+            session.writes.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Abort an upload session and discard received chunks
+     * @param uploadId Upload session ID
+     * @param uploaderUsername Username of uploader
+     */
+    public void abortSession(String uploadId, String uploaderUsername) {
+        UploadSession session = getOwnedSession(uploadId, uploaderUsername);
+        if (session.finalizing.get()) {
+            throw new InvalidOperationException("Upload " + uploadId + " is being completed");
+        }
+        if (sessions.remove(uploadId, session)) {
+            discard(session);
+        }
+    }
+
+    /**
+     * Expire sessions that have seen no activity within the session TTL
+     */
+    @Scheduled(fixedDelayString = "${app.upload.resumable.cleanup-interval:PT5M}")
+    public void expireAbandonedSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(sessionTtl);
+        sessions.values().removeIf(session -> {
+            if (session.lastActivity.isBefore(cutoff) && !session.finalizing.get()) {
+                log.debug("Expiring abandoned upload session {} ({})", session.uploadId, session.originalFileName);
+                discard(session);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Get session and verify it belongs to the caller
+     */
+    private UploadSession getOwnedSession(String uploadId, String uploaderUsername) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null || !session.uploaderUsername.equalsIgnoreCase(uploaderUsername)) {
+            throw new ResourceNotFoundException("Upload session not found: " + uploadId);
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * Refuse a new session when the user already has the maximum number open
+     */
+    private void checkSessionLimit(String uploaderUsername) {
+        long open = sessions.values().stream()
+                .filter(session -> session.uploaderUsername.equalsIgnoreCase(uploaderUsername))
+                .count();
+        if (open >= maxSessionsPerUser) {
+            throw new InvalidOperationException("Too many open uploads: complete or abort one of your "
+                    + open + " uploads first");
+        }
+    }
+
+    /**
+     * Hard link the staging file under a second name for the content store to consume
+     * The staging file then survives a failed finalize. Where hard links are not supported
+     * the staging file itself is handed over, and a failed finalize cannot be retried.
+     */
+    private Path handOff(UploadSession session) {
+        Path handOff = stagingLocation.resolve(session.uploadId + ".commit");
+        try {
+            Files.deleteIfExists(handOff);
+            return Files.createLink(handOff, session.stagingFile);
+        } catch (IOException | UnsupportedOperationException ex) {
+            log.debug("Could not link staging file {}: {}", session.stagingFile, ex.getMessage());
+            return session.stagingFile;
+        }
+    }
+
+    private void discard(UploadSession session) {
+        try {
+            session.channel.close();
+        } catch (IOException ex) {
+            log.warn("Could not close staging file {}", session.stagingFile, ex);
+        }
+        deleteQuietly(session.stagingFile);
+    }
+
+    private void closeQuietly(RandomAccessFile file) {
+        try {
+            file.close();
+        } catch (IOException ex) {
+            log.warn("Could not close staging file", ex);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Could not delete staging file {}", path, ex);
+        }
+    }
+
+    /**
+     * Convert UploadSession to UploadSessionResponseDTO
+     * @param session Upload session
+     * @return UploadSessionResponseDTO
+     */
+    private UploadSessionResponseDTO convertToResponseDTO(UploadSession session) {
+        return UploadSessionResponseDTO.builder()
+                .uploadId(session.uploadId)
+                .projectId(session.projectId)
+                .fileName(session.originalFileName)
+                .fileSize(session.fileSize)
+                .chunkSize(session.chunkSize)
+                .totalChunks(session.totalChunks)
+                .receivedChunks(session.receivedChunks())
+                .committedOffset(session.committedOffset())
+                .complete(session.isComplete())
+                .expiresAt(session.lastActivity.plus(sessionTtl))
+                .build();
+    }
+
+    /**
+     * In-memory state of one resumable upload
+     */
+    private static final class UploadSession {
+        private final String uploadId;
+        private final Long projectId;
+        private final String uploaderUsername;
+        private final String originalFileName;
+        private final String contentType;
+        private final String description;
+        private final long fileSize;
+        private final long chunkSize;
+        private final int totalChunks;
+        private final Path stagingFile;
+        private final FileChannel channel;
+        private final BitSet received;
+        private final AtomicBoolean finalizing = new AtomicBoolean();
+        // Held for reading while a chunk is written, for writing while the upload is completed
+        private final ReadWriteLock writes = new ReentrantReadWriteLock();
+        private volatile LocalDateTime lastActivity = LocalDateTime.now();
+
+        private UploadSession(String uploadId, Long projectId, String uploaderUsername, String originalFileName,
+                              String contentType, String description, long fileSize, long chunkSize,
+                              Path stagingFile, FileChannel channel) {
+            this.uploadId = uploadId;
+            this.projectId = projectId;
+            this.uploaderUsername = uploaderUsername;
+            this.originalFileName = originalFileName;
+            this.contentType = contentType;
+            this.description = description;
+            this.fileSize = fileSize;
+            this.chunkSize = chunkSize;
+            this.totalChunks = (int) ((fileSize + chunkSize - 1) / chunkSize);
+            this.stagingFile = stagingFile;
+            this.channel = channel;
+            this.received = new BitSet(totalChunks);
+        }
+
+        private void touch() {
+            this.lastActivity = LocalDateTime.now();
+        }
+
+        private synchronized void markReceived(int chunkIndex) {
+            received.set(chunkIndex);
+        }
+
+        private synchronized int receivedChunks() {
+            return received.cardinality();
+        }
+
+        private synchronized boolean isComplete() {
+            return received.cardinality() == totalChunks;
+        }
+
+        /**
+         * Length of the contiguous prefix received so far; a client resumes from here
+         */
+        private synchronized long committedOffset() {
+            return Math.min(fileSize, received.nextClearBit(0) * chunkSize);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.CompressionSavingsDTO;
+import com.pixelforge.nexus.entity.DocumentVersion;
+import com.pixelforge.nexus.entity.StorageTombstone;
+import com.pixelforge.nexus.entity.StoredBlob;
+import com.pixelforge.nexus.entity.VersionStorage;
+import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import com.pixelforge.nexus.ingest.IngestPipeline;
+import com.pixelforge.nexus.repository.StorageTombstoneRepository;
+import com.pixelforge.nexus.repository.StoredBlobRepository;
+import com.pixelforge.nexus.storage.ContentCodec;
+import com.pixelforge.nexus.storage.StorageBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service class for content-addressed file storage
+ * Uploads are staged through the single-pass ingest pipeline (size, type sniffing, SHA-256,
+ * scanners). Files are stored once per SHA-256 digest, under the digest as storage key, and shared
+ * between documents.
+ * Reference counts track how many documents point at each blob; dropping the
+ * last reference leaves the file in place until the storage collector reclaims it.
+ * Writers and the collector serialize on the storage key, see StoredBlobRepository#lockStorageKey.
+ */
+@Service
+@Transactional
+public class ContentStoreService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentStoreService.class);
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private StorageTombstoneRepository storageTombstoneRepository;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Value("${app.storage.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${app.storage.compression.codec:zstd}")
+    private String compressionEncoding;
+
+    @Value("${app.storage.compression.min-savings:0.1}")
+    private double compressionMinSavings;
+
+    @Value("${app.storage.compression.content-types:text/plain,application/msword,application/vnd.ms-excel,"
+            + "application/vnd.ms-powerpoint}")
+    private Set<String> compressibleContentTypes;
+
+    private final Path incomingLocation;
+
+    public ContentStoreService(@Value("${app.upload.dir:uploads}") String uploadDir) {
+        this.incomingLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(".incoming");
+        try {
+            // Nothing can still be writing to staging files at startup
+            FileSystemUtils.deleteRecursively(this.incomingLocation);
+            Files.createDirectories(this.incomingLocation);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the directory for incoming uploads.", ex);
+        }
+    }
+
+    /**
+     * Stream content into a staging file, running it through the ingest pipeline on the way
+     * @param content Content stream (not closed)
+     * @param pipeline Ingest pipeline for this upload
+     * @return Staged content
+     * @throws InvalidOperationException if the pipeline rejects the content
+     */
+    public StagedContent stage(InputStream content, IngestPipeline pipeline) {
+        Path stagingFile = incomingLocation.resolve(UUID.randomUUID().toString());
+
+        try (OutputStream out = Files.newOutputStream(stagingFile)) {
+            pipeline.run(content, out);
+        } catch (IOException ex) {
+            deleteQuietly(stagingFile);
+            throw new FileStorageException("Could not stage uploaded content", ex);
+        } catch (RuntimeException ex) {
+            deleteQuietly(stagingFile);
+            throw ex;
+        }
+
+        return new StagedContent(stagingFile, pipeline.getContentHash(), pipeline.getSize(),
+                pipeline.getDetectedContentType());
+    }
+
+    /**
+     * Run an already assembled local file through the ingest pipeline in place
+     * @param file Local file, which will be moved or deleted on commit
+     * @param pipeline Ingest pipeline for this upload
+     * @return Staged content
+     * @throws InvalidOperationException if the pipeline rejects the content
+     */
+    public StagedContent stage(Path file, IngestPipeline pipeline) {
+        try (InputStream in = Files.newInputStream(file)) {
+            pipeline.run(in, null);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not read staged content", ex);
+        }
+
+        return new StagedContent(file, pipeline.getContentHash(), pipeline.getSize(),
+                pipeline.getDetectedContentType());
+    }
+
+    /**
+     * Commit staged content as a blob reference
+     * The staging file is handed to the storage backend, or discarded if the content is already stored.
+     * Only a file recorded by its blob is reused: a file without one may be left from a rolled-back
+     * upload, stored with another encoding, so it is replaced.
+     * New content of a compressible type is stored compressed when that saves enough space.
+     * @param staged Staged content
+     * @param contentType Declared content type
+     * @return Storage key of the blob
+     */
+    public String commit(StagedContent staged, String contentType) {
+        String key = staged.getContentHash();
+        long storedSize = staged.getSize();
+        String contentEncoding = null;
+
+        storedBlobRepository.lockStorageKey(key);
+        Optional<StoredBlob> stored = storedBlobRepository.findById(key)
+                .filter(blob -> storageBackend.exists(blob.getFilePath()));
+        if (stored.isPresent()) {
+            discard(staged);
+            StoredBlob blob = stored.get();
+            key = blob.getFilePath();
+            storedSize = blob.getStoredSize() != null ? blob.getStoredSize() : blob.getFileSize();
+            contentEncoding = blob.getContentEncoding();
+        } else {
+            ContentCodec codec = ContentCodec.forEncoding(compressionEncoding);
+            Path compressed = compressIfWorthwhile(staged, contentType, codec);
+            if (compressed != null) {
+                try {
+                    storedSize = Files.size(compressed);
+                } catch (IOException ex) {
+                    deleteQuietly(compressed);
+                    throw new FileStorageException("Could not read compressed content " + key, ex);
+                }
+                contentEncoding = codec.getEncoding();
+                discard(staged);
+                storageBackend.put(key, compressed);
+            } else {
+                storageBackend.put(key, staged.getPath());
+            }
+        }
+
+        storedBlobRepository.upsertReference(staged.getContentHash(), key, staged.getSize(), storedSize,
+                contentEncoding);
+        return key;
+    }
+
+    /**
+     * Get stored blob metadata
+     * @param contentHash SHA-256 hex digest
+     * @return Blob, if stored
+     */
+    @Transactional(readOnly = true)
+    public Optional<StoredBlob> getBlob(String contentHash) {
+        return storedBlobRepository.findById(contentHash);
+    }
+
+    /**
+     * Open the original content of a stored file, decompressing it if it is stored compressed
+     * @param storageKey Storage key
+     * @param contentHash SHA-256 hex digest, or null for files stored before content addressing
+     * @return Content stream
+     */
+    @Transactional(readOnly = true)
+    public InputStream openContent(String storageKey, String contentHash) {
+        String contentEncoding = contentEncodingOf(contentHash);
+        InputStream stored = storageBackend.open(storageKey);
+        if (contentEncoding == null) {
+            return stored;
+        }
+        try {
+            return ContentCodec.forEncoding(contentEncoding).decompress(stored);
+        } catch (IOException ex) {
+            closeQuietly(stored);
+            throw new FileStorageException("Could not decompress content " + storageKey, ex);
+        }
+    }
+
+    /**
+     * Local file holding the original content, if it is stored uncompressed on local disk
+     * @param storageKey Storage key
+     * @param contentHash SHA-256 hex digest, or null for files stored before content addressing
+     * @return Local path, or empty
+     */
+    @Transactional(readOnly = true)
+    public Optional<Path> localContentPath(String storageKey, String contentHash) {
+        if (contentEncodingOf(contentHash) != null) {
+            return Optional.empty();
+        }
+        return storageBackend.localPath(storageKey);
+    }
+
+    /**
+     * Report compression savings per content type
+     * @return Savings per content type
+     */
+    @Transactional(readOnly = true)
+    public List<CompressionSavingsDTO> getCompressionSavings() {
+        return storedBlobRepository.summarizeCompressionByContentType();
+    }
+
+    /**
+     * Compress staged content into a sibling file
+     * @return Compressed file, or null if the type is not compressible or savings are below the threshold
+     */
+    private Path compressIfWorthwhile(StagedContent staged, String contentType, ContentCodec codec) {
+        if (!compressionEnabled || contentType == null
+                || !compressibleContentTypes.contains(contentType.toLowerCase())) {
+            return null;
+        }
+
+        Path compressed = incomingLocation.resolve(UUID.randomUUID() + "." + codec.getEncoding());
+        // Stop as soon as the output is too large to be worth keeping
+        long limit = (long) (staged.getSize() * (1 - compressionMinSavings));
+        try (InputStream in = Files.newInputStream(staged.getPath());
+             OutputStream out = codec.compress(Files.newOutputStream(compressed))) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (Files.size(compressed) > limit) {
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("Could not compress content {}, storing it uncompressed", staged.getContentHash(), ex);
+            deleteQuietly(compressed);
+            return null;
+        }
+
+        try {
+            if (Files.size(compressed) <= limit) {
+                return compressed;
+            }
+        } catch (IOException ex) {
+            log.warn("Could not read compressed content {}", staged.getContentHash(), ex);
+        }
+        deleteQuietly(compressed);
+        return null;
+    }
+
+    /**
+     * Add a reference to already stored content without transferring it
+     * @param contentHash SHA-256 hex digest
+     * @param size Expected size in bytes
+     * @return Storage key of the blob, if present
+     */
+    public Optional<String> acquire(String contentHash, long size) {
+        storedBlobRepository.lockStorageKey(contentHash);
+        Optional<StoredBlob> blob = storedBlobRepository.findById(contentHash)
+                .filter(b -> b.getFileSize() == size)
+                .filter(b -> storageBackend.exists(b.getFilePath()));
+
+        if (blob.isEmpty() || storedBlobRepository.incrementRefCount(contentHash) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(blob.get().getFilePath());
+    }
+
+    /**
+     * Drop a reference to stored content; the file itself is left in place
+     * @param contentHash SHA-256 hex digest
+     */
+    public void release(String contentHash) {
+        if (storedBlobRepository.decrementRefCount(contentHash) == 0) {
+            log.warn("Released content {} that had no references", contentHash);
+        }
+    }
+
+    /**
+     * Schedule an unshared stored file for deletion once the current transaction commits
+     * The storage collector deletes it later, so a rolled-back delete keeps its file.
+     * @param storageKey Storage key
+     * @param size Stored size in bytes, if known
+     */
+    public void tombstone(String storageKey, Long size) {
+        storageTombstoneRepository.save(new StorageTombstone(storageKey, size));
+    }
+
+    /**
+     * Drop what a document version other than the latest keeps in storage
+     * Full versions hold a blob reference, or own a file stored before content addressing; deltas own their object.
+     * @param version Document version
+     */
+    public void releaseVersion(DocumentVersion version) {
+        if (version.getStorage() == VersionStorage.FULL && version.getContentHash() != null) {
+            release(version.getContentHash());
+        } else {
+            tombstone(version.getStorageKey(), version.getStoredSize());
+        }
+    }
+
+    /**
+     * Discard staged content that will not be committed
+     * @param staged Staged content
+     */
+    public void discard(StagedContent staged) {
+        deleteQuietly(staged.getPath());
+    }
+
+    private String contentEncodingOf(String contentHash) {
+        if (contentHash == null) {
+            return null;
+        }
+        return storedBlobRepository.findById(contentHash).map(StoredBlob::getContentEncoding).orElse(null);
+    }
+
+    private void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException ex) {
+            log.debug("Could not close content stream", ex);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Could not delete staging file {}", path, ex);
+        }
+    }
+}
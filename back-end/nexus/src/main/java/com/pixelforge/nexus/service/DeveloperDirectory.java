@@ -0,0 +1,226 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.DeveloperSuggestionDTO;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory directory of the developers that can be assigned to projects
+ * Every active developer is reachable in a prefix trie by username, first name, last name and
+ * full name, so the assignment typeahead reads a handful of nodes instead of loading every
+ * developer. Loaded once at startup and kept current by {@link UserService} after each commit.
+ */
+@Component
+public class DeveloperDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(DeveloperDirectory.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Node root = new Node();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Load every active developer
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<User> developers = userRepository.findActiveUsersByRole(Role.DEVELOPER);
+        developers.forEach(this::update);
+        log.info("Loaded {} developers into the directory", developers.size());
+    }
+
+    /**
+     * Add, refresh or remove a user once the current transaction commits
+     * Only enabled developers are kept.
+     * @param user User that was created or changed
+     */
+    public void updateAfterCommit(User user) {
+        // Read now: the entity must not be touched after its session is gone
+        Entry entry = isListed(user) ? new Entry(user) : null;
+        Long userId = user.getId();
+        Runnable apply = () -> {
+            if (entry != null) {
+                put(entry);
+            } else {
+                remove(userId);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply.run();
+            }
+        });
+    }
+
+    /**
+     * Find developers whose username, first name, last name or full name starts with a prefix
+     * @param prefix Case-insensitive prefix; empty matches everyone
+     * @param limit Maximum number of developers
+     * @return Matches, ordered by the matching name
+     */
+    public List<DeveloperSuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            // A developer can match by several names; the first (best) match places them
+            Set<Long> found = new LinkedHashSet<>();
+            collect(node, found, limit);
+            List<DeveloperSuggestionDTO> suggestions = new ArrayList<>(found.size());
+            found.forEach(id -> suggestions.add(entries.get(id).suggestion));
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void update(User user) {
+        if (isListed(user)) {
+            put(new Entry(user));
+        } else {
+            remove(user.getId());
+        }
+    }
+
+    private boolean isListed(User user) {
+        return user.getRole() == Role.DEVELOPER && user.isEnabled();
+    }
+
+    private void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(entry.id, entry);
+            if (previous != null) {
+                previous.keys.forEach(key -> unlink(root, key, 0, previous.id));
+            }
+            entry.keys.forEach(key -> link(key, entry.id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long userId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(userId);
+            if (previous != null) {
+                previous.keys.forEach(key -> unlink(root, key, 0, userId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void link(String key, Long userId) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+        }
+        node.userIds.add(userId);
+    }
+
+    /**
+     * Remove a user from the node of a key, pruning nodes left empty
+     * @return true if the node at this depth is now empty
+     */
+    private boolean unlink(Node node, String key, int depth, Long userId) {
+        if (depth == key.length()) {
+            node.userIds.remove(userId);
+        } else {
+            Character c = key.charAt(depth);
+            Node child = node.children.get(c);
+            if (child != null && unlink(child, key, depth + 1, userId)) {
+                node.children.remove(c);
+            }
+        }
+        return node.userIds.isEmpty() && node.children.isEmpty();
+    }
+
+    /**
+     * Depth-first in key order, stopping as soon as enough developers are found
+     */
+    private boolean collect(Node node, Set<Long> found, int limit) {
+        for (Long userId : node.userIds) {
+            found.add(userId);
+            if (found.size() >= limit) {
+                return true;
+            }
+        }
+        for (Node child : node.children.values()) {
+            if (collect(child, found, limit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Node {
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private final TreeSet<Long> userIds = new TreeSet<>();
+    }
+
+    /**
+     * Suggestion of one developer and the trie keys it is linked under
+     */
+    private static class Entry {
+
+        private final Long id;
+        private final DeveloperSuggestionDTO suggestion;
+        private final Set<String> keys = new LinkedHashSet<>();
+
+        Entry(User user) {
+            this.id = user.getId();
+            this.suggestion = DeveloperSuggestionDTO.builder()
+                    .id(user.getId())
+                    .username(user.getUsername())
+                    .firstName(user.getFirstName())
+                    .lastName(user.getLastName())
+                    .build();
+            Stream.of(user.getUsername(), user.getFirstName(), user.getLastName(),
+                            user.getFirstName() + " " + user.getLastName())
+                    .map(DeveloperDirectory::normalize)
+                    .filter(name -> !name.isEmpty())
+                    .forEach(keys::add);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.DeveloperWorkloadDTO;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.repository.ProjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory workload of every developer: the deadlines of the active projects they are assigned to
+ * Kept per developer as a sorted count of deadlines, so the active count, the overdue count (deadlines
+ * before today) and the nearest upcoming deadline are read without a query, and stay right as days
+ * pass without any update. Seeded with one query at startup and changed by {@link ProjectService}
+ * after each commit that touches a project's status, deadline or developers.
+ */
+@Component
+public class DeveloperWorkloadIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DeveloperWorkloadIndex.class);
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    // Active projects with at least one developer, as last applied
+    private final Map<Long, ProjectLoad> projects = new HashMap<>();
+    // Developer ID to the number of their active projects due on each date
+    private final Map<Long, TreeMap<LocalDate, Integer>> deadlines = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Load the assignments of every active project
+     * Projects already changed since startup are kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        Map<Long, ProjectLoad> loaded = new HashMap<>();
+        for (WorkloadAssignment assignment : projectRepository.findActiveAssignments()) {
+            loaded.computeIfAbsent(assignment.getProjectId(),
+                            id -> new ProjectLoad(assignment.getDeadline(), new HashSet<>()))
+                    .developerIds.add(assignment.getDeveloperId());
+        }
+        int developers;
+        lock.writeLock().lock();
+        try {
+            loaded.forEach((projectId, load) -> {
+                if (!projects.containsKey(projectId)) {
+                    apply(projectId, load);
+                }
+            });
+            developers = deadlines.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded the workload of {} developers across {} active projects", developers, loaded.size());
+    }
+
+    /**
+     * Re-apply a project once the current transaction commits
+     * @param project Project whose status, deadline or developers changed
+     */
+    public void updateAfterCommit(Project project) {
+        // Read now: the entity must not be touched after its session is gone
+        Set<User> developers = project.getAssignedDevelopers();
+        ProjectLoad load = project.isActive() && developers != null && !developers.isEmpty()
+                ? new ProjectLoad(project.getDeadline(),
+                        developers.stream().map(User::getId).collect(Collectors.toSet()))
+                : null;
+        Long projectId = project.getId();
+        afterCommit(() -> write(projectId, load));
+    }
+
+    /**
+     * Forget a project once its deletion commits
+     * @param projectId Project ID
+     */
+    public void removeAfterCommit(Long projectId) {
+        afterCommit(() -> write(projectId, null));
+    }
+
+    /**
+     * Get the current workload of a developer
+     * @param developerId Developer ID
+     * @return Workload, all zero for developers without active projects
+     */
+    public DeveloperWorkloadDTO getWorkload(Long developerId) {
+        LocalDate today = LocalDate.now();
+        lock.readLock().lock();
+        try {
+            TreeMap<LocalDate, Integer> due = deadlines.get(developerId);
+            if (due == null) {
+                return DeveloperWorkloadDTO.builder().build();
+            }
+            return DeveloperWorkloadDTO.builder()
+                    .activeProjects(due.values().stream().mapToInt(Integer::intValue).sum())
+                    .overdueProjects(due.headMap(today).values().stream().mapToInt(Integer::intValue).sum())
+                    .nearestDeadline(due.ceilingKey(today))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Long projectId, ProjectLoad load) {
+        lock.writeLock().lock();
+        try {
+            apply(projectId, load);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace what a project contributes; a null load removes it. Caller holds the write lock.
+     */
+    private void apply(Long projectId, ProjectLoad load) {
+        ProjectLoad previous = load != null ? projects.put(projectId, load) : projects.remove(projectId);
+        if (previous != null) {
+            previous.developerIds.forEach(developerId -> count(developerId, previous.deadline, -1));
+        }
+        if (load != null) {
+            load.developerIds.forEach(developerId -> count(developerId, load.deadline, 1));
+        }
+    }
+
+    private void count(Long developerId, LocalDate deadline, int delta) {
+        TreeMap<LocalDate, Integer> due = deadlines.computeIfAbsent(developerId, id -> new TreeMap<>());
+        due.merge(deadline, delta, (current, change) -> current + change == 0 ? null : current + change);
+        if (due.isEmpty()) {
+            deadlines.remove(developerId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Deadline and developers of one active project
+     */
+    private static class ProjectLoad {
+
+        private final LocalDate deadline;
+        private final Set<Long> developerIds;
+
+        ProjectLoad(LocalDate deadline, Set<Long> developerIds) {
+            this.deadline = deadline;
+            this.developerIds = developerIds;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.pixelforge.nexus.service;
+
+/**
+ * Number of documents in one project, as counted by the database
+ */
+public class DocumentCount {
+
+    private final Long projectId;
+    private final long count;
+
+    public DocumentCount(Long projectId, Long count) {
+        this.projectId = projectId;
+        this.count = count != null ? count : 0;
+    }
+
+    public Long getProjectId() { return projectId; }
+    public long getCount() { return count; }
+}
@@ -0,0 +1,65 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.exception.InvalidOperationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a document listing ordered by (uploadedAt, id), newest first
+ * Clients receive it as an opaque token and pass it back to read the next page.
+ */
+public class DocumentCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime uploadedAt;
+    private final Long id;
+
+    public DocumentCursor(LocalDateTime uploadedAt, Long id) {
+        this.uploadedAt = uploadedAt;
+        this.id = id;
+    }
+
+    /**
+     * Cursor pointing after the given listing row
+     * @param listing Last row of a page
+     * @return Cursor
+     */
+    public static DocumentCursor after(DocumentListing listing) {
+        return new DocumentCursor(listing.getUploadedAt(), listing.getId());
+    }
+
+    /**
+     * Parse a cursor token
+     * @param token Token from a previous page, may be null or empty for the first page
+     * @return Cursor, or null for the first page
+     * @throws InvalidOperationException if the token is malformed
+     */
+    public static DocumentCursor parse(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            return new DocumentCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new InvalidOperationException("Invalid page cursor");
+        }
+    }
+
+    /**
+     * Encode as an opaque, URL-safe token
+     */
+    public String toToken() {
+        String value = uploadedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getUploadedAt() { return uploadedAt; }
+    public Long getId() { return id; }
+}
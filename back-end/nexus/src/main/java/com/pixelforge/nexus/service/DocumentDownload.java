@@ -0,0 +1,121 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.storage.StorageBackend;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Resolved download of a stored document file
+ * Carries everything needed to serve the file without touching the entity again.
+ * Content that is not stored as such (older versions kept as deltas) is produced by a body
+ * instead of being read from a storage key.
+ */
+public class DocumentDownload {
+
+    /**
+     * Writes content that has to be rebuilt on the fly
+     */
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final StorageBackend storageBackend;
+    private final String storageKey;
+    private final long contentLength;
+    private final String contentEncoding;
+    private final long storedLength;
+    private final String contentType;
+    private final String originalFileName;
+    private final long lastModified;
+    private final String eTag;
+    private final boolean immutable;
+    private final Body body;
+
+    public DocumentDownload(StorageBackend storageBackend, String storageKey, long contentLength,
+                            String contentEncoding, long storedLength, String contentType,
+                            String originalFileName, long lastModified, String eTag, boolean immutable) {
+        this(storageBackend, storageKey, contentLength, contentEncoding, storedLength, contentType,
+                originalFileName, lastModified, eTag, immutable, null);
+    }
+
+    private DocumentDownload(StorageBackend storageBackend, String storageKey, long contentLength,
+                             String contentEncoding, long storedLength, String contentType,
+                             String originalFileName, long lastModified, String eTag, boolean immutable,
+                             Body body) {
+        this.storageBackend = storageBackend;
+        this.storageKey = storageKey;
+        this.contentLength = contentLength;
+        this.contentEncoding = contentEncoding;
+        this.storedLength = storedLength;
+        this.contentType = contentType;
+        this.originalFileName = originalFileName;
+        this.lastModified = lastModified;
+        this.eTag = eTag;
+        this.immutable = immutable;
+        this.body = body;
+    }
+
+    /**
+     * Download of content rebuilt by a body; such downloads never change and do not support ranges
+     */
+    public static DocumentDownload rebuilt(long contentLength, String contentType, String originalFileName,
+                                           long lastModified, String eTag, Body body) {
+        return new DocumentDownload(null, null, contentLength, null, contentLength, contentType,
+                originalFileName, lastModified, eTag, true, body);
+    }
+
+    public StorageBackend getStorageBackend() { return storageBackend; }
+    public String getStorageKey() { return storageKey; }
+
+    /**
+     * Length of the original content in bytes
+     */
+    public long getContentLength() { return contentLength; }
+
+    /**
+     * Content coding of the stored bytes, null if stored as uploaded
+     */
+    public String getContentEncoding() { return contentEncoding; }
+
+    /**
+     * Length of the stored bytes
+     */
+    public long getStoredLength() { return storedLength; }
+
+    public String getContentType() { return contentType; }
+    public String getOriginalFileName() { return originalFileName; }
+
+    /**
+     * Check that the stored content is still present
+     */
+    public boolean exists() { return body != null || storageBackend.exists(storageKey); }
+
+    /**
+     * Local file holding the content, if the backend keeps files on local disk
+     */
+    public Optional<Path> getLocalPath() { return storageBackend.localPath(storageKey); }
+
+    /**
+     * Last modification time in epoch milliseconds
+     */
+    public long getLastModified() { return lastModified; }
+
+    /**
+     * Strong entity tag, quoted
+     */
+    public String getETag() { return eTag; }
+
+    /**
+     * Whether the requested URL always names this exact content, so caches need not revalidate
+     */
+    public boolean isImmutable() { return immutable; }
+
+    /**
+     * Body producing rebuilt content, or empty when the content is read from storage
+     */
+    public Optional<Body> getBody() { return Optional.ofNullable(body); }
+}
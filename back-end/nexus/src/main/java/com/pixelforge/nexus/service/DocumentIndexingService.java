@@ -0,0 +1,298 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.SearchIndexStatsDTO;
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.event.DocumentUploadedEvent;
+import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.search.DocumentIndex;
+import com.pixelforge.nexus.search.TextExtractor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Service class for keeping the full-text index in step with the documents table
+ * Text is extracted on a bounded worker pool after each upload commits, and deletes are applied
+ * once committed. Uploads dropped because the pool was full, documents stored before the index
+ * existed and index changes lost in a crash are all caught by a reconciliation pass at startup
+ * and then periodically, which compares the indexed version of every document with the database.
+ */
+@Service
+public class DocumentIndexingService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentIndexingService.class);
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @Autowired
+    private DocumentIndex documentIndex;
+
+    @Autowired
+    private TextExtractor textExtractor;
+
+    @Autowired
+    @Qualifier("indexExecutor")
+    private TaskExecutor indexExecutor;
+
+    // Larger files are indexed by name and description only
+    @Value("${app.search.max-file-size:100MB}")
+    private DataSize maxFileSize;
+
+    private final Path spoolLocation;
+
+    // Document ID to the time it was queued; the oldest entry is the indexing lag
+    private final ConcurrentMap<Long, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong extractionFailures = new AtomicLong();
+    private final AtomicLong lastLatencyMillis = new AtomicLong();
+    private final LongAccumulator maxLatencyMillis = new LongAccumulator(Long::max, 0);
+
+    public DocumentIndexingService(@Value("${app.upload.dir:uploads}") String uploadDir) {
+        this.spoolLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(".index-spool");
+        try {
+            Files.createDirectories(this.spoolLocation);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the directory for text extraction.", ex);
+        }
+    }
+
+    /**
+     * Queue a new document or version for indexing once the upload is committed
+     * @param event Upload event
+     */
+    @TransactionalEventListener
+    public void onDocumentUploaded(DocumentUploadedEvent event) {
+        Long documentId = event.getDocumentId();
+        if (pending.putIfAbsent(documentId, System.currentTimeMillis()) != null) {
+            return;
+        }
+        try {
+            indexExecutor.execute(() -> indexNow(documentId));
+        } catch (TaskRejectedException ex) {
+            // Left to the next reconciliation
+            pending.remove(documentId);
+            log.debug("Index queue full, skipping document {}", documentId);
+        }
+    }
+
+    /**
+     * Remove a document from the index once its deletion is committed
+     * @param projectId Project of the document
+     * @param documentId Document ID
+     */
+    public void removeAfterCommit(Long projectId, Long documentId) {
+        afterCommit(() -> documentIndex.remove(projectId, documentId));
+    }
+
+    /**
+     * Drop a project's index partition once the project's deletion is committed
+     * @param projectId Project ID
+     */
+    public void dropProjectAfterCommit(Long projectId) {
+        afterCommit(() -> documentIndex.dropProject(projectId));
+    }
+
+    /**
+     * Start a reconciliation pass on the worker pool, unless one is running
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.search.reconcile-interval:PT1H}",
+            fixedDelayString = "${app.search.reconcile-interval:PT1H}")
+    public void reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            indexExecutor.execute(() -> {
+                try {
+                    reconcileNow();
+                } catch (RuntimeException ex) {
+                    log.warn("Search index reconciliation failed", ex);
+                } finally {
+                    reconciling.set(false);
+                }
+            });
+        } catch (TaskRejectedException ex) {
+            reconciling.set(false);
+            log.debug("Index queue full, reconciling on the next run");
+        }
+    }
+
+    /**
+     * Get the size of the index and how far behind the uploads it is
+     * @return Index statistics
+     */
+    public SearchIndexStatsDTO getStats() {
+        long now = System.currentTimeMillis();
+        long oldestQueued = pending.values().stream().mapToLong(Long::longValue).min().orElse(now);
+        return SearchIndexStatsDTO.builder()
+                .partitions(documentIndex.getProjectIds().size())
+                .documents(documentIndex.getDocumentCount())
+                .sizeBytes(documentIndex.getSizeInBytes())
+                .pendingDocuments(pending.size())
+                .lagMillis(Math.max(0, now - oldestQueued))
+                .lastLatencyMillis(lastLatencyMillis.get())
+                .maxLatencyMillis(maxLatencyMillis.get())
+                .indexedSinceStartup(indexed.get())
+                .extractionFailures(extractionFailures.get())
+                .build();
+    }
+
+    /**
+     * Bring the index in line with the database, indexing stale documents on this thread
+     */
+    void reconcileNow() {
+        Map<Long, Map<Long, Integer>> expected = new HashMap<>();
+        for (IndexEntry entry : documentRepository.findIndexEntries()) {
+            expected.computeIfAbsent(entry.getProjectId(), id -> new HashMap<>())
+                    .put(entry.getDocumentId(), entry.getVersionNumber());
+        }
+
+        for (Long projectId : documentIndex.getProjectIds()) {
+            if (!expected.containsKey(projectId)) {
+                documentIndex.dropProject(projectId);
+            }
+        }
+
+        List<Long> stale = new ArrayList<>();
+        expected.forEach((projectId, versions) -> {
+            Map<Long, Integer> indexedVersions = documentIndex.getIndexedVersions(projectId);
+            versions.forEach((documentId, version) -> {
+                if (!version.equals(indexedVersions.get(documentId))) {
+                    stale.add(documentId);
+                }
+            });
+            indexedVersions.keySet().stream()
+                    .filter(documentId -> !versions.containsKey(documentId))
+                    .forEach(documentId -> documentIndex.remove(projectId, documentId));
+        });
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        log.info("Indexing {} documents missing from the search index", stale.size());
+        long now = System.currentTimeMillis();
+        stale.forEach(documentId -> pending.putIfAbsent(documentId, now));
+        stale.forEach(this::indexNow);
+    }
+
+    /**
+     * Index the current version of a document, unless another task got to it first
+     */
+    void indexNow(Long documentId) {
+        Long queuedAt = pending.remove(documentId);
+        if (queuedAt == null) {
+            return;
+        }
+        try {
+            Optional<Document> found = documentRepository.findById(documentId);
+            if (found.isEmpty()) {
+                // Deleted before it was indexed
+                return;
+            }
+            Document document = found.get();
+            documentIndex.index(document.getProject().getId(), document.getId(), document.getVersionNumber(),
+                    document.getOriginalFileName(), document.getDescription(), extractText(document));
+
+            long latency = System.currentTimeMillis() - queuedAt;
+            lastLatencyMillis.set(latency);
+            maxLatencyMillis.accumulate(latency);
+            indexed.incrementAndGet();
+        } catch (RuntimeException ex) {
+            log.warn("Could not index document {}: {}", documentId, ex.getMessage());
+        }
+    }
+
+    /**
+     * Extract the text of a document, or null if its type has none or it cannot be read
+     */
+    private String extractText(Document document) {
+        // The declared type: Office documents are sniffed as plain ZIP archives
+        String contentType = document.getContentType();
+        if (!textExtractor.isSupported(contentType) || document.getFileSize() > maxFileSize.toBytes()) {
+            return null;
+        }
+
+        try {
+            Optional<Path> localPath = contentStoreService.localContentPath(document.getFilePath(),
+                    document.getContentHash());
+            if (localPath.isPresent()) {
+                return textExtractor.extract(localPath.get(), contentType);
+            }
+
+            // Remote or compressed content is spooled first, since PDF and ZIP parsing need random access
+            Path spooled = Files.createTempFile(spoolLocation, "extract-", ".tmp");
+            try {
+                try (InputStream in = contentStoreService.openContent(document.getFilePath(),
+                        document.getContentHash())) {
+                    Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+                }
+                return textExtractor.extract(spooled, contentType);
+            } finally {
+                Files.deleteIfExists(spooled);
+            }
+        } catch (IOException | RuntimeException ex) {
+            // Still indexed by name and description
+            extractionFailures.incrementAndGet();
+            log.warn("Could not extract text of document {}: {}", document.getId(), ex.getMessage());
+            return null;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (RuntimeException ex) {
+                // Repaired by the next reconciliation
+                log.warn("Could not update the search index", ex);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guarded.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a document listing, read together with its uploader and project columns
+ * Listings are built from this projection so no association is loaded per row.
+ */
+public class DocumentListing {
+
+    private final Document document = new Document();
+
+    public DocumentListing(Long id, String fileName, String originalFileName, Long fileSize, String contentType,
+                           String detectedContentType, String description, LocalDateTime uploadedAt,
+                           Integer versionNumber, Long projectId, String projectName,
+                           Long uploaderId, String uploaderUsername, String uploaderFirstName,
+                           String uploaderLastName, Role uploaderRole) {
+        Project project = new Project();
+        project.setId(projectId);
+        project.setName(projectName);
+
+        User uploader = new User();
+        uploader.setId(uploaderId);
+        uploader.setUsername(uploaderUsername);
+        uploader.setFirstName(uploaderFirstName);
+        uploader.setLastName(uploaderLastName);
+        uploader.setRole(uploaderRole);
+
+        document.setId(id);
+        document.setFileName(fileName);
+        document.setOriginalFileName(originalFileName);
+        document.setFileSize(fileSize);
+        document.setContentType(contentType);
+        document.setDetectedContentType(detectedContentType);
+        document.setDescription(description);
+        document.setUploadedAt(uploadedAt);
+        document.setVersionNumber(versionNumber);
+        document.setProject(project);
+        document.setUploadedBy(uploader);
+    }
+
+    /**
+     * Detached document holding the listed columns, so listings share the entity's derived properties
+     * Only the columns of the projection are set; the document is never attached to a session.
+     */
+    public Document getDocument() { return document; }
+
+    public Long getId() { return document.getId(); }
+    public LocalDateTime getUploadedAt() { return document.getUploadedAt(); }
+}
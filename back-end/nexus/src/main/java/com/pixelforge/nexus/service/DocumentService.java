@@ -1,32 +1,55 @@
 package com.pixelforge.nexus.service;
 
 import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.entity.DocumentVersion;
 import com.pixelforge.nexus.entity.Project;
 import com.pixelforge.nexus.entity.User;
 import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.StoredBlob;
+import com.pixelforge.nexus.repository.DocumentBatchRepository;
 import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.DocumentVersionRepository;
+import com.pixelforge.nexus.repository.ProjectRepository;
+import com.pixelforge.nexus.dto.DocumentPageDTO;
 import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.dto.DocumentSearchHitDTO;
+import com.pixelforge.nexus.dto.UploadByHashDTO;
 import com.pixelforge.nexus.dto.UserResponseDTO;
 import com.pixelforge.nexus.exception.ResourceNotFoundException;
 import com.pixelforge.nexus.exception.InvalidOperationException;
+import com.pixelforge.nexus.event.DocumentUploadedEvent;
+import com.pixelforge.nexus.event.ProjectChangeEvent;
 import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.ingest.IngestPipeline;
+import com.pixelforge.nexus.ingest.IngestPipelineFactory;
+import com.pixelforge.nexus.metrics.DocumentMetrics;
+import com.pixelforge.nexus.search.DocumentHit;
+import com.pixelforge.nexus.search.DocumentIndex;
+import com.pixelforge.nexus.storage.ContentCache;
+import com.pixelforge.nexus.storage.StorageBackend;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -37,28 +60,85 @@ import java.util.stream.Collectors;
 @Transactional
 public class DocumentService {
 
+    // Allow common document types
+    private static final Set<String> ALLOWED_CONTENT_TYPES = Set.of(
+            "application/pdf",
+            "application/msword",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/vnd.ms-excel",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "application/vnd.ms-powerpoint",
+            "application/vnd.openxmlformats-officedocument.presentationml.presentation",
+            "text/plain",
+            "image/jpeg",
+            "image/png",
+            "image/gif",
+            "image/bmp",
+            "image/webp"
+    );
+
     @Autowired
     private DocumentRepository documentRepository;
 
+    @Autowired
+    private DocumentBatchRepository documentBatchRepository;
+
+    @Autowired
+    private DocumentVersionRepository documentVersionRepository;
+
     @Autowired
     private UserService userService;
 
     @Autowired
     private ProjectService projectService;
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ContentStoreService contentStoreService;
 
-    private final Path fileStorageLocation;
+    @Autowired
+    private StorageQuotaService storageQuotaService;
 
-    public DocumentService(@Value("${app.upload.dir:uploads}") String uploadDir) {
-        this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.fileStorageLocation);
-        } catch (Exception ex) {
-            throw new FileStorageException("Could not create the directory where the uploaded files will be stored.", ex);
-        }
-    }
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    @Autowired
+    private DocumentIndex documentIndex;
+
+    @Autowired
+    private DocumentIndexingService documentIndexingService;
+
+    @Autowired
+    private IngestPipelineFactory ingestPipelineFactory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DocumentMetrics documentMetrics;
+
+    @Value("${app.upload.max-file-size:10MB}")
+    private DataSize maxFileSize;
+
+    @Value("${app.upload.resumable.max-file-size:2GB}")
+    private DataSize maxResumableFileSize;
+
+    @Value("${app.documents.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.documents.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${app.search.default-limit:20}")
+    private int defaultSearchLimit;
+
+    @Value("${app.search.max-limit:100}")
+    private int maxSearchLimit;
 
     /**
      * Upload document to project
@@ -70,6 +150,8 @@ public class DocumentService {
      */
     public DocumentResponseDTO uploadDocument(Long projectId, MultipartFile file, String description,
                                               String uploaderUsername) {
+        Timer.Sample sample = documentMetrics.startUpload();
+
         // Validate file
         if (file.isEmpty()) {
             throw new InvalidOperationException("Cannot upload empty file");
@@ -87,48 +169,129 @@ public class DocumentService {
         // Validate file type and size
         validateFile(file);
 
-        // Generate unique filename
         String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-        String fileExtension = getFileExtension(originalFileName);
-        String fileName = UUID.randomUUID().toString() + "." + fileExtension;
+        validateFileName(originalFileName);
 
-        try {
-            // Check if filename contains invalid characters
-            if (originalFileName.contains("..")) {
-                throw new FileStorageException("Sorry! Filename contains invalid path sequence " + originalFileName);
-            }
+        storageQuotaService.reserve(project, uploader, file.getSize());
 
-            // Copy file to the target location
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+        // One pass over the upload sniffs its type, hashes and counts it; identical content is stored only once
+        IngestPipeline pipeline = ingestPipelineFactory.create(file.getContentType(), maxFileSize.toBytes());
+        StagedContent staged;
+        try (InputStream content = file.getInputStream()) {
+            staged = contentStoreService.stage(content, pipeline);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store file " + originalFileName + ". Please try again!", ex);
+        }
+
+        String storageKey = contentStoreService.commit(staged, file.getContentType());
+        Document savedDocument = saveDocument(project, uploader, originalFileName, staged, storageKey,
+                file.getContentType(), description);
+        documentMetrics.recordUpload(sample, "multipart", savedDocument.getFileSize());
+        return convertToResponseDTO(savedDocument);
+    }
+
+    /**
+     * Create document from a fully assembled staged file (resumable uploads)
+     * The staged file is moved into the content store, not copied
+     * @param projectId Project ID
+     * @param stagedFile Assembled file on local disk
+     * @param originalFileName Client-supplied file name
+     * @param contentType Client-supplied content type
+     * @param description Optional description
+     * @param uploaderUsername Username of uploader
+     * @return Document response
+     */
+    public DocumentResponseDTO createDocumentFromStagedFile(Long projectId, Path stagedFile, String originalFileName,
+                                                            String contentType, String description,
+                                                            String uploaderUsername) {
+        Timer.Sample sample = documentMetrics.startUpload();
+        Project project = projectService.getProjectEntityById(projectId);
+        User uploader = userService.getUserEntityByUsername(uploaderUsername);
 
-            // Create document entity
-            Document document = new Document();
-            document.setFileName(fileName);
-            document.setOriginalFileName(originalFileName);
-            document.setFilePath(targetLocation.toString());
-            document.setFileSize(file.getSize());
-            document.setContentType(file.getContentType());
-            document.setDescription(description);
-            document.setProject(project);
-            document.setUploadedBy(uploader);
+        // Permissions may have changed while the upload was in flight
+        if (!canUploadToProject(project, uploader)) {
+            throw new InvalidOperationException("You don't have permission to upload files to this project");
+        }
 
-            Document savedDocument = documentRepository.save(document);
-            return convertToResponseDTO(savedDocument);
+        String cleanFileName = StringUtils.cleanPath(originalFileName);
+        validateFileName(cleanFileName);
 
+        validateContentType(contentType);
+        try {
+            storageQuotaService.reserve(project, uploader, Files.size(stagedFile));
         } catch (IOException ex) {
-            throw new FileStorageException("Could not store file " + originalFileName + ". Please try again!", ex);
+            throw new FileStorageException("Could not read assembled upload " + cleanFileName, ex);
+        }
+        StagedContent staged = contentStoreService.stage(stagedFile,
+                ingestPipelineFactory.create(contentType, maxResumableFileSize.toBytes()));
+
+        String storageKey = contentStoreService.commit(staged, contentType);
+        Document savedDocument = saveDocument(project, uploader, cleanFileName, staged, storageKey,
+                contentType, description);
+        documentMetrics.recordUpload(sample, "resumable", savedDocument.getFileSize());
+        return convertToResponseDTO(savedDocument);
+    }
+
+    /**
+     * Create document from content the server already stores, skipping the transfer
+     * Only content already attached to a project the uploader can access is eligible,
+     * so the fast path cannot be used to probe for files in other projects.
+     * @param projectId Project ID
+     * @param request Digest and metadata of the file
+     * @param uploaderUsername Username of uploader
+     * @return Document response
+     * @throws ResourceNotFoundException if the content must be uploaded
+     */
+    public DocumentResponseDTO uploadDocumentByHash(Long projectId, UploadByHashDTO request, String uploaderUsername) {
+        Timer.Sample sample = documentMetrics.startUpload();
+        Project project = projectService.getProjectEntityById(projectId);
+        User uploader = userService.getUserEntityByUsername(uploaderUsername);
+
+        if (!canUploadToProject(project, uploader)) {
+            throw new InvalidOperationException("You don't have permission to upload files to this project");
+        }
+
+        String originalFileName = StringUtils.cleanPath(request.getFileName());
+        validateFileName(originalFileName);
+        validateFile(request.getContentType(), request.getFileSize(), maxResumableFileSize.toBytes());
+
+        storageQuotaService.reserve(project, uploader, request.getFileSize());
+
+        String contentHash = request.getSha256().toLowerCase();
+        boolean visible = uploader.getRole() == Role.ADMIN
+                || documentRepository.existsByContentHashAndProject_Lead(contentHash, uploader);
+
+        String storageKey = visible
+                ? contentStoreService.acquire(contentHash, request.getFileSize()).orElse(null)
+                : null;
+        if (storageKey == null) {
+            throw new ResourceNotFoundException("Content not found: " + contentHash);
         }
+
+        // The bytes were sniffed when the content was first uploaded
+        String detectedContentType = documentRepository.findFirstByContentHashAndDetectedContentTypeIsNotNull(contentHash)
+                .map(Document::getDetectedContentType)
+                .orElse(null);
+        StagedContent existing = new StagedContent(null, contentHash, request.getFileSize(), detectedContentType);
+        Document savedDocument = saveDocument(project, uploader, originalFileName, existing, storageKey,
+                request.getContentType(), request.getDescription());
+        documentMetrics.recordUpload(sample, "by-hash", savedDocument.getFileSize());
+        return convertToResponseDTO(savedDocument);
     }
 
     /**
-     * Get documents for a project
+     * Get one page of a project's documents, newest first
      * @param projectId Project ID
+     * @param contentType Optional content type filter, exact ("image/png") or by top-level type ("image/*")
+     * @param uploaderId Optional uploader filter
+     * @param cursor Token of the next page from a previous call, null for the first page
+     * @param limit Page size, null for the default
      * @param currentUsername Current user's username
-     * @return List of document responses
+     * @return Page of document responses
      */
     @Transactional(readOnly = true)
-    public List<DocumentResponseDTO> getProjectDocuments(Long projectId, String currentUsername) {
+    public DocumentPageDTO getProjectDocuments(Long projectId, String contentType, Long uploaderId, String cursor,
+                                               Integer limit, String currentUsername) {
         Project project = projectService.getProjectEntityById(projectId);
         User currentUser = userService.getUserEntityByUsername(currentUsername);
 
@@ -137,10 +300,26 @@ public class DocumentService {
             throw new InvalidOperationException("You don't have access to this project's documents");
         }
 
-        return documentRepository.findByProjectOrderByUploadedAtDesc(project)
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return listDocuments(project.getId(), uploaderId, contentType, cursor, limit);
+    }
+
+    /**
+     * Resolve all files of a project for a ZIP download
+     * One access check covers every file in the archive
+     * @param projectId Project ID
+     * @param currentUsername Current user's username
+     * @return Archive descriptor
+     */
+    @Transactional(readOnly = true)
+    public ProjectArchive getProjectArchive(Long projectId, String currentUsername) {
+        Project project = projectService.getProjectEntityById(projectId);
+        User currentUser = userService.getUserEntityByUsername(currentUsername);
+
+        if (!hasAccessToProject(project, currentUser)) {
+            throw new InvalidOperationException("You don't have access to this project's documents");
+        }
+
+        return new ProjectArchive(project.getName(), documentRepository.findArchiveEntriesByProjectId(projectId));
     }
 
     /**
@@ -165,13 +344,33 @@ public class DocumentService {
     }
 
     /**
-     * Download document file
+     * Get document entity after checking the user can access it (internal use)
+     * @param documentId Document ID
+     * @param currentUsername Current user's username
+     * @return Document entity
+     */
+    @Transactional(readOnly = true)
+    public Document getAccessibleDocumentEntity(Long documentId, String currentUsername) {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found with id: " + documentId));
+
+        User currentUser = userService.getUserEntityByUsername(currentUsername);
+        if (!hasAccessToProject(document.getProject(), currentUser)) {
+            throw new InvalidOperationException("You don't have access to this document");
+        }
+        return document;
+    }
+
+    /**
+     * Resolve document file for download
+     * Loads the document and checks access once
      * @param documentId Document ID
+     * @param version Stored file name the client expects, making the response cacheable for good; may be null
      * @param currentUsername Current user's username
-     * @return File resource
+     * @return Download descriptor
      */
     @Transactional(readOnly = true)
-    public Resource downloadDocument(Long documentId, String currentUsername) {
+    public DocumentDownload downloadDocument(Long documentId, String version, String currentUsername) {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found with id: " + documentId));
 
@@ -182,18 +381,34 @@ public class DocumentService {
             throw new InvalidOperationException("You don't have access to this document");
         }
 
-        try {
-            Path filePath = Paths.get(document.getFilePath()).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
+        // The stored name is the SHA-256 of the content, so it names exactly these bytes
+        String eTag = "\"" + StringUtils.stripFilenameExtension(document.getFileName()) + "\"";
 
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new ResourceNotFoundException("File not found: " + document.getOriginalFileName());
-            }
-        } catch (MalformedURLException ex) {
-            throw new ResourceNotFoundException("File not found: " + document.getOriginalFileName());
-        }
+        // New versions replace the content behind the document, unless the URL names the stored file
+        boolean immutable = document.getFileName().equals(version);
+
+        return storedDownload(document.getFilePath(), document.getContentHash(), document.getFileSize(),
+                document.getContentType(), document.getOriginalFileName(), document.getUploadedAt(), eTag, immutable);
+    }
+
+    /**
+     * Describe the download of content held under a storage key
+     * Presence in storage is checked by the writer, so conditional requests never reach the backend.
+     */
+    DocumentDownload storedDownload(String storageKey, String contentHash, long fileSize, String contentType,
+                                    String originalFileName, LocalDateTime uploadedAt, String eTag,
+                                    boolean immutable) {
+        long lastModified = uploadedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        // Compressed content is described by its blob; legacy files are stored as uploaded
+        Optional<StoredBlob> blob = contentHash != null
+                ? contentStoreService.getBlob(contentHash)
+                : Optional.empty();
+        String contentEncoding = blob.map(StoredBlob::getContentEncoding).orElse(null);
+        long storedLength = blob.map(StoredBlob::getStoredSize).orElse(fileSize);
+
+        return new DocumentDownload(storageBackend, storageKey, fileSize, contentEncoding, storedLength,
+                contentType, originalFileName, lastModified, eTag, immutable);
     }
 
     /**
@@ -212,32 +427,149 @@ public class DocumentService {
             throw new InvalidOperationException("You don't have permission to delete this document");
         }
 
-        try {
-            // Delete physical file
-            Path filePath = Paths.get(document.getFilePath());
-            Files.deleteIfExists(filePath);
-
-            // Delete database record
+        // Older versions hold their own content references and deltas
+        List<DocumentVersion> retained = documentVersionRepository.findRetainedByDocument(document);
+        retained.forEach(contentStoreService::releaseVersion);
+        documentVersionRepository.deleteByDocument(document);
+        storageQuotaService.releaseAfterCommit(document.getProject().getId(), document.getUploadedBy().getId(),
+                document.getFileSize() + retained.stream().mapToLong(DocumentVersion::getFileSize).sum());
+        // Shared content is read back on its next download; deleted content never is
+        contentCache.evict(document.getFilePath());
+        documentIndexingService.removeAfterCommit(document.getProject().getId(), document.getId());
+        eventPublisher.publishEvent(new ProjectChangeEvent(ProjectChangeEvent.Type.DOCUMENT_DELETED,
+                document.getProject(), document.getId()));
+
+        if (document.getContentHash() != null) {
+            // Shared content: drop this document's reference, the file stays for other documents
+            contentStoreService.release(document.getContentHash());
             documentRepository.delete(document);
-
-        } catch (IOException ex) {
-            throw new FileStorageException("Could not delete file: " + document.getOriginalFileName(), ex);
+            return;
         }
+
+        // The file and its thumbnail are deleted by the storage collector after commit
+        contentStoreService.tombstone(document.getFilePath(), document.getFileSize());
+        documentRepository.delete(document);
+    }
+
+    /**
+     * Get one page of the documents uploaded by user, newest first
+     * @param contentType Optional content type filter, exact ("image/png") or by top-level type ("image/*")
+     * @param cursor Token of the next page from a previous call, null for the first page
+     * @param limit Page size, null for the default
+     * @param currentUsername Current user's username
+     * @return Page of document responses
+     */
+    @Transactional(readOnly = true)
+    public DocumentPageDTO getUserDocuments(String contentType, String cursor, Integer limit, String currentUsername) {
+        User currentUser = userService.getUserEntityByUsername(currentUsername);
+
+        return listDocuments(null, currentUser.getId(), contentType, cursor, limit);
     }
 
     /**
-     * Get documents uploaded by user
+     * Search the names, descriptions and text of the documents a user can access
+     * @param query Free text query; every word must match
+     * @param projectId Project to search, or null for every accessible project
+     * @param limit Maximum number of hits, null for the default
      * @param currentUsername Current user's username
-     * @return List of document responses
+     * @return Hits, best first
      */
     @Transactional(readOnly = true)
-    public List<DocumentResponseDTO> getUserDocuments(String currentUsername) {
+    public List<DocumentSearchHitDTO> searchDocuments(String query, Long projectId, Integer limit,
+                                                      String currentUsername) {
+        int maxHits = limit == null ? defaultSearchLimit : limit;
+        if (maxHits < 1 || maxHits > maxSearchLimit) {
+            throw new InvalidOperationException("Limit must be between 1 and " + maxSearchLimit);
+        }
+        if (!StringUtils.hasText(query)) {
+            throw new InvalidOperationException("Search query must not be empty");
+        }
         User currentUser = userService.getUserEntityByUsername(currentUsername);
 
-        return documentRepository.findByUploadedBy(currentUser)
+        Collection<Long> projectIds;
+        if (projectId != null) {
+            Project project = projectService.getProjectEntityById(projectId);
+            if (!hasAccessToProject(project, currentUser)) {
+                throw new InvalidOperationException("You don't have access to this project's documents");
+            }
+            projectIds = List.of(project.getId());
+        } else {
+            projectIds = accessibleProjectIds(currentUser);
+        }
+
+        List<DocumentHit> hits = documentIndex.search(query, projectIds, maxHits);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        // The index may briefly lag a delete or a change of assignment, so every hit is checked again
+        Map<Long, Document> documents = documentRepository.findWithProjectAndUploaderByIdIn(
+                        hits.stream().map(DocumentHit::getDocumentId).collect(Collectors.toList()))
                 .stream()
-                .map(this::convertToResponseDTO)
+                .collect(Collectors.toMap(Document::getId, Function.identity()));
+        return hits.stream()
+                .filter(hit -> documents.containsKey(hit.getDocumentId()))
+                .filter(hit -> hasAccessToProject(documents.get(hit.getDocumentId()).getProject(), currentUser))
+                .map(hit -> DocumentSearchHitDTO.builder()
+                        .document(convertToResponseDTO(documents.get(hit.getDocumentId())))
+                        .score(hit.getScore())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the projects whose documents a user can see
+     */
+    private Collection<Long> accessibleProjectIds(User user) {
+        switch (user.getRole()) {
+            case ADMIN:
+                return documentIndex.getProjectIds();
+            case PROJECT_LEAD:
+                return projectRepository.findByLead(user).stream().map(Project::getId).collect(Collectors.toList());
+            case DEVELOPER:
+                return projectRepository.findProjectsAssignedToDeveloper(user).stream()
+                        .map(Project::getId).collect(Collectors.toList());
+            default:
+                return List.of();
+        }
+    }
+
+    /**
+     * Read one listing page with a single query; one extra row tells whether another page follows
+     */
+    private DocumentPageDTO listDocuments(Long projectId, Long uploaderId, String contentType, String cursor,
+                                         Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new InvalidOperationException("Page size must be between 1 and " + maxPageSize);
+        }
+        DocumentCursor after = DocumentCursor.parse(cursor);
+
+        String pattern = contentTypePattern(contentType);
+        PageRequest rowsToRead = PageRequest.of(0, pageSize + 1);
+        List<DocumentListing> rows = after == null
+                ? documentRepository.findListings(projectId, uploaderId, pattern, rowsToRead)
+                : documentRepository.findListingsBefore(projectId, uploaderId, pattern, after.getUploadedAt(),
+                        after.getId(), rowsToRead);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<DocumentListing> page = hasMore ? rows.subList(0, pageSize) : rows;
+        List<DocumentResponseDTO> documents = page.stream()
+                .map(listing -> convertToResponseDTO(listing.getDocument()))
                 .collect(Collectors.toList());
+        String nextCursor = hasMore ? DocumentCursor.after(page.get(pageSize - 1)).toToken() : null;
+        return new DocumentPageDTO(documents, nextCursor);
+    }
+
+    /**
+     * Turn a content type filter into a LIKE pattern; "image/*" matches every image type
+     */
+    private String contentTypePattern(String contentType) {
+        if (!StringUtils.hasText(contentType)) {
+            return null;
+        }
+        String filter = contentType.trim().toLowerCase().replace("%", "").replace("_", "");
+        return filter.endsWith("/*") ? filter.substring(0, filter.length() - 1) + "%" : filter;
     }
 
     /**
@@ -245,40 +577,116 @@ public class DocumentService {
      * @param file Multipart file
      */
     private void validateFile(MultipartFile file) {
-        // Check file size (10MB limit)
-        long maxSize = 10 * 1024 * 1024; // 10MB
-        if (file.getSize() > maxSize) {
-            throw new InvalidOperationException("File size exceeds maximum limit of 10MB");
+        validateFile(file.getContentType(), file.getSize(), maxFileSize.toBytes());
+    }
+
+    /**
+     * Validate file metadata against size limit and allowed types
+     * @param contentType Declared content type
+     * @param fileSize File size in bytes
+     * @param maxSize Maximum allowed size in bytes
+     */
+    void validateFile(String contentType, long fileSize, long maxSize) {
+        if (fileSize > maxSize) {
+            throw new InvalidOperationException("File size exceeds maximum limit of " + DataSize.ofBytes(maxSize).toMegabytes() + "MB");
         }
+        validateContentType(contentType);
+    }
 
-        // Check content type
-        String contentType = file.getContentType();
+    /**
+     * Validate declared content type against allowed types
+     * The bytes are checked against the declared type later, by the ingest pipeline
+     * @param contentType Declared content type
+     */
+    private void validateContentType(String contentType) {
         if (contentType == null) {
             throw new InvalidOperationException("Invalid file type");
         }
 
-        // Allow common document types
-        List<String> allowedTypes = List.of(
-                "application/pdf",
-                "application/msword",
-                "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
-                "application/vnd.ms-excel",
-                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
-                "application/vnd.ms-powerpoint",
-                "application/vnd.openxmlformats-officedocument.presentationml.presentation",
-                "text/plain",
-                "image/jpeg",
-                "image/png",
-                "image/gif",
-                "image/bmp",
-                "image/webp"
-        );
-
-        if (!allowedTypes.contains(contentType.toLowerCase())) {
+        if (!ALLOWED_CONTENT_TYPES.contains(contentType.toLowerCase())) {
             throw new InvalidOperationException("File type not allowed: " + contentType);
         }
     }
 
+    /**
+     * Reject filenames containing path traversal sequences
+     * @param originalFileName Original filename
+     */
+    void validateFileName(String originalFileName) {
+        if (originalFileName.contains("..")) {
+            throw new FileStorageException("Sorry! Filename contains invalid path sequence " + originalFileName);
+        }
+    }
+
+    /**
+     * Persist document metadata for stored content
+     * @return Saved document entity
+     */
+    private Document saveDocument(Project project, User uploader, String originalFileName, StagedContent content,
+                                  String storageKey, String contentType, String description) {
+        Document document = newDocument(project, uploader, originalFileName, content, storageKey, contentType,
+                description);
+
+        Document savedDocument = documentRepository.save(document);
+        publishUploaded(savedDocument);
+        return savedDocument;
+    }
+
+    /**
+     * Persist the documents of a batch upload with one batched insert
+     * Authorization, content checks and quota reservations are done by the caller, file by file
+     * before anything is stored, and given back by it if this rolls back.
+     * @param project Target project
+     * @param uploader Uploading user
+     * @param pending Committed files to record
+     * @return Document responses in the order given
+     */
+    public List<DocumentResponseDTO> saveDocumentBatch(Project project, User uploader, List<PendingDocument> pending) {
+        List<Document> documents = pending.stream()
+                .map(file -> newDocument(project, uploader, file.getOriginalFileName(), file.getContent(),
+                        file.getStorageKey(), file.getContentType(), file.getDescription()))
+                .collect(Collectors.toList());
+
+        documentBatchRepository.insertAll(documents);
+        documents.forEach(this::publishStored);
+        // One change for the whole batch, which may hold more files than a subscriber buffers
+        eventPublisher.publishEvent(new ProjectChangeEvent(ProjectChangeEvent.Type.DOCUMENT_UPLOADED, project));
+        // The batch as a whole is timed as a request; its files are counted one by one
+        documents.forEach(document -> documentMetrics.recordUploadSize("batch", document.getFileSize()));
+
+        return documents.stream()
+                .map(this::convertToResponseDTO)
+                .collect(Collectors.toList());
+    }
+
+    private Document newDocument(Project project, User uploader, String originalFileName, StagedContent content,
+                                 String storageKey, String contentType, String description) {
+        String contentHash = content.getContentHash();
+        Document document = new Document();
+        document.setFileName(contentHash);
+        document.setOriginalFileName(originalFileName);
+        document.setFilePath(storageKey);
+        document.setFileSize(content.getSize());
+        document.setContentHash(contentHash);
+        document.setContentType(contentType);
+        document.setDetectedContentType(content.getDetectedContentType());
+        document.setDescription(description);
+        document.setProject(project);
+        document.setUploadedBy(uploader);
+        return document;
+    }
+
+    void publishUploaded(Document document) {
+        publishStored(document);
+        eventPublisher.publishEvent(new ProjectChangeEvent(ProjectChangeEvent.Type.DOCUMENT_UPLOADED,
+                document.getProject(), document.getId()));
+    }
+
+    private void publishStored(Document document) {
+        eventPublisher.publishEvent(new DocumentUploadedEvent(document.getId(), document.getProject().getId(),
+                document.getFilePath(), document.getContentHash(), document.getContentType()));
+    }
+
     /**
      * Get file extension from filename
      * @param filename Filename
@@ -298,7 +706,7 @@ public class DocumentService {
      * @param user User
      * @return true if user can upload
      */
-    private boolean canUploadToProject(Project project, User user) {
+    boolean canUploadToProject(Project project, User user) {
         if (user.getRole() == Role.ADMIN) {
             return true;
         }
@@ -314,7 +722,7 @@ public class DocumentService {
      * @param user User
      * @return true if user has access
      */
-    private boolean hasAccessToProject(Project project, User user) {
+    boolean hasAccessToProject(Project project, User user) {
         switch (user.getRole()) {
             case ADMIN:
                 return true;
@@ -356,7 +764,7 @@ public class DocumentService {
      * @param document Document entity
      * @return DocumentResponseDTO
      */
-    private DocumentResponseDTO convertToResponseDTO(Document document) {
+    DocumentResponseDTO convertToResponseDTO(Document document) {
         User uploader = document.getUploadedBy();
         UserResponseDTO uploaderDTO = UserResponseDTO.builder()
                 .id(uploader.getId())
@@ -373,8 +781,10 @@ public class DocumentService {
                 .fileSize(document.getFileSize())
                 .formattedFileSize(document.getFormattedFileSize())
                 .contentType(document.getContentType())
+                .detectedContentType(document.getDetectedContentType())
                 .description(document.getDescription())
                 .uploadedAt(document.getUploadedAt())
+                .versionNumber(document.getVersionNumber())
                 .projectId(document.getProject().getId())
                 .projectName(document.getProject().getName())
                 .uploadedBy(uploaderDTO)
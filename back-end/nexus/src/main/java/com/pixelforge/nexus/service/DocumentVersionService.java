@@ -0,0 +1,475 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.dto.DocumentVersionDTO;
+import com.pixelforge.nexus.dto.UserResponseDTO;
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.entity.DocumentVersion;
+import com.pixelforge.nexus.entity.StoredBlob;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.entity.VersionStorage;
+import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import com.pixelforge.nexus.exception.ResourceNotFoundException;
+import com.pixelforge.nexus.ingest.IngestPipelineFactory;
+import com.pixelforge.nexus.metrics.DocumentMetrics;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.DocumentVersionRepository;
+import com.pixelforge.nexus.storage.BinaryDelta;
+import com.pixelforge.nexus.storage.ContentCodec;
+import com.pixelforge.nexus.storage.StorageBackend;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for document version history
+ * A new version replaces the content of its document, which always describes the latest version
+ * and keeps it stored in full, so downloads of current files never pay for history. The version it
+ * replaces is re-encoded as a reverse binary delta against the new content when the delta is small
+ * enough and its own content is not shared; every snapshot-interval-th version stays in full so a
+ * reconstruction applies a bounded number of deltas. Older versions are rebuilt as they are
+ * streamed, through temporary files rather than memory.
+ */
+@Service
+@Transactional
+public class DocumentVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentVersionService.class);
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentVersionRepository documentVersionRepository;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Autowired
+    private IngestPipelineFactory ingestPipelineFactory;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private DocumentMetrics documentMetrics;
+
+    @Value("${app.upload.max-file-size:10MB}")
+    private DataSize maxFileSize;
+
+    @Value("${app.documents.versions.snapshot-interval:10}")
+    private int snapshotInterval;
+
+    @Value("${app.documents.versions.max-delta-ratio:0.5}")
+    private double maxDeltaRatio;
+
+    @Value("${app.documents.versions.max-delta-source-size:256MB}")
+    private DataSize maxDeltaSourceSize;
+
+    private final Path workLocation;
+
+    public DocumentVersionService(@Value("${app.upload.dir:uploads}") String uploadDir) {
+        this.workLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(".versions");
+        try {
+            // Reconstructions do not survive a restart
+            FileSystemUtils.deleteRecursively(this.workLocation);
+            Files.createDirectories(this.workLocation);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the directory for version reconstruction.", ex);
+        }
+    }
+
+    /**
+     * Upload a new version of a document
+     * @param documentId Document ID
+     * @param file Multipart file with the new content
+     * @param description Optional description replacing the document's
+     * @param uploaderUsername Username of uploader
+     * @return Document response describing the new version
+     */
+    public DocumentResponseDTO uploadVersion(Long documentId, MultipartFile file, String description,
+                                             String uploaderUsername) {
+        Timer.Sample sample = documentMetrics.startUpload();
+        if (file.isEmpty()) {
+            throw new InvalidOperationException("Cannot upload empty file");
+        }
+
+        // Locked, so concurrent uploads of the same document get consecutive version numbers
+        Document document = documentRepository.findByIdForUpdate(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found with id: " + documentId));
+        User uploader = userService.getUserEntityByUsername(uploaderUsername);
+
+        if (!documentService.canUploadToProject(document.getProject(), uploader)) {
+            throw new InvalidOperationException("You don't have permission to upload files to this project");
+        }
+
+        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename() == null
+                ? ""
+                : file.getOriginalFilename());
+        documentService.validateFileName(originalFileName);
+        documentService.validateFile(file.getContentType(), file.getSize(), maxFileSize.toBytes());
+
+        // Versions count against the document's creator, like the rest of the document
+        storageQuotaService.reserve(document.getProject(), document.getUploadedBy(), file.getSize());
+
+        StagedContent staged;
+        try (InputStream content = file.getInputStream()) {
+            staged = contentStoreService.stage(content,
+                    ingestPipelineFactory.create(file.getContentType(), maxFileSize.toBytes()));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store file " + originalFileName + ". Please try again!", ex);
+        }
+
+        String storageKey;
+        try {
+            if (staged.getContentHash().equals(document.getContentHash())) {
+                throw new InvalidOperationException("This file is identical to the current version");
+            }
+
+            // Documents without history get their first version recorded now
+            DocumentVersion previous = documentVersionRepository
+                    .findByDocumentAndVersionNumber(document, document.getVersionNumber())
+                    .orElseGet(() -> documentVersionRepository.save(currentVersionOf(document)));
+            retain(previous, staged);
+
+            storageKey = contentStoreService.commit(staged, file.getContentType());
+        } catch (RuntimeException ex) {
+            contentStoreService.discard(staged);
+            throw ex;
+        }
+
+        // The document's reference to its old content now belongs to the previous version, or was released
+        document.setFileName(staged.getContentHash());
+        document.setOriginalFileName(originalFileName);
+        document.setFilePath(storageKey);
+        document.setFileSize(staged.getSize());
+        document.setContentHash(staged.getContentHash());
+        document.setContentType(file.getContentType());
+        document.setDetectedContentType(staged.getDetectedContentType());
+        if (StringUtils.hasText(description)) {
+            document.setDescription(description);
+        }
+        document.setUploadedAt(LocalDateTime.now());
+        document.setVersionNumber(document.getVersionNumber() + 1);
+        Document savedDocument = documentRepository.save(document);
+
+        DocumentVersion version = currentVersionOf(savedDocument);
+        version.setUploadedBy(uploader);
+        version.setStoredSize(contentStoreService.getBlob(staged.getContentHash())
+                .map(StoredBlob::getStoredSize)
+                .orElse(staged.getSize()));
+        documentVersionRepository.save(version);
+
+        documentService.publishUploaded(savedDocument);
+        documentMetrics.recordUpload(sample, "version", savedDocument.getFileSize());
+        return documentService.convertToResponseDTO(savedDocument);
+    }
+
+    /**
+     * Get the version history of a document, newest first
+     * @param documentId Document ID
+     * @param currentUsername Current user's username
+     * @return List of versions; a document without history has its current version only
+     */
+    @Transactional(readOnly = true)
+    public List<DocumentVersionDTO> getVersions(Long documentId, String currentUsername) {
+        Document document = documentService.getAccessibleDocumentEntity(documentId, currentUsername);
+
+        List<DocumentVersion> history = documentVersionRepository.findHistory(document);
+        if (history.isEmpty()) {
+            history = List.of(currentVersionOf(document));
+        }
+        return history.stream()
+                .map(version -> convertToDTO(version, document.getVersionNumber()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resolve one version of a document for download
+     * Full versions are served from storage; delta versions are rebuilt while they are written.
+     * @param documentId Document ID
+     * @param versionNumber Version number
+     * @param currentUsername Current user's username
+     * @return Download descriptor; version URLs never change content, so it is immutable
+     */
+    @Transactional(readOnly = true)
+    public DocumentDownload downloadVersion(Long documentId, int versionNumber, String currentUsername) {
+        Document document = documentService.getAccessibleDocumentEntity(documentId, currentUsername);
+
+        if (versionNumber == document.getVersionNumber()) {
+            return documentService.storedDownload(document.getFilePath(), document.getContentHash(),
+                    document.getFileSize(), document.getContentType(), document.getOriginalFileName(),
+                    document.getUploadedAt(), eTag(document, versionNumber, document.getContentHash()), true);
+        }
+
+        DocumentVersion version = documentVersionRepository.findByDocumentAndVersionNumber(document, versionNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Version " + versionNumber + " not found"));
+        String eTag = eTag(document, versionNumber, version.getContentHash());
+
+        if (version.getStorage() == VersionStorage.FULL) {
+            return documentService.storedDownload(version.getStorageKey(), version.getContentHash(),
+                    version.getFileSize(), version.getContentType(), version.getOriginalFileName(),
+                    version.getUploadedAt(), eTag, true);
+        }
+
+        // Deltas are applied newest first, starting from the first full version after this one
+        List<String> deltaKeys = new ArrayList<>();
+        DocumentVersion base = null;
+        for (DocumentVersion later : documentVersionRepository
+                .findByDocumentAndVersionNumberGreaterThanEqualOrderByVersionNumberAsc(document, versionNumber)) {
+            if (later.getStorage() == VersionStorage.FULL) {
+                base = later;
+                break;
+            }
+            deltaKeys.add(0, later.getStorageKey());
+        }
+        if (base == null) {
+            throw new FileStorageException("Version history of document " + documentId + " is incomplete");
+        }
+
+        String baseKey = base.getStorageKey();
+        String baseHash = base.getContentHash();
+        long lastModified = version.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return DocumentDownload.rebuilt(version.getFileSize(), version.getContentType(),
+                version.getOriginalFileName(), lastModified, eTag,
+                out -> rebuild(baseKey, baseHash, deltaKeys, out));
+    }
+
+    /**
+     * Decide how the version being replaced is kept
+     * It stays in full at snapshot points, when its content is shared, and when no delta is small enough.
+     */
+    private void retain(DocumentVersion previous, StagedContent next) {
+        if (previous.getVersionNumber() % snapshotInterval == 0
+                || previous.getFileSize() > maxDeltaSourceSize.toBytes()
+                || next.getSize() > maxDeltaSourceSize.toBytes()) {
+            return;
+        }
+
+        // A delta of content other documents still use would add storage instead of saving it
+        boolean unshared = previous.getContentHash() == null || contentStoreService.getBlob(previous.getContentHash())
+                .map(blob -> blob.getRefCount() == 1)
+                .orElse(false);
+        if (!unshared) {
+            return;
+        }
+
+        Path delta = encodeDelta(previous, next);
+        if (delta == null) {
+            return;
+        }
+
+        long deltaSize;
+        try {
+            deltaSize = Files.size(delta);
+        } catch (IOException ex) {
+            deleteQuietly(delta);
+            return;
+        }
+        long fullSize = previous.getStoredSize() != null ? previous.getStoredSize() : previous.getFileSize();
+        if (deltaSize > fullSize * maxDeltaRatio) {
+            deleteQuietly(delta);
+            return;
+        }
+
+        String deltaKey = UUID.randomUUID() + ".delta";
+        storageBackend.put(deltaKey, delta);
+        contentStoreService.releaseVersion(previous);
+
+        previous.setStorage(VersionStorage.DELTA);
+        previous.setStorageKey(deltaKey);
+        previous.setStoredSize(deltaSize);
+        documentVersionRepository.save(previous);
+        log.debug("Stored version {} of document {} as a {} byte delta instead of {} bytes",
+                previous.getVersionNumber(), previous.getDocument().getId(), deltaSize, fullSize);
+    }
+
+    /**
+     * Write the compressed delta rebuilding the previous version from the new content
+     * @return Delta file, or null if encoding failed
+     */
+    private Path encodeDelta(DocumentVersion previous, StagedContent next) {
+        Path deltaFile = workLocation.resolve(UUID.randomUUID() + ".delta");
+        try (WorkFile target = materialize(previous.getStorageKey(), previous.getContentHash());
+             FileChannel targetChannel = FileChannel.open(target.path, StandardOpenOption.READ);
+             FileChannel baseChannel = FileChannel.open(next.getPath(), StandardOpenOption.READ);
+             OutputStream out = ContentCodec.ZSTD.compress(
+                     new BufferedOutputStream(Files.newOutputStream(deltaFile)))) {
+            BinaryDelta.encode(baseChannel, targetChannel, out);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not delta encode version {} of document {}, keeping it in full",
+                    previous.getVersionNumber(), previous.getDocument().getId(), ex);
+            deleteQuietly(deltaFile);
+            return null;
+        }
+        return deltaFile;
+    }
+
+    /**
+     * Rebuild a version by applying deltas to a full version; only the last step writes to the client
+     */
+    private void rebuild(String baseKey, String baseHash, List<String> deltaKeys, OutputStream out)
+            throws IOException {
+        WorkFile base = materialize(baseKey, baseHash);
+        try {
+            for (int i = 0; i < deltaKeys.size(); i++) {
+                boolean last = i == deltaKeys.size() - 1;
+                Path next = last ? null : workLocation.resolve(UUID.randomUUID().toString());
+                try (FileChannel channel = FileChannel.open(base.path, StandardOpenOption.READ);
+                     InputStream delta = new BufferedInputStream(
+                             ContentCodec.ZSTD.decompress(storageBackend.open(deltaKeys.get(i))))) {
+                    if (last) {
+                        BinaryDelta.apply(channel, delta, out);
+                    } else {
+                        try (OutputStream intermediate = new BufferedOutputStream(Files.newOutputStream(next))) {
+                            BinaryDelta.apply(channel, delta, intermediate);
+                        }
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    if (next != null) {
+                        deleteQuietly(next);
+                    }
+                    throw ex;
+                }
+                if (next != null) {
+                    base.close();
+                    base = new WorkFile(next, true);
+                }
+            }
+        } finally {
+            base.close();
+        }
+    }
+
+    /**
+     * Get stored content as a local file, copying it out of the backend when it is remote or compressed
+     */
+    private WorkFile materialize(String storageKey, String contentHash) throws IOException {
+        var local = contentStoreService.localContentPath(storageKey, contentHash);
+        if (local.isPresent()) {
+            return new WorkFile(local.get(), false);
+        }
+        Path copy = workLocation.resolve(UUID.randomUUID().toString());
+        try (InputStream in = contentStoreService.openContent(storageKey, contentHash)) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException ex) {
+            deleteQuietly(copy);
+            throw ex;
+        }
+        return new WorkFile(copy, true);
+    }
+
+    /**
+     * Version row describing the document's current content
+     */
+    private DocumentVersion currentVersionOf(Document document) {
+        DocumentVersion version = new DocumentVersion();
+        version.setDocument(document);
+        version.setVersionNumber(document.getVersionNumber());
+        version.setOriginalFileName(document.getOriginalFileName());
+        version.setFileSize(document.getFileSize());
+        version.setContentHash(document.getContentHash());
+        version.setContentType(document.getContentType());
+        version.setDetectedContentType(document.getDetectedContentType());
+        version.setDescription(document.getDescription());
+        version.setStorage(VersionStorage.FULL);
+        version.setStorageKey(document.getFilePath());
+        version.setStoredSize(document.getFileSize());
+        version.setUploadedAt(document.getUploadedAt());
+        version.setUploadedBy(document.getUploadedBy());
+        return version;
+    }
+
+    private String eTag(Document document, int versionNumber, String contentHash) {
+        return "\"" + (contentHash != null ? contentHash : "document-" + document.getId() + "-v" + versionNumber) + "\"";
+    }
+
+    private DocumentVersionDTO convertToDTO(DocumentVersion version, int currentVersionNumber) {
+        User uploader = version.getUploadedBy();
+        UserResponseDTO uploaderDTO = UserResponseDTO.builder()
+                .id(uploader.getId())
+                .username(uploader.getUsername())
+                .firstName(uploader.getFirstName())
+                .lastName(uploader.getLastName())
+                .role(uploader.getRole())
+                .build();
+
+        return DocumentVersionDTO.builder()
+                .versionNumber(version.getVersionNumber())
+                .originalFileName(version.getOriginalFileName())
+                .fileSize(version.getFileSize())
+                .contentType(version.getContentType())
+                .description(version.getDescription())
+                .uploadedAt(version.getUploadedAt())
+                .uploadedBy(uploaderDTO)
+                .current(version.getVersionNumber() == currentVersionNumber)
+                .storage(version.getStorage().name())
+                .storedSize(version.getStoredSize())
+                .build();
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Could not delete version work file {}", path, ex);
+        }
+    }
+
+    /**
+     * Local file used during encoding or reconstruction; temporary copies are deleted on close
+     */
+    private final class WorkFile implements AutoCloseable {
+
+        private final Path path;
+        private final boolean temporary;
+
+        WorkFile(Path path, boolean temporary) {
+            this.path = path;
+            this.temporary = temporary;
+        }
+
+        @Override
+        public void close() {
+            if (temporary) {
+                deleteQuietly(path);
+            }
+        }
+    }
+}
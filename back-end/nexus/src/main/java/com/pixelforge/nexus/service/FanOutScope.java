@@ -0,0 +1,112 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.metrics.JpaRequestCounter;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the independent lookups of one request concurrently, each on its own virtual thread
+ * Follows StructuredTaskScope.ShutdownOnFailure, which is still a preview API in Java 21: lookups
+ * are forked, join waits until all have finished or one has failed, a failure cancels the others
+ * and is rethrown as is, and closing the scope waits for every thread it started, so none
+ * outlives the request. Unlike the preview API, cancelling does not interrupt: pgjdbc closes the
+ * socket of a thread interrupted in a read, which would break the pooled connection on an ordinary
+ * 404. Lookups not yet started never run, running ones finish and their results are dropped. Each
+ * lookup completes a future of its own rather than the executor's, whose thread counts as ended
+ * once that future is cancelled, so closing would not wait for it. Lookups run with the caller's
+ * security context and count their SQL statements towards the caller's request. Each lookup runs
+ * in its own transaction, so a fan-out takes one pooled connection per lookup.
+ */
+class FanOutScope implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final JpaRequestCounter jpaRequestCounter;
+    private final List<Future<?>> forks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Open a scope
+     * @param name Name of the lookup threads, numbered from 0
+     * @param jpaRequestCounter Counter the lookups' statements are added to
+     */
+    FanOutScope(String name, JpaRequestCounter jpaRequestCounter) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.jpaRequestCounter = jpaRequestCounter;
+    }
+
+    /**
+     * Start a lookup
+     * @param lookup Lookup to run
+     * @return Future of the lookup, whose resultNow() is available after a successful join
+     */
+    <T> Future<T> fork(Callable<T> lookup) {
+        Callable<T> task = new DelegatingSecurityContextCallable<>(jpaRequestCounter.onBehalfOfCurrentThread(lookup));
+        CompletableFuture<T> future = new CompletableFuture<>();
+        forks.add(future);
+        if (failure.get() != null) {
+            future.cancel(false);
+        }
+        executor.execute(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable ex) {
+                fail(ex);
+                future.completeExceptionally(ex);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Wait until every lookup has finished or one has failed
+     * @throws InterruptedException if interrupted while waiting; the lookups are cancelled on close
+     * @throws RuntimeException the first failure of a lookup, as thrown by it
+     */
+    void join() throws InterruptedException {
+        for (Future<?> fork : forks) {
+            try {
+                fork.get();
+            } catch (ExecutionException | CancellationException ex) {
+                break;
+            }
+        }
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause != null) {
+            throw new IllegalStateException("Lookup failed", cause);
+        }
+    }
+
+    /**
+     * Cancel the lookups not yet started and wait for the threads of the others to end
+     */
+    @Override
+    public void close() {
+        forks.forEach(fork -> fork.cancel(false));
+        executor.close();
+    }
+
+    private void fail(Throwable ex) {
+        if (failure.compareAndSet(null, ex)) {
+            forks.forEach(fork -> fork.cancel(false));
+        }
+    }
+}
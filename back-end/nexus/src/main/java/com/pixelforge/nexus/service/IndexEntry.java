@@ -0,0 +1,21 @@
+package com.pixelforge.nexus.service;
+
+/**
+ * Current version of one document, as the search index should have it
+ */
+public class IndexEntry {
+
+    private final Long documentId;
+    private final Long projectId;
+    private final int versionNumber;
+
+    public IndexEntry(Long documentId, Long projectId, Integer versionNumber) {
+        this.documentId = documentId;
+        this.projectId = projectId;
+        this.versionNumber = versionNumber != null ? versionNumber : 1;
+    }
+
+    public Long getDocumentId() { return documentId; }
+    public Long getProjectId() { return projectId; }
+    public int getVersionNumber() { return versionNumber; }
+}
@@ -0,0 +1,28 @@
+package com.pixelforge.nexus.service;
+
+/**
+ * File of a batch upload whose content is committed and whose document row is not yet written
+ */
+public class PendingDocument {
+
+    private final String originalFileName;
+    private final StagedContent content;
+    private final String storageKey;
+    private final String contentType;
+    private final String description;
+
+    PendingDocument(String originalFileName, StagedContent content, String storageKey, String contentType,
+                    String description) {
+        this.originalFileName = originalFileName;
+        this.content = content;
+        this.storageKey = storageKey;
+        this.contentType = contentType;
+        this.description = description;
+    }
+
+    public String getOriginalFileName() { return originalFileName; }
+    public StagedContent getContent() { return content; }
+    public String getStorageKey() { return storageKey; }
+    public String getContentType() { return contentType; }
+    public String getDescription() { return description; }
+}
@@ -0,0 +1,20 @@
+package com.pixelforge.nexus.service;
+
+import java.util.List;
+
+/**
+ * Resolved project archive: the files of a project, access already checked
+ */
+public class ProjectArchive {
+
+    private final String projectName;
+    private final List<ArchiveEntry> entries;
+
+    public ProjectArchive(String projectName, List<ArchiveEntry> entries) {
+        this.projectName = projectName;
+        this.entries = entries;
+    }
+
+    public String getProjectName() { return projectName; }
+    public List<ArchiveEntry> getEntries() { return entries; }
+}
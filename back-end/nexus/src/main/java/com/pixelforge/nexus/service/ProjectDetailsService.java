@@ -0,0 +1,60 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.DocumentPageDTO;
+import com.pixelforge.nexus.dto.ProjectDetailsDTO;
+import com.pixelforge.nexus.dto.ProjectResponseDTO;
+import com.pixelforge.nexus.dto.UserResponseDTO;
+import com.pixelforge.nexus.metrics.JpaRequestCounter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Composite reads that fan out to independent lookups
+ * Not transactional: every lookup runs in its own read-only transaction on its own virtual thread,
+ * so a surrounding transaction would only hold a connection idle while they run.
+ */
+@Service
+public class ProjectDetailsService {
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private JpaRequestCounter jpaRequestCounter;
+
+    /**
+     * Get a project with the first page of its documents and its team
+     * The three lookups run concurrently, so the response takes about as long as the slowest one.
+     * Each checks the user's access; the first failure cancels the others and is thrown.
+     * @param projectId Project ID
+     * @param documentLimit Page size of the documents, null for the default
+     * @param currentUsername Current user's username
+     * @return Project details
+     */
+    public ProjectDetailsDTO getProjectDetails(Long projectId, Integer documentLimit, String currentUsername) {
+        try (FanOutScope scope = new FanOutScope("project-details", jpaRequestCounter)) {
+            Future<ProjectResponseDTO> project = scope.fork(() ->
+                    projectService.getProjectById(projectId, currentUsername));
+            Future<DocumentPageDTO> documents = scope.fork(() ->
+                    documentService.getProjectDocuments(projectId, null, null, null, documentLimit, currentUsername));
+            Future<List<UserResponseDTO>> team = scope.fork(() ->
+                    projectService.getProjectTeam(projectId, currentUsername));
+            scope.join();
+
+            return ProjectDetailsDTO.builder()
+                    .project(project.resultNow())
+                    .documents(documents.resultNow())
+                    .team(team.resultNow())
+                    .build();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading project " + projectId, ex);
+        }
+    }
+}
@@ -5,21 +5,28 @@ import com.pixelforge.nexus.entity.User;
 import com.pixelforge.nexus.entity.Role;
 import com.pixelforge.nexus.repository.ProjectRepository;
 import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.DocumentVersionRepository;
 import com.pixelforge.nexus.dto.ProjectCreateDTO;
 import com.pixelforge.nexus.dto.ProjectResponseDTO;
 import com.pixelforge.nexus.dto.ProjectAssignmentDTO;
 import com.pixelforge.nexus.dto.UserResponseDTO;
+import com.pixelforge.nexus.event.ProjectChangeEvent;
 import com.pixelforge.nexus.exception.ResourceNotFoundException;
 import com.pixelforge.nexus.exception.InvalidOperationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for Project management operations
@@ -35,9 +42,27 @@ public class ProjectService {
     @Autowired
     private DocumentRepository documentRepository;
 
+    @Autowired
+    private DocumentVersionRepository documentVersionRepository;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Autowired
+    private DocumentIndexingService documentIndexingService;
+
+    @Autowired
+    private DeveloperWorkloadIndex developerWorkloadIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Create a new project (Admin only)
      * @param projectCreateDTO Project creation data
@@ -63,8 +88,10 @@ public class ProjectService {
         project.setDescription(projectCreateDTO.getDescription());
         project.setDeadline(projectCreateDTO.getDeadline());
         project.setLead(lead);
+        project.setStorageQuota(projectCreateDTO.getStorageQuota());
 
         Project savedProject = projectRepository.save(project);
+        eventPublisher.publishEvent(new ProjectChangeEvent(ProjectChangeEvent.Type.PROJECT_CREATED, savedProject));
         return convertToResponseDTO(savedProject);
     }
 
@@ -88,6 +115,43 @@ public class ProjectService {
         return convertToResponseDTO(project);
     }
 
+    /**
+     * Get the team of a project: its lead, then its developers by username with their current workload
+     * @param projectId Project ID
+     * @param currentUsername Current user's username
+     * @return Team members
+     */
+    @Transactional(readOnly = true)
+    public List<UserResponseDTO> getProjectTeam(Long projectId, String currentUsername) {
+        Project project = projectRepository.findWithTeamById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project not found with id: " + projectId));
+
+        // Check if user has access to this project
+        User currentUser = userService.getUserEntityByUsername(currentUsername);
+        if (!hasAccessToProject(project, currentUser)) {
+            throw new InvalidOperationException("You don't have access to this project");
+        }
+
+        List<User> members = new ArrayList<>();
+        if (project.getLead() != null) {
+            members.add(project.getLead());
+        }
+        project.getAssignedDevelopers().stream()
+                .sorted(Comparator.comparing(User::getUsername))
+                .forEach(members::add);
+        return members.stream()
+                .map(member -> UserResponseDTO.builder()
+                        .id(member.getId())
+                        .username(member.getUsername())
+                        .firstName(member.getFirstName())
+                        .lastName(member.getLastName())
+                        .role(member.getRole())
+                        .workload(member.getRole() == Role.DEVELOPER
+                                ? developerWorkloadIndex.getWorkload(member.getId()) : null)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     /**
      * Get all projects visible to the current user
      * @param currentUsername Current user's username
@@ -101,23 +165,21 @@ public class ProjectService {
         switch (currentUser.getRole()) {
             case ADMIN:
                 // Admins can see all projects
-                projects = projectRepository.findAll();
+                projects = projectRepository.findAllWithTeam();
                 break;
             case PROJECT_LEAD:
                 // Project leads can see projects they lead
-                projects = projectRepository.findByLead(currentUser);
+                projects = projectRepository.findWithTeamByLead(currentUser);
                 break;
             case DEVELOPER:
                 // Developers can see projects they're assigned to
-                projects = projectRepository.findProjectsAssignedToDeveloper(currentUser);
+                projects = projectRepository.findWithTeamAssignedToDeveloper(currentUser);
                 break;
             default:
                 projects = List.of();
         }
 
-        return projects.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return convertToResponseDTOs(projects);
     }
 
     /**
@@ -127,10 +189,7 @@ public class ProjectService {
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('ADMIN')")
     public List<ProjectResponseDTO> getActiveProjects() {
-        return projectRepository.findActiveProjects()
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return convertToResponseDTOs(projectRepository.findActiveProjects());
     }
 
     /**
@@ -164,8 +223,14 @@ public class ProjectService {
             }
         });
 
+        // Developers taken off the project are told too
+        Set<Long> audience = ProjectChangeEvent.membersOf(project);
         project.setAssignedDevelopers(developers);
         Project updatedProject = projectRepository.save(project);
+        developerWorkloadIndex.updateAfterCommit(updatedProject);
+        audience.addAll(ProjectChangeEvent.membersOf(updatedProject));
+        eventPublisher.publishEvent(new ProjectChangeEvent(ProjectChangeEvent.Type.ASSIGNMENT_CHANGED,
+                projectId, null, audience));
         return convertToResponseDTO(updatedProject);
     }
 
@@ -181,6 +246,8 @@ public class ProjectService {
 
         project.markAsCompleted();
         Project updatedProject = projectRepository.save(project);
+        developerWorkloadIndex.updateAfterCommit(updatedProject);
+        eventPublisher.publishEvent(new ProjectChangeEvent(ProjectChangeEvent.Type.PROJECT_COMPLETED, updatedProject));
         return convertToResponseDTO(updatedProject);
     }
 
@@ -196,6 +263,8 @@ public class ProjectService {
 
         project.reactivate();
         Project updatedProject = projectRepository.save(project);
+        developerWorkloadIndex.updateAfterCommit(updatedProject);
+        eventPublisher.publishEvent(new ProjectChangeEvent(ProjectChangeEvent.Type.PROJECT_REACTIVATED, updatedProject));
         return convertToResponseDTO(updatedProject);
     }
 
@@ -210,6 +279,9 @@ public class ProjectService {
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project not found with id: " + projectId));
 
+        // A replaced lead is told too
+        Set<Long> audience = ProjectChangeEvent.membersOf(project);
+
         // Update project fields
         project.setName(projectCreateDTO.getName());
         project.setDescription(projectCreateDTO.getDescription());
@@ -224,7 +296,17 @@ public class ProjectService {
             project.setLead(lead);
         }
 
+        // Update storage quota if specified
+        if (projectCreateDTO.getStorageQuota() != null) {
+            project.setStorageQuota(projectCreateDTO.getStorageQuota());
+        }
+
         Project updatedProject = projectRepository.save(project);
+        // The deadline may have moved
+        developerWorkloadIndex.updateAfterCommit(updatedProject);
+        audience.addAll(ProjectChangeEvent.membersOf(updatedProject));
+        eventPublisher.publishEvent(new ProjectChangeEvent(ProjectChangeEvent.Type.PROJECT_UPDATED,
+                projectId, null, audience));
         return convertToResponseDTO(updatedProject);
     }
 
@@ -237,6 +319,23 @@ public class ProjectService {
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project not found with id: " + projectId));
 
+        // Documents are removed by cascade, so give their storage back to their creators here
+        Stream.concat(documentRepository.sumFileSizesByUploader(null, projectId).stream(),
+                        documentVersionRepository.sumRetainedFileSizesByUploader(null, projectId).stream())
+                .forEach(usage -> storageQuotaService.releaseAfterCommit(projectId, usage.getId(), usage.getBytes()));
+        storageQuotaService.removeProjectAfterCommit(projectId);
+        documentIndexingService.dropProjectAfterCommit(projectId);
+        developerWorkloadIndex.removeAfterCommit(projectId);
+
+        // ... and release their content references
+        documentVersionRepository.findRetainedByProject(project).forEach(contentStoreService::releaseVersion);
+        documentVersionRepository.deleteByProject(project);
+        documentRepository.findContentHashesByProject(project)
+                .forEach(contentStoreService::release);
+        documentRepository.findLegacyDocumentsByProject(project)
+                .forEach(document -> contentStoreService.tombstone(document.getFilePath(), document.getFileSize()));
+
+        eventPublisher.publishEvent(new ProjectChangeEvent(ProjectChangeEvent.Type.PROJECT_DELETED, project));
         projectRepository.delete(project);
     }
 
@@ -247,10 +346,7 @@ public class ProjectService {
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('ADMIN')")
     public List<ProjectResponseDTO> getOverdueProjects() {
-        return projectRepository.findOverdueProjects(LocalDate.now())
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return convertToResponseDTOs(projectRepository.findOverdueProjects(LocalDate.now()));
     }
 
     /**
@@ -259,7 +355,7 @@ public class ProjectService {
      * @param user User
      * @return true if user has access
      */
-    private boolean hasAccessToProject(Project project, User user) {
+    boolean hasAccessToProject(Project project, User user) {
         switch (user.getRole()) {
             case ADMIN:
                 return true;
@@ -290,12 +386,46 @@ public class ProjectService {
         return false;
     }
 
+    /**
+     * Convert projects to ProjectResponseDTOs, counting their documents with one query
+     * Lists should load the projects with their team, so no query is issued per project.
+     * @param projects Project entities
+     * @return ProjectResponseDTOs in the same order
+     */
+    private List<ProjectResponseDTO> convertToResponseDTOs(List<Project> projects) {
+        if (projects.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Long> documentCounts = documentRepository.countByProjects(projects).stream()
+                .collect(Collectors.toMap(DocumentCount::getProjectId, DocumentCount::getCount));
+        Map<Long, Long> storageUsed = storageQuotaService.getProjectUsages(projects.stream()
+                .map(Project::getId)
+                .collect(Collectors.toList()));
+        return projects.stream()
+                .map(project -> convertToResponseDTO(project,
+                        documentCounts.getOrDefault(project.getId(), 0L).intValue(),
+                        storageUsed.get(project.getId())))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Convert Project entity to ProjectResponseDTO
      * @param project Project entity
      * @return ProjectResponseDTO
      */
-    private ProjectResponseDTO convertToResponseDTO(Project project) {
+    ProjectResponseDTO convertToResponseDTO(Project project) {
+        return convertToResponseDTO(project, (int) documentRepository.countByProject(project),
+                storageQuotaService.getProjectUsage(project.getId()));
+    }
+
+    /**
+     * Convert Project entity to ProjectResponseDTO
+     * @param project Project entity
+     * @param documentCount Number of documents in the project
+     * @param storageUsed Bytes stored for the project
+     * @return ProjectResponseDTO
+     */
+    private ProjectResponseDTO convertToResponseDTO(Project project, int documentCount, long storageUsed) {
         // Convert lead to DTO
         UserResponseDTO leadDTO = null;
         if (project.getLead() != null) {
@@ -323,9 +453,6 @@ public class ProjectService {
                     .collect(Collectors.toSet());
         }
 
-        // Get document count
-        int documentCount = (int) documentRepository.countByProject(project);
-
         return ProjectResponseDTO.builder()
                 .id(project.getId())
                 .name(project.getName())
@@ -337,6 +464,8 @@ public class ProjectService {
                 .lead(leadDTO)
                 .assignedDevelopers(assignedDeveloperDTOs)
                 .documentCount(documentCount)
+                .storageUsed(storageUsed)
+                .storageQuota(storageQuotaService.getProjectQuota(project))
                 .overdue(project.isOverdue())
                 .build();
     }
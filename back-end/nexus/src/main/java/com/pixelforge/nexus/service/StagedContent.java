@@ -0,0 +1,35 @@
+package com.pixelforge.nexus.service;
+
+import java.nio.file.Path;
+
+/**
+ * Content written to local staging and hashed, not yet committed to the blob store
+ */
+public class StagedContent {
+
+    private final Path path;
+    private final String contentHash;
+    private final long size;
+    private final String detectedContentType;
+
+    public StagedContent(Path path, String contentHash, long size, String detectedContentType) {
+        this.path = path;
+        this.contentHash = contentHash;
+        this.size = size;
+        this.detectedContentType = detectedContentType;
+    }
+
+    public Path getPath() { return path; }
+
+    /**
+     * SHA-256 of the content, lowercase hex
+     */
+    public String getContentHash() { return contentHash; }
+
+    public long getSize() { return size; }
+
+    /**
+     * Content type confirmed by sniffing the file's bytes
+     */
+    public String getDetectedContentType() { return detectedContentType; }
+}
@@ -0,0 +1,302 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.StorageGcReportDTO;
+import com.pixelforge.nexus.entity.StorageTombstone;
+import com.pixelforge.nexus.entity.StoredBlob;
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.DocumentVersionRepository;
+import com.pixelforge.nexus.repository.StorageTombstoneRepository;
+import com.pixelforge.nexus.repository.StoredBlobRepository;
+import com.pixelforge.nexus.storage.ContentCache;
+import com.pixelforge.nexus.storage.StorageBackend;
+import com.pixelforge.nexus.storage.StoredObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Background collector that deletes stored files nothing refers to any more
+ * Each run clears tombstones of deleted unshared files, reclaims content-addressed blobs whose
+ * reference count dropped to zero, and reconciles the storage backend against the database to
+ * remove orphans left by crashes. Everything waits out a grace period first, deletes are paced
+ * to a fixed rate, and each delete runs under the storage key lock taken by uploads.
+ */
+@Service
+public class StorageGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageGarbageCollector.class);
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentVersionRepository documentVersionRepository;
+
+    @Autowired
+    private StorageTombstoneRepository storageTombstoneRepository;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.storage.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.storage.gc.grace-period:1h}")
+    private Duration gracePeriod;
+
+    @Value("${app.storage.gc.max-deletes-per-second:20}")
+    private int maxDeletesPerSecond;
+
+    @Value("${app.storage.gc.batch-size:200}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile StorageGcReportDTO lastReport;
+
+    /**
+     * Scheduled collection run
+     */
+    @Scheduled(initialDelayString = "${app.storage.gc.initial-delay:PT5M}",
+            fixedDelayString = "${app.storage.gc.interval:PT1H}")
+    public void collectScheduled() {
+        if (!enabled || running.get()) {
+            return;
+        }
+        try {
+            collect();
+        } catch (InvalidOperationException ex) {
+            log.debug("Skipping scheduled storage collection: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Run one collection now
+     * @return Report of the run
+     * @throws InvalidOperationException if a collection is already running
+     */
+    public StorageGcReportDTO collect() {
+        if (!running.compareAndSet(false, true)) {
+            throw new InvalidOperationException("Storage collection is already running");
+        }
+        try {
+            Run run = new Run();
+            collectTombstones(run);
+            collectBlobs(run);
+            collectOrphans(run);
+
+            StorageGcReportDTO report = run.report();
+            lastReport = report;
+            log.info("Storage collection reclaimed {} bytes: {} tombstones, {} blobs, {} orphans, {} failures",
+                    report.getBytesReclaimed(), report.getTombstonesCleared(), report.getBlobsReclaimed(),
+                    report.getOrphansRemoved(), report.getFailures());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Get the report of the last finished run
+     * @return Report, or empty if no run finished since startup
+     */
+    public Optional<StorageGcReportDTO> getLastReport() {
+        return Optional.ofNullable(lastReport);
+    }
+
+    private void collectTombstones(Run run) {
+        long afterId = 0;
+        List<StorageTombstone> batch;
+        do {
+            batch = storageTombstoneRepository.findCollectable(afterId, run.cutoff, PageRequest.of(0, batchSize));
+            for (StorageTombstone tombstone : batch) {
+                afterId = tombstone.getId();
+                run.pace();
+                try {
+                    storageBackend.delete(tombstone.getStorageKey());
+                    storageTombstoneRepository.deleteById(tombstone.getId());
+                    thumbnailService.evict(tombstone.getStorageKey());
+                    contentCache.evict(tombstone.getStorageKey());
+                    run.tombstonesCleared++;
+                    run.bytesReclaimed += tombstone.getSize() != null ? tombstone.getSize() : 0;
+                } catch (RuntimeException ex) {
+                    run.failures++;
+                    log.warn("Could not delete tombstoned file {}", tombstone.getStorageKey(), ex);
+                }
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void collectBlobs(Run run) {
+        String afterHash = "";
+        List<StoredBlob> batch;
+        do {
+            batch = storedBlobRepository.findCollectable(afterHash, run.cutoff, PageRequest.of(0, batchSize));
+            for (StoredBlob blob : batch) {
+                afterHash = blob.getContentHash();
+                run.pace();
+                try {
+                    // Re-read under the key lock: an upload may have taken a new reference meanwhile
+                    Long reclaimed = run.transaction.execute(status -> {
+                        storedBlobRepository.lockStorageKey(blob.getContentHash());
+                        Optional<StoredBlob> unreferenced = storedBlobRepository.findUnreferenced(blob.getContentHash());
+                        if (unreferenced.isEmpty()) {
+                            return null;
+                        }
+                        storageBackend.delete(unreferenced.get().getFilePath());
+                        storedBlobRepository.delete(unreferenced.get());
+                        Long storedSize = unreferenced.get().getStoredSize();
+                        return storedSize != null ? storedSize : unreferenced.get().getFileSize();
+                    });
+                    if (reclaimed != null) {
+                        thumbnailService.evict(blob.getFilePath());
+                        contentCache.evict(blob.getFilePath());
+                        run.blobsReclaimed++;
+                        run.bytesReclaimed += reclaimed;
+                    }
+                } catch (RuntimeException ex) {
+                    run.failures++;
+                    log.warn("Could not reclaim blob {}", blob.getContentHash(), ex);
+                }
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void collectOrphans(Run run) {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        try (Stream<StoredObject> objects = storageBackend.list()) {
+            Iterator<StoredObject> candidates = objects
+                    .filter(object -> object.getLastModified().isBefore(cutoff))
+                    .iterator();
+            List<StoredObject> chunk = new ArrayList<>(batchSize);
+            while (candidates.hasNext()) {
+                chunk.add(candidates.next());
+                if (chunk.size() == batchSize || !candidates.hasNext()) {
+                    removeUnreferenced(chunk, run);
+                    chunk.clear();
+                }
+            }
+        } catch (RuntimeException ex) {
+            run.failures++;
+            log.warn("Could not reconcile storage against the database", ex);
+        }
+    }
+
+    /**
+     * Delete the objects of a chunk that no blob, document, version or tombstone refers to
+     */
+    private void removeUnreferenced(List<StoredObject> chunk, Run run) {
+        Set<String> keys = chunk.stream().map(StoredObject::getKey).collect(Collectors.toSet());
+        Set<String> referenced = new HashSet<>(storedBlobRepository.findFilePathsIn(keys));
+        referenced.addAll(documentRepository.findFilePathsIn(keys));
+        referenced.addAll(documentVersionRepository.findStorageKeysIn(keys));
+        referenced.addAll(storageTombstoneRepository.findStorageKeysIn(keys));
+
+        for (StoredObject object : chunk) {
+            if (referenced.contains(object.getKey())) {
+                continue;
+            }
+            run.pace();
+            try {
+                Boolean deleted = run.transaction.execute(status -> {
+                    storedBlobRepository.lockStorageKey(object.getKey());
+                    Set<String> key = Set.of(object.getKey());
+                    if (!storedBlobRepository.findFilePathsIn(key).isEmpty()
+                            || !documentRepository.findFilePathsIn(key).isEmpty()
+                            || !documentVersionRepository.findStorageKeysIn(key).isEmpty()) {
+                        return false;
+                    }
+                    storageBackend.delete(object.getKey());
+                    return true;
+                });
+                if (Boolean.TRUE.equals(deleted)) {
+                    thumbnailService.evict(object.getKey());
+                    contentCache.evict(object.getKey());
+                    run.orphansRemoved++;
+                    run.bytesReclaimed += object.getSize();
+                }
+            } catch (RuntimeException ex) {
+                run.failures++;
+                log.warn("Could not delete orphaned file {}", object.getKey(), ex);
+            }
+        }
+    }
+
+    /**
+     * State of one collection run
+     */
+    private final class Run {
+
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final LocalDateTime cutoff = startedAt.minus(gracePeriod);
+        private final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        private final long deleteIntervalNanos = maxDeletesPerSecond > 0
+                ? TimeUnit.SECONDS.toNanos(1) / maxDeletesPerSecond
+                : 0;
+        private long nextDeleteAt = System.nanoTime();
+
+        private long tombstonesCleared;
+        private long blobsReclaimed;
+        private long orphansRemoved;
+        private long failures;
+        private long bytesReclaimed;
+
+        /**
+         * Wait for the next delete slot so a large backlog does not saturate the disk or bucket
+         */
+        void pace() {
+            long now = System.nanoTime();
+            while (nextDeleteAt - now > 0) {
+                LockSupport.parkNanos(nextDeleteAt - now);
+                now = System.nanoTime();
+            }
+            nextDeleteAt = now + deleteIntervalNanos;
+        }
+
+        StorageGcReportDTO report() {
+            return StorageGcReportDTO.builder()
+                    .startedAt(startedAt)
+                    .finishedAt(LocalDateTime.now())
+                    .tombstonesCleared(tombstonesCleared)
+                    .blobsReclaimed(blobsReclaimed)
+                    .orphansRemoved(orphansRemoved)
+                    .failures(failures)
+                    .bytesReclaimed(bytesReclaimed)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.DocumentVersionRepository;
+import com.pixelforge.nexus.repository.ProjectRepository;
+import com.pixelforge.nexus.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Storage quotas of projects and users
+ * Usage is the size of every document and retained version, counted once per project and once
+ * for the user who created the document. Counters live in memory so uploads are checked without
+ * summing the documents table: each is seeded from the database on first use (all of them at
+ * startup), reserved with a compare-and-set before any bytes are written, given back if the
+ * upload's transaction rolls back, and written to the database in the background.
+ */
+@Service
+public class StorageQuotaService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageQuotaService.class);
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentVersionRepository documentVersionRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Zero means unlimited
+    @Value("${app.quota.project-default:10GB}")
+    private DataSize defaultProjectQuota;
+
+    @Value("${app.quota.user-default:5GB}")
+    private DataSize defaultUserQuota;
+
+    private final ConcurrentMap<Long, AtomicLong> projectUsage = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicLong> userUsage = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyProjects = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Seed every counter with one aggregate query per table
+     * Counters already used by an early upload are kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            seed(projectUsage, documentRepository.sumFileSizesByProject(null),
+                    documentVersionRepository.sumRetainedFileSizesByProject(null));
+            seed(userUsage, documentRepository.sumFileSizesByUploader(null, null),
+                    documentVersionRepository.sumRetainedFileSizesByUploader(null, null));
+        });
+        dirtyProjects.addAll(projectUsage.keySet());
+        dirtyUsers.addAll(userUsage.keySet());
+        log.info("Seeded storage usage of {} projects and {} users", projectUsage.size(), userUsage.size());
+    }
+
+    /**
+     * Reserve storage for an upload, before its bytes are written
+     * Within a transaction the reservation is given back if it rolls back; without one the caller
+     * must release it when the upload fails.
+     * @param project Target project
+     * @param owner User the document counts against (its creator)
+     * @param bytes Size of the upload
+     * @throws InvalidOperationException if the project or user quota would be exceeded
+     */
+    public void reserve(Project project, User owner, long bytes) {
+        AtomicLong projectCounter = projectCounter(project.getId());
+        if (!tryAdd(projectCounter, bytes, projectQuota(project))) {
+            throw new InvalidOperationException("Upload exceeds the project's storage quota of "
+                    + DataSize.ofBytes(projectQuota(project)).toMegabytes() + "MB");
+        }
+        AtomicLong userCounter = userCounter(owner.getId());
+        long userQuota = userQuota(owner);
+        if (!tryAdd(userCounter, bytes, userQuota)) {
+            projectCounter.addAndGet(-bytes);
+            throw new InvalidOperationException("Upload exceeds the storage quota of "
+                    + DataSize.ofBytes(userQuota).toMegabytes() + "MB for " + owner.getUsername());
+        }
+        dirtyProjects.add(project.getId());
+        dirtyUsers.add(owner.getId());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(project.getId(), owner.getId(), bytes);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Check an upload would fit without reserving anything (uploads that start long before they finish)
+     * @param project Target project
+     * @param owner User the document counts against
+     * @param bytes Expected size of the upload
+     * @throws InvalidOperationException if the project or user quota would be exceeded
+     */
+    public void checkAvailable(Project project, User owner, long bytes) {
+        long projectQuota = projectQuota(project);
+        if (projectQuota > 0 && projectCounter(project.getId()).get() + bytes > projectQuota) {
+            throw new InvalidOperationException("Upload exceeds the project's storage quota of "
+                    + DataSize.ofBytes(projectQuota).toMegabytes() + "MB");
+        }
+        long userQuota = userQuota(owner);
+        if (userQuota > 0 && userCounter(owner.getId()).get() + bytes > userQuota) {
+            throw new InvalidOperationException("Upload exceeds the storage quota of "
+                    + DataSize.ofBytes(userQuota).toMegabytes() + "MB for " + owner.getUsername());
+        }
+    }
+
+    /**
+     * Give back a reservation made outside a transaction, for an upload that was not recorded
+     * @param project Target project
+     * @param owner User the reservation counted against
+     * @param bytes Size reserved
+     */
+    public void release(Project project, User owner, long bytes) {
+        release(project.getId(), owner.getId(), bytes);
+    }
+
+    /**
+     * Give storage back once deleted documents are committed
+     * @param projectId Project the documents belonged to
+     * @param ownerId User the documents counted against
+     * @param bytes Size of the documents and their versions
+     */
+    public void releaseAfterCommit(Long projectId, Long ownerId, long bytes) {
+        afterCommit(() -> release(projectId, ownerId, bytes));
+    }
+
+    /**
+     * Drop the counter of a project once its deletion is committed
+     * Users are released separately, per document owner.
+     * @param projectId Project ID
+     */
+    public void removeProjectAfterCommit(Long projectId) {
+        afterCommit(() -> {
+            projectUsage.remove(projectId);
+            dirtyProjects.remove(projectId);
+        });
+    }
+
+    /**
+     * Get the storage used by a project
+     * @param projectId Project ID
+     * @return Usage in bytes
+     */
+    public long getProjectUsage(Long projectId) {
+        return projectCounter(projectId).get();
+    }
+
+    /**
+     * Get the storage used by several projects
+     * Counters not yet in memory are loaded together, with one aggregate query per table.
+     * @param projectIds Project IDs
+     * @return Usage in bytes per project
+     */
+    public Map<Long, Long> getProjectUsages(Collection<Long> projectIds) {
+        if (projectIds.stream().anyMatch(id -> !projectUsage.containsKey(id))) {
+            seed(projectUsage, documentRepository.sumFileSizesByProject(null),
+                    documentVersionRepository.sumRetainedFileSizesByProject(null));
+            // Projects without documents have no row to seed from
+            projectIds.forEach(id -> projectUsage.putIfAbsent(id, new AtomicLong()));
+        }
+        Map<Long, Long> usages = new HashMap<>();
+        projectIds.forEach(id -> usages.put(id, projectUsage.get(id).get()));
+        return usages;
+    }
+
+    /**
+     * Get the storage quota that applies to a project
+     * @param project Project
+     * @return Quota in bytes, or null if unlimited
+     */
+    public Long getProjectQuota(Project project) {
+        long quota = projectQuota(project);
+        return quota > 0 ? quota : null;
+    }
+
+    /**
+     * Write changed counters to the database
+     */
+    @Scheduled(initialDelayString = "${app.quota.flush-interval:PT30S}",
+            fixedDelayString = "${app.quota.flush-interval:PT30S}")
+    public void flush() {
+        List<Long> projects = drain(dirtyProjects);
+        List<Long> users = drain(dirtyUsers);
+        if (projects.isEmpty() && users.isEmpty()) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                write(projects, projectUsage, projectRepository::updateStorageUsed);
+                write(users, userUsage, userRepository::updateStorageUsed);
+            });
+        } catch (RuntimeException ex) {
+            dirtyProjects.addAll(projects);
+            dirtyUsers.addAll(users);
+            log.warn("Could not persist storage usage, retrying on the next flush", ex);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private AtomicLong projectCounter(Long projectId) {
+        return counter(projectUsage, projectId, id -> sum(documentRepository.sumFileSizesByProject(id),
+                documentVersionRepository.sumRetainedFileSizesByProject(id)));
+    }
+
+    private AtomicLong userCounter(Long userId) {
+        return counter(userUsage, userId, id -> sum(documentRepository.sumFileSizesByUploader(id, null),
+                documentVersionRepository.sumRetainedFileSizesByUploader(id, null)));
+    }
+
+    private AtomicLong counter(ConcurrentMap<Long, AtomicLong> counters, Long id, LongFunction<Long> load) {
+        AtomicLong counter = counters.get(id);
+        if (counter != null) {
+            return counter;
+        }
+        // Loaded outside computeIfAbsent, which must not block on the database; the first one stored wins
+        AtomicLong loaded = new AtomicLong(load.apply(id));
+        counter = counters.putIfAbsent(id, loaded);
+        return counter != null ? counter : loaded;
+    }
+
+    /**
+     * Add bytes unless that takes the counter past its limit
+     */
+    private boolean tryAdd(AtomicLong counter, long bytes, long limit) {
+        long current;
+        do {
+            current = counter.get();
+            if (limit > 0 && current + bytes > limit) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    private void release(Long projectId, Long ownerId, long bytes) {
+        AtomicLong projectCounter = projectUsage.get(projectId);
+        if (projectCounter != null) {
+            projectCounter.addAndGet(-bytes);
+            dirtyProjects.add(projectId);
+        }
+        AtomicLong userCounter = userUsage.get(ownerId);
+        if (userCounter != null) {
+            userCounter.addAndGet(-bytes);
+            dirtyUsers.add(ownerId);
+        }
+    }
+
+    private long projectQuota(Project project) {
+        return project.getStorageQuota() != null ? project.getStorageQuota() : defaultProjectQuota.toBytes();
+    }
+
+    private long userQuota(User user) {
+        if (user.getRole() == Role.ADMIN) {
+            return 0;
+        }
+        return user.getStorageQuota() != null ? user.getStorageQuota() : defaultUserQuota.toBytes();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void seed(ConcurrentMap<Long, AtomicLong> counters, List<StorageUsage> documents,
+                      List<StorageUsage> versions) {
+        Map<Long, Long> totals = new HashMap<>();
+        documents.forEach(usage -> totals.merge(usage.getId(), usage.getBytes(), Long::sum));
+        versions.forEach(usage -> totals.merge(usage.getId(), usage.getBytes(), Long::sum));
+        totals.forEach((id, bytes) -> counters.putIfAbsent(id, new AtomicLong(bytes)));
+    }
+
+    private long sum(List<StorageUsage> documents, List<StorageUsage> versions) {
+        return documents.stream().mapToLong(StorageUsage::getBytes).sum()
+                + versions.stream().mapToLong(StorageUsage::getBytes).sum();
+    }
+
+    private List<Long> drain(Set<Long> dirty) {
+        List<Long> ids = List.copyOf(dirty);
+        dirty.removeAll(ids);
+        return ids;
+    }
+
+    private void write(List<Long> ids, ConcurrentMap<Long, AtomicLong> counters, UsageWriter writer) {
+        for (Long id : ids) {
+            AtomicLong counter = counters.get(id);
+            if (counter != null) {
+                writer.write(id, counter.get());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface UsageWriter {
+        int write(Long id, long storageUsed);
+    }
+}
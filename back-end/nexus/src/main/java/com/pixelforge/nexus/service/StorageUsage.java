@@ -0,0 +1,18 @@
+package com.pixelforge.nexus.service;
+
+/**
+ * Bytes stored for one project or user, as summed by the database
+ */
+public class StorageUsage {
+
+    private final Long id;
+    private final long bytes;
+
+    public StorageUsage(Long id, Long bytes) {
+        this.id = id;
+        this.bytes = bytes != null ? bytes : 0;
+    }
+
+    public Long getId() { return id; }
+    public long getBytes() { return bytes; }
+}
@@ -0,0 +1,283 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.event.DocumentUploadedEvent;
+import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.exception.ResourceNotFoundException;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service class for document thumbnails
+ * Renders downscaled JPEG thumbnails of images and of the first page of PDFs on a bounded
+ * worker pool, right after an upload commits. Thumbnails are cached on local disk per stored
+ * file, so documents sharing content share their thumbnail.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailService.class);
+
+    public static final String THUMBNAIL_CONTENT_TYPE = "image/jpeg";
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @Autowired
+    @Qualifier("thumbnailExecutor")
+    private TaskExecutor thumbnailExecutor;
+
+    @Value("${app.thumbnail.size:320}")
+    private int thumbnailSize;
+
+    @Value("${app.thumbnail.request-timeout:10s}")
+    private Duration requestTimeout;
+
+    private final Path thumbnailLocation;
+
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    public ThumbnailService(@Value("${app.upload.dir:uploads}") String uploadDir) {
+        this.thumbnailLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(".thumbnails");
+        try {
+            Files.createDirectories(this.thumbnailLocation);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the directory for thumbnails.", ex);
+        }
+    }
+
+    /**
+     * Queue thumbnail rendering once the upload is committed
+     * @param event Upload event
+     */
+    @TransactionalEventListener
+    public void onDocumentUploaded(DocumentUploadedEvent event) {
+        if (!isSupported(event.getContentType())) {
+            return;
+        }
+        try {
+            render(event.getStorageKey(), event.getContentHash(), event.getContentType());
+        } catch (TaskRejectedException ex) {
+            // Rendered on first request instead
+            log.debug("Thumbnail queue full, skipping {}", event.getStorageKey());
+        }
+    }
+
+    /**
+     * Get the thumbnail of a document, rendering it now if it is not cached yet
+     * @param document Document entity
+     * @return Thumbnail file, or empty if rendering did not finish in time
+     * @throws ResourceNotFoundException if the document has no thumbnail
+     */
+    public Optional<Path> getThumbnail(Document document) {
+        String storageKey = document.getFilePath();
+        if (!isSupported(document.getContentType()) || failed.contains(storageKey)) {
+            throw new ResourceNotFoundException("No thumbnail available for document: " + document.getId());
+        }
+
+        Path thumbnail = thumbnailPath(storageKey);
+        if (Files.exists(thumbnail)) {
+            return Optional.of(thumbnail);
+        }
+
+        try {
+            return Optional.of(render(storageKey, document.getContentHash(), document.getContentType())
+                    .get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException | TaskRejectedException ex) {
+            return Optional.empty();
+        } catch (ExecutionException ex) {
+            throw new ResourceNotFoundException("No thumbnail available for document: " + document.getId());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Drop the cached thumbnail of a stored file
+     * @param storageKey Storage key
+     */
+    public void evict(String storageKey) {
+        failed.remove(storageKey);
+        try {
+            Files.deleteIfExists(thumbnailPath(storageKey));
+        } catch (IOException ex) {
+            log.warn("Could not delete thumbnail of {}", storageKey, ex);
+        }
+    }
+
+    /**
+     * Check if thumbnails can be rendered for a content type
+     * @param contentType Content type
+     * @return true for images and PDFs
+     */
+    public boolean isSupported(String contentType) {
+        return contentType != null
+                && (contentType.toLowerCase().startsWith("image/") || "application/pdf".equalsIgnoreCase(contentType));
+    }
+
+    /**
+     * Render a thumbnail on the worker pool; concurrent requests for the same file share one render
+     */
+    private CompletableFuture<Path> render(String storageKey, String contentHash, String contentType) {
+        Path thumbnail = thumbnailPath(storageKey);
+        if (Files.exists(thumbnail)) {
+            return CompletableFuture.completedFuture(thumbnail);
+        }
+
+        return inFlight.computeIfAbsent(storageKey, key -> {
+            CompletableFuture<Path> future = CompletableFuture.supplyAsync(
+                    () -> renderNow(storageKey, contentHash, contentType, thumbnail), thumbnailExecutor);
+            future.whenComplete((path, ex) -> inFlight.remove(key));
+            return future;
+        });
+    }
+
+    private Path renderNow(String storageKey, String contentHash, String contentType, Path thumbnail) {
+        try {
+            BufferedImage image = "application/pdf".equalsIgnoreCase(contentType)
+                    ? renderPdfPage(storageKey, contentHash)
+                    : readImage(storageKey, contentHash);
+            if (image == null) {
+                throw new IOException("Unsupported image format");
+            }
+
+            Path temp = thumbnailLocation.resolve(UUID.randomUUID() + ".tmp");
+            try {
+                ImageIO.write(fitAndFlatten(image), "jpg", temp.toFile());
+                Files.move(temp, thumbnail, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return thumbnail;
+        } catch (IOException | RuntimeException ex) {
+            // Corrupt or unsupported files are not retried until evicted
+            failed.add(storageKey);
+            log.warn("Could not render thumbnail of {}: {}", storageKey, ex.getMessage());
+            throw new FileStorageException("Could not render thumbnail of " + storageKey, ex);
+        }
+    }
+
+    /**
+     * Decode an image, subsampling large sources so only about twice the target size is held in memory
+     */
+    private BufferedImage readImage(String storageKey, String contentHash) throws IOException {
+        try (InputStream in = contentStoreService.openContent(storageKey, contentHash);
+             ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageIn);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestSide / (thumbnailSize * 2));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Render the first page of a PDF straight at thumbnail scale
+     */
+    private BufferedImage renderPdfPage(String storageKey, String contentHash) throws IOException {
+        Optional<Path> localPath = contentStoreService.localContentPath(storageKey, contentHash);
+        if (localPath.isPresent()) {
+            return renderPdfPage(localPath.get());
+        }
+
+        // PDF parsing needs random access, so remote or compressed content is spooled first
+        Path spooled = thumbnailLocation.resolve(UUID.randomUUID() + ".pdf");
+        try (InputStream in = contentStoreService.openContent(storageKey, contentHash)) {
+            Files.copy(in, spooled);
+            return renderPdfPage(spooled);
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    private BufferedImage renderPdfPage(Path pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf.toFile())) {
+            if (document.getNumberOfPages() == 0) {
+                return null;
+            }
+            PDRectangle box = document.getPage(0).getCropBox();
+            float scale = thumbnailSize / Math.max(box.getWidth(), box.getHeight());
+            return new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    /**
+     * Scale to fit the thumbnail box and drop any alpha channel onto white
+     */
+    private BufferedImage fitAndFlatten(BufferedImage source) {
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private Path thumbnailPath(String storageKey) {
+        // Legacy absolute keys are flattened to their file name
+        return thumbnailLocation.resolve(Paths.get(storageKey).getFileName() + ".jpg");
+    }
+}
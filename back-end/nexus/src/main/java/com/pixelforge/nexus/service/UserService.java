@@ -3,6 +3,7 @@ package com.pixelforge.nexus.service;
 import com.pixelforge.nexus.entity.Role;
 import com.pixelforge.nexus.entity.User;
 import com.pixelforge.nexus.repository.UserRepository;
+import com.pixelforge.nexus.dto.DeveloperSuggestionDTO;
 import com.pixelforge.nexus.dto.UserCreateDTO;
 import com.pixelforge.nexus.dto.UserResponseDTO;
 import com.pixelforge.nexus.dto.PasswordChangeDTO;
@@ -10,6 +11,7 @@ import com.pixelforge.nexus.exception.ResourceNotFoundException;
 import com.pixelforge.nexus.exception.DuplicateResourceException;
 import com.pixelforge.nexus.exception.InvalidOperationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -34,6 +36,18 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private DeveloperDirectory developerDirectory;
+
+    @Autowired
+    private DeveloperWorkloadIndex developerWorkloadIndex;
+
+    @Value("${app.users.suggest.default-limit:10}")
+    private int defaultSuggestLimit;
+
+    @Value("${app.users.suggest.max-limit:50}")
+    private int maxSuggestLimit;
+
     /**
      * Load user by username for Spring Security
      * @param username Username
@@ -71,6 +85,7 @@ public class UserService implements UserDetailsService {
         user.setRole(userCreateDTO.getRole());
 
         User savedUser = userRepository.save(user);
+        developerDirectory.updateAfterCommit(savedUser);
         return convertToResponseDTO(savedUser);
     }
 
@@ -135,6 +150,7 @@ public class UserService implements UserDetailsService {
 
         user.setRole(newRole);
         User updatedUser = userRepository.save(user);
+        developerDirectory.updateAfterCommit(updatedUser);
         return convertToResponseDTO(updatedUser);
     }
 
@@ -167,6 +183,7 @@ public class UserService implements UserDetailsService {
 
         user.setEnabled(false);
         userRepository.save(user);
+        developerDirectory.updateAfterCommit(user);
     }
 
     /**
@@ -179,17 +196,52 @@ public class UserService implements UserDetailsService {
 
         user.setEnabled(true);
         userRepository.save(user);
+        developerDirectory.updateAfterCommit(user);
     }
 
     /**
-     * Get developers available for project assignment
+     * Get developers available for project assignment, with their current workload
      * @return List of available developers
      */
     @Transactional(readOnly = true)
     public List<UserResponseDTO> getAvailableDevelopers() {
         return userRepository.findActiveUsersByRole(Role.DEVELOPER)
                 .stream()
-                .map(this::convertToResponseDTO)
+                .map(developer -> UserResponseDTO.builder()
+                        .id(developer.getId())
+                        .username(developer.getUsername())
+                        .email(developer.getEmail())
+                        .firstName(developer.getFirstName())
+                        .lastName(developer.getLastName())
+                        .role(developer.getRole())
+                        .enabled(developer.isEnabled())
+                        .createdAt(developer.getCreatedAt())
+                        .workload(developerWorkloadIndex.getWorkload(developer.getId()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Suggest developers for project assignment as the user types, with their current workload
+     * @param prefix Start of a username, first name, last name or full name
+     * @param limit Maximum number of developers, null for the default
+     * @return Matching developers, ordered by the matching name
+     */
+    @Transactional(readOnly = true)
+    public List<DeveloperSuggestionDTO> suggestDevelopers(String prefix, Integer limit) {
+        int maxSuggestions = limit == null ? defaultSuggestLimit : limit;
+        if (maxSuggestions < 1 || maxSuggestions > maxSuggestLimit) {
+            throw new InvalidOperationException("Limit must be between 1 and " + maxSuggestLimit);
+        }
+        return developerDirectory.suggest(prefix, maxSuggestions)
+                .stream()
+                .map(developer -> DeveloperSuggestionDTO.builder()
+                        .id(developer.getId())
+                        .username(developer.getUsername())
+                        .firstName(developer.getFirstName())
+                        .lastName(developer.getLastName())
+                        .workload(developerWorkloadIndex.getWorkload(developer.getId()))
+                        .build())
                 .collect(Collectors.toList());
     }
 
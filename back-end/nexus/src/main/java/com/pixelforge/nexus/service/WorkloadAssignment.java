@@ -0,0 +1,23 @@
+package com.pixelforge.nexus.service;
+
+import java.time.LocalDate;
+
+/**
+ * One developer assigned to one active project, as read from the database
+ */
+public class WorkloadAssignment {
+
+    private final Long projectId;
+    private final LocalDate deadline;
+    private final Long developerId;
+
+    public WorkloadAssignment(Long projectId, LocalDate deadline, Long developerId) {
+        this.projectId = projectId;
+        this.deadline = deadline;
+        this.developerId = developerId;
+    }
+
+    public Long getProjectId() { return projectId; }
+    public LocalDate getDeadline() { return deadline; }
+    public Long getDeveloperId() { return developerId; }
+}
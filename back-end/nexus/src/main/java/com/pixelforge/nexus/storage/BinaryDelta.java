@@ -0,0 +1,305 @@
+package com.pixelforge.nexus.storage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Binary delta encoding between two files
+ * A delta rebuilds a target file from a base file with COPY (base offset, length) and INSERT
+ * (literal bytes) instructions. Matches are found by indexing fixed-size blocks of the base with a
+ * rolling hash, the way rsync and xdelta do, so insertions and deletions anywhere in the file only
+ * cost their own bytes. Both files are memory-mapped while encoding; applying a delta streams the
+ * target and only needs random access to the base.
+ */
+public final class BinaryDelta {
+
+    /**
+     * Largest file either side of a delta may have; mapped buffers are limited to 2GB
+     */
+    public static final long MAX_SOURCE_SIZE = Integer.MAX_VALUE;
+
+    private static final int MAGIC = 0x50464431; // "PFD1"
+    private static final int OP_COPY = 'C';
+    private static final int OP_INSERT = 'I';
+    private static final int OP_END = 'E';
+
+    private static final int MIN_BLOCK_SIZE = 16;
+    // Keeps the block index at a few megabytes whatever the base size
+    private static final int MAX_INDEXED_BLOCKS = 1 << 20;
+    private static final int HASH_MULTIPLIER = 0x01000193;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private BinaryDelta() {
+    }
+
+    /**
+     * Write the delta that rebuilds target from base
+     * @param base Base file
+     * @param target Target file
+     * @param out Delta output (not closed)
+     * @throws IllegalArgumentException if a file is larger than MAX_SOURCE_SIZE
+     */
+    public static void encode(FileChannel base, FileChannel target, OutputStream out) throws IOException {
+        if (base.size() > MAX_SOURCE_SIZE || target.size() > MAX_SOURCE_SIZE) {
+            throw new IllegalArgumentException("Files larger than 2GB cannot be delta encoded");
+        }
+        MappedByteBuffer baseBytes = base.map(FileChannel.MapMode.READ_ONLY, 0, base.size());
+        MappedByteBuffer targetBytes = target.map(FileChannel.MapMode.READ_ONLY, 0, target.size());
+        new Encoder(baseBytes, targetBytes, new DataOutputStream(out)).encode();
+    }
+
+    /**
+     * Rebuild the target of a delta
+     * @param base Base file the delta was encoded against
+     * @param delta Delta stream (not closed)
+     * @param out Target output (not closed)
+     * @return Number of target bytes written
+     * @throws IOException if the delta is malformed or does not fit the base
+     */
+    public static long apply(FileChannel base, InputStream delta, OutputStream out) throws IOException {
+        DataInputStream in = new DataInputStream(delta);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a delta stream");
+        }
+        long expected = in.readLong();
+        long baseSize = base.size();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long written = 0;
+
+        int op;
+        while ((op = in.read()) != OP_END) {
+            if (op == OP_COPY) {
+                long offset = readVarLong(in);
+                long length = readVarLong(in);
+                if (offset < 0 || length < 0 || offset + length > baseSize) {
+                    throw new IOException("Delta copies beyond the end of its base");
+                }
+                ByteBuffer window = ByteBuffer.wrap(buffer);
+                long position = offset;
+                long remaining = length;
+                while (remaining > 0) {
+                    window.clear().limit((int) Math.min(buffer.length, remaining));
+                    int read = base.read(window, position);
+                    if (read <= 0) {
+                        throw new IOException("Base ended before a delta copy finished");
+                    }
+                    out.write(buffer, 0, read);
+                    position += read;
+                    remaining -= read;
+                }
+                written += length;
+            } else if (op == OP_INSERT) {
+                long remaining = readVarLong(in);
+                written += remaining;
+                while (remaining > 0) {
+                    int chunk = (int) Math.min(buffer.length, remaining);
+                    in.readFully(buffer, 0, chunk);
+                    out.write(buffer, 0, chunk);
+                    remaining -= chunk;
+                }
+            } else if (op == -1) {
+                throw new EOFException("Delta stream ended without its end marker");
+            } else {
+                throw new IOException("Unknown delta instruction " + op);
+            }
+        }
+
+        if (written != expected) {
+            throw new IOException("Delta produced " + written + " bytes, expected " + expected);
+        }
+        return written;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed delta length");
+    }
+
+    /**
+     * Greedy single pass over the target against a hash index of aligned base blocks
+     */
+    private static final class Encoder {
+
+        private final ByteBuffer base;
+        private final ByteBuffer target;
+        private final DataOutputStream out;
+        private final int blockSize;
+        private final int highPower;
+        private final int[] slotHashes;
+        private final int[] slotOffsets;
+        private final int slotMask;
+
+        Encoder(ByteBuffer base, ByteBuffer target, DataOutputStream out) {
+            this.base = base;
+            this.target = target;
+            this.out = out;
+
+            int size = MIN_BLOCK_SIZE;
+            while ((long) base.limit() / size > MAX_INDEXED_BLOCKS) {
+                size <<= 1;
+            }
+            this.blockSize = size;
+
+            int power = 1;
+            for (int i = 1; i < blockSize; i++) {
+                power *= HASH_MULTIPLIER;
+            }
+            this.highPower = power;
+
+            int blocks = base.limit() / blockSize;
+            int slots = Integer.highestOneBit(Math.max(blocks, 1) * 2 - 1) << 1;
+            this.slotHashes = new int[slots];
+            this.slotOffsets = new int[slots];
+            this.slotMask = slots - 1;
+            index(blocks);
+        }
+
+        /**
+         * Index every aligned base block; the first block with a given hash wins
+         */
+        private void index(int blocks) {
+            Arrays.fill(slotOffsets, -1);
+            for (int block = 0; block < blocks; block++) {
+                int offset = block * blockSize;
+                int hash = hash(base, offset);
+                int slot = mix(hash) & slotMask;
+                while (slotOffsets[slot] != -1 && slotHashes[slot] != hash) {
+                    slot = (slot + 1) & slotMask;
+                }
+                if (slotOffsets[slot] == -1) {
+                    slotHashes[slot] = hash;
+                    slotOffsets[slot] = offset;
+                }
+            }
+        }
+
+        void encode() throws IOException {
+            int targetLength = target.limit();
+            int baseLength = base.limit();
+            out.writeInt(MAGIC);
+            out.writeLong(targetLength);
+
+            int literalStart = 0;
+            int position = 0;
+            boolean hashed = false;
+            int hash = 0;
+
+            while (position + blockSize <= targetLength) {
+                if (!hashed) {
+                    hash = hash(target, position);
+                    hashed = true;
+                }
+
+                int candidate = lookup(hash);
+                if (candidate >= 0 && blockEquals(candidate, position)) {
+                    int matchStart = position;
+                    int baseStart = candidate;
+                    // Grow the match backwards into the pending literal, then forwards
+                    while (matchStart > literalStart && baseStart > 0
+                            && base.get(baseStart - 1) == target.get(matchStart - 1)) {
+                        matchStart--;
+                        baseStart--;
+                    }
+                    int matchEnd = position + blockSize;
+                    int baseEnd = candidate + blockSize;
+                    while (matchEnd < targetLength && baseEnd < baseLength
+                            && base.get(baseEnd) == target.get(matchEnd)) {
+                        matchEnd++;
+                        baseEnd++;
+                    }
+
+                    writeInsert(literalStart, matchStart);
+                    out.writeByte(OP_COPY);
+                    writeVarLong(out, baseStart);
+                    writeVarLong(out, matchEnd - matchStart);
+
+                    position = matchEnd;
+                    literalStart = matchEnd;
+                    hashed = false;
+                    continue;
+                }
+
+                if (position + blockSize < targetLength) {
+                    hash = (hash - target.get(position) * highPower) * HASH_MULTIPLIER
+                            + target.get(position + blockSize);
+                }
+                position++;
+            }
+
+            writeInsert(literalStart, targetLength);
+            out.writeByte(OP_END);
+            out.flush();
+        }
+
+        private int lookup(int hash) {
+            int slot = mix(hash) & slotMask;
+            while (slotOffsets[slot] != -1) {
+                if (slotHashes[slot] == hash) {
+                    return slotOffsets[slot];
+                }
+                slot = (slot + 1) & slotMask;
+            }
+            return -1;
+        }
+
+        private boolean blockEquals(int baseOffset, int targetOffset) {
+            for (int i = 0; i < blockSize; i++) {
+                if (base.get(baseOffset + i) != target.get(targetOffset + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void writeInsert(int start, int end) throws IOException {
+            if (end <= start) {
+                return;
+            }
+            out.writeByte(OP_INSERT);
+            writeVarLong(out, end - start);
+            byte[] buffer = new byte[Math.min(COPY_BUFFER_SIZE, end - start)];
+            ByteBuffer literal = target.duplicate();
+            literal.position(start).limit(end);
+            while (literal.hasRemaining()) {
+                int chunk = Math.min(buffer.length, literal.remaining());
+                literal.get(buffer, 0, chunk);
+                out.write(buffer, 0, chunk);
+            }
+        }
+
+        private int hash(ByteBuffer bytes, int offset) {
+            int hash = 0;
+            for (int i = 0; i < blockSize; i++) {
+                hash = hash * HASH_MULTIPLIER + bytes.get(offset + i);
+            }
+            return hash;
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
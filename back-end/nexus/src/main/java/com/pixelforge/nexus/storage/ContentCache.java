@@ -0,0 +1,161 @@
+package com.pixelforge.nexus.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pixelforge.nexus.dto.ContentCacheStatsDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process cache of the stored bytes of small, frequently downloaded files
+ * Entries are held in direct buffers, outside the Java heap, and bounded by a byte budget.
+ * Admission and eviction follow Caffeine's W-TinyLFU policy, so a burst of one-off downloads
+ * does not push out files that are read all day. Storage keys never change content, so entries
+ * only go when evicted or when the stored file is deleted. Evicted buffers are not freed by hand:
+ * downloads still writing from them keep them alive until they finish.
+ */
+@Component
+public class ContentCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentCache.class);
+
+    private final boolean enabled;
+    private final long maxEntrySize;
+    private final long budget;
+    private final Cache<String, ByteBuffer> cache;
+    private final LongAdder bytesServed = new LongAdder();
+
+    public ContentCache(@Value("${app.download.memory-cache.enabled:true}") boolean enabled,
+                        @Value("${app.download.memory-cache.size:64MB}") DataSize budget,
+                        @Value("${app.download.memory-cache.max-file-size:1MB}") DataSize maxEntrySize) {
+        this.enabled = enabled && budget.toBytes() > 0;
+        this.budget = budget.toBytes();
+        this.maxEntrySize = Math.min(maxEntrySize.toBytes(), Integer.MAX_VALUE);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(this.budget)
+                .weigher((String key, ByteBuffer buffer) -> buffer.capacity())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get the stored bytes of a file, reading them into the cache if the file is small enough
+     * Concurrent misses for the same key read the file once.
+     * @param backend Backend holding the file
+     * @param key Storage key
+     * @param storedLength Stored size of the file
+     * @return Read-only view of the whole stored file, or empty if it is not cached
+     */
+    public Optional<ByteBuffer> get(StorageBackend backend, String key, long storedLength) {
+        if (!enabled || storedLength > maxEntrySize || storedLength <= 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(key, k -> load(backend, k, (int) storedLength)))
+                .map(ByteBuffer::asReadOnlyBuffer);
+    }
+
+    /**
+     * Check if a file is cached, without counting a hit or miss
+     * @param key Storage key
+     * @return true if the file's bytes are in memory
+     */
+    public boolean contains(String key) {
+        return enabled && key != null && cache.asMap().containsKey(key);
+    }
+
+    /**
+     * Count bytes sent to clients from the cache
+     * @param bytes Bytes sent
+     */
+    public void recordServed(long bytes) {
+        bytesServed.add(bytes);
+    }
+
+    /**
+     * Drop a file from the cache
+     * @param key Storage key
+     */
+    public void evict(String key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * Snapshot of cache statistics
+     * @return Statistics
+     */
+    public ContentCacheStatsDTO snapshot() {
+        CacheStats stats = cache.stats();
+        return ContentCacheStatsDTO.builder()
+                .enabled(enabled)
+                .entries(cache.estimatedSize())
+                .bytesCached(cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .budgetBytes(budget)
+                .maxEntryBytes(maxEntrySize)
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRatio(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .bytesServed(bytesServed.sum())
+                .build();
+    }
+
+    /**
+     * Publish the cache's statistics as the content cache's cache.* meters
+     * @param registry Registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "content");
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", "content")
+                .description("Share of lookups served from the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.served", bytesServed, LongAdder::sum)
+                .tag("cache", "content")
+                .baseUnit("bytes")
+                .description("Bytes sent to clients from the cache")
+                .register(registry);
+    }
+
+    /**
+     * Read a whole stored file into a direct buffer
+     * @return Buffer, or null to leave the file uncached when it cannot be read as described
+     */
+    private ByteBuffer load(StorageBackend backend, String key, int length) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+        try (InputStream in = backend.open(key);
+             ReadableByteChannel channel = Channels.newChannel(in)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1) {
+                    log.warn("Stored file {} is shorter than recorded, not caching it", key);
+                    return null;
+                }
+            }
+            if (in.read() != -1) {
+                log.warn("Stored file {} is longer than recorded, not caching it", key);
+                return null;
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.debug("Could not read {} into the content cache", key, ex);
+            return null;
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,85 @@
+package com.pixelforge.nexus.storage;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression codecs for content at rest
+ * Codec names match the HTTP content-coding tokens, so stored bytes can be sent
+ * unchanged to clients that accept the coding.
+ */
+public enum ContentCodec {
+
+    GZIP("gzip") {
+        @Override
+        public OutputStream compress(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, 64 * 1024);
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new GZIPInputStream(in, 64 * 1024);
+        }
+    },
+
+    ZSTD("zstd") {
+        @Override
+        public OutputStream compress(OutputStream out) throws IOException {
+            return new ZstdOutputStream(out, 6);
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new ZstdInputStream(in);
+        }
+    };
+
+    private final String encoding;
+
+    ContentCodec(String encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * HTTP content-coding token
+     * @return Encoding name
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Wrap a stream so that bytes written to it are compressed
+     * @param out Target stream
+     * @return Compressing stream
+     */
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Wrap a stream of compressed bytes so that reads return the original content
+     * @param in Compressed stream
+     * @return Decompressing stream
+     */
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * Look up a codec by its content-coding token
+     * @param encoding Encoding name
+     * @return Codec
+     * @throws IllegalArgumentException if the encoding is unknown
+     */
+    public static ContentCodec forEncoding(String encoding) {
+        for (ContentCodec codec : values()) {
+            if (codec.encoding.equalsIgnoreCase(encoding)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown content encoding: " + encoding);
+    }
+}
@@ -0,0 +1,94 @@
+package com.pixelforge.nexus.storage;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Decorator recording the latency of every call to a storage backend
+ * For reads, the recorded time is the time to open the stream (first byte for remote backends).
+ */
+public class InstrumentedStorageBackend implements StorageBackend {
+
+    private final StorageBackend delegate;
+    private final StorageMetrics metrics;
+
+    public InstrumentedStorageBackend(StorageBackend delegate, StorageMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Get the wrapped backend
+     * @return Underlying backend
+     */
+    public StorageBackend getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public void put(String key, Path source) {
+        timed("put", () -> {
+            delegate.put(key, source);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return timed("exists", () -> delegate.exists(key));
+    }
+
+    @Override
+    public long size(String key) {
+        return timed("size", () -> delegate.size(key));
+    }
+
+    @Override
+    public InputStream open(String key) {
+        return timed("open", () -> delegate.open(key));
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) {
+        return timed("openRange", () -> delegate.open(key, offset, length));
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return delegate.localPath(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        timed("delete", () -> {
+            delegate.delete(key);
+            return null;
+        });
+    }
+
+    @Override
+    public Stream<StoredObject> list() {
+        // Listing is paged lazily; only the first page is timed
+        return timed("list", delegate::list);
+    }
+
+    private <T> T timed(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            metrics.record(delegate.getName(), operation, System.nanoTime() - start, failed);
+        }
+    }
+}
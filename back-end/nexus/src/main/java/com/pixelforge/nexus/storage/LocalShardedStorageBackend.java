@@ -0,0 +1,181 @@
+package com.pixelforge.nexus.storage;
+
+import com.pixelforge.nexus.exception.FileStorageException;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local filesystem backend with a two-level hash fan-out
+ * A key is stored at root/ab/cd/key, where abcd are the first hex digits of the key
+ * itself when it is a content hash, or of its MD5 otherwise. This keeps every
+ * directory small no matter how many files are stored.
+ */
+public class LocalShardedStorageBackend implements StorageBackend {
+
+    private static final Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    private static final Pattern HEX_KEY = Pattern.compile("[0-9a-f]{4,}");
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+
+    private final Path root;
+
+    public LocalShardedStorageBackend(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the directory where the uploaded files will be stored.", ex);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public void put(String key, Path source) {
+        Path target = resolve(key);
+        try {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                // Different filesystem: copy next to the target, then rename into place
+                Path temp = target.resolveSibling(".tmp-" + UUID.randomUUID());
+                Files.copy(source, temp);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(source);
+            }
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store " + key, ex);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public long size(String key) {
+        try {
+            return Files.size(resolve(key));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not read size of " + key, ex);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) {
+        try {
+            return Files.newInputStream(resolve(key));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not open " + key, ex);
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+            channel.position(offset);
+            return new BoundedInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not open " + key, ex);
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not delete " + key, ex);
+        }
+    }
+
+    /**
+     * Only files at root/ab/cd/key are listed, so staging and cache directories
+     * sharing the root (such as .incoming or .thumbnails) are never reported
+     */
+    @Override
+    public Stream<StoredObject> list() {
+        try {
+            return Files.find(root, 3, (path, attributes) -> attributes.isRegularFile() && isShardedObject(path))
+                    .map(this::toStoredObject)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not list stored files", ex);
+        }
+    }
+
+    /**
+     * Get the storage root
+     * @return Absolute root directory
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Resolve a key to its sharded location
+     * Absolute paths recorded before keys were introduced resolve to themselves.
+     * @param key Storage key
+     * @return Absolute file path
+     */
+    public Path resolve(String key) {
+        Path legacy = Paths.get(key);
+        if (legacy.isAbsolute()) {
+            return legacy;
+        }
+        if (!VALID_KEY.matcher(key).matches()) {
+            throw new FileStorageException("Invalid storage key: " + key);
+        }
+
+        String shardSource = HEX_KEY.matcher(key).matches()
+                ? key
+                : DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8));
+        return root.resolve(shardSource.substring(0, 2)).resolve(shardSource.substring(2, 4)).resolve(key);
+    }
+
+    private boolean isShardedObject(Path path) {
+        Path relative = root.relativize(path);
+        return relative.getNameCount() == 3
+                && SHARD.matcher(relative.getName(0).toString()).matches()
+                && SHARD.matcher(relative.getName(1).toString()).matches()
+                && VALID_KEY.matcher(relative.getName(2).toString()).matches();
+    }
+
+    private Optional<StoredObject> toStoredObject(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return Optional.of(new StoredObject(path.getFileName().toString(), attributes.size(),
+                    attributes.lastModifiedTime().toInstant()));
+        } catch (IOException ex) {
+            // Deleted while listing
+            return Optional.empty();
+        }
+    }
+}
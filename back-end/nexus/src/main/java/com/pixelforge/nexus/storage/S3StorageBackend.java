@@ -0,0 +1,150 @@
+package com.pixelforge.nexus.storage;
+
+import com.pixelforge.nexus.exception.FileStorageException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * S3-compatible object storage backend
+ * Works against AWS S3 and S3-compatible servers such as MinIO (use path-style access).
+ */
+public class S3StorageBackend implements StorageBackend {
+
+    private final S3Client client;
+    private final String bucket;
+    private final String prefix;
+
+    public S3StorageBackend(S3Client client, String bucket, String prefix) {
+        this.client = client;
+        this.bucket = bucket;
+        this.prefix = prefix == null ? "" : prefix;
+    }
+
+    @Override
+    public String getName() {
+        return "s3";
+    }
+
+    @Override
+    public void put(String key, Path source) {
+        try {
+            client.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(objectKey(key))
+                            .contentLength(Files.size(source))
+                            .build(),
+                    RequestBody.fromFile(source));
+            Files.deleteIfExists(source);
+        } catch (IOException | SdkException ex) {
+            throw new FileStorageException("Could not store " + key, ex);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return head(key).isPresent();
+    }
+
+    @Override
+    public long size(String key) {
+        return head(key)
+                .map(HeadObjectResponse::contentLength)
+                .orElseThrow(() -> new FileStorageException("Object not found: " + key));
+    }
+
+    @Override
+    public InputStream open(String key) {
+        try {
+            return client.getObject(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(key))
+                    .build());
+        } catch (SdkException ex) {
+            throw new FileStorageException("Could not open " + key, ex);
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        try {
+            return client.getObject(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(key))
+                    .range("bytes=" + offset + "-" + (offset + length - 1))
+                    .build());
+        } catch (SdkException ex) {
+            throw new FileStorageException("Could not open " + key, ex);
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(key))
+                    .build());
+        } catch (SdkException ex) {
+            throw new FileStorageException("Could not delete " + key, ex);
+        }
+    }
+
+    @Override
+    public Stream<StoredObject> list() {
+        try {
+            return client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                            .bucket(bucket)
+                            .prefix(prefix)
+                            .build())
+                    .contents()
+                    .stream()
+                    .map(object -> new StoredObject(object.key().substring(prefix.length()), object.size(),
+                            object.lastModified()));
+        } catch (SdkException ex) {
+            throw new FileStorageException("Could not list stored objects", ex);
+        }
+    }
+
+    private Optional<HeadObjectResponse> head(String key) {
+        try {
+            return Optional.of(client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(key))
+                    .build()));
+        } catch (S3Exception ex) {
+            if (ex.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new FileStorageException("Could not look up " + key, ex);
+        } catch (SdkException ex) {
+            throw new FileStorageException("Could not look up " + key, ex);
+        }
+    }
+
+    private String objectKey(String key) {
+        return prefix + key;
+    }
+}
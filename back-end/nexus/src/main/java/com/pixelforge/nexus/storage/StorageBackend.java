@@ -0,0 +1,79 @@
+package com.pixelforge.nexus.storage;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage backend SPI for document content
+ * Content is addressed by relative keys; where and how the bytes are kept is up to
+ * the backend. Failures surface as FileStorageException.
+ */
+public interface StorageBackend {
+
+    /**
+     * Short backend name used in metrics and logs
+     * @return Backend name
+     */
+    String getName();
+
+    /**
+     * Store a local file under a key. The source file is consumed: it is moved
+     * into place or deleted once its content has been transferred.
+     * @param key Storage key
+     * @param source Local file
+     */
+    void put(String key, Path source);
+
+    /**
+     * Check if a key exists
+     * @param key Storage key
+     * @return true if content is stored under the key
+     */
+    boolean exists(String key);
+
+    /**
+     * Get stored size
+     * @param key Storage key
+     * @return Size in bytes
+     */
+    long size(String key);
+
+    /**
+     * Open stored content for reading
+     * @param key Storage key
+     * @return Content stream
+     */
+    InputStream open(String key);
+
+    /**
+     * Open a byte window of stored content for reading
+     * @param key Storage key
+     * @param offset First byte
+     * @param length Number of bytes
+     * @return Content stream limited to the window
+     */
+    InputStream open(String key, long offset, long length);
+
+    /**
+     * Local file holding the content, when the backend keeps content on local disk.
+     * Lets callers use zero-copy transfers.
+     * @param key Storage key
+     * @return Local path, or empty for remote backends
+     */
+    Optional<Path> localPath(String key);
+
+    /**
+     * Delete stored content; missing keys are ignored
+     * @param key Storage key
+     */
+    void delete(String key);
+
+    /**
+     * List every stored object, in no particular order, for reconciliation
+     * The stream may hold open resources and must be closed.
+     * @return Stored objects
+     */
+    Stream<StoredObject> list();
+}
@@ -0,0 +1,95 @@
+package com.pixelforge.nexus.storage;
+
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.entity.StoredBlob;
+import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.StoredBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Moves files recorded under absolute paths into the configured storage backend
+ * Earlier versions stored every file flat in the upload directory and kept its path in
+ * the database. On startup each such file is handed to the backend under its storage key
+ * (the stored file name) and the rows are updated to the key. Rows are migrated one at a
+ * time, so an interrupted run simply continues on the next start.
+ */
+@Component
+public class StorageKeyMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageKeyMigration.class);
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int documents = 0;
+        int blobs = 0;
+
+        for (Document document : documentRepository.findDocumentsWithLegacyPaths()) {
+            String key = document.getFileName();
+            if (moveToBackend(document.getFilePath(), key)) {
+                transaction.executeWithoutResult(status -> documentRepository.updateFilePath(document.getId(), key));
+                documents++;
+            }
+        }
+
+        for (StoredBlob blob : storedBlobRepository.findBlobsWithLegacyPaths()) {
+            String key = blob.getContentHash();
+            if (moveToBackend(blob.getFilePath(), key)) {
+                transaction.executeWithoutResult(status -> storedBlobRepository.updateFilePath(key, key));
+                blobs++;
+            }
+        }
+
+        if (documents > 0 || blobs > 0) {
+            log.info("Migrated {} documents and {} blobs to {} storage keys", documents, blobs,
+                    storageBackend.getName());
+        }
+    }
+
+    /**
+     * Hand a legacy file to the backend unless its key is already stored
+     * @return true if the content is now stored under the key
+     */
+    private boolean moveToBackend(String legacyPath, String key) {
+        if (storageBackend.exists(key)) {
+            return true;
+        }
+
+        Path source = Paths.get(legacyPath);
+        if (!Files.exists(source)) {
+            log.warn("Cannot migrate {} to key {}: file is missing", legacyPath, key);
+            return false;
+        }
+        try {
+            storageBackend.put(key, source);
+            return true;
+        } catch (FileStorageException ex) {
+            log.warn("Cannot migrate {} to key {}", legacyPath, key, ex);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.pixelforge.nexus.storage;
+
+import com.pixelforge.nexus.dto.StorageOperationStatsDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Latency counters for storage operations, per backend and operation
+ * Kept for the admin statistics endpoint and published as the nexus.storage.operations timer.
+ */
+@Component
+public class StorageMetrics {
+
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public StorageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Record one completed operation
+     * @param backend Backend name
+     * @param operation Operation name
+     * @param nanos Elapsed time in nanoseconds
+     * @param failed true if the operation threw
+     */
+    public void record(String backend, String operation, long nanos, boolean failed) {
+        stats.computeIfAbsent(backend + ":" + operation, k -> new OperationStats(backend, operation, meterRegistry))
+                .record(nanos, failed);
+    }
+
+    /**
+     * Snapshot of all recorded operations
+     * @return Per backend and operation statistics
+     */
+    public List<StorageOperationStatsDTO> snapshot() {
+        return stats.values().stream()
+                .map(OperationStats::toDTO)
+                .sorted(Comparator.comparing(StorageOperationStatsDTO::getBackend)
+                        .thenComparing(StorageOperationStatsDTO::getOperation))
+                .collect(Collectors.toList());
+    }
+
+    private static final class OperationStats {
+        private final String backend;
+        private final String operation;
+        private final Timer succeeded;
+        private final Timer failed;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private OperationStats(String backend, String operation, MeterRegistry meterRegistry) {
+            this.backend = backend;
+            this.operation = operation;
+            this.succeeded = timer(meterRegistry, "success");
+            this.failed = timer(meterRegistry, "error");
+        }
+
+        private Timer timer(MeterRegistry meterRegistry, String outcome) {
+            return Timer.builder("nexus.storage.operations")
+                    .tag("backend", backend)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        private void record(long nanos, boolean failed) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (failed) {
+                errors.increment();
+            }
+            (failed ? this.failed : succeeded).record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private StorageOperationStatsDTO toDTO() {
+            long calls = count.sum();
+            return StorageOperationStatsDTO.builder()
+                    .backend(backend)
+                    .operation(operation)
+                    .count(calls)
+                    .errors(errors.sum())
+                    .meanMillis(calls == 0 ? 0 : totalNanos.sum() / (double) calls / 1_000_000)
+                    .maxMillis(maxNanos.get() / 1_000_000.0)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.pixelforge.nexus.storage;
+
+import java.time.Instant;
+
+/**
+ * Object found when listing a storage backend
+ */
+public class StoredObject {
+
+    private final String key;
+    private final long size;
+    private final Instant lastModified;
+
+    public StoredObject(String key, long size, Instant lastModified) {
+        this.key = key;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    public String getKey() { return key; }
+    public long getSize() { return size; }
+    public Instant getLastModified() { return lastModified; }
+}
@@ -0,0 +1,486 @@
+package com.pixelforge.nexus.web;
+
+import com.pixelforge.nexus.exception.ResourceNotFoundException;
+import com.pixelforge.nexus.service.DocumentDownload;
+import com.pixelforge.nexus.storage.ByteBufferInputStream;
+import com.pixelforge.nexus.storage.ContentCache;
+import com.pixelforge.nexus.storage.ContentCodec;
+import com.pixelforge.nexus.storage.StorageBackend;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes document downloads to the servlet response
+ * Supports single, multiple (multipart/byteranges) and conditional (If-Range) byte ranges.
+ * For files on local disk, whole-file and single-range bodies are handed to the container's
+ * sendfile support when available; everything else is copied from the FileChannel through a heap buffer.
+ * Content held by remote backends is streamed with ranged reads. Content stored compressed is
+ * sent as-is to clients accepting its coding, and decompressed on the fly for everyone else
+ * (including all range requests, which always address the original bytes).
+ * Downloads addressed by version may be cached privately without revalidation; the plain document
+ * URL follows the latest version and must be revalidated. Conditional requests (If-None-Match,
+ * If-Modified-Since) are answered with 304 from the document metadata alone, before the storage
+ * backend is consulted. Rebuilt content (older versions kept as deltas) is streamed whole.
+ * Small files are served from the in-memory content cache when it is enabled.
+ */
+@Component
+public class DocumentDownloadWriter {
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private static final String CRLF = "\r\n";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Value("${app.download.sendfile-threshold:48KB}")
+    private DataSize sendfileThreshold;
+
+    @Value("${app.download.cache-max-age:365d}")
+    private Duration cacheMaxAge;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    /**
+     * Write the download, honouring conditional, Range and If-Range request headers
+     * @param download Resolved document download
+     * @param request Current request
+     * @param response Current response
+     */
+    public void write(DocumentDownload download, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long length = download.getContentLength();
+        String contentEncoding = download.getContentEncoding();
+
+        String notModifiedTag = notModifiedTag(download, request);
+        if (notModifiedTag != null) {
+            writeNotModified(download, notModifiedTag, response);
+            return;
+        }
+        // Cached files are dropped when deleted, so only uncached ones need a storage lookup
+        if (!contentCache.contains(download.getStorageKey()) && !download.exists()) {
+            throw new ResourceNotFoundException("File not found: " + download.getOriginalFileName());
+        }
+
+        boolean headRequest = "HEAD".equalsIgnoreCase(request.getMethod());
+        Optional<DocumentDownload.Body> body = download.getBody();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, body.isPresent() ? "none" : "bytes");
+        response.setHeader(HttpHeaders.ETAG, download.getETag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, download.getLastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl(download));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(download.getOriginalFileName(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        if (body.isPresent()) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(download.getContentType());
+            response.setContentLengthLong(length);
+            if (!headRequest) {
+                body.get().writeTo(response.getOutputStream());
+                response.flushBuffer();
+            }
+            return;
+        }
+
+        // Stored bytes can be sent as they are only when nothing is decoded
+        boolean raw = contentEncoding == null;
+
+        if (contentEncoding != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (!StringUtils.hasText(request.getHeader(HttpHeaders.RANGE)) && acceptsEncoding(request, contentEncoding)) {
+                writeEncoded(download, headRequest, request, response);
+                return;
+            }
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = requestedRanges(download, request);
+        } catch (IllegalArgumentException ex) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(download.getContentType());
+            response.setContentLengthLong(length);
+            if (!headRequest) {
+                transfer(download, 0, length, raw, request, response);
+            }
+        } else if (ranges.size() == 1) {
+            long start = ranges.get(0).getRangeStart(length);
+            long end = ranges.get(0).getRangeEnd(length);
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setContentType(download.getContentType());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, length));
+            response.setContentLengthLong(end - start + 1);
+            if (!headRequest) {
+                transfer(download, start, end - start + 1, raw, request, response);
+            }
+        } else {
+            writeMultipart(download, ranges, raw, headRequest, response);
+        }
+    }
+
+    /**
+     * Answer a conditional request whose cached copy is still current
+     */
+    private void writeNotModified(DocumentDownload download, String eTag, HttpServletResponse response) {
+        response.setStatus(HttpStatus.NOT_MODIFIED.value());
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, download.getLastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl(download));
+        if (download.getContentEncoding() != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+
+    /**
+     * Evaluate If-None-Match, or If-Modified-Since when no entity tags were sent
+     * If-None-Match uses weak comparison and matches both the identity and the encoded representation.
+     * @return Entity tag to answer 304 with, or null if the content must be sent
+     */
+    private String notModifiedTag(DocumentDownload download, HttpServletRequest request) {
+        if (!"GET".equalsIgnoreCase(request.getMethod()) && !"HEAD".equalsIgnoreCase(request.getMethod())) {
+            return null;
+        }
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (StringUtils.hasText(ifNoneMatch)) {
+            String encodedTag = download.getContentEncoding() != null ? encodedETag(download) : null;
+            for (String element : ifNoneMatch.split(",")) {
+                String tag = element.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(download.getETag())) {
+                    return download.getETag();
+                }
+                if (tag.equals(encodedTag)) {
+                    return encodedTag;
+                }
+            }
+            return null;
+        }
+
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (!StringUtils.hasText(ifModifiedSince)) {
+            return null;
+        }
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return download.getLastModified() / 1000 <= since ? download.getETag() : null;
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Content behind a versioned URL never changes; the latest version of a document may
+     */
+    private String cacheControl(DocumentDownload download) {
+        CacheControl cacheControl = download.isImmutable()
+                ? CacheControl.maxAge(cacheMaxAge).immutable()
+                : CacheControl.noCache();
+        return cacheControl.cachePrivate().getHeaderValue();
+    }
+
+    private String encodedETag(DocumentDownload download) {
+        String eTag = download.getETag();
+        return eTag.substring(0, eTag.length() - 1) + "-" + download.getContentEncoding() + "\"";
+    }
+
+    /**
+     * Send the compressed bytes unchanged, labelled with their content coding
+     * The encoded representation gets its own entity tag.
+     */
+    private void writeEncoded(DocumentDownload download, boolean headRequest, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, encodedETag(download));
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, download.getContentEncoding());
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(download.getContentType());
+        response.setContentLengthLong(download.getStoredLength());
+        if (!headRequest) {
+            transfer(download, 0, download.getStoredLength(), true, request, response);
+        }
+    }
+
+    /**
+     * Check Accept-Encoding for a coding with a non-zero quality value
+     */
+    private boolean acceptsEncoding(HttpServletRequest request, String encoding) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return false;
+        }
+
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.trim().split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase(encoding) && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException ex) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resolve the ranges to serve; empty means the whole file
+     * @throws IllegalArgumentException if the Range header is malformed or unsatisfiable
+     */
+    private List<HttpRange> requestedRanges(DocumentDownload download, HttpServletRequest request) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (!StringUtils.hasText(rangeHeader)
+                || (!"GET".equalsIgnoreCase(request.getMethod()) && !"HEAD".equalsIgnoreCase(request.getMethod()))) {
+            return List.of();
+        }
+
+        // A stale If-Range validator means the client gets the full, current representation
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (StringUtils.hasText(ifRange) && !ifRangeMatches(ifRange.trim(), download)) {
+            return List.of();
+        }
+
+        long length = download.getContentLength();
+        List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+
+        long requested = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                throw new IllegalArgumentException("Range starts beyond the end of the file: " + range);
+            }
+            requested += end - start + 1;
+        }
+
+        // Overlapping ranges adding up to more than the file are not worth honouring
+        if (requested > length) {
+            return List.of();
+        }
+        return ranges;
+    }
+
+    /**
+     * If-Range uses strong comparison: an exact entity tag or an exact Last-Modified second
+     */
+    private boolean ifRangeMatches(String ifRange, DocumentDownload download) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(download.getETag());
+        }
+        try {
+            long since = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return since == download.getLastModified() / 1000;
+        } catch (DateTimeParseException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Write several ranges as a multipart/byteranges body with an exact Content-Length
+     */
+    private void writeMultipart(DocumentDownload download, List<HttpRange> ranges, boolean raw, boolean headRequest,
+                                HttpServletResponse response) throws IOException {
+        long length = download.getContentLength();
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            byte[] header = (CRLF + "--" + boundary + CRLF
+                    + HttpHeaders.CONTENT_TYPE + ": " + download.getContentType() + CRLF
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(start, end, length) + CRLF + CRLF)
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + (end - start + 1);
+        }
+        byte[] closing = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (headRequest) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        Optional<ByteBuffer> cached = cachedContent(download);
+        Optional<Path> localPath = raw && cached.isEmpty() ? download.getLocalPath() : Optional.empty();
+        if (localPath.isPresent()) {
+            try (FileChannel channel = FileChannel.open(localPath.get(), StandardOpenOption.READ)) {
+                for (int i = 0; i < ranges.size(); i++) {
+                    long start = ranges.get(i).getRangeStart(length);
+                    long end = ranges.get(i).getRangeEnd(length);
+                    out.write(partHeaders.get(i));
+                    copyWindow(channel, start, end - start + 1, out);
+                }
+            }
+        } else {
+            for (int i = 0; i < ranges.size(); i++) {
+                long start = ranges.get(i).getRangeStart(length);
+                long end = ranges.get(i).getRangeEnd(length);
+                out.write(partHeaders.get(i));
+                copyRange(download, cached, start, end - start + 1, raw, out);
+            }
+        }
+        out.write(closing);
+        out.flush();
+    }
+
+    /**
+     * Send a byte window of the file, preferring the container's sendfile
+     */
+    private void transfer(DocumentDownload download, long start, long count, boolean raw, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        Optional<ByteBuffer> cached = cachedContent(download);
+        Optional<Path> localPath = raw && cached.isEmpty() ? download.getLocalPath() : Optional.empty();
+        if (localPath.isEmpty()) {
+            copyRange(download, cached, start, count, raw, response.getOutputStream());
+            response.flushBuffer();
+            return;
+        }
+
+        if (count >= sendfileThreshold.toBytes() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // Tomcat writes the file from the kernel page cache once the servlet returns
+            request.setAttribute(SENDFILE_FILENAME_ATTR, localPath.get().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(localPath.get(), StandardOpenOption.READ)) {
+            copyWindow(channel, start, count, response.getOutputStream());
+        }
+        response.flushBuffer();
+    }
+
+    /**
+     * Get the stored bytes from the memory cache, for files small enough to be kept there
+     */
+    private Optional<ByteBuffer> cachedContent(DocumentDownload download) {
+        return contentCache.get(download.getStorageBackend(), download.getStorageKey(), download.getStoredLength());
+    }
+
+    /**
+     * Stream a byte window from the memory cache or the storage backend
+     * @param raw true to window the stored bytes, false to window the decompressed content
+     */
+    private void copyRange(DocumentDownload download, Optional<ByteBuffer> cached, long start, long count,
+                           boolean raw, OutputStream out) throws IOException {
+        if (cached.isPresent() && raw) {
+            ByteBuffer window = cached.get().duplicate();
+            window.position((int) start).limit((int) (start + count));
+            Channels.newChannel(out).write(window);
+            contentCache.recordServed(count);
+            return;
+        }
+
+        StorageBackend backend = download.getStorageBackend();
+        if (raw) {
+            try (InputStream in = backend.open(download.getStorageKey(), start, count)) {
+                if (StreamUtils.copy(in, out) != count) {
+                    throw new IOException("Stored content ended before the requested range was sent");
+                }
+            }
+            return;
+        }
+
+        ContentCodec codec = ContentCodec.forEncoding(download.getContentEncoding());
+        InputStream stored = cached.isPresent()
+                ? new ByteBufferInputStream(cached.get())
+                : backend.open(download.getStorageKey());
+        try (InputStream in = codec.decompress(stored)) {
+            in.skipNBytes(start);
+            byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+            long remaining = count;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new IOException("Stored content ended before the requested range was sent");
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+        if (cached.isPresent()) {
+            contentCache.recordServed(count);
+        }
+    }
+
+    /**
+     * Copy a window of the file into the response with positional reads
+     * FileChannel.transferTo into a channel over the response stream is slower than this
+     * (DownloadBenchmark): without a socket to send to, the JDK moves the bytes in 8KB pieces
+     * through a second buffer.
+     */
+    private void copyWindow(FileChannel channel, long position, long count, OutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COPY_BUFFER_SIZE, count));
+        long remaining = count;
+        while (remaining > 0) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("File ended before the requested range was sent");
+            }
+            out.write(buffer.array(), 0, read);
+            position += read;
+            remaining -= read;
+        }
+    }
+
+    private String contentRange(long start, long end, long length) {
+        return "bytes " + start + "-" + end + "/" + length;
+    }
+}
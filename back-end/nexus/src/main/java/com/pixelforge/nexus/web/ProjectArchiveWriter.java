@@ -0,0 +1,275 @@
+package com.pixelforge.nexus.web;
+
+import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.service.ArchiveEntry;
+import com.pixelforge.nexus.service.ContentStoreService;
+import com.pixelforge.nexus.service.ProjectArchive;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a project's files to the response as one ZIP archive
+ * Nothing is spooled to disk. A background reader prefetches upcoming files into a
+ * bounded buffer so storage reads overlap compression. Formats that are already
+ * compressed are written with deflate level 0, which costs no CPU and, unlike STORED
+ * entries, does not need a CRC before the entry starts.
+ */
+@Component
+public class ProjectArchiveWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectArchiveWriter.class);
+
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    private static final Set<String> PRECOMPRESSED_TYPES = Set.of(
+            "image/jpeg",
+            "image/png",
+            "image/gif",
+            "image/webp",
+            "application/zip",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "application/vnd.openxmlformats-officedocument.presentationml.presentation"
+    );
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @Autowired
+    @Qualifier("archiveExecutor")
+    private TaskExecutor archiveExecutor;
+
+    @Value("${app.archive.prefetch-buffer:8MB}")
+    private DataSize prefetchBuffer;
+
+    /**
+     * Write the archive to the response
+     * @param archive Resolved project archive
+     * @param response Current response
+     */
+    public void write(ProjectArchive archive, HttpServletResponse response) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(archive.getProjectName() + ".zip", StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        List<ArchiveEntry> entries = archive.getEntries();
+        Prefetcher prefetcher = new Prefetcher(entries,
+                (int) Math.max(2, prefetchBuffer.toBytes() / CHUNK_SIZE));
+        boolean prefetching = true;
+        try {
+            archiveExecutor.execute(prefetcher);
+        } catch (TaskRejectedException ex) {
+            // All readers busy: stream this archive without read-ahead
+            prefetching = false;
+        }
+
+        ZipOutputStream zip = new ZipOutputStream(response.getOutputStream(), StandardCharsets.UTF_8);
+        Set<String> usedNames = new HashSet<>();
+        try {
+            for (ArchiveEntry entry : entries) {
+                InputStream content;
+                try {
+                    content = prefetching ? prefetcher.next() : open(entry);
+                } catch (FileStorageException ex) {
+                    log.warn("Skipping {} in project archive: {}", entry.getStorageKey(), ex.getMessage());
+                    continue;
+                }
+
+                try (InputStream in = content) {
+                    zip.setLevel(isPrecompressed(entry) ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+                    zip.putNextEntry(new ZipEntry(uniqueName(entry.getOriginalFileName(), usedNames)));
+                    in.transferTo(zip);
+                    zip.closeEntry();
+                }
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            prefetcher.cancel();
+        }
+    }
+
+    private InputStream open(ArchiveEntry entry) {
+        return contentStoreService.openContent(entry.getStorageKey(), entry.getContentHash());
+    }
+
+    private boolean isPrecompressed(ArchiveEntry entry) {
+        return entry.getContentType() != null && PRECOMPRESSED_TYPES.contains(entry.getContentType().toLowerCase());
+    }
+
+    /**
+     * Flat, unique entry name; duplicates become "name (2).ext"
+     */
+    private String uniqueName(String originalFileName, Set<String> usedNames) {
+        String name = StringUtils.hasText(originalFileName)
+                ? originalFileName.replace('/', '_').replace('\\', '_')
+                : "document";
+        String candidate = name;
+        int counter = 2;
+        while (!usedNames.add(candidate.toLowerCase())) {
+            String extension = StringUtils.getFilenameExtension(name);
+            String base = StringUtils.stripFilenameExtension(name);
+            candidate = base + " (" + counter++ + ")" + (extension != null ? "." + extension : "");
+        }
+        return candidate;
+    }
+
+    /**
+     * Reads entries ahead of the writer into a bounded queue of chunks
+     * Entries are delivered in order; each is a run of DATA chunks closed by END,
+     * or a single FAILED chunk when it could not be opened.
+     */
+    private final class Prefetcher implements Runnable {
+
+        private final List<ArchiveEntry> entries;
+        private final BlockingQueue<Chunk> queue;
+        private volatile boolean cancelled;
+
+        private Prefetcher(List<ArchiveEntry> entries, int capacity) {
+            this.entries = entries;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (ArchiveEntry entry : entries) {
+                    InputStream in;
+                    try {
+                        in = open(entry);
+                    } catch (RuntimeException ex) {
+                        put(Chunk.failed(ex));
+                        continue;
+                    }
+                    try (in) {
+                        byte[] data;
+                        while ((data = in.readNBytes(CHUNK_SIZE)).length > 0) {
+                            put(Chunk.data(data));
+                        }
+                        put(Chunk.END);
+                    } catch (IOException | RuntimeException ex) {
+                        put(Chunk.failed(ex));
+                    }
+                }
+            } catch (InterruptedException | IOException ex) {
+                // Cancelled by the writer
+            }
+        }
+
+        /**
+         * Stream of the next entry's content
+         * @throws FileStorageException if the entry could not be opened
+         */
+        InputStream next() throws IOException {
+            Chunk first = take();
+            if (first.failure != null) {
+                throw new FileStorageException("Could not read stored file", first.failure);
+            }
+            return new ChunkInputStream(first);
+        }
+
+        void cancel() {
+            cancelled = true;
+            queue.clear();
+        }
+
+        private void put(Chunk chunk) throws InterruptedException, IOException {
+            while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (cancelled) {
+                    throw new IOException("Archive cancelled");
+                }
+            }
+        }
+
+        private Chunk take() throws IOException {
+            try {
+                return queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for prefetched data");
+            }
+        }
+
+        private final class ChunkInputStream extends InputStream {
+
+            private Chunk current;
+            private int position;
+
+            private ChunkInputStream(Chunk first) {
+                this.current = first;
+            }
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                while (current != Chunk.END && position == current.data.length) {
+                    current = take();
+                    position = 0;
+                    if (current.failure != null) {
+                        throw new IOException("Stored file could not be read completely", current.failure);
+                    }
+                }
+                if (current == Chunk.END) {
+                    return -1;
+                }
+                int count = Math.min(length, current.data.length - position);
+                System.arraycopy(current.data, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+        }
+    }
+
+    private static final class Chunk {
+
+        static final Chunk END = new Chunk(new byte[0], null);
+
+        final byte[] data;
+        final Throwable failure;
+
+        private Chunk(byte[] data, Throwable failure) {
+            this.data = data;
+            this.failure = failure;
+        }
+
+        static Chunk data(byte[] data) {
+            return new Chunk(data, null);
+        }
+
+        static Chunk failed(Throwable failure) {
+            return new Chunk(new byte[0], failure);
+        }
+    }
+}
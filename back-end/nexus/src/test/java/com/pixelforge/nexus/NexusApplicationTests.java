@@ -3,7 +3,7 @@ package com.pixelforge.nexus;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.upload.dir=target/nexus-application-tests")
 class NexusApplicationTests {
 
 	@Test
@@ -0,0 +1,35 @@
+package com.pixelforge.nexus;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * Connection settings for tests of PostgreSQL-only SQL, which H2 cannot run or runs differently
+ * Such tests are enabled when NEXUS_POSTGRES_TEST_URL points at a database (credentials from
+ * NEXUS_POSTGRES_TEST_USER / _PASSWORD). Each test class works in its own schema, created and
+ * dropped with its context, so the rest of the database is left alone.
+ */
+public final class PostgresTestSupport {
+
+    public static final String URL_VARIABLE = "NEXUS_POSTGRES_TEST_URL";
+
+    private PostgresTestSupport() {
+    }
+
+    /**
+     * Point the context at the test database and a schema of its own
+     * @param registry Registry of a @DynamicPropertySource method
+     * @param schema Schema for the test class
+     */
+    public static void register(DynamicPropertyRegistry registry, String schema) {
+        registry.add("spring.datasource.url", () -> System.getenv(URL_VARIABLE));
+        registry.add("spring.datasource.username",
+                () -> System.getenv().getOrDefault("NEXUS_POSTGRES_TEST_USER", "postgres"));
+        registry.add("spring.datasource.password",
+                () -> System.getenv().getOrDefault("NEXUS_POSTGRES_TEST_PASSWORD", "postgres"));
+        // Native queries use the search path, Hibernate the default schema
+        registry.add("spring.datasource.hikari.schema", () -> schema);
+        registry.add("spring.jpa.properties.hibernate.default_schema", () -> schema);
+        registry.add("spring.jpa.properties.hibernate.hbm2ddl.create_namespaces", () -> "true");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+}
@@ -0,0 +1,173 @@
+package com.pixelforge.nexus.controller;
+
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.metrics.JpaRequestCounter;
+import com.pixelforge.nexus.metrics.StatementCount;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.ProjectRepository;
+import com.pixelforge.nexus.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "app.upload.dir=target/project-controller-tests"
+})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class ProjectControllerTests {
+
+    private static final int PROJECTS = 500;
+    private static final int LEADS = 10;
+    private static final int DEVELOPERS = 20;
+    private static final int TEAM_SIZE = 3;
+
+    // User lookup, projects with their leads and teams, document counts, and the storage usage
+    // of projects created after startup (two aggregate queries, once)
+    private static final int LIST_STATEMENT_BUDGET = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JpaRequestCounter jpaRequestCounter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Built once for all tests; the requests under test only read
+        if (projectRepository.count() > 0) {
+            return;
+        }
+        userRepository.save(user("budget-admin", Role.ADMIN));
+        List<User> leads = new ArrayList<>();
+        for (int i = 0; i < LEADS; i++) {
+            leads.add(userRepository.save(user("budget-lead" + i, Role.PROJECT_LEAD)));
+        }
+        List<User> developers = new ArrayList<>();
+        for (int i = 0; i < DEVELOPERS; i++) {
+            developers.add(userRepository.save(user("budget-dev" + i, Role.DEVELOPER)));
+        }
+
+        List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < PROJECTS; i++) {
+            User lead = leads.get(i % LEADS);
+            Project project = new Project("Budget project " + i, "Listing budget project " + i, LocalDate.now().plusDays(30), lead);
+            Set<User> team = new HashSet<>();
+            for (int j = 0; j < TEAM_SIZE; j++) {
+                team.add(developers.get((i + j) % DEVELOPERS));
+            }
+            project.setAssignedDevelopers(team);
+            projects.add(project);
+        }
+        projects = projectRepository.saveAll(projects);
+
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < PROJECTS; i += 10) {
+            documents.add(document("file-" + i + ".pdf", projects.get(i)));
+        }
+        documentRepository.saveAll(documents);
+    }
+
+    @Test
+    @WithMockUser(username = "budget-admin", roles = "ADMIN")
+    void listsAllProjectsWithinTheStatementBudget() throws Exception {
+        assertThat(countListing(PROJECTS).getStatements()).isLessThanOrEqualTo(LIST_STATEMENT_BUDGET);
+    }
+
+    @Test
+    @WithMockUser(username = "budget-lead0", roles = "PROJECT_LEAD")
+    void listsLedProjectsWithinTheStatementBudget() throws Exception {
+        assertThat(countListing(PROJECTS / LEADS).getStatements()).isLessThanOrEqualTo(LIST_STATEMENT_BUDGET);
+    }
+
+    @Test
+    @WithMockUser(username = "budget-dev0", roles = "DEVELOPER")
+    void listsAssignedProjectsWithinTheStatementBudget() throws Exception {
+        assertThat(countListing(PROJECTS * TEAM_SIZE / DEVELOPERS).getStatements())
+                .isLessThanOrEqualTo(LIST_STATEMENT_BUDGET);
+    }
+
+    @Test
+    @WithMockUser(username = "budget-admin", roles = "ADMIN")
+    void loadsProjectDetailsAndCountsTheStatementsOfEveryLookup() throws Exception {
+        Project project = firstProject();
+
+        StatementCount count = jpaRequestCounter.count(() -> mockMvc.perform(get("/projects/" + project.getId() + "/details"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.project.name").value("Budget project 0"))
+                .andExpect(jsonPath("$.documents.documents.length()").value(1))
+                .andExpect(jsonPath("$.team.length()").value(1 + TEAM_SIZE))
+                .andExpect(jsonPath("$.team[0].username").value("budget-lead0"))
+                .andExpect(jsonPath("$.team[1].workload.activeProjects").isNumber()));
+
+        // Each lookup loads the user and the project on its own thread
+        assertThat(count.getStatements()).isGreaterThanOrEqualTo(6);
+    }
+
+    @Test
+    @WithMockUser(username = "budget-dev10", roles = "DEVELOPER")
+    void rejectsProjectDetailsOutsideTheTeam() throws Exception {
+        mockMvc.perform(get("/projects/" + firstProject().getId() + "/details"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("You don't have access to this project"));
+    }
+
+    private Project firstProject() {
+        User lead = userRepository.findByUsername("budget-lead0").orElseThrow();
+        return projectRepository.findByLead(lead).stream()
+                .filter(project -> project.getName().equals("Budget project 0"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private StatementCount countListing(int expectedProjects) throws Exception {
+        return jpaRequestCounter.count(() -> mockMvc.perform(get("/projects"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(expectedProjects)));
+    }
+
+    private User user(String username, Role role) {
+        return new User(username, username + "@example.com", "password123", "First", "Last", role);
+    }
+
+    private Document document(String name, Project project) {
+        Document document = new Document();
+        document.setFileName(name);
+        document.setOriginalFileName(name);
+        document.setFilePath(name);
+        document.setFileSize(100L);
+        document.setContentType("application/pdf");
+        document.setProject(project);
+        document.setUploadedBy(project.getLead());
+        return document;
+    }
+}
@@ -0,0 +1,123 @@
+package com.pixelforge.nexus.ingest;
+
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IngestPipelineTests {
+
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+    @Test
+    void hashesCountsAndSniffsInOnePass() throws Exception {
+        byte[] content = "hello world".getBytes(StandardCharsets.UTF_8);
+        IngestPipeline pipeline = new IngestPipeline("text/plain", 1024, List.of());
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+        pipeline.run(new ByteArrayInputStream(content), sink);
+
+        assertThat(sink.toByteArray()).isEqualTo(content);
+        assertThat(pipeline.getSize()).isEqualTo(content.length);
+        assertThat(pipeline.getDetectedContentType()).isEqualTo("text/plain");
+        assertThat(pipeline.getContentHash())
+                .isEqualTo("b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9");
+    }
+
+    @Test
+    void rejectsMistypedContentWithinTheFirstBuffer() {
+        CountingStream content = new CountingStream(withPrefix("%PDF-1.7".getBytes(StandardCharsets.US_ASCII),
+                4 * 1024 * 1024));
+        IngestPipeline pipeline = new IngestPipeline("image/png", Long.MAX_VALUE, List.of());
+
+        assertThatThrownBy(() -> pipeline.run(content, null))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessageContaining("looks like application/pdf");
+        assertThat(content.bytesRead).isLessThanOrEqualTo(64 * 1024);
+    }
+
+    @Test
+    void rejectsBinaryDeclaredAsText() {
+        byte[] content = withPrefix("text".getBytes(StandardCharsets.US_ASCII), 100);
+
+        assertThatThrownBy(() -> new IngestPipeline("text/plain", 1024, List.of())
+                .run(new ByteArrayInputStream(content), null))
+                .isInstanceOf(InvalidOperationException.class);
+    }
+
+    @Test
+    void keepsDeclaredOfficeSubtype() throws Exception {
+        byte[] content = withPrefix(new byte[]{'P', 'K', 3, 4}, 200);
+        String docx = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+        IngestPipeline pipeline = new IngestPipeline(docx, 1024, List.of());
+
+        pipeline.run(new ByteArrayInputStream(content), null);
+
+        assertThat(pipeline.getDetectedContentType()).isEqualTo(docx);
+    }
+
+    @Test
+    void stopsAtSizeLimit() {
+        byte[] content = withPrefix(PNG_MAGIC, 10_000);
+
+        assertThatThrownBy(() -> new IngestPipeline("image/png", 5_000, List.of())
+                .run(new ByteArrayInputStream(content), null))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessageContaining("File size exceeds");
+    }
+
+    @Test
+    void runsScannersOverEveryByte() throws Exception {
+        long[] scanned = new long[1];
+        IngestStage scanner = (buffer, offset, length) -> scanned[0] += length;
+        IngestPipeline pipeline = new IngestPipeline("image/png", Long.MAX_VALUE, List.of(scanner));
+
+        pipeline.run(new ByteArrayInputStream(withPrefix(PNG_MAGIC, 300_000)), null);
+
+        assertThat(scanned[0]).isEqualTo(300_000);
+        assertThat(pipeline.getDetectedContentType()).isEqualTo("image/png");
+    }
+
+    @Test
+    void scannerCanRejectContent() {
+        IngestStage scanner = (buffer, offset, length) -> {
+            throw new InvalidOperationException("Content rejected by scanner");
+        };
+
+        assertThatThrownBy(() -> new IngestPipeline("image/png", Long.MAX_VALUE, List.of(scanner))
+                .run(new ByteArrayInputStream(withPrefix(PNG_MAGIC, 100)), null))
+                .hasMessage("Content rejected by scanner");
+    }
+
+    private static byte[] withPrefix(byte[] prefix, int length) {
+        byte[] content = new byte[length];
+        System.arraycopy(prefix, 0, content, 0, prefix.length);
+        return content;
+    }
+
+    private static class CountingStream extends ByteArrayInputStream {
+        private long bytesRead;
+
+        CountingStream(byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) {
+            int read = super.read(buffer, offset, length);
+            bytesRead += Math.max(read, 0);
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer) {
+            return read(buffer, 0, buffer.length);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.pixelforge.nexus.metrics;
+
+import com.pixelforge.nexus.dto.SlowStatementDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowStatementLogTests {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void normalizesLiteralsAndLists() {
+        assertThat(SlowStatementLog.normalize("select *\n  from document d where d.id = 42 and d.name = 'it''s'"))
+                .isEqualTo("select * from document d where d.id = ? and d.name = ?");
+        assertThat(SlowStatementLog.normalize("select * from project p1_0 where p1_0.id in (?, ?, ?)"))
+                .isEqualTo(SlowStatementLog.normalize("select * from project p1_0 where p1_0.id in (?,?)"))
+                .isEqualTo("select * from project p1_0 where p1_0.id in (?...)");
+        assertThat(SlowStatementLog.normalize("insert into tag (a, b) values (?, ?), (?, ?), (?, ?)"))
+                .isEqualTo("insert into tag (a, b) values (?...), ...");
+        assertThat(SlowStatementLog.normalize("select * from users u where lower(u.username) = lower(?)"))
+                .isEqualTo("select * from users u where lower(u.username) = lower(?)");
+    }
+
+    @Test
+    void countsPlaceholdersOutsideQuotes() {
+        assertThat(SlowStatementLog.countPlaceholders("select '?' from t where a = ? and \"b?\" in (?, ?)"))
+                .isEqualTo(3);
+        assertThat(SlowStatementLog.numberPlaceholders("update t set a = ? where b = '?' and c = ?"))
+                .isEqualTo("update t set a = $1 where b = '?' and c = $2");
+    }
+
+    @Test
+    void recordsOnlyStatementsOverTheThreshold() {
+        SlowStatementLog log = slowStatementLog(Duration.ofMillis(100), 10);
+
+        log.statementExecuted("select * from project where id = ?", 99 * MILLIS);
+        log.statementExecuted(null, 500 * MILLIS);
+        assertThat(log.getTopStatements(10)).isEmpty();
+
+        log.statementExecuted("select * from project where id in (?, ?)", 150 * MILLIS);
+        log.statementExecuted("select * from project where id in (?, ?, ?, ?)", 250 * MILLIS);
+
+        List<SlowStatementDTO> statements = log.getTopStatements(10);
+        assertThat(statements).hasSize(1);
+        SlowStatementDTO statement = statements.get(0);
+        assertThat(statement.getSql()).isEqualTo("select * from project where id in (?...)");
+        assertThat(statement.getCount()).isEqualTo(2);
+        assertThat(statement.getTotalMillis()).isEqualTo(400.0);
+        assertThat(statement.getMaxMillis()).isEqualTo(250.0);
+        assertThat(statement.getMinBinds()).isEqualTo(2);
+        assertThat(statement.getMaxBinds()).isEqualTo(4);
+    }
+
+    @Test
+    void ordersByTotalTimeAndKeepsAtMostTheConfiguredStatements() {
+        SlowStatementLog log = slowStatementLog(Duration.ZERO, 2);
+
+        log.statementExecuted("select * from users", 300 * MILLIS);
+        log.statementExecuted("select * from project", 200 * MILLIS);
+        log.statementExecuted("select * from project", 200 * MILLIS);
+        log.statementExecuted("select * from document", 900 * MILLIS);
+
+        assertThat(log.getTopStatements(10)).extracting(SlowStatementDTO::getSql)
+                .containsExactly("select * from project", "select * from users");
+        assertThat(log.getTopStatements(1)).hasSize(1);
+
+        log.clear();
+        log.statementExecuted("select * from document", 900 * MILLIS);
+        assertThat(log.getTopStatements(10)).extracting(SlowStatementDTO::getSql)
+                .containsExactly("select * from document");
+    }
+
+    @Test
+    void explainsOnlyOnPostgresql() {
+        SlowStatementLog log = slowStatementLog(Duration.ZERO, 10);
+
+        log.statementExecuted("select 1", MILLIS);
+        log.statementExecuted("call refresh_statistics()", MILLIS);
+
+        assertThat(log.getTopStatements(10)).extracting(SlowStatementDTO::getPlanError)
+                .containsExactlyInAnyOrder("Plans are only captured on PostgreSQL",
+                        "Only SELECT, INSERT, UPDATE, DELETE and WITH statements are explained");
+        assertThat(log.getTopStatements(10)).extracting(SlowStatementDTO::getPlan).containsOnlyNulls();
+    }
+
+    private static SlowStatementLog slowStatementLog(Duration threshold, int maxStatements) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:slow-statement-log-tests", "sa", "");
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("dataSource", dataSource));
+        return new SlowStatementLog(threshold, maxStatements, beanFactory.getBeanProvider(DataSource.class),
+                new SyncTaskExecutor());
+    }
+}
@@ -0,0 +1,166 @@
+package com.pixelforge.nexus.repository;
+
+import com.pixelforge.nexus.PostgresTestSupport;
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.service.DocumentListing;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Document listings on PostgreSQL, whose driver cannot type a null parameter the way H2 does
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.pixelforge.nexus.repository.DocumentRepositoryPostgresTests$RecordingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = PostgresTestSupport.URL_VARIABLE, matches = ".+")
+class DocumentRepositoryPostgresTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestSupport.register(registry, "document_repository_tests");
+    }
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Project project;
+    private User lead;
+
+    @BeforeEach
+    void setUp() {
+        lead = new User("pg-lead", "pg-lead@example.com", "password123", "First", "Last", Role.PROJECT_LEAD);
+        entityManager.persist(lead);
+        project = new Project("Listing project", "Project with a few documents", LocalDate.now().plusDays(30), lead);
+        entityManager.persist(project);
+
+        for (int i = 0; i < 5; i++) {
+            Document document = new Document();
+            document.setFileName("file-" + i + ".pdf");
+            document.setOriginalFileName("file-" + i + ".pdf");
+            document.setFilePath("file-" + i + ".pdf");
+            document.setFileSize(100L);
+            document.setContentType("application/pdf");
+            document.setUploadedAt(BASE.plusMinutes(i));
+            document.setProject(project);
+            document.setUploadedBy(lead);
+            entityManager.persist(document);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void readsTheFirstPageWithoutACursor() {
+        List<DocumentListing> page = documentRepository.findListings(project.getId(), null, null, PageRequest.of(0, 3));
+
+        assertThat(page).extracting(DocumentListing::getUploadedAt)
+                .containsExactly(BASE.plusMinutes(4), BASE.plusMinutes(3), BASE.plusMinutes(2));
+    }
+
+    @Test
+    void readsTheFirstPageWithEveryFilterUnset() {
+        List<DocumentListing> page = documentRepository.findListings(null, null, null, PageRequest.of(0, 10));
+
+        assertThat(page).hasSize(5);
+    }
+
+    @Test
+    void readsTheNextPageAfterACursor() {
+        List<DocumentListing> first = documentRepository.findListings(project.getId(), lead.getId(),
+                "application/%", PageRequest.of(0, 3));
+        DocumentListing last = first.get(first.size() - 1);
+
+        List<DocumentListing> next = documentRepository.findListingsBefore(project.getId(), lead.getId(),
+                "application/%", last.getUploadedAt(), last.getId(), PageRequest.of(0, 3));
+
+        assertThat(next).extracting(DocumentListing::getUploadedAt)
+                .containsExactly(BASE.plusMinutes(1), BASE);
+    }
+
+    @Test
+    void startsTheNextPageAtTheCursorInTheListingIndex() {
+        LocalDateTime cursorUploadedAt = BASE.plusMinutes(3);
+        Long cursorId = Long.MAX_VALUE;
+        RecordingInspector.statements.clear();
+        documentRepository.findListingsBefore(project.getId(), null, null, cursorUploadedAt, cursorId,
+                PageRequest.of(0, 3));
+        String sql = RecordingInspector.statements.stream()
+                .filter(statement -> statement.contains("documents"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+
+        // Parameters in the order of the query: project, uploader and content type twice each, cursor, limit
+        String plan = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                // The few rows here would be read with a sequential scan otherwise
+                statement.execute("SET LOCAL enable_seqscan = off");
+            }
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                explain.setLong(1, project.getId());
+                explain.setLong(2, project.getId());
+                explain.setNull(3, Types.BIGINT);
+                explain.setNull(4, Types.BIGINT);
+                explain.setNull(5, Types.VARCHAR);
+                explain.setNull(6, Types.VARCHAR);
+                explain.setObject(7, cursorUploadedAt);
+                explain.setLong(8, cursorId);
+                explain.setInt(9, 3);
+                StringBuilder lines = new StringBuilder();
+                try (ResultSet rows = explain.executeQuery()) {
+                    while (rows.next()) {
+                        lines.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return lines.toString();
+            }
+        });
+
+        // The cursor bounds the index range, instead of filtering every row newer than it
+        assertThat(plan).contains("idx_documents_project_listing")
+                .containsPattern("Index Cond: .*project_id = .*ROW\\(uploaded_at, id\\) < ROW\\(")
+                .doesNotContain("Filter: ");
+    }
+
+    /**
+     * Keeps the SQL Hibernate prepares, so a query can be explained as it is sent
+     */
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.pixelforge.nexus.repository;
+
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.service.DocumentListing;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class DocumentRepositoryTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Project project;
+    private User lead;
+    private User developer;
+
+    @BeforeEach
+    void setUp() {
+        lead = user("lead", Role.PROJECT_LEAD);
+        developer = user("dev", Role.DEVELOPER);
+        project = new Project("Listing project", "Project with many documents", LocalDate.now().plusDays(30), lead);
+        entityManager.persist(project);
+
+        // Pairs share an upload time so pages must break ties on the id
+        for (int i = 0; i < 30; i++) {
+            document("file-" + i + (i % 3 == 0 ? ".png" : ".pdf"), i % 3 == 0 ? "image/png" : "application/pdf",
+                    i % 2 == 0 ? lead : developer, BASE.plusMinutes(i / 2));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void readsPagesWithOneStatementRegardlessOfSize() {
+        Statistics statistics = statistics();
+
+        for (int size : new int[]{5, 25}) {
+            statistics.clear();
+            List<DocumentListing> page = documentRepository.findListings(project.getId(), null, null,
+                    PageRequest.of(0, size));
+            page.forEach(listing -> {
+                listing.getDocument().getUploadedBy().getUsername();
+                listing.getDocument().getProject().getName();
+            });
+
+            assertThat(page).hasSize(size);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void keysetPagesCoverEveryDocumentOnceNewestFirst() {
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime beforeUploadedAt = null;
+        Long beforeId = null;
+        List<DocumentListing> page;
+        do {
+            page = beforeId == null
+                    ? documentRepository.findListings(project.getId(), null, null, PageRequest.of(0, 7))
+                    : documentRepository.findListingsBefore(project.getId(), null, null, beforeUploadedAt, beforeId,
+                            PageRequest.of(0, 7));
+            page.forEach(listing -> seen.add(listing.getId()));
+            if (!page.isEmpty()) {
+                beforeUploadedAt = page.get(page.size() - 1).getUploadedAt();
+                beforeId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 7);
+
+        List<DocumentListing> all = documentRepository.findListings(project.getId(), null, null, PageRequest.of(0, 100));
+        assertThat(seen).hasSize(30).doesNotHaveDuplicates();
+        assertThat(seen).containsExactlyElementsOf(all.stream().map(DocumentListing::getId).toList());
+        assertThat(all.get(0).getUploadedAt()).isAfterOrEqualTo(all.get(29).getUploadedAt());
+    }
+
+    @Test
+    void filtersByContentTypeAndUploader() {
+        List<DocumentListing> images = documentRepository.findListings(project.getId(), null, "image/%",
+                PageRequest.of(0, 100));
+        assertThat(images).hasSize(10)
+                .allMatch(listing -> listing.getDocument().getContentType().equals("image/png"));
+
+        List<DocumentListing> developerPdfs = documentRepository.findListings(null, developer.getId(),
+                "application/pdf", PageRequest.of(0, 100));
+        assertThat(developerPdfs).isNotEmpty()
+                .allMatch(listing -> listing.getDocument().getUploadedBy().getUsername().equals("dev"))
+                .allMatch(listing -> listing.getDocument().getContentType().equals("application/pdf"));
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private User user(String username, Role role) {
+        User user = new User(username, username + "@example.com", "password123", "First", "Last", role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private void document(String name, String contentType, User uploader, LocalDateTime uploadedAt) {
+        Document document = new Document();
+        document.setFileName(name);
+        document.setOriginalFileName(name);
+        document.setFilePath(name);
+        document.setFileSize(100L);
+        document.setContentType(contentType);
+        document.setUploadedAt(uploadedAt);
+        document.setProject(project);
+        document.setUploadedBy(uploader);
+        entityManager.persist(document);
+    }
+}
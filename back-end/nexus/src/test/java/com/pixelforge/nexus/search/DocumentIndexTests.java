@@ -0,0 +1,107 @@
+package com.pixelforge.nexus.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentIndexTests {
+
+    @TempDir
+    Path tempDir;
+
+    private DocumentIndex documentIndex;
+
+    @BeforeEach
+    void setUp() {
+        documentIndex = new DocumentIndex(tempDir.toString(), 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        documentIndex.close();
+    }
+
+    @Test
+    void requiresEveryTermAndRanksNameMatchesFirst() {
+        documentIndex.index(1L, 10L, 1, "notes.txt", null, "The boss fight needs a second phase");
+        documentIndex.index(1L, 11L, 1, "boss-fight.pdf", "Design spec", "Phases and attack patterns");
+        documentIndex.index(1L, 12L, 1, "readme.txt", null, "The boss is late");
+
+        List<DocumentHit> hits = documentIndex.search("Boss fight", List.of(1L), 10);
+
+        assertThat(hits).extracting(DocumentHit::getDocumentId).containsExactly(11L, 10L);
+    }
+
+    @Test
+    void searchesOnlyTheGivenProjects() {
+        documentIndex.index(1L, 10L, 1, "level.txt", null, "lava level");
+        documentIndex.index(2L, 20L, 1, "level.txt", null, "ice level");
+
+        assertThat(documentIndex.search("level", List.of(2L), 10))
+                .extracting(DocumentHit::getDocumentId).containsExactly(20L);
+        assertThat(documentIndex.search("level", List.of(1L, 2L, 3L), 10))
+                .extracting(DocumentHit::getDocumentId).containsExactlyInAnyOrder(10L, 20L);
+
+        documentIndex.dropProject(1L);
+
+        assertThat(documentIndex.getProjectIds()).containsExactly(2L);
+        assertThat(documentIndex.search("lava", List.of(1L, 2L), 10)).isEmpty();
+    }
+
+    @Test
+    void replacesEarlierVersionsAndSurvivesReopening() {
+        documentIndex.index(1L, 10L, 1, "story.txt", null, "dragon");
+        documentIndex.index(1L, 10L, 2, "story.txt", null, "griffin");
+        documentIndex.index(1L, 11L, 1, "old.txt", null, "dragon");
+        documentIndex.remove(1L, 11L);
+        documentIndex.commit();
+        documentIndex.close();
+
+        documentIndex = new DocumentIndex(tempDir.toString(), 64);
+
+        assertThat(documentIndex.search("dragon", List.of(1L), 10)).isEmpty();
+        assertThat(documentIndex.search("griffin", List.of(1L), 10))
+                .extracting(DocumentHit::getDocumentId).containsExactly(10L);
+        assertThat(documentIndex.getIndexedVersions(1L)).containsExactly(Map.entry(10L, 2));
+        assertThat(documentIndex.getDocumentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void closesTheLeastRecentlyUsedPartitionsAndStillSearchesThem() {
+        documentIndex.close();
+        documentIndex = new DocumentIndex(tempDir.toString(), 2);
+
+        documentIndex.index(1L, 10L, 1, "lava.txt", null, "lava level");
+        documentIndex.index(2L, 20L, 1, "ice.txt", null, "ice level");
+        documentIndex.index(1L, 11L, 1, "cave.txt", null, "cave level");
+        documentIndex.index(3L, 30L, 1, "sky.txt", null, "sky level");
+
+        // Project 2 was used least recently, so its changes were committed as it closed
+        assertThat(openPartitions()).containsOnlyKeys(1L, 3L);
+        assertThat(documentIndex.search("level", List.of(1L, 2L, 3L), 10))
+                .extracting(DocumentHit::getDocumentId).containsExactlyInAnyOrder(10L, 11L, 20L, 30L);
+        assertThat(documentIndex.getIndexedVersions(2L)).containsExactly(Map.entry(20L, 1));
+        assertThat(documentIndex.getDocumentCount()).isEqualTo(4);
+        // Reading a closed partition does not open it again
+        assertThat(openPartitions()).containsOnlyKeys(1L, 3L);
+
+        documentIndex.remove(2L, 20L);
+
+        assertThat(openPartitions()).hasSize(2).containsKey(2L);
+        assertThat(documentIndex.search("ice", List.of(2L), 10)).isEmpty();
+    }
+
+    private Map<Long, ?> openPartitions() {
+        @SuppressWarnings("unchecked")
+        Map<Long, ?> partitions = (Map<Long, ?>) ReflectionTestUtils.getField(documentIndex, "partitions");
+        return partitions;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pixelforge.nexus.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextExtractorTests {
+
+    private static final String DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+    @TempDir
+    Path tempDir;
+
+    private TextExtractor textExtractor;
+
+    @BeforeEach
+    void setUp() {
+        textExtractor = new TextExtractor();
+        ReflectionTestUtils.setField(textExtractor, "maxTextLength", 1000);
+        ReflectionTestUtils.setField(textExtractor, "maxPdfPages", 10);
+    }
+
+    @Test
+    void joinsTheRunsOfEachWordParagraph() throws Exception {
+        Path docx = tempDir.resolve("spec.docx");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(docx))) {
+            write(zip, "[Content_Types].xml", "<Types/>");
+            write(zip, "word/document.xml", "<w:document xmlns:w=\"urn:w\"><w:body>"
+                    + "<w:p><w:r><w:t>Spa</w:t></w:r><w:r><w:t>wn rules</w:t></w:r></w:p>"
+                    + "<w:p><w:r><w:t>Respawn</w:t></w:r></w:p>"
+                    + "</w:body></w:document>");
+            write(zip, "word/styles.xml", "<w:styles xmlns:w=\"urn:w\"><w:t>Heading</w:t></w:styles>");
+        }
+
+        assertThat(textExtractor.extract(docx, DOCX).split("\\s+")).containsExactly("Spawn", "rules", "Respawn");
+    }
+
+    @Test
+    void capsPlainTextAndReplacesUndecodableBytes() throws Exception {
+        ReflectionTestUtils.setField(textExtractor, "maxTextLength", 8);
+        Path text = tempDir.resolve("notes.txt");
+        Files.write(text, new byte[]{'a', 'b', (byte) 0xFF, 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j'});
+
+        assertThat(textExtractor.extract(text, "text/plain")).isEqualTo("ab�cdefg");
+        assertThat(textExtractor.isSupported("application/msword")).isFalse();
+    }
+
+    private void write(ZipOutputStream zip, String name, String content) throws Exception {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
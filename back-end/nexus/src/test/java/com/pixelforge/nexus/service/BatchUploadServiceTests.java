@@ -0,0 +1,205 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.BatchUploadItemDTO;
+import com.pixelforge.nexus.dto.BatchUploadResponseDTO;
+import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import com.pixelforge.nexus.ingest.IngestPipeline;
+import com.pixelforge.nexus.ingest.IngestPipelineFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchUploadServiceTests {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0};
+
+    private DocumentService documentService;
+    private ContentStoreService contentStoreService;
+    private StorageQuotaService storageQuotaService;
+    private BatchUploadService batchUploadService;
+    private Project project;
+    private User uploader;
+
+    @BeforeEach
+    void setUp() {
+        documentService = mock(DocumentService.class);
+        contentStoreService = mock(ContentStoreService.class);
+        storageQuotaService = mock(StorageQuotaService.class);
+        ProjectService projectService = mock(ProjectService.class);
+        UserService userService = mock(UserService.class);
+
+        project = new Project();
+        uploader = new User();
+        when(projectService.getProjectEntityById(1L)).thenReturn(project);
+        when(userService.getUserEntityByUsername("lead")).thenReturn(uploader);
+        when(documentService.canUploadToProject(project, uploader)).thenReturn(true);
+
+        // Stage through the real pipeline so sniffing and hashing run as in production
+        when(contentStoreService.stage(any(InputStream.class), any(IngestPipeline.class))).thenAnswer(invocation -> {
+            IngestPipeline pipeline = invocation.getArgument(1);
+            pipeline.run(invocation.getArgument(0), OutputStream.nullOutputStream());
+            return new StagedContent(null, pipeline.getContentHash(), pipeline.getSize(),
+                    pipeline.getDetectedContentType());
+        });
+        when(contentStoreService.commit(any(StagedContent.class), anyString()))
+                .thenAnswer(invocation -> invocation.<StagedContent>getArgument(0).getContentHash());
+        when(documentService.saveDocumentBatch(eq(project), eq(uploader), any())).thenAnswer(invocation ->
+                invocation.<List<PendingDocument>>getArgument(2).stream()
+                        .map(pending -> DocumentResponseDTO.builder()
+                                .originalFileName(pending.getOriginalFileName())
+                                .build())
+                        .collect(Collectors.toList()));
+
+        batchUploadService = new BatchUploadService();
+        ReflectionTestUtils.setField(batchUploadService, "documentService", documentService);
+        ReflectionTestUtils.setField(batchUploadService, "projectService", projectService);
+        ReflectionTestUtils.setField(batchUploadService, "userService", userService);
+        ReflectionTestUtils.setField(batchUploadService, "contentStoreService", contentStoreService);
+        ReflectionTestUtils.setField(batchUploadService, "storageQuotaService", storageQuotaService);
+        ReflectionTestUtils.setField(batchUploadService, "ingestPipelineFactory", new IngestPipelineFactory());
+        ReflectionTestUtils.setField(batchUploadService, "uploadExecutor", new SyncTaskExecutor());
+        ReflectionTestUtils.setField(batchUploadService, "maxFileSize", DataSize.ofMegabytes(10));
+        ReflectionTestUtils.setField(batchUploadService, "maxFiles", 500);
+        ReflectionTestUtils.setField(batchUploadService, "maxExpandedSize", DataSize.ofMegabytes(100));
+    }
+
+    @Test
+    void expandsArchivesAndSavesAllFilesInOneBatch() throws Exception {
+        MultipartFile notes = new MockMultipartFile("files", "notes.txt", "text/plain",
+                "hello".getBytes(StandardCharsets.UTF_8));
+        MultipartFile archive = new MockMultipartFile("files", "textures.zip", "application/zip", zip(
+                "textures/", null,
+                "textures/wood.png", PNG,
+                "__MACOSX/textures/._wood.png", new byte[]{0},
+                "readme.txt", "read me".getBytes(StandardCharsets.UTF_8)));
+
+        BatchUploadResponseDTO result = batchUploadService.uploadBatch(1L, List.of(notes, archive), null, "lead");
+
+        assertThat(result.getUploaded()).isEqualTo(3);
+        assertThat(result.getItems()).extracting(BatchUploadItemDTO::getFileName)
+                .containsExactly("notes.txt", "wood.png", "readme.txt");
+        verify(documentService, times(1)).canUploadToProject(project, uploader);
+        verify(documentService, times(1)).saveDocumentBatch(eq(project), eq(uploader), any());
+    }
+
+    @Test
+    void reportsRejectedFilesWithoutFailingTheBatch() throws Exception {
+        MultipartFile fake = new MockMultipartFile("files", "fake.png", "image/png",
+                "not an image".getBytes(StandardCharsets.UTF_8));
+        MultipartFile real = new MockMultipartFile("files", "real.png", "image/png", PNG);
+
+        BatchUploadResponseDTO result = batchUploadService.uploadBatch(1L, List.of(fake, real), null, "lead");
+
+        assertThat(result.getItems()).extracting(BatchUploadItemDTO::getStatus)
+                .containsExactly(BatchUploadItemDTO.Status.FAILED, BatchUploadItemDTO.Status.UPLOADED);
+        assertThat(result.getItems().get(0).getError()).contains("does not match its declared type");
+        assertThat(result.getItems().get(1).getDocument().getOriginalFileName()).isEqualTo("real.png");
+    }
+
+    @Test
+    void releasesContentWhenTheInsertFails() {
+        MultipartFile notes = new MockMultipartFile("files", "notes.txt", "text/plain",
+                "hello".getBytes(StandardCharsets.UTF_8));
+        when(documentService.saveDocumentBatch(eq(project), eq(uploader), any()))
+                .thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(() -> batchUploadService.uploadBatch(1L, List.of(notes), null, "lead"))
+                .isInstanceOf(IllegalStateException.class);
+
+        ArgumentCaptor<String> released = ArgumentCaptor.forClass(String.class);
+        verify(contentStoreService).release(released.capture());
+        assertThat(released.getValue()).hasSize(64);
+        verify(storageQuotaService).release(project, uploader, 5);
+    }
+
+    @Test
+    void reservesEachFileBeforeItIsStored() throws Exception {
+        MultipartFile notes = new MockMultipartFile("files", "notes.txt", "text/plain",
+                "hello".getBytes(StandardCharsets.UTF_8));
+        MultipartFile archive = new MockMultipartFile("files", "textures.zip", "application/zip", zip(
+                "textures/wood.png", PNG,
+                "readme.txt", "read me".getBytes(StandardCharsets.UTF_8)));
+        // The PNG is the entry that no longer fits
+        doThrow(new InvalidOperationException("Upload exceeds the project's storage quota of 1MB"))
+                .when(storageQuotaService).reserve(project, uploader, PNG.length);
+
+        BatchUploadResponseDTO result = batchUploadService.uploadBatch(1L, List.of(notes, archive), null, "lead");
+
+        assertThat(result.getItems()).extracting(BatchUploadItemDTO::getStatus)
+                .containsExactly(BatchUploadItemDTO.Status.UPLOADED, BatchUploadItemDTO.Status.FAILED,
+                        BatchUploadItemDTO.Status.UPLOADED);
+        assertThat(result.getItems().get(1).getError()).contains("storage quota");
+        InOrder order = inOrder(storageQuotaService, contentStoreService);
+        order.verify(storageQuotaService).reserve(project, uploader, 5);
+        order.verify(contentStoreService).commit(any(StagedContent.class), eq("text/plain"));
+        order.verify(storageQuotaService).reserve(project, uploader, 7);
+        order.verify(contentStoreService).commit(any(StagedContent.class), eq("text/plain"));
+        // The refused entry was staged to be sized, but never stored
+        verify(contentStoreService).discard(any(StagedContent.class));
+        verify(contentStoreService, times(2)).commit(any(StagedContent.class), anyString());
+        verify(storageQuotaService, never()).release(any(Project.class), any(User.class), anyLong());
+    }
+
+    @Test
+    void releasesTheReservationOfAFileThatCouldNotBeStored() {
+        MultipartFile notes = new MockMultipartFile("files", "notes.txt", "text/plain",
+                "hello".getBytes(StandardCharsets.UTF_8));
+        MultipartFile image = new MockMultipartFile("files", "real.png", "image/png", PNG);
+        when(contentStoreService.commit(any(StagedContent.class), eq("image/png")))
+                .thenThrow(new FileStorageException("disk full"));
+
+        BatchUploadResponseDTO result = batchUploadService.uploadBatch(1L, List.of(notes, image), null, "lead");
+
+        assertThat(result.getItems()).extracting(BatchUploadItemDTO::getStatus)
+                .containsExactly(BatchUploadItemDTO.Status.UPLOADED, BatchUploadItemDTO.Status.FAILED);
+        verify(storageQuotaService).reserve(project, uploader, PNG.length);
+        verify(storageQuotaService).release(project, uploader, PNG.length);
+    }
+
+    private byte[] zip(Object... entries) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zip.putNextEntry(new ZipEntry((String) entries[i]));
+                if (entries[i + 1] != null) {
+                    zip.write((byte[]) entries[i + 1]);
+                }
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
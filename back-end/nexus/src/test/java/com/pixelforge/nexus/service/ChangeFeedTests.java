@@ -0,0 +1,145 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.event.ProjectChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeFeedTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ChangeFeed feed;
+
+    @AfterEach
+    void shutDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void sendsReadyThenTheChangesOfVisibleProjects() throws Exception {
+        feed = new RecordingChangeFeed(16, Duration.ofMinutes(1), null);
+        RecordingEmitter developer = (RecordingEmitter) feed.subscribe(user(7L, Role.DEVELOPER));
+        RecordingEmitter admin = (RecordingEmitter) feed.subscribe(user(1L, Role.ADMIN));
+        assertThat(developer.next()).startsWith("event:ready");
+        assertThat(admin.next()).startsWith("event:ready");
+
+        feed.onProjectChange(new ProjectChangeEvent(ProjectChangeEvent.Type.PROJECT_UPDATED, 10L, null, Set.of(7L)));
+        feed.onProjectChange(new ProjectChangeEvent(ProjectChangeEvent.Type.DOCUMENT_UPLOADED, 20L, 5L, Set.of(8L)));
+
+        assertThat(developer.next()).contains("event:PROJECT_UPDATED").contains("\"projectId\":10");
+        assertThat(admin.next()).contains("event:PROJECT_UPDATED");
+        assertThat(admin.next()).contains("event:DOCUMENT_UPLOADED").contains("\"documentId\":5");
+        // The developer is not in the second project's team
+        assertThat(developer.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void sendsAHeartbeatWhenNothingChanged() throws Exception {
+        feed = new RecordingChangeFeed(16, Duration.ofMillis(50), null);
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(user(7L, Role.DEVELOPER));
+
+        assertThat(emitter.next()).startsWith("event:ready");
+        assertThat(emitter.next()).isEqualTo(":heartbeat\n\n");
+    }
+
+    @Test
+    void dropsASubscriberThatFallsAFullBufferBehind() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        feed = new RecordingChangeFeed(1, Duration.ofMinutes(1), stuck);
+        RecordingEmitter slow = (RecordingEmitter) feed.subscribe(user(7L, Role.DEVELOPER));
+        assertThat(feed.getSubscriberCount()).isEqualTo(1);
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The sender is stuck sending ready: the first change fills the buffer, the second overflows it
+        feed.onProjectChange(new ProjectChangeEvent(ProjectChangeEvent.Type.PROJECT_UPDATED, 10L, null, Set.of(7L)));
+        feed.onProjectChange(new ProjectChangeEvent(ProjectChangeEvent.Type.PROJECT_COMPLETED, 10L, null, Set.of(7L)));
+
+        assertThat(feed.getSubscriberCount()).isZero();
+        assertThat(registry.get("nexus.changes.evictions").counter().count()).isEqualTo(1);
+        // Evicting interrupted the stuck send, and the sender completed the emitter
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private User user(Long id, Role role) {
+        User user = new User("user" + id, "user" + id + "@example.com", "password123", "First", "Last", role);
+        user.setId(id);
+        return user;
+    }
+
+    private class RecordingChangeFeed extends ChangeFeed {
+
+        private final CountDownLatch stuck;
+
+        RecordingChangeFeed(int bufferSize, Duration heartbeat, CountDownLatch stuck) {
+            super(bufferSize, heartbeat, Duration.ofMinutes(5), registry);
+            this.stuck = stuck;
+        }
+
+        @Override
+        SseEmitter newEmitter(Duration timeout) {
+            return new RecordingEmitter(stuck);
+        }
+    }
+
+    /**
+     * Emitter that keeps the text of every event it is asked to send, optionally never finishing a send
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch stuck;
+        private final MappingJackson2HttpMessageConverter json = new MappingJackson2HttpMessageConverter();
+
+        RecordingEmitter(CountDownLatch stuck) {
+            this.stuck = stuck;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (stuck != null) {
+                try {
+                    stuck.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while sending", ex);
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType part : builder.build()) {
+                Object data = part.getData();
+                text.append(data instanceof String ? data
+                        : json.getObjectMapper().writeValueAsString(data));
+            }
+            events.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        private String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertThat(event).as("event sent within 5 seconds").isNotNull();
+            return event;
+        }
+    }
+}
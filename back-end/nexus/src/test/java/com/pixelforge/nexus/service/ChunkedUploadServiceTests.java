@@ -0,0 +1,279 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.dto.UploadSessionCreateDTO;
+import com.pixelforge.nexus.dto.UploadSessionResponseDTO;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import com.pixelforge.nexus.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChunkedUploadServiceTests {
+
+    private static final int CHUNK_SIZE = 4;
+
+    @TempDir
+    Path uploadDir;
+
+    private DocumentService documentService;
+    private ChunkedUploadService chunkedUploadService;
+    private final List<String> createdContents = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        documentService = mock(DocumentService.class);
+        ProjectService projectService = mock(ProjectService.class);
+        UserService userService = mock(UserService.class);
+
+        Project project = new Project();
+        User uploader = new User();
+        when(projectService.getProjectEntityById(1L)).thenReturn(project);
+        when(userService.getUserEntityByUsername("lead")).thenReturn(uploader);
+        when(documentService.canUploadToProject(project, uploader)).thenReturn(true);
+        // The content store consumes the file it is handed, as on commit
+        when(documentService.createDocumentFromStagedFile(eq(1L), any(Path.class), anyString(), anyString(), any(),
+                eq("lead"))).thenAnswer(invocation -> {
+                    Path staged = invocation.getArgument(1);
+                    createdContents.add(Files.readString(staged));
+                    Files.delete(staged);
+                    return DocumentResponseDTO.builder().originalFileName(invocation.getArgument(2)).build();
+                });
+
+        chunkedUploadService = new ChunkedUploadService(uploadDir.toString());
+        ReflectionTestUtils.setField(chunkedUploadService, "documentService", documentService);
+        ReflectionTestUtils.setField(chunkedUploadService, "projectService", projectService);
+        ReflectionTestUtils.setField(chunkedUploadService, "userService", userService);
+        ReflectionTestUtils.setField(chunkedUploadService, "storageQuotaService", mock(StorageQuotaService.class));
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkSize", DataSize.ofBytes(CHUNK_SIZE));
+        ReflectionTestUtils.setField(chunkedUploadService, "maxFileSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(chunkedUploadService, "sessionTtl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(chunkedUploadService, "maxSessionsPerUser", 2);
+    }
+
+    @Test
+    void assemblesChunksSentOutOfOrder() {
+        String uploadId = create("notes.txt", "text/plain", 10).getUploadId();
+
+        UploadSessionResponseDTO state = write(uploadId, 8, "ij");
+        assertThat(state.getReceivedChunks()).isEqualTo(1);
+        assertThat(state.getCommittedOffset()).isZero();
+        write(uploadId, 0, "abcd");
+        assertThat(chunkedUploadService.getSession(uploadId, "lead").getCommittedOffset()).isEqualTo(4);
+        state = write(uploadId, 4, "efgh");
+        assertThat(state.isComplete()).isTrue();
+        assertThat(state.getCommittedOffset()).isEqualTo(10);
+
+        DocumentResponseDTO document = chunkedUploadService.completeSession(uploadId, "lead");
+
+        assertThat(document.getOriginalFileName()).isEqualTo("notes.txt");
+        assertThat(createdContents).containsExactly("abcdefghij");
+        assertThatThrownBy(() -> chunkedUploadService.getSession(uploadId, "lead"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(uploadDir.resolve(".partial")).isEmptyDirectory();
+    }
+
+    @Test
+    void overwritesAChunkSentTwiceAndRejectsOverlappingChunks() {
+        String uploadId = create("notes.txt", "text/plain", 8).getUploadId();
+
+        write(uploadId, 0, "abcd");
+        UploadSessionResponseDTO state = write(uploadId, 0, "wxyz");
+        assertThat(state.getReceivedChunks()).isEqualTo(1);
+
+        // A chunk starting inside another one, or running into the next one, is refused
+        assertThatThrownBy(() -> write(uploadId, 2, "cd"))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessageContaining("multiple of 4");
+        assertThatThrownBy(() -> write(uploadId, 4, "efghij"))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessageContaining("exceeds 4 bytes");
+
+        write(uploadId, 4, "efgh");
+        chunkedUploadService.completeSession(uploadId, "lead");
+        assertThat(createdContents).containsExactly("wxyzefgh");
+    }
+
+    @Test
+    void refusesToCompleteWithMissingChunks() {
+        String uploadId = create("notes.txt", "text/plain", 10).getUploadId();
+        write(uploadId, 4, "efgh");
+
+        assertThatThrownBy(() -> chunkedUploadService.completeSession(uploadId, "lead"))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessage("Upload is incomplete: 1 of 3 chunks received");
+
+        // The session stays open for the missing chunks
+        write(uploadId, 0, "abcd");
+        write(uploadId, 8, "ij");
+        chunkedUploadService.completeSession(uploadId, "lead");
+        assertThat(createdContents).containsExactly("abcdefghij");
+    }
+
+    @Test
+    void sniffsTheFirstChunkAndDropsAMistypedUpload() {
+        // The PNG signature is 8 bytes long
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkSize", DataSize.ofBytes(16));
+        String uploadId = create("sprite.png", "image/png", 32).getUploadId();
+
+        assertThatThrownBy(() -> write(uploadId, 0, "not an image!..."))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessageContaining("does not match its declared type");
+        assertThatThrownBy(() -> chunkedUploadService.getSession(uploadId, "lead"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(uploadDir.resolve(".partial")).isEmptyDirectory();
+    }
+
+    @Test
+    void keepsTheSessionWhenCompletingFailsSoTheClientCanRetry() {
+        String uploadId = create("notes.txt", "text/plain", 4).getUploadId();
+        write(uploadId, 0, "abcd");
+        when(documentService.createDocumentFromStagedFile(eq(1L), any(Path.class), anyString(), anyString(), any(),
+                eq("lead")))
+                .thenThrow(new InvalidOperationException("Storage quota exceeded"))
+                .thenAnswer(invocation -> {
+                    createdContents.add(Files.readString(invocation.<Path>getArgument(1)));
+                    return DocumentResponseDTO.builder().build();
+                });
+
+        assertThatThrownBy(() -> chunkedUploadService.completeSession(uploadId, "lead"))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessage("Storage quota exceeded");
+        assertThat(chunkedUploadService.getSession(uploadId, "lead").isComplete()).isTrue();
+
+        chunkedUploadService.completeSession(uploadId, "lead");
+        assertThat(createdContents).containsExactly("abcd");
+        assertThat(uploadDir.resolve(".partial")).isEmptyDirectory();
+    }
+
+    @Test
+    void refusesToCompleteWhileAChunkIsStillBeingWritten() throws Exception {
+        String uploadId = create("notes.txt", "text/plain", 4).getUploadId();
+        write(uploadId, 0, "abcd");
+
+        // The chunk is sent again and stalls halfway
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream stalled = new SequenceInputStream(new ByteArrayInputStream("wx".getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    private final InputStream rest = new ByteArrayInputStream("yz".getBytes(StandardCharsets.UTF_8));
+
+                    @Override
+                    public int read() throws IOException {
+                        reading.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                            throw new IOException(ex);
+                        }
+                        return rest.read();
+                    }
+                });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<UploadSessionResponseDTO> resend = executor.submit(
+                    () -> chunkedUploadService.writeChunk(uploadId, 0, stalled, 4, "lead"));
+            assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> chunkedUploadService.completeSession(uploadId, "lead"))
+                    .isInstanceOf(InvalidOperationException.class)
+                    .hasMessageContaining("chunk still being written");
+
+            release.countDown();
+            resend.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        chunkedUploadService.completeSession(uploadId, "lead");
+        assertThat(createdContents).containsExactly("wxyz");
+    }
+
+    @Test
+    void refusesChunksWhileCompleting() {
+        String uploadId = create("notes.txt", "text/plain", 4).getUploadId();
+        write(uploadId, 0, "abcd");
+        when(documentService.createDocumentFromStagedFile(eq(1L), any(Path.class), anyString(), anyString(), any(),
+                eq("lead"))).thenAnswer(invocation -> {
+                    assertThatThrownBy(() -> write(uploadId, 0, "wxyz"))
+                            .isInstanceOf(InvalidOperationException.class)
+                            .hasMessageContaining("is being completed");
+                    createdContents.add(Files.readString(invocation.<Path>getArgument(1)));
+                    return DocumentResponseDTO.builder().build();
+                });
+
+        chunkedUploadService.completeSession(uploadId, "lead");
+        assertThat(createdContents).containsExactly("abcd");
+    }
+
+    @Test
+    void limitsTheOpenSessionsOfAUser() {
+        create("one.txt", "text/plain", 4);
+        String second = create("two.txt", "text/plain", 4).getUploadId();
+
+        assertThatThrownBy(() -> create("three.txt", "text/plain", 4))
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessageContaining("Too many open uploads");
+
+        chunkedUploadService.abortSession(second, "lead");
+        assertThat(create("three.txt", "text/plain", 4).getUploadId()).isNotNull();
+    }
+
+    @Test
+    void expiresAbandonedSessionsAndDeletesTheirChunks() throws Exception {
+        String uploadId = create("notes.txt", "text/plain", 8).getUploadId();
+        write(uploadId, 0, "abcd");
+        assertThat(uploadDir.resolve(".partial")).isNotEmptyDirectory();
+
+        ReflectionTestUtils.setField(chunkedUploadService, "sessionTtl", Duration.ofMillis(1));
+        Thread.sleep(10);
+        chunkedUploadService.expireAbandonedSessions();
+
+        assertThatThrownBy(() -> chunkedUploadService.getSession(uploadId, "lead"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(uploadDir.resolve(".partial")).isEmptyDirectory();
+        verify(documentService, never()).createDocumentFromStagedFile(any(), any(), any(), any(), any(), any());
+    }
+
+    private UploadSessionResponseDTO create(String fileName, String contentType, long size) {
+        UploadSessionCreateDTO request = new UploadSessionCreateDTO();
+        request.setFileName(fileName);
+        request.setContentType(contentType);
+        request.setFileSize(size);
+        return chunkedUploadService.createSession(1L, request, "lead");
+    }
+
+    private UploadSessionResponseDTO write(String uploadId, long offset, String chunk) {
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        return chunkedUploadService.writeChunk(uploadId, offset, new ByteArrayInputStream(bytes), -1, "lead");
+    }
+}
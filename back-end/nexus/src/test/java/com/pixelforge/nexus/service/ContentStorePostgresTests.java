@@ -0,0 +1,212 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.PostgresTestSupport;
+import com.pixelforge.nexus.dto.DocumentResponseDTO;
+import com.pixelforge.nexus.dto.UploadByHashDTO;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.StoredBlob;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.exception.ResourceNotFoundException;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.ProjectRepository;
+import com.pixelforge.nexus.repository.StoredBlobRepository;
+import com.pixelforge.nexus.repository.UserRepository;
+import com.pixelforge.nexus.storage.StorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reference counting of shared content, which relies on PostgreSQL upserts and advisory locks
+ */
+@SpringBootTest(properties = "app.upload.dir=target/content-store-postgres-tests")
+@EnabledIfEnvironmentVariable(named = PostgresTestSupport.URL_VARIABLE, matches = ".+")
+class ContentStorePostgresTests {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestSupport.register(registry, "content_store_tests");
+    }
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    private User lead;
+    private Project first;
+    private Project second;
+    private Project otherLeadsProject;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        lead = userRepository.save(user("lead-" + suffix));
+        User otherLead = userRepository.save(user("other-" + suffix));
+        first = projectRepository.save(project("First " + suffix, lead));
+        second = projectRepository.save(project("Second " + suffix, lead));
+        otherLeadsProject = projectRepository.save(project("Other " + suffix, otherLead));
+    }
+
+    @Test
+    void countsSharedContentOnceAndReleasesItDownToZero() {
+        String content = "Level design notes " + UUID.randomUUID();
+        DocumentResponseDTO one = upload(first, "notes.txt", content);
+        DocumentResponseDTO two = upload(second, "copy.txt", content);
+        String hash = hashOf(one);
+
+        assertThat(hashOf(two)).isEqualTo(hash);
+        StoredBlob blob = blob(hash);
+        assertThat(blob.getRefCount()).isEqualTo(2);
+        assertThat(blob.getReleasedAt()).isNull();
+
+        documentService.deleteDocument(one.getId(), lead.getUsername());
+        assertThat(blob(hash).getRefCount()).isEqualTo(1);
+        assertThat(storageBackend.exists(blob.getFilePath())).isTrue();
+
+        documentService.deleteDocument(two.getId(), lead.getUsername());
+        blob = blob(hash);
+        assertThat(blob.getRefCount()).isZero();
+        assertThat(blob.getReleasedAt()).isNotNull();
+        // The collector reclaims the file after its grace period
+        assertThat(storageBackend.exists(blob.getFilePath())).isTrue();
+    }
+
+    @Test
+    void uploadsByHashAsAnotherReference() {
+        String content = "Sprite sheet index " + UUID.randomUUID();
+        String hash = hashOf(upload(first, "index.txt", content));
+
+        DocumentResponseDTO byHash = documentService.uploadDocumentByHash(second.getId(),
+                byHash(hash, "index-copy.txt", content.length()), lead.getUsername());
+
+        assertThat(hashOf(byHash)).isEqualTo(hash);
+        assertThat(byHash.getFileSize()).isEqualTo(content.length());
+        assertThat(blob(hash).getRefCount()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsAnUnknownHashWithNotFound() {
+        String content = "Known content " + UUID.randomUUID();
+        String hash = hashOf(upload(first, "known.txt", content));
+        String unknown = "0".repeat(64);
+
+        assertThatThrownBy(() -> documentService.uploadDocumentByHash(second.getId(),
+                byHash(unknown, "unknown.txt", 10), lead.getUsername()))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Content not found: " + unknown);
+        // A known hash with another size does not match either
+        assertThatThrownBy(() -> documentService.uploadDocumentByHash(second.getId(),
+                byHash(hash, "known.txt", content.length() + 1), lead.getUsername()))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        assertThat(storedBlobRepository.findById(unknown)).isEmpty();
+        assertThat(blob(hash).getRefCount()).isEqualTo(1);
+    }
+
+    @Test
+    void hidesContentOnlyStoredInProjectsOfOtherLeads() {
+        String content = "Another lead's content " + UUID.randomUUID();
+        DocumentResponseDTO theirs = upload(otherLeadsProject, "theirs.txt", content,
+                otherLeadsProject.getLead().getUsername());
+
+        assertThatThrownBy(() -> documentService.uploadDocumentByHash(first.getId(),
+                byHash(hashOf(theirs), "mine.txt", content.length()), lead.getUsername()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(blob(hashOf(theirs)).getRefCount()).isEqualTo(1);
+    }
+
+    @Test
+    void describesTheFileStoredAgainAfterItsFileWasLost() throws Exception {
+        String content = "Compressible changelog line\n".repeat(500) + UUID.randomUUID();
+        String hash = hashOf(upload(first, "changelog.txt", content));
+        StoredBlob compressed = blob(hash);
+        assertThat(compressed.getContentEncoding()).isNotNull();
+        assertThat(compressed.getStoredSize()).isLessThan(content.length());
+
+        // Stored again uncompressed while the blob row still records the compressed file
+        storageBackend.delete(compressed.getFilePath());
+        ContentStoreService target = AopTestUtils.getTargetObject(contentStoreService);
+        ReflectionTestUtils.setField(target, "compressionEnabled", false);
+        try {
+            upload(second, "changelog-copy.txt", content);
+        } finally {
+            ReflectionTestUtils.setField(target, "compressionEnabled", true);
+        }
+
+        StoredBlob stored = blob(hash);
+        assertThat(stored.getRefCount()).isEqualTo(2);
+        assertThat(stored.getContentEncoding()).isNull();
+        assertThat(stored.getStoredSize()).isEqualTo(content.length());
+        try (InputStream in = contentStoreService.openContent(stored.getFilePath(), hash)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(content);
+        }
+    }
+
+    private DocumentResponseDTO upload(Project project, String fileName, String content) {
+        return upload(project, fileName, content, lead.getUsername());
+    }
+
+    private DocumentResponseDTO upload(Project project, String fileName, String content, String username) {
+        MockMultipartFile file = new MockMultipartFile("file", fileName, "text/plain",
+                content.getBytes(StandardCharsets.UTF_8));
+        return documentService.uploadDocument(project.getId(), file, null, username);
+    }
+
+    private UploadByHashDTO byHash(String hash, String fileName, long size) {
+        UploadByHashDTO request = new UploadByHashDTO();
+        request.setSha256(hash);
+        request.setFileName(fileName);
+        request.setContentType("text/plain");
+        request.setFileSize(size);
+        return request;
+    }
+
+    private String hashOf(DocumentResponseDTO document) {
+        return documentRepository.findById(document.getId()).orElseThrow().getContentHash();
+    }
+
+    private StoredBlob blob(String hash) {
+        return storedBlobRepository.findById(hash).orElseThrow();
+    }
+
+    private User user(String username) {
+        return new User(username, username + "@example.com", "password123", "First", "Last", Role.PROJECT_LEAD);
+    }
+
+    private Project project(String name, User lead) {
+        return new Project(name, name + " description", LocalDate.now().plusDays(30), lead);
+    }
+}
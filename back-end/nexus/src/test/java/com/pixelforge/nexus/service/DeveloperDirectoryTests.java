@@ -0,0 +1,86 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.DeveloperSuggestionDTO;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeveloperDirectoryTests {
+
+    private DeveloperDirectory directory;
+    private User ada;
+    private User adam;
+    private User grace;
+
+    @BeforeEach
+    void setUp() {
+        ada = developer(1L, "alovelace", "Ada", "Lovelace");
+        adam = developer(2L, "asmith", "Adam", "Smith");
+        grace = developer(3L, "ghopper", "Grace", "Hopper");
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findActiveUsersByRole(Role.DEVELOPER)).thenReturn(List.of(ada, adam, grace));
+
+        directory = new DeveloperDirectory();
+        ReflectionTestUtils.setField(directory, "userRepository", userRepository);
+        directory.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void matchesAnyNameOnceInKeyOrder() {
+        assertThat(ids(directory.suggest("AD", 10))).containsExactly(1L, 2L);
+        assertThat(ids(directory.suggest("ada l", 10))).containsExactly(1L);
+        assertThat(ids(directory.suggest("hop", 10))).containsExactly(3L);
+        assertThat(ids(directory.suggest("", 2))).containsExactly(1L, 2L);
+        assertThat(directory.suggest("zed", 10)).isEmpty();
+    }
+
+    @Test
+    void appliesChangesOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        grace.setEnabled(false);
+        directory.updateAfterCommit(grace);
+        adam.setRole(Role.PROJECT_LEAD);
+        directory.updateAfterCommit(adam);
+
+        assertThat(ids(directory.suggest("", 10))).containsExactly(1L, 2L, 3L);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(ids(directory.suggest("", 10))).containsExactly(1L);
+        assertThat(directory.suggest("g", 10)).isEmpty();
+    }
+
+    private List<Long> ids(List<DeveloperSuggestionDTO> suggestions) {
+        return suggestions.stream().map(DeveloperSuggestionDTO::getId).toList();
+    }
+
+    private User developer(Long id, String username, String firstName, String lastName) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setRole(Role.DEVELOPER);
+        user.setEnabled(true);
+        return user;
+    }
+}
@@ -0,0 +1,85 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.DeveloperWorkloadDTO;
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeveloperWorkloadIndexTests {
+
+    private final LocalDate today = LocalDate.now();
+
+    private DeveloperWorkloadIndex workloadIndex;
+
+    @BeforeEach
+    void setUp() {
+        ProjectRepository projectRepository = mock(ProjectRepository.class);
+        when(projectRepository.findActiveAssignments()).thenReturn(List.of(
+                new WorkloadAssignment(1L, today.minusDays(3), 10L),
+                new WorkloadAssignment(1L, today.minusDays(3), 11L),
+                new WorkloadAssignment(2L, today.plusDays(5), 10L),
+                new WorkloadAssignment(3L, today.plusDays(20), 10L)));
+
+        workloadIndex = new DeveloperWorkloadIndex();
+        ReflectionTestUtils.setField(workloadIndex, "projectRepository", projectRepository);
+        workloadIndex.seed();
+    }
+
+    @Test
+    void countsActiveAndOverdueProjectsAndTheNextDeadline() {
+        DeveloperWorkloadDTO workload = workloadIndex.getWorkload(10L);
+
+        assertThat(workload.getActiveProjects()).isEqualTo(3);
+        assertThat(workload.getOverdueProjects()).isEqualTo(1);
+        assertThat(workload.getNearestDeadline()).isEqualTo(today.plusDays(5));
+        assertThat(workloadIndex.getWorkload(99L).getActiveProjects()).isZero();
+    }
+
+    @Test
+    void followsReassignmentCompletionAndReactivation() {
+        Project project = project(2L, today.plusDays(5), developer(11L));
+        workloadIndex.updateAfterCommit(project);
+
+        assertThat(workloadIndex.getWorkload(10L).getActiveProjects()).isEqualTo(2);
+        assertThat(workloadIndex.getWorkload(10L).getNearestDeadline()).isEqualTo(today.plusDays(20));
+        assertThat(workloadIndex.getWorkload(11L).getActiveProjects()).isEqualTo(2);
+
+        project.markAsCompleted();
+        workloadIndex.updateAfterCommit(project);
+        assertThat(workloadIndex.getWorkload(11L).getActiveProjects()).isEqualTo(1);
+        assertThat(workloadIndex.getWorkload(11L).getNearestDeadline()).isNull();
+
+        project.reactivate();
+        workloadIndex.updateAfterCommit(project);
+        assertThat(workloadIndex.getWorkload(11L).getActiveProjects()).isEqualTo(2);
+
+        workloadIndex.removeAfterCommit(1L);
+        assertThat(workloadIndex.getWorkload(11L).getOverdueProjects()).isZero();
+        assertThat(workloadIndex.getWorkload(10L).getOverdueProjects()).isZero();
+    }
+
+    private Project project(Long id, LocalDate deadline, User... developers) {
+        Project project = new Project();
+        project.setId(id);
+        project.setDeadline(deadline);
+        project.setAssignedDevelopers(Set.of(developers));
+        return project;
+    }
+
+    private User developer(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
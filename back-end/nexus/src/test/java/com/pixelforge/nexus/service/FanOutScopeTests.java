@@ -0,0 +1,126 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.exception.ResourceNotFoundException;
+import com.pixelforge.nexus.metrics.JpaRequestCounter;
+import com.pixelforge.nexus.metrics.StatementCount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FanOutScopeTests {
+
+    private final JpaRequestCounter counter = new JpaRequestCounter();
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void runsLookupsConcurrently() throws Exception {
+        CountDownLatch started = new CountDownLatch(3);
+        long start = System.nanoTime();
+        try (FanOutScope scope = new FanOutScope("test", counter)) {
+            Future<Integer> first = scope.fork(() -> lookup(started, 1));
+            Future<Integer> second = scope.fork(() -> lookup(started, 2));
+            Future<Integer> third = scope.fork(() -> lookup(started, 3));
+            scope.join();
+
+            assertThat(first.resultNow() + second.resultNow() + third.resultNow()).isEqualTo(6);
+        }
+        // Each lookup waits until all three have started, so they cannot have run one after another
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(5);
+    }
+
+    @Test
+    void runsDelayedLookupsSideBySide() throws Exception {
+        long start = System.nanoTime();
+        try (FanOutScope scope = new FanOutScope("test", counter)) {
+            for (long delay : new long[]{200, 400, 600}) {
+                scope.fork(() -> {
+                    Thread.sleep(delay);
+                    return delay;
+                });
+            }
+            scope.join();
+        }
+        // Close to the longest delay, well below the 1.2s the lookups take one after another
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isBetween(600L, 1000L);
+    }
+
+    @Test
+    void rethrowsTheFirstFailureWithoutInterruptingTheOtherLookups() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean finished = new AtomicBoolean();
+        try (FanOutScope scope = new FanOutScope("test", counter)) {
+            scope.fork(() -> {
+                running.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    interrupted.set(true);
+                    throw ex;
+                }
+                finished.set(true);
+                return "slow";
+            });
+            scope.fork(() -> {
+                // Fail once the other lookup is running; one not yet started would never run
+                running.await(5, TimeUnit.SECONDS);
+                throw new ResourceNotFoundException("Project not found with id: 1");
+            });
+
+            // The failure is reported without waiting for the running lookup
+            assertThatThrownBy(scope::join)
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessage("Project not found with id: 1");
+            assertThat(finished).isFalse();
+            release.countDown();
+        }
+        // Closing waited for the running lookup, which was left to finish its work
+        assertThat(finished).isTrue();
+        assertThat(interrupted).isFalse();
+    }
+
+    @Test
+    void runsLookupsWithTheCallersSecurityContextAndStatementCount() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("lead", null));
+        StatementCount before = counter.snapshot();
+
+        try (FanOutScope scope = new FanOutScope("test", counter)) {
+            Future<String> user = scope.fork(() -> {
+                counter.statementExecuted("select 1", 1_000);
+                return SecurityContextHolder.getContext().getAuthentication().getName();
+            });
+            scope.fork(() -> {
+                counter.statementExecuted("select 2", 2_000);
+                return null;
+            });
+            scope.join();
+
+            assertThat(user.resultNow()).isEqualTo("lead");
+        }
+        StatementCount count = counter.snapshot().since(before);
+        assertThat(count.getStatements()).isEqualTo(2);
+        assertThat(count.getStatementNanos()).isEqualTo(3_000);
+    }
+
+    private static int lookup(CountDownLatch started, int value) throws InterruptedException {
+        started.countDown();
+        if (!started.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Lookups did not run concurrently");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,144 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.dto.StorageGcReportDTO;
+import com.pixelforge.nexus.entity.StorageTombstone;
+import com.pixelforge.nexus.entity.StoredBlob;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.DocumentVersionRepository;
+import com.pixelforge.nexus.repository.StorageTombstoneRepository;
+import com.pixelforge.nexus.repository.StoredBlobRepository;
+import com.pixelforge.nexus.storage.ContentCache;
+import com.pixelforge.nexus.storage.LocalShardedStorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StorageGarbageCollectorTests {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalShardedStorageBackend backend;
+    private StoredBlobRepository storedBlobRepository;
+    private DocumentRepository documentRepository;
+    private StorageTombstoneRepository storageTombstoneRepository;
+    private ThumbnailService thumbnailService;
+    private StorageGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        backend = new LocalShardedStorageBackend(tempDir.resolve("store"));
+        storedBlobRepository = mock(StoredBlobRepository.class);
+        documentRepository = mock(DocumentRepository.class);
+        storageTombstoneRepository = mock(StorageTombstoneRepository.class);
+        thumbnailService = mock(ThumbnailService.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        collector = new StorageGarbageCollector();
+        ReflectionTestUtils.setField(collector, "storageBackend", backend);
+        ReflectionTestUtils.setField(collector, "storedBlobRepository", storedBlobRepository);
+        ReflectionTestUtils.setField(collector, "documentRepository", documentRepository);
+        ReflectionTestUtils.setField(collector, "documentVersionRepository", mock(DocumentVersionRepository.class));
+        ReflectionTestUtils.setField(collector, "storageTombstoneRepository", storageTombstoneRepository);
+        ReflectionTestUtils.setField(collector, "thumbnailService", thumbnailService);
+        ReflectionTestUtils.setField(collector, "contentCache", mock(ContentCache.class));
+        ReflectionTestUtils.setField(collector, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(collector, "gracePeriod", Duration.ofHours(1));
+        ReflectionTestUtils.setField(collector, "maxDeletesPerSecond", 0);
+        ReflectionTestUtils.setField(collector, "batchSize", 200);
+    }
+
+    @Test
+    void reclaimsUnreferencedBlobsOnly() throws Exception {
+        StoredBlob released = blob("aaaa1111", 100L);
+        StoredBlob reacquired = blob("bbbb2222", 50L);
+        store("aaaa1111", "released content", true);
+        store("bbbb2222", "reacquired", true);
+        when(storedBlobRepository.findCollectable(anyString(), any(), any())).thenReturn(List.of(released, reacquired));
+        when(storedBlobRepository.findUnreferenced("aaaa1111")).thenReturn(Optional.of(released));
+        when(storedBlobRepository.findUnreferenced("bbbb2222")).thenReturn(Optional.empty());
+        when(storedBlobRepository.findFilePathsIn(anyCollection())).thenReturn(List.of("bbbb2222"));
+
+        StorageGcReportDTO report = collector.collect();
+
+        assertThat(backend.exists("aaaa1111")).isFalse();
+        assertThat(backend.exists("bbbb2222")).isTrue();
+        assertThat(report.getBlobsReclaimed()).isEqualTo(1);
+        assertThat(report.getBytesReclaimed()).isEqualTo(100);
+        verify(thumbnailService).evict("aaaa1111");
+    }
+
+    @Test
+    void removesOldOrphansAndKeepsReferencedOrRecentFiles() throws Exception {
+        store("cccc0001", "orphan", true);
+        store("cccc0002", "referenced by a document", true);
+        store("cccc0003", "just uploaded", false);
+        when(documentRepository.findFilePathsIn(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).contains("cccc0002")
+                        ? List.of("cccc0002")
+                        : List.of());
+
+        StorageGcReportDTO report = collector.collect();
+
+        assertThat(backend.exists("cccc0001")).isFalse();
+        assertThat(backend.exists("cccc0002")).isTrue();
+        assertThat(backend.exists("cccc0003")).isTrue();
+        assertThat(report.getOrphansRemoved()).isEqualTo(1);
+        assertThat(report.getBytesReclaimed()).isEqualTo("orphan".length());
+    }
+
+    @Test
+    void clearsTombstones() throws Exception {
+        store("legacy-file.pdf", "deleted document", false);
+        StorageTombstone tombstone = new StorageTombstone("legacy-file.pdf", 16L);
+        tombstone.setId(7L);
+        when(storageTombstoneRepository.findCollectable(anyLong(), any(), any())).thenReturn(List.of(tombstone));
+        when(storageTombstoneRepository.findStorageKeysIn(anyCollection())).thenReturn(List.of("legacy-file.pdf"));
+
+        StorageGcReportDTO report = collector.collect();
+
+        assertThat(backend.exists("legacy-file.pdf")).isFalse();
+        assertThat(report.getTombstonesCleared()).isEqualTo(1);
+        verify(storageTombstoneRepository).deleteById(eq(7L));
+        verify(thumbnailService).evict("legacy-file.pdf");
+    }
+
+    private void store(String key, String content, boolean old) throws Exception {
+        backend.put(key, Files.writeString(tempDir.resolve("source-" + key), content));
+        if (old) {
+            Files.setLastModifiedTime(backend.resolve(key), FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        }
+    }
+
+    private StoredBlob blob(String contentHash, long storedSize) {
+        StoredBlob blob = new StoredBlob();
+        blob.setContentHash(contentHash);
+        blob.setFilePath(contentHash);
+        blob.setFileSize(storedSize);
+        blob.setStoredSize(storedSize);
+        return blob;
+    }
+}
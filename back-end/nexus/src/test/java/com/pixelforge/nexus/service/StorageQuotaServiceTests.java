@@ -0,0 +1,129 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.entity.Project;
+import com.pixelforge.nexus.entity.Role;
+import com.pixelforge.nexus.entity.User;
+import com.pixelforge.nexus.exception.InvalidOperationException;
+import com.pixelforge.nexus.repository.DocumentRepository;
+import com.pixelforge.nexus.repository.DocumentVersionRepository;
+import com.pixelforge.nexus.repository.ProjectRepository;
+import com.pixelforge.nexus.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StorageQuotaServiceTests {
+
+    private DocumentRepository documentRepository;
+    private ProjectRepository projectRepository;
+    private StorageQuotaService quotaService;
+    private Project project;
+    private User developer;
+
+    @BeforeEach
+    void setUp() {
+        documentRepository = mock(DocumentRepository.class);
+        DocumentVersionRepository documentVersionRepository = mock(DocumentVersionRepository.class);
+        projectRepository = mock(ProjectRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(documentRepository.sumFileSizesByProject(1L)).thenReturn(List.of(new StorageUsage(1L, 600L)));
+
+        quotaService = new StorageQuotaService();
+        ReflectionTestUtils.setField(quotaService, "documentRepository", documentRepository);
+        ReflectionTestUtils.setField(quotaService, "documentVersionRepository", documentVersionRepository);
+        ReflectionTestUtils.setField(quotaService, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(quotaService, "userRepository", mock(UserRepository.class));
+        ReflectionTestUtils.setField(quotaService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(quotaService, "defaultProjectQuota", DataSize.ofBytes(1000));
+        ReflectionTestUtils.setField(quotaService, "defaultUserQuota", DataSize.ofBytes(0));
+
+        project = new Project();
+        project.setId(1L);
+        developer = new User();
+        developer.setId(7L);
+        developer.setUsername("dev");
+        developer.setRole(Role.DEVELOPER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void concurrentReservationsNeverExceedTheQuota() throws Exception {
+        // Racing first uses may each load the counter; only one is kept
+        assertThat(quotaService.getProjectUsage(1L)).isEqualTo(600);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    quotaService.reserve(project, developer, 10);
+                    accepted.incrementAndGet();
+                } catch (InvalidOperationException | InterruptedException ignored) {
+                    // Over quota
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(accepted.get()).isEqualTo(40);
+        assertThat(quotaService.getProjectUsage(1L)).isEqualTo(1000);
+        // Never reloaded from the database while reserving
+        verify(documentRepository).sumFileSizesByProject(1L);
+    }
+
+    @Test
+    void rolledBackUploadsGiveTheirReservationBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        quotaService.reserve(project, developer, 300);
+        assertThat(quotaService.getProjectUsage(1L)).isEqualTo(900);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(quotaService.getProjectUsage(1L)).isEqualTo(600);
+        assertThatThrownBy(() -> quotaService.reserve(project, developer, 401))
+                .isInstanceOf(InvalidOperationException.class);
+    }
+
+    @Test
+    void persistsChangedCountersOnFlush() {
+        quotaService.reserve(project, developer, 100);
+        quotaService.releaseAfterCommit(1L, 7L, 50);
+
+        quotaService.flush();
+        quotaService.flush();
+
+        verify(projectRepository).updateStorageUsed(eq(1L), eq(650L));
+    }
+}
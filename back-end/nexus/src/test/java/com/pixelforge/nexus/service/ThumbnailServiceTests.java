@@ -0,0 +1,99 @@
+package com.pixelforge.nexus.service;
+
+import com.pixelforge.nexus.entity.Document;
+import com.pixelforge.nexus.exception.ResourceNotFoundException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ThumbnailServiceTests {
+
+    @TempDir
+    Path tempDir;
+
+    private ContentStoreService contentStoreService;
+    private ThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        contentStoreService = mock(ContentStoreService.class);
+        thumbnailService = new ThumbnailService(tempDir.toString());
+        ReflectionTestUtils.setField(thumbnailService, "contentStoreService", contentStoreService);
+        ReflectionTestUtils.setField(thumbnailService, "thumbnailExecutor", new SyncTaskExecutor());
+        ReflectionTestUtils.setField(thumbnailService, "thumbnailSize", 320);
+        ReflectionTestUtils.setField(thumbnailService, "requestTimeout", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void downscalesImagesToFitTheThumbnailBox() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB), "png", png);
+        when(contentStoreService.openContent(eq("image-key"), any()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(png.toByteArray()));
+
+        Path thumbnail = thumbnailService.getThumbnail(document("image-key", "image/png")).orElseThrow();
+
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        assertThat(image.getWidth()).isEqualTo(320);
+        assertThat(image.getHeight()).isEqualTo(160);
+    }
+
+    @Test
+    void rendersFirstPdfPage() throws Exception {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.save(pdf);
+        }
+        when(contentStoreService.localContentPath(eq("pdf-key"), any())).thenReturn(Optional.empty());
+        when(contentStoreService.openContent(eq("pdf-key"), any()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(pdf.toByteArray()));
+
+        Path thumbnail = thumbnailService.getThumbnail(document("pdf-key", "application/pdf")).orElseThrow();
+
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        assertThat(image.getHeight()).isEqualTo(320);
+        assertThat(image.getWidth()).isLessThan(320);
+    }
+
+    @Test
+    void doesNotRetryUnreadableFiles() {
+        when(contentStoreService.openContent(eq("broken-key"), any()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        Document document = document("broken-key", "image/png");
+
+        assertThatThrownBy(() -> thumbnailService.getThumbnail(document))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> thumbnailService.getThumbnail(document))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private Document document(String storageKey, String contentType) {
+        Document document = new Document();
+        document.setId(1L);
+        document.setFilePath(storageKey);
+        document.setFileName(storageKey);
+        document.setContentType(contentType);
+        return document;
+    }
+}
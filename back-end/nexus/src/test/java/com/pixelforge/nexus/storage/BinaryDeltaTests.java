@@ -0,0 +1,94 @@
+package com.pixelforge.nexus.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryDeltaTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void encodesSmallEditsOfALargeFileCompactly() throws Exception {
+        byte[] base = randomBytes(2 * 1024 * 1024, 1);
+        byte[] target = Arrays.copyOf(base, base.length);
+        // Overwrite a few bytes, insert a run and cut another out
+        target[1000] ^= 0x55;
+        target = splice(target, 500_000, randomBytes(4096, 2), 0);
+        target = splice(target, 1_500_000, new byte[0], 8192);
+
+        byte[] delta = encode(base, target);
+
+        assertThat(delta.length).isLessThan(16 * 1024);
+        assertThat(apply(base, delta)).isEqualTo(target);
+    }
+
+    @Test
+    void rebuildsUnrelatedAndEmptyFiles() throws Exception {
+        byte[] base = randomBytes(100_000, 3);
+        byte[] unrelated = randomBytes(50_000, 4);
+
+        assertThat(apply(base, encode(base, unrelated))).isEqualTo(unrelated);
+        assertThat(apply(base, encode(base, new byte[0]))).isEmpty();
+        assertThat(apply(new byte[0], encode(new byte[0], unrelated))).isEqualTo(unrelated);
+        assertThat(apply(base, encode(base, base))).isEqualTo(base);
+    }
+
+    @Test
+    void rejectsDeltasThatDoNotFitTheirBase() throws Exception {
+        byte[] base = randomBytes(100_000, 5);
+        byte[] delta = encode(base, Arrays.copyOf(base, 90_000));
+
+        assertThatThrownBy(() -> apply(Arrays.copyOf(base, 1000), delta)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> apply(base, Arrays.copyOf(delta, delta.length - 1)))
+                .isInstanceOf(IOException.class);
+    }
+
+    private byte[] encode(byte[] base, byte[] target) throws IOException {
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        try (FileChannel baseChannel = FileChannel.open(write("base", base), StandardOpenOption.READ);
+             FileChannel targetChannel = FileChannel.open(write("target", target), StandardOpenOption.READ)) {
+            BinaryDelta.encode(baseChannel, targetChannel, delta);
+        }
+        return delta.toByteArray();
+    }
+
+    private byte[] apply(byte[] base, byte[] delta) throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (FileChannel baseChannel = FileChannel.open(write("base", base), StandardOpenOption.READ)) {
+            BinaryDelta.apply(baseChannel, new ByteArrayInputStream(delta), target);
+        }
+        return target.toByteArray();
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(Files.createTempFile(tempDir, name, ".bin"), content);
+    }
+
+    private byte[] splice(byte[] bytes, int at, byte[] insert, int remove) {
+        byte[] result = new byte[bytes.length + insert.length - remove];
+        System.arraycopy(bytes, 0, result, 0, at);
+        System.arraycopy(insert, 0, result, at, insert.length);
+        System.arraycopy(bytes, at + remove, result, at + insert.length, bytes.length - at - remove);
+        return result;
+    }
+
+    private byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
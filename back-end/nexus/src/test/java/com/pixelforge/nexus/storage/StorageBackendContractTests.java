@@ -0,0 +1,152 @@
+package com.pixelforge.nexus.storage;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Behaviour every storage backend must share
+ * The S3 variant runs against an S3-compatible server such as MinIO when
+ * NEXUS_S3_TEST_ENDPOINT is set (credentials from NEXUS_S3_TEST_ACCESS_KEY / _SECRET_KEY).
+ */
+class StorageBackendContractTests {
+
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    abstract static class Contract {
+
+        @TempDir
+        Path tempDir;
+
+        abstract StorageBackend backend();
+
+        @Test
+        void storesAndReadsContent() throws Exception {
+            StorageBackend backend = backend();
+            String key = newKey();
+            Path source = Files.writeString(tempDir.resolve("source"), CONTENT);
+
+            backend.put(key, source);
+
+            assertThat(source).doesNotExist();
+            assertThat(backend.exists(key)).isTrue();
+            assertThat(backend.size(key)).isEqualTo(CONTENT.length());
+            try (InputStream in = backend.open(key)) {
+                assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(CONTENT);
+            }
+            backend.delete(key);
+        }
+
+        @Test
+        void readsByteWindow() throws Exception {
+            StorageBackend backend = backend();
+            String key = newKey();
+            backend.put(key, Files.writeString(tempDir.resolve("source"), CONTENT));
+
+            try (InputStream in = backend.open(key, 10, 6)) {
+                assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("abcdef");
+            }
+            backend.delete(key);
+        }
+
+        @Test
+        void deletesAndIgnoresMissingKeys() throws Exception {
+            StorageBackend backend = backend();
+            String key = newKey();
+            backend.put(key, Files.writeString(tempDir.resolve("source"), CONTENT));
+
+            backend.delete(key);
+            backend.delete(key);
+
+            assertThat(backend.exists(key)).isFalse();
+        }
+
+        @Test
+        void listsStoredObjects() throws Exception {
+            StorageBackend backend = backend();
+            String key = newKey();
+            backend.put(key, Files.writeString(tempDir.resolve("source"), CONTENT));
+
+            try (Stream<StoredObject> objects = backend.list()) {
+                assertThat(objects.filter(object -> object.getKey().equals(key)))
+                        .singleElement()
+                        .satisfies(object -> assertThat(object.getSize()).isEqualTo(CONTENT.length()));
+            }
+            backend.delete(key);
+        }
+
+        private String newKey() {
+            return UUID.randomUUID().toString().replace("-", "");
+        }
+    }
+
+    @Nested
+    class Local extends Contract {
+
+        @Override
+        StorageBackend backend() {
+            return new LocalShardedStorageBackend(tempDir.resolve("store"));
+        }
+
+        @Test
+        void shardsKeysIntoNestedDirectories() {
+            LocalShardedStorageBackend backend = new LocalShardedStorageBackend(tempDir.resolve("store"));
+
+            assertThat(backend.resolve("abcdef0123"))
+                    .isEqualTo(backend.getRoot().resolve("ab").resolve("cd").resolve("abcdef0123"));
+        }
+
+        @Test
+        void listsOnlyShardedObjects() throws Exception {
+            LocalShardedStorageBackend backend = new LocalShardedStorageBackend(tempDir.resolve("store"));
+            backend.put("abcdef0123", Files.writeString(tempDir.resolve("source"), CONTENT));
+            Files.createDirectories(backend.getRoot().resolve(".thumbnails"));
+            Files.writeString(backend.getRoot().resolve(".thumbnails").resolve("abcdef0123.jpg"), CONTENT);
+            Files.writeString(backend.getRoot().resolve("legacy.pdf"), CONTENT);
+
+            try (Stream<StoredObject> objects = backend.list()) {
+                assertThat(objects.map(StoredObject::getKey)).containsExactly("abcdef0123");
+            }
+        }
+    }
+
+    @Nested
+    @EnabledIfEnvironmentVariable(named = "NEXUS_S3_TEST_ENDPOINT", matches = ".+")
+    class S3 extends Contract {
+
+        @Override
+        StorageBackend backend() {
+            String bucket = System.getenv().getOrDefault("NEXUS_S3_TEST_BUCKET", "nexus-contract-tests");
+            S3Client client = S3Client.builder()
+                    .endpointOverride(URI.create(System.getenv("NEXUS_S3_TEST_ENDPOINT")))
+                    .region(Region.US_EAST_1)
+                    .forcePathStyle(true)
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(
+                            System.getenv().getOrDefault("NEXUS_S3_TEST_ACCESS_KEY", "minioadmin"),
+                            System.getenv().getOrDefault("NEXUS_S3_TEST_SECRET_KEY", "minioadmin"))))
+                    .build();
+            try {
+                client.createBucket(b -> b.bucket(bucket));
+            } catch (BucketAlreadyOwnedByYouException ex) {
+                // Reused between runs
+            }
+            return new S3StorageBackend(client, bucket, "contract/");
+        }
+    }
+}
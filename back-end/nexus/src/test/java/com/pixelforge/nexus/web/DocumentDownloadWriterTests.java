@@ -0,0 +1,305 @@
+package com.pixelforge.nexus.web;
+
+import com.pixelforge.nexus.exception.ResourceNotFoundException;
+import com.pixelforge.nexus.service.DocumentDownload;
+import com.pixelforge.nexus.storage.ContentCache;
+import com.pixelforge.nexus.storage.ContentCodec;
+import com.pixelforge.nexus.storage.LocalShardedStorageBackend;
+import com.pixelforge.nexus.storage.StorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentDownloadWriterTests {
+
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    private DocumentDownloadWriter writer;
+    private LocalShardedStorageBackend backend;
+    private DocumentDownload download;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        backend = new LocalShardedStorageBackend(tempDir.resolve("store"));
+        backend.put("doc.txt", Files.writeString(tempDir.resolve("doc.txt"), CONTENT));
+        download = downloadFrom(backend);
+        writer = new DocumentDownloadWriter();
+        ReflectionTestUtils.setField(writer, "sendfileThreshold", DataSize.ofKilobytes(48));
+        ReflectionTestUtils.setField(writer, "cacheMaxAge", Duration.ofDays(365));
+        ReflectionTestUtils.setField(writer, "contentCache", new ContentCache(false, DataSize.ofMegabytes(1),
+                DataSize.ofKilobytes(64)));
+    }
+
+    @Test
+    void servesWholeFileWithoutRange() throws Exception {
+        MockHttpServletResponse response = write(new MockHttpServletRequest("GET", "/"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("max-age=31536000, private, immutable");
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", "\"other\", W/\"abc\"");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"abc\"");
+        assertThat(response.getHeader("Cache-Control")).contains("immutable");
+        assertThat(response.getContentLength()).isZero();
+    }
+
+    @Test
+    void answersIfModifiedSinceWithNotModifiedUnlessEntityTagsDiffer() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-Modified-Since", "Tue, 14 Nov 2023 22:13:20 GMT");
+        assertThat(write(request).getStatus()).isEqualTo(304);
+
+        // If-None-Match takes precedence over the date
+        request.addHeader("If-None-Match", "\"stale\"");
+        MockHttpServletResponse response = write(request);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void answersConditionalRequestsWithoutTouchingStorage() throws Exception {
+        backend.delete("doc.txt");
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/");
+        conditional.addHeader("If-None-Match", "\"abc\"");
+        assertThat(write(conditional).getStatus()).isEqualTo(304);
+
+        assertThatThrownBy(() -> write(new MockHttpServletRequest("GET", "/")))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void revalidatesDownloadsWhoseUrlDoesNotPinTheContent() throws Exception {
+        download = new DocumentDownload(backend, "doc.txt", CONTENT.length(), null, CONTENT.length(),
+                "text/plain", "doc.txt", LAST_MODIFIED, "\"abc\"", false);
+
+        MockHttpServletResponse response = write(new MockHttpServletRequest("GET", "/"));
+
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("no-cache, private");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"abc\"");
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void streamsRebuiltBodiesWholeIgnoringRange() throws Exception {
+        download = DocumentDownload.rebuilt(CONTENT.length(), "text/plain", "doc.txt", LAST_MODIFIED, "\"v1\"",
+                out -> out.write(CONTENT.getBytes(StandardCharsets.UTF_8)));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=0-9");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("none");
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void servesSmallFilesFromTheMemoryCache() throws Exception {
+        ContentCache contentCache = new ContentCache(true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        ReflectionTestUtils.setField(writer, "contentCache", contentCache);
+        write(new MockHttpServletRequest("GET", "/"));
+
+        // Later reads, ranged or not, no longer touch storage
+        backend.delete("doc.txt");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=10-15");
+        MockHttpServletResponse whole = write(new MockHttpServletRequest("GET", "/"));
+        MockHttpServletResponse range = write(request);
+
+        assertThat(whole.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(range.getContentAsString()).isEqualTo("abcdef");
+        assertThat(contentCache.snapshot().getHits()).isEqualTo(2);
+        assertThat(contentCache.snapshot().getBytesServed()).isEqualTo(2L * CONTENT.length() + 6);
+
+        contentCache.evict("doc.txt");
+        assertThatThrownBy(() -> write(new MockHttpServletRequest("GET", "/")))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void servesSingleRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=10-15");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 10-15/36");
+        assertThat(response.getContentAsString()).isEqualTo("abcdef");
+    }
+
+    @Test
+    void servesSuffixRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=-4");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("wxyz");
+    }
+
+    @Test
+    void servesMultipleRangesAsMultipart() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=0-1,30-31");
+
+        MockHttpServletResponse response = write(request);
+
+        String body = response.getContentAsString(StandardCharsets.US_ASCII);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        assertThat(body).contains("Content-Range: bytes 0-1/36\r\n\r\n01");
+        assertThat(body).contains("Content-Range: bytes 30-31/36\r\n\r\nuv");
+        assertThat(response.getContentLengthLong()).isEqualTo(body.length());
+    }
+
+    @Test
+    void rejectsUnsatisfiableRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=100-200");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */36");
+    }
+
+    @Test
+    void ignoresRangeWhenIfRangeIsStale() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=0-3");
+        request.addHeader("If-Range", "\"other\"");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void honoursRangeWhenIfRangeMatches() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=0-3");
+        request.addHeader("If-Range", "\"abc\"");
+
+        assertThat(write(request).getStatus()).isEqualTo(206);
+    }
+
+    @Test
+    void streamsRangesFromRemoteBackend() throws Exception {
+        StorageBackend remote = new LocalShardedStorageBackend(backend.getRoot()) {
+            @Override
+            public Optional<Path> localPath(String key) {
+                return Optional.empty();
+            }
+        };
+        download = downloadFrom(remote);
+
+        MockHttpServletRequest single = new MockHttpServletRequest("GET", "/");
+        single.addHeader("Range", "bytes=10-15");
+        assertThat(write(single).getContentAsString()).isEqualTo("abcdef");
+
+        MockHttpServletRequest multiple = new MockHttpServletRequest("GET", "/");
+        multiple.addHeader("Range", "bytes=0-1,30-31");
+        MockHttpServletResponse response = write(multiple);
+        String body = response.getContentAsString(StandardCharsets.US_ASCII);
+        assertThat(body).contains("Content-Range: bytes 30-31/36\r\n\r\nuv");
+        assertThat(response.getContentLengthLong()).isEqualTo(body.length());
+    }
+
+    @Test
+    void sendsCompressedBytesToClientsAcceptingTheEncoding() throws Exception {
+        byte[] compressed = storeCompressed();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br, zstd");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("zstd");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"abc-zstd\"");
+        assertThat(response.getContentAsByteArray()).isEqualTo(compressed);
+
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/");
+        revalidation.addHeader("If-None-Match", "\"abc-zstd\"");
+        response = write(revalidation);
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"abc-zstd\"");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+    }
+
+    @Test
+    void decompressesForOtherClientsAndRanges() throws Exception {
+        storeCompressed();
+
+        MockHttpServletRequest plain = new MockHttpServletRequest("GET", "/");
+        plain.addHeader("Accept-Encoding", "gzip, zstd;q=0");
+        MockHttpServletResponse response = write(plain);
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+
+        MockHttpServletRequest ranged = new MockHttpServletRequest("GET", "/");
+        ranged.addHeader("Accept-Encoding", "zstd");
+        ranged.addHeader("Range", "bytes=10-15");
+        response = write(ranged);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("abcdef");
+    }
+
+    private byte[] storeCompressed() throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = ContentCodec.ZSTD.compress(buffer)) {
+            out.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] compressed = buffer.toByteArray();
+        backend.put("packed.txt", Files.write(tempDir.resolve("packed.txt"), compressed));
+        download = new DocumentDownload(backend, "packed.txt", CONTENT.length(), "zstd", compressed.length,
+                "text/plain", "doc.txt", LAST_MODIFIED, "\"abc\"", true);
+        return compressed;
+    }
+
+    private DocumentDownload downloadFrom(StorageBackend storageBackend) {
+        return new DocumentDownload(storageBackend, "doc.txt", CONTENT.length(), null, CONTENT.length(),
+                "text/plain", "doc.txt", LAST_MODIFIED, "\"abc\"", true);
+    }
+
+    private MockHttpServletResponse write(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(download, request, response);
+        return response;
+    }
+}
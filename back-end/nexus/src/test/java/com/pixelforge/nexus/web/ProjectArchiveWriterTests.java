@@ -0,0 +1,118 @@
+package com.pixelforge.nexus.web;
+
+import com.pixelforge.nexus.exception.FileStorageException;
+import com.pixelforge.nexus.service.ArchiveEntry;
+import com.pixelforge.nexus.service.ContentStoreService;
+import com.pixelforge.nexus.service.ProjectArchive;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProjectArchiveWriterTests {
+
+    private ContentStoreService contentStoreService;
+    private ProjectArchiveWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        contentStoreService = mock(ContentStoreService.class);
+        writer = new ProjectArchiveWriter();
+        ReflectionTestUtils.setField(writer, "contentStoreService", contentStoreService);
+        ReflectionTestUtils.setField(writer, "archiveExecutor", new SimpleAsyncTaskExecutor());
+        ReflectionTestUtils.setField(writer, "prefetchBuffer", DataSize.ofKilobytes(512));
+    }
+
+    @Test
+    void streamsAllEntriesInOrderWithUniqueNames() throws Exception {
+        byte[] large = new byte[700 * 1024];
+        new Random(42).nextBytes(large);
+        stub("a", "first".getBytes(StandardCharsets.UTF_8));
+        stub("b", large);
+        stub("c", "second".getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletResponse response = write(List.of(
+                entry("notes.txt", "a", "text/plain"),
+                entry("photo.jpg", "b", "image/jpeg"),
+                entry("notes.txt", "c", "text/plain")));
+
+        assertThat(response.getContentType()).isEqualTo("application/zip");
+        assertThat(response.getHeader("Content-Disposition")).contains("attachment").contains("Demo.zip");
+
+        Map<String, byte[]> entries = unzip(response.getContentAsByteArray());
+        assertThat(entries.keySet()).containsExactly("notes.txt", "photo.jpg", "notes (2).txt");
+        assertThat(entries.get("notes.txt")).isEqualTo("first".getBytes(StandardCharsets.UTF_8));
+        assertThat(entries.get("photo.jpg")).isEqualTo(large);
+        assertThat(entries.get("notes (2).txt")).isEqualTo("second".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void skipsFilesMissingFromStorage() throws Exception {
+        stub("a", "kept".getBytes(StandardCharsets.UTF_8));
+        when(contentStoreService.openContent(eq("gone"), any())).thenThrow(new FileStorageException("File not found"));
+
+        MockHttpServletResponse response = write(List.of(
+                entry("gone.txt", "gone", "text/plain"),
+                entry("kept.txt", "a", "text/plain")));
+
+        assertThat(unzip(response.getContentAsByteArray()).keySet()).containsExactly("kept.txt");
+    }
+
+    @Test
+    void streamsWithoutReadAheadWhenExecutorIsBusy() throws Exception {
+        ReflectionTestUtils.setField(writer, "archiveExecutor", (TaskExecutor) task -> {
+            throw new TaskRejectedException("busy");
+        });
+        stub("a", "direct".getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletResponse response = write(List.of(entry("direct.txt", "a", "text/plain")));
+
+        assertThat(unzip(response.getContentAsByteArray()).get("direct.txt"))
+                .isEqualTo("direct".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void stub(String storageKey, byte[] content) {
+        when(contentStoreService.openContent(eq(storageKey), any()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(content));
+    }
+
+    private ArchiveEntry entry(String fileName, String storageKey, String contentType) {
+        return new ArchiveEntry(fileName, storageKey, "hash-" + storageKey, contentType, 0L);
+    }
+
+    private MockHttpServletResponse write(List<ArchiveEntry> entries) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(new ProjectArchive("Demo", entries), response);
+        return response;
+    }
+
+    private Map<String, byte[]> unzip(byte[] archive) throws Exception {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+}
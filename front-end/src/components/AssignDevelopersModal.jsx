@@ -1,50 +1,98 @@
 import React, { useState, useEffect } from 'react';
-import { X, Users } from 'lucide-react';
+import { X, Users, Search } from 'lucide-react';
 import api from '../services/api';
 
+const SUGGEST_DELAY_MS = 150;
+
 const AssignDevelopersModal = ({ project, onClose, onAssigned }) => {
-  const [developers, setDevelopers] = useState([]);
-  const [selectedDeveloperIds, setSelectedDeveloperIds] = useState(new Set());
+  const [query, setQuery] = useState('');
+  const [suggestions, setSuggestions] = useState([]);
+  // Selected developers by id, so they stay listed while the search changes
+  const [selectedDevelopers, setSelectedDevelopers] = useState(
+    () => new Map((project.assignedDevelopers || []).map(dev => [dev.id, dev]))
+  );
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState('');
 
   useEffect(() => {
-    fetchDevelopers();
-    initializeSelectedDevelopers();
-  }, []);
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const response = await api.get('/users/developers/suggest', {
+          params: { prefix: query.trim() }
+        });
+        if (!cancelled) {
+          setSuggestions(response.data);
+        }
+      } catch (error) {
+        console.error('Error fetching developers:', error);
+      }
+    }, SUGGEST_DELAY_MS);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [query]);
 
-  const fetchDevelopers = async () => {
-    try {
-      const response = await api.get('/users/developers');
-      setDevelopers(response.data);
-    } catch (error) {
-      console.error('Error fetching developers:', error);
+  const handleDeveloperToggle = (developer) => {
+    const newSelected = new Map(selectedDevelopers);
+    if (newSelected.has(developer.id)) {
+      newSelected.delete(developer.id);
+    } else {
+      newSelected.set(developer.id, developer);
     }
+    setSelectedDevelopers(newSelected);
   };
 
-  const initializeSelectedDevelopers = () => {
-    if (project.assignedDevelopers) {
-      const currentIds = new Set(project.assignedDevelopers.map(dev => dev.id));
-      setSelectedDeveloperIds(currentIds);
-    }
+  const formatDate = (dateString) => {
+    return new Date(dateString).toLocaleDateString('en-US', {
+      month: 'short',
+      day: 'numeric'
+    });
   };
 
-  const handleDeveloperToggle = (developerId) => {
-    const newSelected = new Set(selectedDeveloperIds);
-    if (newSelected.has(developerId)) {
-      newSelected.delete(developerId);
-    } else {
-      newSelected.add(developerId);
-    }
-    setSelectedDeveloperIds(newSelected);
-  };
+  const renderDeveloper = (developer) => (
+    <div
+      key={developer.id}
+      className={`checkbox-item ${selectedDevelopers.has(developer.id) ? 'selected' : ''}`}
+      onClick={() => handleDeveloperToggle(developer)}
+    >
+      <input
+        type="checkbox"
+        checked={selectedDevelopers.has(developer.id)}
+        onChange={() => handleDeveloperToggle(developer)}
+        disabled={loading}
+      />
+      <div className="user-info">
+        <div className="user-name">
+          {developer.firstName} {developer.lastName}
+        </div>
+        <div className="user-role">
+          {developer.username}
+        </div>
+        {developer.workload && (
+          <div className="developer-workload">
+            {developer.workload.activeProjects} active
+            {developer.workload.overdueProjects > 0 && (
+              <span className="overdue"> · {developer.workload.overdueProjects} overdue</span>
+            )}
+            {developer.workload.nearestDeadline && (
+              <span> · next due {formatDate(developer.workload.nearestDeadline)}</span>
+            )}
+          </div>
+        )}
+      </div>
+    </div>
+  );
+
+  const unselectedSuggestions = suggestions.filter(dev => !selectedDevelopers.has(dev.id));
 
   const handleSubmit = async (e) => {
     e.preventDefault();
     setLoading(true);
     setError('');
 
-    if (selectedDeveloperIds.size === 0) {
+    if (selectedDevelopers.size === 0) {
       setError('Please select at least one developer');
       setLoading(false);
       return;
@@ -52,7 +100,7 @@ const AssignDevelopersModal = ({ project, onClose, onAssigned }) => {
 
     try {
       const response = await api.put(`/projects/${project.id}/assign`, {
-        developerIds: Array.from(selectedDeveloperIds)
+        developerIds: Array.from(selectedDevelopers.keys())
       });
       onAssigned(response.data);
     } catch (error) {
@@ -81,39 +129,31 @@ const AssignDevelopersModal = ({ project, onClose, onAssigned }) => {
             )}
 
             <div className="form-group">
-              <label>Select Developers</label>
+              <label htmlFor="developer-search">Select Developers</label>
+              <div className="search-input">
+                <Search size={16} />
+                <input
+                  id="developer-search"
+                  type="text"
+                  value={query}
+                  onChange={(e) => setQuery(e.target.value)}
+                  placeholder="Search by username or name"
+                  autoComplete="off"
+                  disabled={loading}
+                />
+              </div>
               <div className="checkbox-group">
-                {developers.map(developer => (
-                  <div 
-                    key={developer.id} 
-                    className={`checkbox-item ${selectedDeveloperIds.has(developer.id) ? 'selected' : ''}`}
-                    onClick={() => handleDeveloperToggle(developer.id)}
-                  >
-                    <input
-                      type="checkbox"
-                      checked={selectedDeveloperIds.has(developer.id)}
-                      onChange={() => handleDeveloperToggle(developer.id)}
-                      disabled={loading}
-                    />
-                    <div className="user-info">
-                      <div className="user-name">
-                        {developer.firstName} {developer.lastName}
-                      </div>
-                      <div className="user-role">
-                        {developer.username}
-                      </div>
-                    </div>
-                  </div>
-                ))}
+                {Array.from(selectedDevelopers.values()).map(renderDeveloper)}
+                {unselectedSuggestions.map(renderDeveloper)}
               </div>
-              {developers.length === 0 && (
-                <p className="no-developers">No developers available</p>
+              {selectedDevelopers.size === 0 && unselectedSuggestions.length === 0 && (
+                <p className="no-developers">No developers found</p>
               )}
             </div>
 
             <div className="assignment-summary">
               <Users size={16} />
-              <span>{selectedDeveloperIds.size} developer(s) selected</span>
+              <span>{selectedDevelopers.size} developer(s) selected</span>
             </div>
           </div>
 
@@ -129,7 +169,7 @@ const AssignDevelopersModal = ({ project, onClose, onAssigned }) => {
             <button 
               type="submit" 
               className="btn btn-primary"
-              disabled={loading || selectedDeveloperIds.size === 0}
+              disabled={loading || selectedDevelopers.size === 0}
             >
               {loading ? 'Assigning...' : 'Assign Developers'}
             </button>
@@ -5,6 +5,7 @@ import Navigation from './Navigation';
 import ProjectCard from './ProjectCard';
 import CreateProjectModal from './CreateProjectModal';
 import api from '../services/api';
+import { subscribeToChanges } from '../services/changeFeed';
 import { Plus, Calendar, Users, FolderOpen, AlertTriangle } from 'lucide-react';
 
 const Dashboard = () => {
@@ -27,6 +28,17 @@ const Dashboard = () => {
     }
   }, [user]);
 
+  useEffect(() => {
+    if (!user) return undefined;
+    return subscribeToChanges(({ type }) => {
+      // Any change can move a card or its document count; ready follows a (re)connect
+      fetchProjects();
+      if (type !== 'ready' && user.role === 'ADMIN') {
+        fetchStats();
+      }
+    });
+  }, [user]);
+
   const fetchProjects = async () => {
     try {
       const response = await api.get('/projects');
@@ -0,0 +1,62 @@
+import React, { useState, useEffect } from 'react';
+import api from '../services/api';
+import { FileText } from 'lucide-react';
+
+// Thumbnails need the Authorization header, so they are fetched as blobs rather than
+// loaded through <img src>. The file name in the URL versions it, which lets the
+// browser cache answer repeat visits (the server marks thumbnails immutable).
+const DocumentThumbnail = ({ document }) => {
+  const [src, setSrc] = useState(null);
+
+  useEffect(() => {
+    if (!document.image && !document.pdf) {
+      return undefined;
+    }
+
+    let objectUrl = null;
+    let cancelled = false;
+    let retryTimer = null;
+
+    const load = async (attempt) => {
+      try {
+        const response = await api.get(`/documents/${document.id}/thumbnail`, {
+          params: { v: document.fileName },
+          responseType: 'blob'
+        });
+        if (!cancelled) {
+          objectUrl = URL.createObjectURL(response.data);
+          setSrc(objectUrl);
+        }
+      } catch (error) {
+        // 503 means the thumbnail is still being rendered
+        if (!cancelled && error.response?.status === 503 && attempt < 3) {
+          retryTimer = setTimeout(() => load(attempt + 1), 2000);
+        }
+      }
+    };
+
+    load(0);
+
+    return () => {
+      cancelled = true;
+      clearTimeout(retryTimer);
+      if (objectUrl) {
+        URL.revokeObjectURL(objectUrl);
+      }
+    };
+  }, [document.id, document.fileName, document.image, document.pdf]);
+
+  if (!src) {
+    return <FileText size={20} />;
+  }
+
+  return (
+    <img
+      src={src}
+      alt={document.originalFileName}
+      style={{ width: 48, height: 48, objectFit: 'cover', borderRadius: 4 }}
+    />
+  );
+};
+
+export default DocumentThumbnail;
@@ -2,18 +2,24 @@ import React, { useState } from 'react';
 import { X, Upload, FileText } from 'lucide-react';
 import api from '../services/api';
 
+// Files above this size go through the resumable chunked upload protocol
+const RESUMABLE_THRESHOLD = 10 * 1024 * 1024;
+const MAX_FILE_SIZE = 2 * 1024 * 1024 * 1024;
+const PARALLEL_CHUNKS = 3;
+
 const DocumentUploadModal = ({ projectId, onClose, onUploaded }) => {
   const [file, setFile] = useState(null);
   const [description, setDescription] = useState('');
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState('');
   const [dragOver, setDragOver] = useState(false);
+  const [progress, setProgress] = useState(null);
 
   const handleFileSelect = (selectedFile) => {
     if (selectedFile) {
-      // Validate file size (10MB limit)
-      if (selectedFile.size > 10 * 1024 * 1024) {
-        setError('File size must be less than 10MB');
+      // Validate file size (2GB limit)
+      if (selectedFile.size > MAX_FILE_SIZE) {
+        setError('File size must be less than 2GB');
         return;
       }
       
@@ -57,6 +63,45 @@ const DocumentUploadModal = ({ projectId, onClose, onUploaded }) => {
     setDragOver(false);
   };
 
+  const uploadResumable = async () => {
+    const { data: session } = await api.post(`/documents/projects/${projectId}/uploads`, {
+      fileName: file.name,
+      contentType: file.type,
+      fileSize: file.size,
+      description: description || null,
+    });
+
+    const offsets = [];
+    for (let offset = 0; offset < session.fileSize; offset += session.chunkSize) {
+      offsets.push(offset);
+    }
+
+    let sent = 0;
+    const sendNext = async () => {
+      while (offsets.length > 0) {
+        const offset = offsets.shift();
+        const chunk = file.slice(offset, Math.min(offset + session.chunkSize, file.size));
+        // Retry a failed chunk a few times before giving up; earlier chunks are kept server-side
+        for (let attempt = 1; ; attempt++) {
+          try {
+            await api.put(`/documents/uploads/${session.uploadId}?offset=${offset}`, chunk, {
+              headers: { 'Content-Type': 'application/octet-stream' },
+            });
+            break;
+          } catch (err) {
+            if (attempt >= 3) throw err;
+          }
+        }
+        sent += 1;
+        setProgress(Math.round((sent / session.totalChunks) * 100));
+      }
+    };
+
+    await Promise.all(Array.from({ length: PARALLEL_CHUNKS }, sendNext));
+    const response = await api.post(`/documents/uploads/${session.uploadId}/complete`);
+    return response.data;
+  };
+
   const handleSubmit = async (e) => {
     e.preventDefault();
     if (!file) {
@@ -67,6 +112,18 @@ const DocumentUploadModal = ({ projectId, onClose, onUploaded }) => {
     setLoading(true);
     setError('');
 
+    if (file.size > RESUMABLE_THRESHOLD) {
+      try {
+        onUploaded(await uploadResumable());
+      } catch (error) {
+        setError(error.response?.data?.message || 'Failed to upload document');
+      } finally {
+        setLoading(false);
+        setProgress(null);
+      }
+      return;
+    }
+
     const formData = new FormData();
     formData.append('file', file);
     if (description) {
@@ -142,7 +199,7 @@ const DocumentUploadModal = ({ projectId, onClose, onUploaded }) => {
                   <div className="drop-zone-content">
                     <Upload size={32} />
                     <p>Drag and drop a file here, or click to select</p>
-                    <small>Supports: PDF, Word, Excel, Text, Images (Max 10MB)</small>
+                    <small>Supports: PDF, Word, Excel, Text, Images (Max 2GB)</small>
                   </div>
                 )}
                 <input
@@ -192,7 +249,7 @@ const DocumentUploadModal = ({ projectId, onClose, onUploaded }) => {
               className="btn btn-primary"
               disabled={loading || !file}
             >
-              {loading ? 'Uploading...' : 'Upload Document'}
+              {loading ? (progress !== null ? `Uploading... ${progress}%` : 'Uploading...') : 'Upload Document'}
             </button>
           </div>
         </form>
@@ -1,5 +1,5 @@
 import React from 'react';
-import { Calendar, Users, FileText, AlertTriangle, CheckCircle } from 'lucide-react';
+import { Calendar, Users, FileText, HardDrive, AlertTriangle, CheckCircle } from 'lucide-react';
 
 const ProjectCard = ({ project, onClick }) => {
   const formatDate = (dateString) => {
@@ -10,6 +10,12 @@ const ProjectCard = ({ project, onClick }) => {
     });
   };
 
+  const formatStorage = (bytes) => {
+    if (bytes < 1024 * 1024) return (bytes / 1024).toFixed(1) + ' KB';
+    if (bytes < 1024 * 1024 * 1024) return (bytes / (1024 * 1024)).toFixed(1) + ' MB';
+    return (bytes / (1024 * 1024 * 1024)).toFixed(1) + ' GB';
+  };
+
   const getStatusBadge = () => {
     if (project.status === 'COMPLETED') {
       return <span className="status-badge completed"><CheckCircle size={14} />Completed</span>;
@@ -46,6 +52,14 @@ const ProjectCard = ({ project, onClick }) => {
           <FileText size={16} />
           <span>{project.documentCount} documents</span>
         </div>
+
+        <div className="meta-item">
+          <HardDrive size={16} />
+          <span>
+            {formatStorage(project.storageUsed)}
+            {project.storageQuota ? ` of ${formatStorage(project.storageQuota)}` : ''} used
+          </span>
+        </div>
       </div>
       
       {project.assignedDevelopers && project.assignedDevelopers.length > 0 && (
@@ -4,7 +4,9 @@ import { useAuth } from '../contexts/AuthContext';
 import Navigation from './Navigation';
 import AssignDevelopersModal from './AssignDevelopersModal';
 import DocumentUploadModal from './DocumentUploadModal';
+import DocumentThumbnail from './DocumentThumbnail';
 import api from '../services/api';
+import { subscribeToChanges } from '../services/changeFeed';
 import { 
   ArrowLeft, 
   Calendar, 
@@ -24,6 +26,8 @@ const ProjectDetails = () => {
   const { user } = useAuth();
   const [project, setProject] = useState(null);
   const [documents, setDocuments] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [showAssignModal, setShowAssignModal] = useState(false);
   const [showUploadModal, setShowUploadModal] = useState(false);
@@ -33,6 +37,24 @@ const ProjectDetails = () => {
     fetchDocuments();
   }, [id]);
 
+  useEffect(() => {
+    return subscribeToChanges(({ type, data }) => {
+      if (type === 'ready') {
+        fetchProjectDetails();
+        fetchDocuments();
+        return;
+      }
+      if (String(data?.projectId) !== String(id)) return;
+      if (type === 'PROJECT_DELETED') {
+        navigate('/dashboard');
+      } else if (type.startsWith('DOCUMENT_')) {
+        fetchDocuments();
+      } else {
+        fetchProjectDetails();
+      }
+    });
+  }, [id]);
+
   const fetchProjectDetails = async () => {
     try {
       const response = await api.get(`/projects/${id}`);
@@ -45,15 +67,24 @@ const ProjectDetails = () => {
     }
   };
 
-  const fetchDocuments = async () => {
+  const fetchDocuments = async (cursor = null) => {
     try {
-      const response = await api.get(`/documents/projects/${id}`);
-      setDocuments(response.data);
+      const response = await api.get(`/documents/projects/${id}`, {
+        params: cursor ? { cursor } : {}
+      });
+      setDocuments(prev => cursor ? [...prev, ...response.data.documents] : response.data.documents);
+      setNextCursor(response.data.nextCursor);
     } catch (error) {
       console.error('Error fetching documents:', error);
     }
   };
 
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    await fetchDocuments(nextCursor);
+    setLoadingMore(false);
+  };
+
   const handleAssignDevelopers = (updatedProject) => {
     setProject(updatedProject);
     setShowAssignModal(false);
@@ -64,22 +95,42 @@ const ProjectDetails = () => {
     setShowUploadModal(false);
   };
 
-  const handleDownloadDocument = async (documentId, fileName) => {
+  const handleDownloadDocument = async (document) => {
     try {
-      const response = await api.get(`/documents/${documentId}/download`, {
+      const response = await api.get(`/documents/${document.id}/download`, {
+        params: { v: document.fileName },
         responseType: 'blob'
       });
       
       const url = window.URL.createObjectURL(new Blob([response.data]));
+      const link = window.document.createElement('a');
+      link.href = url;
+      link.setAttribute('download', document.originalFileName);
+      window.document.body.appendChild(link);
+      link.click();
+      link.remove();
+      window.URL.revokeObjectURL(url);
+    } catch (error) {
+      console.error('Error downloading document:', error);
+    }
+  };
+
+  const handleDownloadArchive = async () => {
+    try {
+      const response = await api.get(`/documents/projects/${id}/archive`, {
+        responseType: 'blob'
+      });
+
+      const url = window.URL.createObjectURL(new Blob([response.data], { type: 'application/zip' }));
       const link = document.createElement('a');
       link.href = url;
-      link.setAttribute('download', fileName);
+      link.setAttribute('download', `${project.name}.zip`);
       document.body.appendChild(link);
       link.click();
       link.remove();
       window.URL.revokeObjectURL(url);
     } catch (error) {
-      console.error('Error downloading document:', error);
+      console.error('Error downloading project archive:', error);
     }
   };
 
@@ -235,7 +286,7 @@ const ProjectDetails = () => {
                 <FileText size={18} />
                 <div>
                   <strong>Documents</strong>
-                  <p>{documents.length} files</p>
+                  <p>{documents.length}{nextCursor ? '+' : ''} files</p>
                 </div>
               </div>
             </div>
@@ -266,7 +317,17 @@ const ProjectDetails = () => {
         <div className="documents-section">
           <div className="section-header">
             <h3>Project Documents</h3>
-            <span className="document-count">{documents.length} files</span>
+            <span className="document-count">{documents.length}{nextCursor ? '+' : ''} files</span>
+            {documents.length > 0 && (
+              <button
+                className="btn btn-secondary"
+                onClick={handleDownloadArchive}
+                title="Download all documents as ZIP"
+              >
+                <Download size={16} />
+                Download all
+              </button>
+            )}
           </div>
 
           {documents.length === 0 ? (
@@ -281,10 +342,15 @@ const ProjectDetails = () => {
                 <div key={document.id} className="document-card">
                   <div className="document-info">
                     <div className="document-icon">
-                      <FileText size={20} />
+                      <DocumentThumbnail document={document} />
                     </div>
                     <div className="document-details">
-                      <h4>{document.originalFileName}</h4>
+                      <h4>
+                        {document.originalFileName}
+                        {document.versionNumber > 1 && (
+                          <span className="version-badge">v{document.versionNumber}</span>
+                        )}
+                      </h4>
                       <p>
                         {formatFileSize(document.fileSize)} • 
                         Uploaded by {document.uploadedBy.firstName} {document.uploadedBy.lastName} • 
@@ -298,7 +364,7 @@ const ProjectDetails = () => {
                   <div className="document-actions">
                     <button 
                       className="btn-icon"
-                      onClick={() => handleDownloadDocument(document.id, document.originalFileName)}
+                      onClick={() => handleDownloadDocument(document)}
                       title="Download"
                     >
                       <Download size={16} />
@@ -317,6 +383,18 @@ const ProjectDetails = () => {
               ))}
             </div>
           )}
+
+          {nextCursor && (
+            <div className="load-more">
+              <button
+                className="btn btn-secondary"
+                onClick={handleLoadMore}
+                disabled={loadingMore}
+              >
+                {loadingMore ? 'Loading...' : 'Load more'}
+              </button>
+            </div>
+          )}
         </div>
 
         {showAssignModal && (
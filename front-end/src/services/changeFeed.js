@@ -0,0 +1,79 @@
+import api from './api';
+
+const MAX_RETRY_DELAY = 30000;
+
+// Reads the server-sent change feed with fetch, since EventSource cannot send the Authorization header.
+// onEvent gets { type, data } for every event, including 'ready' after each (re)connect.
+// Returns a function that closes the feed.
+export const subscribeToChanges = (onEvent) => {
+  let controller = null;
+  let closed = false;
+  let retryDelay = 1000;
+  let retryTimer = null;
+
+  const dispatch = (block) => {
+    let type = 'message';
+    const data = [];
+    block.split('\n').forEach((line) => {
+      if (line.startsWith(':')) return; // heartbeat
+      const colon = line.indexOf(':');
+      const field = colon < 0 ? line : line.slice(0, colon);
+      const value = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '');
+      if (field === 'event') type = value;
+      if (field === 'data') data.push(value);
+    });
+    if (data.length === 0) return;
+    const text = data.join('\n');
+    let parsed = text;
+    try {
+      parsed = JSON.parse(text);
+    } catch {
+      // Plain text data
+    }
+    onEvent({ type, data: parsed });
+  };
+
+  const connect = async () => {
+    const token = localStorage.getItem('token');
+    if (!token || closed) return;
+    controller = new AbortController();
+    try {
+      const response = await fetch(`${api.defaults.baseURL}/changes`, {
+        headers: { Authorization: `Bearer ${token}`, Accept: 'text/event-stream' },
+        signal: controller.signal,
+      });
+      if (response.status === 401) return;
+      if (!response.ok) throw new Error(`Change feed failed with ${response.status}`);
+
+      retryDelay = 1000;
+      const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+      let buffer = '';
+      for (;;) {
+        const { value, done } = await reader.read();
+        if (done) break;
+        buffer += value.replace(/\r\n?/g, '\n');
+        let end;
+        while ((end = buffer.indexOf('\n\n')) >= 0) {
+          dispatch(buffer.slice(0, end));
+          buffer = buffer.slice(end + 2);
+        }
+      }
+    } catch (error) {
+      if (closed) return;
+      console.error('Change feed disconnected:', error);
+    }
+    if (!closed) {
+      // The server closes idle feeds and drops clients that fall behind; reconnect and refetch on 'ready'
+      retryTimer = setTimeout(connect, retryDelay);
+      retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+    }
+  };
+
+  connect();
+
+  return () => {
+    closed = true;
+    clearTimeout(retryTimer);
+    controller?.abort();
+  };
+};